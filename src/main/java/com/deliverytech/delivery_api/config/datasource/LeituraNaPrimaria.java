@@ -0,0 +1,34 @@
+package com.deliverytech.delivery_api.config.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Força a primária para as leituras de um trecho, mesmo em transações readOnly: o RoteamentoDataSource
+ * consulta esta marca a cada conexão obtida. Usado quando o resultado vai para um cache que sobrevive à
+ * requisição, em que a leitura atrasada da réplica ficaria armazenada depois da invalidação.
+ *
+ * A marca vale para a thread corrente; sem réplica configurada, não tem efeito.
+ */
+public final class LeituraNaPrimaria {
+
+    private static final ThreadLocal<Boolean> ATIVA = new ThreadLocal<>();
+
+    private LeituraNaPrimaria() {
+    }
+
+    public static <T> T executar(Supplier<T> leitura) {
+        if (isAtiva()) {
+            return leitura.get();
+        }
+        ATIVA.set(Boolean.TRUE);
+        try {
+            return leitura.get();
+        } finally {
+            ATIVA.remove();
+        }
+    }
+
+    public static boolean isAtiva() {
+        return ATIVA.get() != null;
+    }
+}
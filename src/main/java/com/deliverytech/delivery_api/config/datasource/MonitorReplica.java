@@ -0,0 +1,113 @@
+package com.deliverytech.delivery_api.config.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mede o atraso da réplica por heartbeat: a cada verificação, grava o instante atual na tabela
+ * replica_heartbeat da primária e lê o último instante que chegou à réplica pela replicação. A réplica
+ * só é considerada disponível enquanto o atraso medido não passar de atrasoMaximo; até a primeira
+ * verificação bem-sucedida, ou se a réplica não responder, as leituras vão para a primária.
+ *
+ * A tabela é a da entidade ReplicaHeartbeat, criada com o schema (não por este monitor), e chega à
+ * réplica pela replicação como as demais.
+ *
+ * O atraso é comparado com o relógio desta instância: com várias instâncias gravando o heartbeat, a
+ * diferença entre os relógios entra na medida.
+ */
+public class MonitorReplica {
+
+    private static final Logger logger = LoggerFactory.getLogger(MonitorReplica.class);
+    static final long SEM_MEDIDA = -1;
+
+    private final JdbcTemplate primaria;
+    private final JdbcTemplate replica;
+    private final Duration atrasoMaximo;
+    private final Duration intervalo;
+    private final Clock clock;
+    // Atraso da última verificação, em ms (SEM_MEDIDA se a réplica não respondeu ou não tem heartbeat)
+    private final AtomicLong atraso = new AtomicLong(SEM_MEDIDA);
+
+    private ScheduledExecutorService executor;
+
+    public MonitorReplica(DataSource primaria, DataSource replica, MeterRegistry meterRegistry,
+                          Duration atrasoMaximo, Duration intervalo) {
+        this(primaria, replica, meterRegistry, atrasoMaximo, intervalo, Clock.systemUTC());
+    }
+
+    MonitorReplica(DataSource primaria, DataSource replica, MeterRegistry meterRegistry,
+                   Duration atrasoMaximo, Duration intervalo, Clock clock) {
+        this.primaria = new JdbcTemplate(primaria);
+        this.replica = new JdbcTemplate(replica);
+        this.atrasoMaximo = atrasoMaximo;
+        this.intervalo = intervalo;
+        this.clock = clock;
+        Gauge.builder("delivery.datasource.replica.atraso", atraso, AtomicLong::get)
+                .description("Atraso medido da réplica de leitura (-1 se indisponível)")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    public void iniciar() {
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "monitor-replica");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::verificar, 0, intervalo.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void parar() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    public boolean isDisponivel() {
+        long medido = atraso.get();
+        return medido != SEM_MEDIDA && medido <= atrasoMaximo.toMillis();
+    }
+
+    /** Intervalo após uma escrita em que a réplica ainda pode não a ter recebido. */
+    public Duration janelaConsistencia() {
+        return atrasoMaximo.plus(intervalo);
+    }
+
+    long atrasoMedido() {
+        return atraso.get();
+    }
+
+    void verificar() {
+        try {
+            gravarHeartbeat();
+        } catch (Exception e) {
+            logger.warn("Falha ao gravar o heartbeat da réplica na primária: {}", e.getMessage());
+        }
+        try {
+            List<Long> instantes = replica.queryForList("SELECT instante FROM replica_heartbeat WHERE id = 1", Long.class);
+            atraso.set(instantes.isEmpty() ? SEM_MEDIDA : Math.max(0, clock.millis() - instantes.get(0)));
+        } catch (Exception e) {
+            atraso.set(SEM_MEDIDA);
+            logger.warn("Réplica de leitura indisponível, leituras seguem para a primária: {}", e.getMessage());
+        }
+    }
+
+    private void gravarHeartbeat() {
+        long agora = clock.millis();
+        if (primaria.update("UPDATE replica_heartbeat SET instante = ? WHERE id = 1", agora) == 0) {
+            primaria.update("INSERT INTO replica_heartbeat (id, instante) VALUES (1, ?)", agora);
+        }
+    }
+}
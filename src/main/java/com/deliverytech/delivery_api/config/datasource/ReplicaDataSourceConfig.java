@@ -0,0 +1,67 @@
+package com.deliverytech.delivery_api.config.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Réplica de leitura, ativada ao configurar delivery.datasource.replica.url. O DataSource da aplicação
+ * passa a ser um RoteamentoDataSource sobre dois pools: a primária (spring.datasource.*) e a réplica
+ * (delivery.datasource.replica.*, com o pool em delivery.datasource.replica.hikari.*). Sem a URL da
+ * réplica, nada muda: o DataSource é o configurado pelo Spring Boot.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "delivery.datasource.replica", name = "url")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primariaDataSource(DataSourceProperties propriedades) {
+        HikariDataSource dataSource = propriedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primaria");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("delivery.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(@Value("${delivery.datasource.replica.url}") String url,
+                                              @Value("${delivery.datasource.replica.username:${spring.datasource.username:}}") String usuario,
+                                              @Value("${delivery.datasource.replica.password:${spring.datasource.password:}}") String senha) {
+        HikariDataSource dataSource = DataSourceBuilder.create().type(HikariDataSource.class)
+                .url(url).username(usuario).password(senha).build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean(initMethod = "iniciar", destroyMethod = "parar")
+    public MonitorReplica monitorReplica(@Qualifier("primariaDataSource") DataSource primaria,
+                                         @Qualifier("replicaDataSource") DataSource replica,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${delivery.datasource.replica.atraso-maximo:PT2S}") Duration atrasoMaximo,
+                                         @Value("${delivery.datasource.replica.intervalo-verificacao:PT1S}") Duration intervalo) {
+        return new MonitorReplica(primaria, replica, meterRegistry, atrasoMaximo, intervalo);
+    }
+
+    // LazyConnectionDataSourceProxy: a escolha acontece no primeiro comando, com o flag readOnly já definido
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primariaDataSource") DataSource primaria,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 MonitorReplica monitorReplica,
+                                 MeterRegistry meterRegistry) {
+        return new LazyConnectionDataSourceProxy(new RoteamentoDataSource(primaria, replica, monitorReplica, meterRegistry));
+    }
+}
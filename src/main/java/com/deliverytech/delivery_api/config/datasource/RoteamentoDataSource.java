@@ -0,0 +1,116 @@
+package com.deliverytech.delivery_api.config.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Escolhe, a cada conexão obtida, entre a primária e a réplica de leitura. Vão para a réplica as
+ * transações readOnly, desde que:
+ * <ul>
+ *   <li>o MonitorReplica a considere disponível (atraso medido dentro do limite);</li>
+ *   <li>o usuário autenticado não tenha confirmado uma escrita há menos que a janela de consistência
+ *       (leia suas próprias escritas: logo após alterar um pedido, o usuário o relê da primária);</li>
+ *   <li>a leitura não esteja marcada por LeituraNaPrimaria (preenchimento de caches).</li>
+ * </ul>
+ * Todo o resto, inclusive o que roda fora de transação, usa a primária.
+ *
+ * Deve ser envolvido por um LazyConnectionDataSourceProxy: a conexão só é obtida no primeiro comando,
+ * quando o flag readOnly da transação já está definido.
+ */
+public class RoteamentoDataSource extends AbstractRoutingDataSource {
+
+    enum Destino { PRIMARIA, REPLICA }
+
+    private static final int MAX_USUARIOS_RASTREADOS = 10000;
+
+    private final MonitorReplica monitor;
+    private final Clock clock;
+    // Instante (ms) até o qual as leituras de cada usuário ficam na primária
+    private final Map<String, Long> leituraNaPrimariaAte = new ConcurrentHashMap<>();
+    private final Counter conexoesPrimaria;
+    private final Counter conexoesReplica;
+
+    public RoteamentoDataSource(DataSource primaria, DataSource replica, MonitorReplica monitor, MeterRegistry meterRegistry) {
+        this(primaria, replica, monitor, meterRegistry, Clock.systemUTC());
+    }
+
+    RoteamentoDataSource(DataSource primaria, DataSource replica, MonitorReplica monitor, MeterRegistry meterRegistry, Clock clock) {
+        this.monitor = monitor;
+        this.clock = clock;
+        this.conexoesPrimaria = conexoes(meterRegistry, "primaria");
+        this.conexoesReplica = conexoes(meterRegistry, "replica");
+        setTargetDataSources(Map.of(Destino.PRIMARIA, primaria, Destino.REPLICA, replica));
+        setDefaultTargetDataSource(primaria);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Destino destino = escolher();
+        (destino == Destino.REPLICA ? conexoesReplica : conexoesPrimaria).increment();
+        return destino;
+    }
+
+    private Destino escolher() {
+        String usuario = usuarioAtual();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (usuario != null && TransactionSynchronizationManager.isActualTransactionActive()) {
+                // Transação de escrita: após o commit, as leituras do usuário ficam na primária por um tempo
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        registrarEscrita(usuario);
+                    }
+                });
+            }
+            return Destino.PRIMARIA;
+        }
+        if (LeituraNaPrimaria.isAtiva() || !monitor.isDisponivel()) {
+            return Destino.PRIMARIA;
+        }
+        if (usuario != null) {
+            Long ate = leituraNaPrimariaAte.get(usuario);
+            if (ate != null) {
+                if (clock.millis() < ate) {
+                    return Destino.PRIMARIA;
+                }
+                leituraNaPrimariaAte.remove(usuario, ate);
+            }
+        }
+        return Destino.REPLICA;
+    }
+
+    private void registrarEscrita(String usuario) {
+        long agora = clock.millis();
+        if (leituraNaPrimariaAte.size() >= MAX_USUARIOS_RASTREADOS) {
+            leituraNaPrimariaAte.values().removeIf(ate -> ate <= agora);
+        }
+        leituraNaPrimariaAte.put(usuario, agora + monitor.janelaConsistencia().toMillis());
+    }
+
+    private static String usuarioAtual() {
+        Authentication autenticacao = SecurityContextHolder.getContext().getAuthentication();
+        if (autenticacao == null || !autenticacao.isAuthenticated() || autenticacao instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return autenticacao.getName();
+    }
+
+    private static Counter conexoes(MeterRegistry meterRegistry, String destino) {
+        return Counter.builder("delivery.datasource.conexoes")
+                .description("Conexões obtidas pelo roteamento entre primária e réplica")
+                .tag("destino", destino)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,21 @@
+package com.deliverytech.delivery_api.config.retry;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Repete o método (em uma nova transação) quando ele falha por conflito de versão (@Version),
+ * ou seja, quando outra transação alterou a mesma entidade entre a leitura e o commit.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RepetirEmConflito {
+
+    // Número máximo de execuções, incluindo a primeira
+    int tentativas() default 3;
+
+    // Espera base entre tentativas; cresce a cada tentativa e recebe um jitter aleatório
+    long esperaMs() default 20;
+}
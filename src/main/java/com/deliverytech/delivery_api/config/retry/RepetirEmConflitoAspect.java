@@ -0,0 +1,76 @@
+package com.deliverytech.delivery_api.config.retry;
+
+import com.deliverytech.delivery_api.exception.ConflictException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Aplica a política de @RepetirEmConflito. Roda antes (por fora) do interceptor de @Transactional,
+ * então cada tentativa relê a entidade em uma transação nova. Chamadas feitas dentro de uma transação
+ * já existente não são repetidas, pois a transação externa já está comprometida com o conflito.
+ *
+ * Métricas: delivery.concorrencia.conflitos{metodo, resultado=repetido|esgotado}.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RepetirEmConflitoAspect {
+
+    private static final Logger logger = LoggerFactory.getLogger(RepetirEmConflitoAspect.class);
+
+    private final MeterRegistry meterRegistry;
+
+    public RepetirEmConflitoAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("@annotation(com.deliverytech.delivery_api.config.retry.RepetirEmConflito)")
+    public Object repetir(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        RepetirEmConflito politica = ((MethodSignature) joinPoint.getSignature()).getMethod().getAnnotation(RepetirEmConflito.class);
+        String metodo = joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName();
+        for (int tentativa = 1; ; tentativa++) {
+            try {
+                return joinPoint.proceed();
+            } catch (OptimisticLockingFailureException e) {
+                if (tentativa >= politica.tentativas()) {
+                    contador(metodo, "esgotado").increment();
+                    logger.warn("Conflito de concorrência em {} persistiu após {} tentativa(s)", metodo, tentativa);
+                    throw new ConflictException("O recurso foi alterado por outra requisição. Tente novamente.", "versao", null);
+                }
+                contador(metodo, "repetido").increment();
+                logger.debug("Conflito de concorrência em {} (tentativa {}), repetindo", metodo, tentativa);
+                aguardar(politica.esperaMs() * tentativa);
+            }
+        }
+    }
+
+    private Counter contador(String metodo, String resultado) {
+        return Counter.builder("delivery.concorrencia.conflitos")
+                .description("Conflitos de versão (locking otimista) por operação")
+                .tag("metodo", metodo)
+                .tag("resultado", resultado)
+                .register(meterRegistry);
+    }
+
+    private void aguardar(long esperaMs) throws InterruptedException {
+        if (esperaMs > 0) {
+            Thread.sleep(esperaMs + ThreadLocalRandom.current().nextLong(esperaMs));
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.deliverytech.delivery_api.config.threads;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Detecta threads virtuais presas à thread carregadora (pinning): um bloqueio dentro de um bloco
+ * synchronized ou de código nativo impede a thread virtual de liberar a carregadora, e com poucas
+ * carregadoras (uma por CPU) isso limita a concorrência como um pool fixo. Os eventos
+ * jdk.VirtualThreadPinned do JFR acima de delivery.threads.pinning.limiar viram o timer
+ * delivery.threads.virtual.pinning, com a tag origem apontando o primeiro método fora do JDK na pilha
+ * (o nosso código ou o driver que bloqueou). Cada origem nova é registrada no log uma vez, com a pilha.
+ */
+@Component
+@ConditionalOnProperty(name = "delivery.threads.pinning.habilitado", havingValue = "true", matchIfMissing = true)
+public class MonitorPinning {
+
+    private static final Logger logger = LoggerFactory.getLogger(MonitorPinning.class);
+    static final String EVENTO = "jdk.VirtualThreadPinned";
+    private static final int MAX_ORIGENS = 50;
+    private static final int FRAMES_NO_LOG = 8;
+    private static final List<String> PACOTES_JDK = List.of("java.", "javax.", "jdk.", "sun.", "com.sun.");
+
+    private final MeterRegistry meterRegistry;
+    private final Duration limiar;
+    private final Map<String, Timer> porOrigem = new ConcurrentHashMap<>();
+    private RecordingStream stream;
+
+    public MonitorPinning(MeterRegistry meterRegistry,
+                          @Value("${delivery.threads.pinning.limiar:PT20MS}") Duration limiar) {
+        this.meterRegistry = meterRegistry;
+        this.limiar = limiar;
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        stream = new RecordingStream();
+        stream.enable(EVENTO).withThreshold(limiar).withStackTrace();
+        stream.onEvent(EVENTO, this::registrar);
+        stream.startAsync();
+        logger.info("Monitor de pinning de threads virtuais ativo (limiar {})", limiar);
+    }
+
+    @PreDestroy
+    public void parar() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    void registrar(RecordedEvent evento) {
+        String origem = origem(evento.getStackTrace());
+        Timer timer = porOrigem.get(origem);
+        if (timer == null) {
+            if (porOrigem.size() >= MAX_ORIGENS) {
+                origem = "outras";
+            }
+            timer = porOrigem.computeIfAbsent(origem, this::novoTimer);
+            if (!origem.equals("outras")) {
+                logger.warn("Thread virtual presa à carregadora por {} ms em {}:\n{}",
+                        evento.getDuration().toMillis(), origem, pilha(evento.getStackTrace()));
+            }
+        }
+        timer.record(evento.getDuration());
+    }
+
+    private Timer novoTimer(String origem) {
+        return Timer.builder("delivery.threads.virtual.pinning")
+                .description("Tempo em que threads virtuais ficaram presas à thread carregadora")
+                .tag("origem", origem)
+                .register(meterRegistry);
+    }
+
+    // Primeiro método fora do JDK (de baixo para cima a partir do topo da pilha)
+    static String origem(RecordedStackTrace pilha) {
+        if (pilha == null) {
+            return "desconhecida";
+        }
+        for (RecordedFrame frame : pilha.getFrames()) {
+            String classe = frame.getMethod().getType().getName();
+            if (PACOTES_JDK.stream().noneMatch(classe::startsWith)) {
+                return classe.substring(classe.lastIndexOf('.') + 1) + "." + frame.getMethod().getName();
+            }
+        }
+        return "jdk";
+    }
+
+    private static String pilha(RecordedStackTrace pilha) {
+        if (pilha == null) {
+            return "\t(sem pilha)";
+        }
+        return pilha.getFrames().stream().limit(FRAMES_NO_LOG)
+                .map(frame -> "\tat " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                        + ":" + frame.getLineNumber())
+                .collect(Collectors.joining("\n"));
+    }
+}
@@ -1,15 +1,27 @@
 package com.deliverytech.delivery_api.controller;
 
+import com.deliverytech.delivery_api.dto.AceitePedidoDTO;
 import com.deliverytech.delivery_api.dto.ApiResponseWrapper;
 import com.deliverytech.delivery_api.dto.CalculoPedidoDTO;
 import com.deliverytech.delivery_api.dto.CalculoPedidoResponseDTO;
 import com.deliverytech.delivery_api.dto.PagedResponseWrapper;
+import com.deliverytech.delivery_api.dto.PaginaCursorDTO;
 import com.deliverytech.delivery_api.dto.PedidoDTO;
+import com.deliverytech.delivery_api.dto.PedidoLoteDTO;
 import com.deliverytech.delivery_api.dto.PedidoResponseDTO;
+import com.deliverytech.delivery_api.dto.ResultadoLoteDTO;
+import com.deliverytech.delivery_api.dto.ResultadoStatusLoteDTO;
 import com.deliverytech.delivery_api.dto.StatusPedidoDTO;
+import com.deliverytech.delivery_api.dto.StatusPedidoLoteDTO;
 import com.deliverytech.delivery_api.entity.StatusPedido;
+import com.deliverytech.delivery_api.exception.EntityNotFoundException;
+import com.deliverytech.delivery_api.security.SecurityUtils;
+import com.deliverytech.delivery_api.service.EventosPedidoService;
+import com.deliverytech.delivery_api.service.FilaPedidosService;
+import com.deliverytech.delivery_api.service.IdempotencyService;
 import com.deliverytech.delivery_api.service.PedidoService;
 import com.deliverytech.delivery_api.service.MetricsService; // <-- IMPORT ADICIONADO
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.micrometer.core.instrument.Timer; // <-- IMPORT ADICIONADO
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -21,15 +33,31 @@ import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationDeniedException;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 @RestController
 @RequestMapping("/api/pedidos")
@@ -43,34 +71,114 @@ public class PedidoController {
     @Autowired
     private MetricsService metricsService; // <-- SERVIÇO DE MÉTRICAS INJETADO
 
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private FilaPedidosService filaPedidosService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EventosPedidoService eventosPedidoService;
+
     @PostMapping
     @PreAuthorize("hasRole('CLIENTE') or hasRole('ADMIN')") // Permiti ADMIN para facilitar os testes
     @Operation(summary = "Criar pedido", description = "Cria um novo pedido no sistema", security = @SecurityRequirement(name = "Bearer Authentication"))
     @ApiResponses({
             @ApiResponse(responseCode = "201", description = "Pedido criado com sucesso"),
+            @ApiResponse(responseCode = "202", description = "Pedido aceito para processamento (modo assíncrono)"),
             @ApiResponse(responseCode = "400", description = "Dados inválidos"),
             @ApiResponse(responseCode = "404", description = "Cliente ou restaurante não encontrado"),
-            @ApiResponse(responseCode = "409", description = "Produto indisponível")
+            @ApiResponse(responseCode = "409", description = "Produto indisponível"),
+            @ApiResponse(responseCode = "429", description = "Fila de pedidos cheia (modo assíncrono)")
     })
     public ResponseEntity<ApiResponseWrapper<PedidoResponseDTO>> criarPedido(
-            @Valid @RequestBody PedidoDTO dto) {
-        
-        metricsService.incrementarPedidosProcessados(); // Incrementa o total de tentativas
-        Timer.Sample sample = metricsService.iniciarTimerPedido(); // Inicia o timer
-        
-        try {
-            PedidoResponseDTO pedido = pedidoService.criarPedido(dto);
-            ApiResponseWrapper<PedidoResponseDTO> response = new ApiResponseWrapper<>(true, pedido,
-                    "Pedido criado com sucesso");
-            
-            metricsService.incrementarPedidosComSucesso(); // Incrementa sucesso
-            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            @Valid @RequestBody PedidoDTO dto,
+            @Parameter(description = "Chave para repetir a requisição com segurança; a resposta original é devolvida sem criar outro pedido.")
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+
+        return idempotencyService.executar("POST /api/pedidos", idempotencyKey, dto, () -> {
+            metricsService.incrementarPedidosProcessados(); // Incrementa o total de tentativas
+            Timer.Sample sample = metricsService.iniciarTimerPedido(); // Inicia o timer
+
+            try {
+                if (filaPedidosService.isHabilitado()) {
+                    return aceitarPedido(dto);
+                }
+                PedidoResponseDTO pedido = pedidoService.criarPedido(dto);
+                ApiResponseWrapper<PedidoResponseDTO> response = new ApiResponseWrapper<>(true, pedido,
+                        "Pedido criado com sucesso");
+
+                metricsService.incrementarPedidosComSucesso(); // Incrementa sucesso
+                return ResponseEntity.status(HttpStatus.CREATED).body(response);
+
+            } catch (Exception e) {
+                metricsService.incrementarPedidosComErro(); // Incrementa erro
+                throw e; // Relança a exceção para o handler global tratar
+            } finally {
+                metricsService.finalizarTimerPedido(sample); // Finaliza o timer (sempre)
+            }
+        });
+    }
+
+    // Modo assíncrono: só enfileira; a gravação (e a métrica de sucesso) fica a cargo da FilaPedidosService
+    private ResponseEntity<ApiResponseWrapper<PedidoResponseDTO>> aceitarPedido(PedidoDTO dto) {
+        String numeroPedido = filaPedidosService.aceitar(dto);
+        PedidoResponseDTO aceito = new PedidoResponseDTO();
+        aceito.setNumeroPedido(numeroPedido);
+        aceito.setStatus(StatusPedido.PENDENTE);
+        aceito.setDataPedido(LocalDateTime.now());
+        aceito.setEnderecoEntrega(dto.getEnderecoEntrega());
+        aceito.setObservacoes(dto.getObservacoes());
+        aceito.setClienteId(dto.getClienteId());
+        aceito.setRestauranteId(dto.getRestauranteId());
+        ApiResponseWrapper<PedidoResponseDTO> response = new ApiResponseWrapper<>(true, aceito,
+                "Pedido aceito para processamento");
+        return ResponseEntity.accepted().location(URI.create("/api/pedidos/aceites/" + numeroPedido)).body(response);
+    }
 
+    @GetMapping("/aceites/{numeroPedido}")
+    @PreAuthorize("hasRole('ADMIN') or @filaPedidosService.isAutor(#numeroPedido)")
+    @Operation(summary = "Situação de pedido aceito", description = "Consulta se um pedido aceito de forma assíncrona já foi gravado ou foi rejeitado. Apenas o usuário que fez o pedido (ou um ADMIN) pode consultá-lo.", security = @SecurityRequirement(name = "Bearer Authentication"))
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Situação encontrada."),
+            @ApiResponse(responseCode = "403", description = "Aceite feito por outro usuário, ou desconhecido."),
+            @ApiResponse(responseCode = "404", description = "Nenhum aceite recente com este número.")
+    })
+    public ResponseEntity<ApiResponseWrapper<AceitePedidoDTO>> buscarAceite(
+            @Parameter(description = "Número devolvido no aceite do pedido.") @PathVariable String numeroPedido) {
+        AceitePedidoDTO aceite = filaPedidosService.buscarAceite(numeroPedido)
+                .orElseThrow(() -> new EntityNotFoundException("Nenhum aceite recente para o pedido " + numeroPedido));
+        return ResponseEntity.ok(new ApiResponseWrapper<>(true, aceite, "Situação do pedido recuperada"));
+    }
+
+    @PostMapping("/lote")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Criar pedidos em lote", description = "Cria centenas de pedidos em uma única requisição (ingestão de parceiros). Cada pedido é validado individualmente e recebe seu próprio resultado.", security = @SecurityRequirement(name = "Bearer Authentication"))
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Lote processado; consulte o resultado de cada pedido"),
+            @ApiResponse(responseCode = "400", description = "Lote vazio ou acima do tamanho máximo")
+    })
+    public ResponseEntity<ApiResponseWrapper<ResultadoLoteDTO>> criarPedidosEmLote(
+            @Valid @RequestBody PedidoLoteDTO dto) {
+
+        metricsService.incrementarPedidosProcessados(dto.getPedidos().size());
+        Timer.Sample sample = metricsService.iniciarTimerPedido();
+
+        try {
+            ResultadoLoteDTO resultado = pedidoService.criarPedidosEmLote(dto.getPedidos());
+            metricsService.incrementarPedidosComSucesso(resultado.getSucessos());
+            metricsService.incrementarPedidosComErro(resultado.getFalhas());
+            ApiResponseWrapper<ResultadoLoteDTO> response = new ApiResponseWrapper<>(true, resultado,
+                    String.format("Lote processado: %d criado(s), %d rejeitado(s)", resultado.getSucessos(), resultado.getFalhas()));
+            return ResponseEntity.ok(response);
         } catch (Exception e) {
-            metricsService.incrementarPedidosComErro(); // Incrementa erro
-            throw e; // Relança a exceção para o handler global tratar
+            metricsService.incrementarPedidosComErro(dto.getPedidos().size());
+            throw e;
         } finally {
-            metricsService.finalizarTimerPedido(sample); // Finaliza o timer (sempre)
+            metricsService.finalizarTimerPedido(sample);
         }
     }
 
@@ -121,9 +229,23 @@ public class PedidoController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/{id}/eventos")
+    @PreAuthorize("hasRole('ADMIN') or @pedidoService.canAccessPedido(#id)")
+    @Operation(summary = "Acompanhar status do pedido", description = "Abre um stream Server-Sent Events com as mudanças de status do pedido, em vez de consultas repetidas a GET /api/pedidos/{id}. O primeiro evento (status) traz o status atual; os seguintes, cada transição. Comentários de heartbeat mantêm a conexão ativa, encerrada pelo servidor quando o pedido é entregue ou após o tempo limite (o EventSource reconecta sozinho). Disponível para o cliente do pedido, o dono do restaurante ou um ADMIN.", security = @SecurityRequirement(name = "Bearer Authentication"))
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Stream de eventos aberto."),
+            @ApiResponse(responseCode = "403", description = "Pedido de outro cliente ou restaurante."),
+            @ApiResponse(responseCode = "404", description = "Pedido não encontrado."),
+            @ApiResponse(responseCode = "429", description = "Limite de conexões de acompanhamento atingido.")
+    })
+    public SseEmitter acompanharStatus(
+            @Parameter(description = "ID do pedido a ser acompanhado.") @PathVariable Long id) {
+        return eventosPedidoService.assinar(id, () -> pedidoService.buscarPedidoPorId(id).getStatus());
+    }
+
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    @Operation(summary = "Listar pedidos", description = "Lista pedidos com filtros opcionais (status, data inicial e data final) e paginação.", security = @SecurityRequirement(name = "Bearer Authentication"))
+    @Operation(summary = "Listar pedidos", description = "Lista pedidos com filtros opcionais (status, data inicial e data final) e paginação. Com after ou before, usa paginação por cursor (mais recentes primeiro, sem total de elementos): envie after vazio para a primeira janela e siga os cursores devolvidos. Cobre apenas a tabela principal: pedidos finalizados já arquivados não aparecem (consulte-os por id, por número ou nas exportações NDJSON).", security = @SecurityRequirement(name = "Bearer Authentication"))
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Lista recuperada com sucesso.")
     })
@@ -131,11 +253,17 @@ public class PedidoController {
             @Parameter(description = "Status do pedido para filtro (PENDENTE, CONFIRMADO, etc.).") @RequestParam(required = false) StatusPedido status,
             @Parameter(description = "Data inicial para filtro de período (formato YYYY-MM-DD).") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
             @Parameter(description = "Data final para filtro de período (formato YYYY-MM-DD).") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim,
+            @Parameter(description = "Cursor da janela seguinte (paginação por cursor; vazio para a primeira janela).") @RequestParam(required = false) String after,
+            @Parameter(description = "Cursor da janela anterior (paginação por cursor).") @RequestParam(required = false) String before,
             @Parameter(description = "Parâmetros de paginação") Pageable pageable) {
 
         LocalDateTime inicio = (dataInicio != null) ? dataInicio.atStartOfDay() : null;
         LocalDateTime fim = (dataFim != null) ? dataFim.atTime(23, 59, 59, 999999999) : null;
 
+        if (after != null || before != null) {
+            PaginaCursorDTO<PedidoResponseDTO> pagina = pedidoService.listarPedidosPorCursor(status, inicio, fim, after, before, pageable.getPageSize());
+            return ResponseEntity.ok(new PagedResponseWrapper<>(pagina));
+        }
         Page<PedidoResponseDTO> pedidos = pedidoService.listarPedidos(status, inicio, fim, pageable);
         PagedResponseWrapper<PedidoResponseDTO> response = new PagedResponseWrapper<>(pedidos);
         return ResponseEntity.ok(response);
@@ -164,10 +292,36 @@ public class PedidoController {
     })
     public ResponseEntity<ApiResponseWrapper<PedidoResponseDTO>> atualizarStatus(
             @Parameter(description = "ID do pedido a ter o status atualizado.") @PathVariable Long id,
-            @Valid @RequestBody StatusPedidoDTO statusDTO) {
-        PedidoResponseDTO pedido = pedidoService.atualizarStatusPedido(id, statusDTO);
-        ApiResponseWrapper<PedidoResponseDTO> response = new ApiResponseWrapper<>(true, pedido,
-                "Status atualizado com sucesso");
+            @Valid @RequestBody StatusPedidoDTO statusDTO,
+            @Parameter(description = "Chave para repetir a requisição com segurança; a resposta original é devolvida sem nova atualização.")
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.executar("PATCH /api/pedidos/" + id + "/status", idempotencyKey, statusDTO, () -> {
+            PedidoResponseDTO pedido = pedidoService.atualizarStatusPedido(id, statusDTO);
+            ApiResponseWrapper<PedidoResponseDTO> response = new ApiResponseWrapper<>(true, pedido,
+                    "Status atualizado com sucesso");
+            return ResponseEntity.ok(response);
+        });
+    }
+
+    @PatchMapping("/status")
+    @PreAuthorize("hasRole('RESTAURANTE') or hasRole('ADMIN')")
+    @Operation(summary = "Atualizar status em lote", description = "Move vários pedidos para o mesmo status com uma única atualização. Pedidos com transição inválida são rejeitados individualmente; usuários de restaurante só alcançam os pedidos do próprio restaurante.", security = @SecurityRequirement(name = "Bearer Authentication"))
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Lote processado; consulte os pedidos atualizados e rejeitados"),
+            @ApiResponse(responseCode = "400", description = "Lista vazia, acima do tamanho máximo ou status ausente")
+    })
+    public ResponseEntity<ApiResponseWrapper<ResultadoStatusLoteDTO>> atualizarStatusEmLote(
+            @Valid @RequestBody StatusPedidoLoteDTO dto) {
+        Long restauranteId = null;
+        if (SecurityUtils.hasRole("RESTAURANTE")) {
+            restauranteId = SecurityUtils.getCurrentRestauranteld();
+            if (restauranteId == null) {
+                throw new AuthorizationDeniedException("Usuário não está vinculado a um restaurante", new AuthorizationDecision(false));
+            }
+        }
+        ResultadoStatusLoteDTO resultado = pedidoService.atualizarStatusEmLote(dto.getPedidoIds(), dto.getStatus(), restauranteId, dto.getMotivo());
+        ApiResponseWrapper<ResultadoStatusLoteDTO> response = new ApiResponseWrapper<>(true, resultado,
+                String.format("Lote processado: %d atualizado(s), %d rejeitado(s)", resultado.getAtualizados().size(), resultado.getRejeitados().size()));
         return ResponseEntity.ok(response);
     }
 
@@ -188,7 +342,7 @@ public class PedidoController {
 
     @GetMapping("/cliente/{clienteId}")
     @PreAuthorize("hasRole('ADMIN') or (hasRole('CLIENTE') and @pedidoService.canAccess(#clienteId, 'CLIENTE'))")
-    @Operation(summary = "Histórico do cliente", description = "Lista todos os pedidos de um cliente específico.", security = @SecurityRequirement(name = "Bearer Authentication"))
+    @Operation(summary = "Histórico do cliente", description = "Lista todos os pedidos de um cliente específico, incluindo os arquivados.", security = @SecurityRequirement(name = "Bearer Authentication"))
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Histórico recuperado com sucesso."),
             @ApiResponse(responseCode = "404", description = "Cliente não encontrado.")
@@ -203,18 +357,82 @@ public class PedidoController {
 
     @GetMapping("/restaurante/{restauranteId}")
     @PreAuthorize("hasRole('ADMIN') or (hasRole('RESTAURANTE') and @pedidoService.canAccess(#restauranteId, 'RESTAURANTE'))")
-    @Operation(summary = "Pedidos do restaurante", description = "Lista todos os pedidos de um restaurante, com filtro de status opcional.", security = @SecurityRequirement(name = "Bearer Authentication"))
+    @Operation(summary = "Pedidos do restaurante", description = "Lista os pedidos de um restaurante, do mais recente para o mais antigo, com filtro de status opcional e paginação. Devolve uma página sem total de elementos (50 pedidos por padrão, ajustável com size): o header Link aponta para a próxima página (rel=\"next\"), quando há mais pedidos, e para a anterior (rel=\"prev\"), mantendo status, size e sort. Cobre apenas a tabela principal: pedidos finalizados já arquivados não aparecem (use a exportação NDJSON para o histórico completo).", security = @SecurityRequirement(name = "Bearer Authentication"))
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Pedidos recuperados com sucesso."),
             @ApiResponse(responseCode = "404", description = "Restaurante não encontrado.")
     })
     public ResponseEntity<ApiResponseWrapper<List<PedidoResponseDTO>>> buscarPorRestaurante(
             @Parameter(description = "ID do restaurante para buscar os pedidos.") @PathVariable Long restauranteId,
-            @Parameter(description = "Status do pedido para filtro (opcional).") @RequestParam(required = false) StatusPedido status) {
-        List<PedidoResponseDTO> pedidos = pedidoService.buscarPedidosPorRestaurante(restauranteId, status);
-        ApiResponseWrapper<List<PedidoResponseDTO>> response = new ApiResponseWrapper<>(true, pedidos,
+            @Parameter(description = "Status do pedido para filtro (opcional).") @RequestParam(required = false) StatusPedido status,
+            @Parameter(description = "Parâmetros de paginação") @PageableDefault(size = 50, sort = "dataPedido", direction = Sort.Direction.DESC) Pageable pageable) {
+        Slice<PedidoResponseDTO> pedidos = pedidoService.buscarPedidosPorRestaurante(restauranteId, status, pageable);
+        ApiResponseWrapper<List<PedidoResponseDTO>> response = new ApiResponseWrapper<>(true, pedidos.getContent(),
                 "Pedidos recuperados com sucesso");
-        return ResponseEntity.ok(response);
+        List<String> links = new ArrayList<>();
+        if (pedidos.hasNext()) {
+            links.add("<" + linkPaginaRestaurante(restauranteId, status, pedidos, pedidos.getNumber() + 1) + ">; rel=\"next\"");
+        }
+        if (pedidos.hasPrevious()) {
+            links.add("<" + linkPaginaRestaurante(restauranteId, status, pedidos, pedidos.getNumber() - 1) + ">; rel=\"prev\"");
+        }
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (!links.isEmpty()) {
+            builder.header(HttpHeaders.LINK, String.join(", ", links));
+        }
+        return builder.body(response);
+    }
+
+    // Mesmos filtro, tamanho e ordenação da requisição, para que a navegação não mude a ordem das páginas
+    private String linkPaginaRestaurante(Long restauranteId, StatusPedido status, Slice<?> pedidos, int pagina) {
+        UriComponentsBuilder uri = UriComponentsBuilder.fromPath("/api/pedidos/restaurante/{restauranteId}")
+                .queryParam("page", pagina)
+                .queryParam("size", pedidos.getSize());
+        if (status != null) {
+            uri.queryParam("status", status);
+        }
+        pedidos.getSort().forEach(ordem -> uri.queryParam("sort", ordem.getProperty() + "," + ordem.getDirection().name().toLowerCase()));
+        return uri.buildAndExpand(restauranteId).encode().toUriString();
+    }
+
+    @GetMapping(value = "/cliente/{clienteId}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN') or (hasRole('CLIENTE') and @pedidoService.canAccess(#clienteId, 'CLIENTE'))")
+    @Operation(summary = "Exportar histórico do cliente", description = "Envia o histórico completo do cliente em NDJSON (um pedido por linha), à medida que é lido do banco; os pedidos arquivados vêm ao final. Selecionado com Accept: application/x-ndjson (inclua application/json para receber os erros).", security = @SecurityRequirement(name = "Bearer Authentication"))
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Histórico sendo transmitido."),
+            @ApiResponse(responseCode = "404", description = "Cliente não encontrado.")
+    })
+    public ResponseEntity<StreamingResponseBody> exportarPorCliente(
+            @Parameter(description = "ID do cliente para exportar o histórico de pedidos.") @PathVariable Long clienteId) {
+        pedidoService.verificarCliente(clienteId);
+        StreamingResponseBody corpo = saida -> pedidoService.exportarPedidosPorCliente(clienteId, linhaNdjson(saida));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(corpo);
+    }
+
+    @GetMapping(value = "/restaurante/{restauranteId}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN') or (hasRole('RESTAURANTE') and @pedidoService.canAccess(#restauranteId, 'RESTAURANTE'))")
+    @Operation(summary = "Exportar histórico do restaurante", description = "Envia o histórico completo do restaurante em NDJSON (um pedido por linha), com filtro de status opcional; os pedidos arquivados vêm ao final. Selecionado com Accept: application/x-ndjson (inclua application/json para receber os erros).", security = @SecurityRequirement(name = "Bearer Authentication"))
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Histórico sendo transmitido."),
+            @ApiResponse(responseCode = "404", description = "Restaurante não encontrado.")
+    })
+    public ResponseEntity<StreamingResponseBody> exportarPorRestaurante(
+            @Parameter(description = "ID do restaurante para exportar os pedidos.") @PathVariable Long restauranteId,
+            @Parameter(description = "Status do pedido para filtro (opcional).") @RequestParam(required = false) StatusPedido status) {
+        pedidoService.verificarRestaurante(restauranteId);
+        StreamingResponseBody corpo = saida -> pedidoService.exportarPedidosPorRestaurante(restauranteId, status, linhaNdjson(saida));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(corpo);
+    }
+
+    private Consumer<PedidoResponseDTO> linhaNdjson(OutputStream saida) {
+        return pedido -> {
+            try {
+                saida.write(objectMapper.writeValueAsBytes(pedido));
+                saida.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
     }
 
     @PostMapping("/calcular")
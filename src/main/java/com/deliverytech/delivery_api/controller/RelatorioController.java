@@ -1,20 +1,40 @@
 package com.deliverytech.delivery_api.controller;
 
+import com.deliverytech.delivery_api.dto.AnalisePedidosDTO;
 import com.deliverytech.delivery_api.dto.ApiResponseWrapper;
+import com.deliverytech.delivery_api.dto.ClienteRankingDTO;
+import com.deliverytech.delivery_api.dto.ClientesUnicosDTO;
+import com.deliverytech.delivery_api.dto.PedidosPorPeriodoDTO;
+import com.deliverytech.delivery_api.dto.ProdutoMaisVendidoDTO;
+import com.deliverytech.delivery_api.dto.RelatorioJobDTO;
+import com.deliverytech.delivery_api.dto.RelatorioJobResponseDTO;
+import com.deliverytech.delivery_api.dto.TicketPedidosDTO;
+import com.deliverytech.delivery_api.entity.StatusPedido;
 import com.deliverytech.delivery_api.repository.projections.RelatorioVendas;
+import com.deliverytech.delivery_api.service.RelatorioJobService;
 import com.deliverytech.delivery_api.service.RelatorioService;
+import com.deliverytech.delivery_api.service.analise.AgregacaoPedidos;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.EnumSet;
 import java.util.List;
 
 @RestController
@@ -23,9 +43,16 @@ import java.util.List;
 @Tag(name = "Relatórios", description = "Endpoints para geração de relatórios do sistema")
 public class RelatorioController {
 
+    private static final int MAX_PRODUTOS_MAIS_VENDIDOS = 100;
+    private static final int MAX_CLIENTES_ATIVOS = 100;
+    private static final int MAX_GRUPOS_ANALISE = 1000;
+
     @Autowired
     private RelatorioService relatorioService;
 
+    @Autowired
+    private RelatorioJobService relatorioJobService;
+
     @GetMapping("/vendas-por-restaurante")
     @Operation(summary = "Vendas por restaurante", description = "Gera um relatório de vendas totais por restaurante.")
     @ApiResponses({
@@ -39,45 +66,169 @@ public class RelatorioController {
     }
 
     @GetMapping("/produtos-mais-vendidos")
-    @Operation(summary = "Top produtos mais vendidos", description = "Lista os produtos mais vendidos no sistema.")
+    @Operation(summary = "Top produtos mais vendidos", description = "Produtos com mais unidades vendidas (pedidos confirmados em diante, sem os cancelados), no geral, de um restaurante ou de uma categoria. Servido da memória, sem consulta ao banco; fora do ranking de um restaurante, a quantidade é uma estimativa que supera a real em no máximo erroMaximo.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Relatório gerado com sucesso.")
     })
-    public ResponseEntity<ApiResponseWrapper<List<Object[]>>> getProdutosMaisVendidos() {
-        List<Object[]> relatorio = relatorioService.getProdutosMaisVendidos();
-        ApiResponseWrapper<List<Object[]>> response = new ApiResponseWrapper<>(true, relatorio,
+    public ResponseEntity<ApiResponseWrapper<List<ProdutoMaisVendidoDTO>>> getProdutosMaisVendidos(
+            @Parameter(description = "Apenas produtos deste restaurante") @RequestParam(required = false) Long restauranteId,
+            @Parameter(description = "Apenas produtos desta categoria (sem diferenciar maiúsculas)") @RequestParam(required = false) String categoria,
+            @Parameter(description = "Quantidade de produtos (até " + MAX_PRODUTOS_MAIS_VENDIDOS + ")") @RequestParam(defaultValue = "5") int limite) {
+        List<ProdutoMaisVendidoDTO> relatorio = relatorioService.getProdutosMaisVendidos(restauranteId, categoria,
+                Math.max(1, Math.min(limite, MAX_PRODUTOS_MAIS_VENDIDOS)));
+        ApiResponseWrapper<List<ProdutoMaisVendidoDTO>> response = new ApiResponseWrapper<>(true, relatorio,
                 "Relatório de produtos mais vendidos gerado com sucesso.");
         return ResponseEntity.ok(response);
     }
 
     @GetMapping("/clientes-ativos")
-    @Operation(summary = "Clientes mais ativos", description = "Lista os clientes com mais pedidos.")
+    @Operation(summary = "Clientes mais ativos", description = "Lista os clientes com mais pedidos não cancelados; o valor gasto desempata. Servido da memória, sem consulta ao banco.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Relatório gerado com sucesso.")
     })
-    public ResponseEntity<ApiResponseWrapper<List<Object[]>>> getClientesMaisAtivos() {
-        List<Object[]> relatorio = relatorioService.getClientesMaisAtivos();
-        ApiResponseWrapper<List<Object[]>> response = new ApiResponseWrapper<>(true, relatorio,
+    public ResponseEntity<ApiResponseWrapper<List<ClienteRankingDTO>>> getClientesMaisAtivos(
+            @Parameter(description = "Quantidade de clientes (até " + MAX_CLIENTES_ATIVOS + ")") @RequestParam(defaultValue = "10") int limite) {
+        List<ClienteRankingDTO> relatorio = relatorioService.getClientesMaisAtivos(Math.max(1, Math.min(limite, MAX_CLIENTES_ATIVOS)));
+        ApiResponseWrapper<List<ClienteRankingDTO>> response = new ApiResponseWrapper<>(true, relatorio,
                 "Relatório de clientes mais ativos gerado com sucesso.");
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/clientes-ativos/{clienteId}")
+    @Operation(summary = "Posição do cliente", description = "Posição de um cliente no ranking de clientes mais ativos, com os pedidos e o valor que a definem.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Posição recuperada com sucesso."),
+            @ApiResponse(responseCode = "404", description = "Cliente sem pedidos não cancelados.")
+    })
+    public ResponseEntity<ApiResponseWrapper<ClienteRankingDTO>> getPosicaoCliente(
+            @Parameter(description = "ID do cliente") @PathVariable Long clienteId) {
+        ClienteRankingDTO posicao = relatorioService.getPosicaoCliente(clienteId);
+        ApiResponseWrapper<ClienteRankingDTO> response = new ApiResponseWrapper<>(true, posicao,
+                "Posição do cliente recuperada com sucesso.");
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/pedidos-por-periodo")
-    @Operation(summary = "Pedidos por período", description = "Gera um relatório de pedidos dentro de um período de datas.")
+    @Operation(summary = "Pedidos por período", description = "Quantidade, valor bruto e valor líquido dos pedidos feitos no período, por restaurante e status.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Relatório gerado com sucesso."),
             @ApiResponse(responseCode = "400", description = "Datas inválidas.")
     })
-    public ResponseEntity<ApiResponseWrapper<List<Object[]>>> getPedidosPorPeriodo(
+    public ResponseEntity<ApiResponseWrapper<List<PedidosPorPeriodoDTO>>> getPedidosPorPeriodo(
             @Parameter(description = "Data inicial (formato YYYY-MM-DD)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
             @Parameter(description = "Data final (formato YYYY-MM-DD)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim) {
 
         LocalDateTime inicio = dataInicio.atStartOfDay();
         LocalDateTime fim = dataFim.atTime(23, 59, 59, 999999999);
 
-        List<Object[]> relatorio = relatorioService.getPedidosPorPeriodo(inicio, fim);
-        ApiResponseWrapper<List<Object[]>> response = new ApiResponseWrapper<>(true, relatorio,
+        List<PedidosPorPeriodoDTO> relatorio = relatorioService.getPedidosPorPeriodo(inicio, fim);
+        ApiResponseWrapper<List<PedidosPorPeriodoDTO>> response = new ApiResponseWrapper<>(true, relatorio,
                 "Relatório de pedidos por período gerado com sucesso.");
         return ResponseEntity.ok(response);
     }
-}
\ No newline at end of file
+
+    @GetMapping("/restaurantes/{restauranteId}/clientes-unicos")
+    @Operation(summary = "Clientes únicos do restaurante", description = "Clientes distintos com pedidos confirmados no período (até 366 dias) e em cada dia, estimados por resumos HyperLogLog diários, sem ler os pedidos. Os pedidos contados excluem os cancelados; os clientes distintos podem incluir clientes de pedidos cancelados depois da confirmação.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Relatório gerado com sucesso."),
+            @ApiResponse(responseCode = "400", description = "Datas inválidas.")
+    })
+    public ResponseEntity<ApiResponseWrapper<ClientesUnicosDTO>> getClientesUnicos(
+            @Parameter(description = "ID do restaurante") @PathVariable Long restauranteId,
+            @Parameter(description = "Data inicial (formato YYYY-MM-DD)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+            @Parameter(description = "Data final, inclusive (formato YYYY-MM-DD)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim) {
+        ClientesUnicosDTO relatorio = relatorioService.getClientesUnicos(restauranteId, dataInicio, dataFim);
+        ApiResponseWrapper<ClientesUnicosDTO> response = new ApiResponseWrapper<>(true, relatorio,
+                "Relatório de clientes únicos gerado com sucesso.");
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/restaurantes/{restauranteId}/ticket")
+    @Operation(summary = "Ticket dos pedidos do restaurante", description = "Ticket médio, mediana e percentis 75, 90 e 99 do valor dos pedidos confirmados no período (até 366 dias), sem os cancelados depois da confirmação; ticket médio exato, demais estimados por resumos de quantis diários com erro relativo de 1%, sem ler os pedidos.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Relatório gerado com sucesso."),
+            @ApiResponse(responseCode = "400", description = "Datas inválidas.")
+    })
+    public ResponseEntity<ApiResponseWrapper<TicketPedidosDTO>> getTicketPedidos(
+            @Parameter(description = "ID do restaurante") @PathVariable Long restauranteId,
+            @Parameter(description = "Data inicial (formato YYYY-MM-DD)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+            @Parameter(description = "Data final, inclusive (formato YYYY-MM-DD)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim) {
+        TicketPedidosDTO relatorio = relatorioService.getTicketPedidos(restauranteId, dataInicio, dataFim);
+        ApiResponseWrapper<TicketPedidosDTO> response = new ApiResponseWrapper<>(true, relatorio,
+                "Relatório de ticket dos pedidos gerado com sucesso.");
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/analise")
+    @Operation(summary = "Análise ad hoc de pedidos", description = "Agrupa os pedidos por qualquer combinação de RESTAURANTE, CLIENTE, STATUS, DIA, HORA e DIA_DA_SEMANA, com quantidade e valor por grupo. Calculada em memória sobre um snapshot dos pedidos (inclusive arquivados) atualizado periodicamente, sem consulta ao banco.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Análise calculada com sucesso."),
+            @ApiResponse(responseCode = "400", description = "Combinação de dimensões grande demais.")
+    })
+    public ResponseEntity<ApiResponseWrapper<AnalisePedidosDTO>> getAnalisePedidos(
+            @Parameter(description = "Dimensões do agrupamento (nenhuma: apenas o total)") @RequestParam(required = false) List<AgregacaoPedidos.Dimensao> dimensoes,
+            @Parameter(description = "Apenas pedidos deste restaurante") @RequestParam(required = false) Long restauranteId,
+            @Parameter(description = "Apenas pedidos deste cliente") @RequestParam(required = false) Long clienteId,
+            @Parameter(description = "Apenas pedidos nestes status") @RequestParam(required = false) List<StatusPedido> status,
+            @Parameter(description = "Data inicial (formato YYYY-MM-DD)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+            @Parameter(description = "Data final, inclusive (formato YYYY-MM-DD)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim,
+            @Parameter(description = "Ordem dos grupos: QUANTIDADE ou VALOR (maiores primeiro) ou DIMENSOES") @RequestParam(defaultValue = "QUANTIDADE") AgregacaoPedidos.Ordem ordenarPor,
+            @Parameter(description = "Quantidade de grupos (até " + MAX_GRUPOS_ANALISE + ")") @RequestParam(defaultValue = "100") int limite) {
+        AgregacaoPedidos.Filtro filtro = new AgregacaoPedidos.Filtro(restauranteId, clienteId,
+                status == null ? null : EnumSet.copyOf(status),
+                dataInicio == null ? null : dataInicio.atStartOfDay(),
+                dataFim == null ? null : dataFim.plusDays(1).atStartOfDay());
+        AnalisePedidosDTO analise = relatorioService.getAnalisePedidos(
+                dimensoes == null ? EnumSet.noneOf(AgregacaoPedidos.Dimensao.class) : EnumSet.copyOf(dimensoes),
+                filtro, ordenarPor, Math.max(1, Math.min(limite, MAX_GRUPOS_ANALISE)));
+        ApiResponseWrapper<AnalisePedidosDTO> response = new ApiResponseWrapper<>(true, analise,
+                "Análise de pedidos calculada com sucesso.");
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/jobs")
+    @Operation(summary = "Solicitar relatório assíncrono", description = "Agenda a geração de um relatório no pool de relatórios e devolve o job para acompanhamento. Uma solicitação igual, sem pedidos alterados desde então, reaproveita o job existente.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "202", description = "Relatório agendado (ou já disponível)."),
+            @ApiResponse(responseCode = "400", description = "Parâmetros inválidos."),
+            @ApiResponse(responseCode = "429", description = "Fila de relatórios cheia; tente após Retry-After segundos.")
+    })
+    public ResponseEntity<ApiResponseWrapper<RelatorioJobResponseDTO>> solicitarRelatorio(@Valid @RequestBody RelatorioJobDTO dto) {
+        RelatorioJobResponseDTO job = relatorioJobService.solicitar(dto);
+        ApiResponseWrapper<RelatorioJobResponseDTO> response = new ApiResponseWrapper<>(true, job,
+                "Relatório solicitado com sucesso.");
+        return ResponseEntity.accepted().location(URI.create("/api/relatorios/jobs/" + job.getId())).body(response);
+    }
+
+    @GetMapping("/jobs/{id}")
+    @Operation(summary = "Situação do relatório assíncrono", description = "Consulta se o relatório já foi gerado; quando concluído, informa o endereço do resultado.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Situação encontrada."),
+            @ApiResponse(responseCode = "404", description = "Job inexistente ou expirado.")
+    })
+    public ResponseEntity<ApiResponseWrapper<RelatorioJobResponseDTO>> consultarRelatorio(
+            @Parameter(description = "ID do job") @PathVariable String id) {
+        ApiResponseWrapper<RelatorioJobResponseDTO> response = new ApiResponseWrapper<>(true,
+                relatorioJobService.consultar(id), "Situação do relatório recuperada com sucesso.");
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/jobs/{id}/resultado")
+    @Operation(summary = "Baixar relatório assíncrono", description = "Envia o resultado de um job concluído, em JSON (array) ou CSV, a partir do arquivo gerado.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Resultado enviado."),
+            @ApiResponse(responseCode = "404", description = "Job inexistente ou expirado."),
+            @ApiResponse(responseCode = "409", description = "Relatório ainda em geração ou com falha.")
+    })
+    public ResponseEntity<Resource> baixarRelatorio(@Parameter(description = "ID do job") @PathVariable String id) {
+        RelatorioJobService.Resultado resultado = relatorioJobService.resultado(id);
+        MediaType tipo = resultado.formato() == RelatorioJobDTO.Formato.CSV
+                ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                : MediaType.APPLICATION_JSON;
+        return ResponseEntity.ok()
+                .contentType(tipo)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(resultado.nomeArquivo()).build().toString())
+                .body(new FileSystemResource(resultado.arquivo()));
+    }
+}
@@ -2,8 +2,11 @@ package com.deliverytech.delivery_api.controller;
 
 import com.deliverytech.delivery_api.dto.ApiResponseWrapper;
 import com.deliverytech.delivery_api.dto.PagedResponseWrapper;
+import com.deliverytech.delivery_api.dto.PedidoFilaDTO;
 import com.deliverytech.delivery_api.dto.RestauranteDTO;
 import com.deliverytech.delivery_api.dto.RestauranteResponseDTO;
+import com.deliverytech.delivery_api.entity.StatusPedido;
+import com.deliverytech.delivery_api.service.FilaCozinhaService;
 import com.deliverytech.delivery_api.service.RestauranteService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -29,9 +32,14 @@ import java.util.List;
 @Tag(name = "Restaurantes", description = "Operações relacionadas ao gerenciamento de restaurantes")
 public class RestauranteController {
 
+    private static final int MAX_FILA = 500;
+
     @Autowired
     private RestauranteService restauranteService;
 
+    @Autowired
+    private FilaCozinhaService filaCozinhaService;
+
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Cadastrar restaurante", description = "Cria um novo restaurante no sistema", security = @SecurityRequirement(name = "Bearer Authentication"))
@@ -108,6 +116,22 @@ public class RestauranteController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/{id}/fila")
+    @PreAuthorize("hasRole('ADMIN') or (hasRole('RESTAURANTE') and @restauranteService.isOwner(#id))")
+    @Operation(summary = "Fila da cozinha", description = "Pedidos ativos (PENDENTE, CONFIRMADO e PREPARANDO) do restaurante, do mais antigo para o mais recente. Servida da memória, sem consulta ao banco; um restaurante sem pedidos ativos devolve uma lista vazia.", security = @SecurityRequirement(name = "Bearer Authentication"))
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Fila recuperada com sucesso")
+    })
+    public ResponseEntity<ApiResponseWrapper<List<PedidoFilaDTO>>> filaCozinha(
+            @Parameter(description = "ID do restaurante") @PathVariable Long id,
+            @Parameter(description = "Apenas pedidos neste status (PENDENTE, CONFIRMADO ou PREPARANDO)") @RequestParam(required = false) StatusPedido status,
+            @Parameter(description = "Quantidade máxima de pedidos (até " + MAX_FILA + ")") @RequestParam(defaultValue = "100") int limite) {
+        List<PedidoFilaDTO> fila = filaCozinhaService.listar(id, status, Math.max(1, Math.min(limite, MAX_FILA)));
+        ApiResponseWrapper<List<PedidoFilaDTO>> response = new ApiResponseWrapper<>(true, fila,
+                "Fila recuperada com sucesso");
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/categoria/{categoria}")
     @Operation(summary = "Buscar por categoria", description = "Lista restaurantes de uma categoria específica")
     @ApiResponses({
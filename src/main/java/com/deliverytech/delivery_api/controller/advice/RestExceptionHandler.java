@@ -4,6 +4,9 @@ import com.deliverytech.delivery_api.dto.ErrorResponse;
 import com.deliverytech.delivery_api.exception.BusinessException; // Importar BusinessException
 import com.deliverytech.delivery_api.exception.EntityNotFoundException; // Importar EntityNotFoundException
 import com.deliverytech.delivery_api.exception.ConflictException; // Importar ConflictException
+import com.deliverytech.delivery_api.exception.FilaCheiaException;
+import com.deliverytech.delivery_api.exception.ItensPedidoInvalidosException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authorization.AuthorizationDeniedException;
@@ -54,6 +57,24 @@ public class RestExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT); // [cite: 385]
     }
 
+    // Manipula ItensPedidoInvalidosException (retorna 400 com o motivo de cada item rejeitado)
+    @ExceptionHandler(ItensPedidoInvalidosException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ResponseEntity<ErrorResponse> handleItensPedidoInvalidosException(ItensPedidoInvalidosException ex) {
+        ErrorResponse errorResponse = new ErrorResponse(ex.getErrorCode(), ex.getMessage(), ex.getItensInvalidos());
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+
+    // Manipula FilaCheiaException (retorna 429 Too Many Requests com Retry-After)
+    @ExceptionHandler(FilaCheiaException.class)
+    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+    public ResponseEntity<ErrorResponse> handleFilaCheiaException(FilaCheiaException ex) {
+        ErrorResponse errorResponse = new ErrorResponse(ex.getErrorCode(), ex.getMessage(), ex.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSegundos()))
+                .body(errorResponse);
+    }
+
     // Manipula BusinessException (retorna 400 Bad Request) [cite: 651, 671]
     @ExceptionHandler(BusinessException.class) // Isso deve vir antes da Exception genérica
     @ResponseStatus(HttpStatus.BAD_REQUEST)
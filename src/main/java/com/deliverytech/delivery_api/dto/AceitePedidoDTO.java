@@ -0,0 +1,34 @@
+package com.deliverytech.delivery_api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.Map;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Situação de um pedido aceito de forma assíncrona")
+public class AceitePedidoDTO {
+
+    public enum Situacao { NA_FILA, PERSISTIDO, REJEITADO }
+
+    @Schema(description = "Número do pedido devolvido no aceite", example = "PED-01HV3K8Q2M7ZT")
+    private String numeroPedido;
+
+    @Schema(description = "Situação atual do aceite", example = "PERSISTIDO")
+    private Situacao situacao;
+
+    @Schema(description = "ID do pedido, após persistido", example = "1", nullable = true)
+    private Long pedidoId;
+
+    @Schema(description = "Código do erro, quando rejeitado", example = "ORDER_ITEMS_INVALID", nullable = true)
+    private String erroCodigo;
+
+    @Schema(description = "Mensagem do erro, quando rejeitado", nullable = true)
+    private String erroMensagem;
+
+    @Schema(description = "Detalhes do erro por campo, quando houver", nullable = true)
+    private Map<String, String> detalhes;
+}
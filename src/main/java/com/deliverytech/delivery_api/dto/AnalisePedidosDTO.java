@@ -0,0 +1,35 @@
+package com.deliverytech.delivery_api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Resultado de uma análise ad hoc dos pedidos, calculada sobre o snapshot em memória")
+public class AnalisePedidosDTO {
+
+    @Schema(description = "Momento da última atualização do snapshot; pedidos e status alterados depois não aparecem", nullable = true)
+    private LocalDateTime atualizadoEm;
+
+    @Schema(description = "Pedidos no snapshot", example = "1250000")
+    private Integer pedidosNoSnapshot;
+
+    @Schema(description = "Pedidos que atendem aos filtros", example = "48210")
+    private Long pedidos;
+
+    @Schema(description = "Soma do valor total dos pedidos que atendem aos filtros", example = "2315480.90")
+    private BigDecimal valorTotal;
+
+    @Schema(description = "Quantidade de grupos; apenas os primeiros (limite) são listados", example = "144")
+    private Integer totalGrupos;
+
+    @Schema(description = "Primeiros grupos na ordem pedida")
+    private List<GrupoAnaliseDTO> grupos;
+}
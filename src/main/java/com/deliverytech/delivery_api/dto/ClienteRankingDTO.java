@@ -0,0 +1,30 @@
+package com.deliverytech.delivery_api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Cliente no ranking de clientes mais ativos")
+public class ClienteRankingDTO {
+
+    @Schema(description = "Posição no ranking, a partir de 1; empates em pedidos e valor são desfeitos pelo ID do cliente", example = "1")
+    private Integer posicao;
+
+    @Schema(description = "ID do cliente", example = "1")
+    private Long clienteId;
+
+    @Schema(description = "Nome do cliente", example = "João Silva")
+    private String nome;
+
+    @Schema(description = "Pedidos não cancelados do cliente", example = "27")
+    private Long quantidadePedidos;
+
+    @Schema(description = "Soma do valor total dos pedidos não cancelados", example = "1350.90")
+    private BigDecimal valorTotal;
+}
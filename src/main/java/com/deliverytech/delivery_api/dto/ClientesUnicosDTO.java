@@ -0,0 +1,50 @@
+package com.deliverytech.delivery_api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Clientes distintos com pedidos confirmados em um restaurante, no período e por dia (estimativa HyperLogLog)")
+public class ClientesUnicosDTO {
+
+    @Schema(description = "ID do restaurante", example = "1")
+    private Long restauranteId;
+
+    @Schema(description = "Data inicial do período", example = "2025-01-01")
+    private LocalDate dataInicio;
+
+    @Schema(description = "Data final do período, inclusive", example = "2025-01-31")
+    private LocalDate dataFim;
+
+    @Schema(description = "Pedidos confirmados no período", example = "1840")
+    private Long pedidos;
+
+    @Schema(description = "Clientes distintos estimados no período (não é a soma dos dias)", example = "912")
+    private Long clientesUnicos;
+
+    @Schema(description = "Erro padrão relativo das estimativas", example = "0.01625")
+    private Double erroPadrao;
+
+    @Schema(description = "Dias do período com pedidos confirmados, em ordem")
+    private List<Dia> dias;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "Clientes distintos estimados em um dia")
+    public static class Dia {
+        @Schema(description = "Data dos pedidos", example = "2025-01-15")
+        private LocalDate dia;
+        @Schema(description = "Pedidos confirmados no dia", example = "64")
+        private Long pedidos;
+        @Schema(description = "Clientes distintos estimados no dia", example = "58")
+        private Long clientesUnicos;
+    }
+}
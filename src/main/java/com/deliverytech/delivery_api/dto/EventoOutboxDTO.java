@@ -0,0 +1,35 @@
+package com.deliverytech.delivery_api.dto;
+
+import com.deliverytech.delivery_api.entity.TipoEventoPedido;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.LocalDateTime;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Evento do ciclo de vida de um pedido entregue aos sistemas externos")
+public class EventoOutboxDTO {
+
+    @Schema(description = "ID do evento; use-o para descartar entregas repetidas", example = "101")
+    private Long id;
+
+    @Schema(description = "Tipo do evento", example = "STATUS_ALTERADO")
+    private TipoEventoPedido tipo;
+
+    @Schema(description = "ID do pedido", example = "1")
+    private Long pedidoId;
+
+    @Schema(description = "Versão do pedido após a alteração; eventos de um pedido com versão menor ou igual à última processada estão superados", example = "3")
+    private Long versaoPedido;
+
+    @Schema(description = "Momento em que a alteração foi gravada", example = "2025-08-01T10:35:00")
+    private LocalDateTime criadoEm;
+
+    @JsonRawValue
+    @Schema(description = "Corpo do evento: o pedido completo (PEDIDO_CRIADO, ITENS_ALTERADOS) ou a mudança de status (STATUS_ALTERADO)")
+    private String payload;
+}
@@ -0,0 +1,27 @@
+package com.deliverytech.delivery_api.dto;
+
+import com.deliverytech.delivery_api.entity.StatusPedido;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.LocalDateTime;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Mudança de status de um pedido, enviada em GET /api/pedidos/{id}/eventos")
+public class EventoStatusPedidoDTO {
+
+    @Schema(description = "ID do pedido", example = "1")
+    private Long pedidoId;
+
+    @Schema(description = "Status anterior (ausente no evento inicial, que traz o status atual)", example = "PENDENTE")
+    private StatusPedido statusAnterior;
+
+    @Schema(description = "Status atual do pedido", example = "CONFIRMADO")
+    private StatusPedido status;
+
+    @Schema(description = "Momento da mudança (ou da conexão, no evento inicial)", example = "2025-08-01T10:35:00")
+    private LocalDateTime dataEvento;
+}
@@ -0,0 +1,44 @@
+package com.deliverytech.delivery_api.dto;
+
+import com.deliverytech.delivery_api.entity.StatusPedido;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Grupo da análise de pedidos: valores das dimensões escolhidas (as demais ficam de fora), quantidade e valor dos pedidos")
+public class GrupoAnaliseDTO {
+
+    @Schema(description = "Dimensão RESTAURANTE", example = "1", nullable = true)
+    private Long restauranteId;
+
+    @Schema(description = "Dimensão CLIENTE", example = "42", nullable = true)
+    private Long clienteId;
+
+    @Schema(description = "Dimensão STATUS", example = "ENTREGUE", nullable = true)
+    private StatusPedido status;
+
+    @Schema(description = "Dimensão DIA", example = "2025-03-10", nullable = true)
+    private LocalDate dia;
+
+    @Schema(description = "Dimensão HORA: hora do dia do pedido, de 0 a 23", example = "20", nullable = true)
+    private Integer hora;
+
+    @Schema(description = "Dimensão DIA_DA_SEMANA", example = "FRIDAY", nullable = true)
+    private DayOfWeek diaDaSemana;
+
+    @Schema(description = "Quantidade de pedidos do grupo", example = "318")
+    private Long quantidade;
+
+    @Schema(description = "Soma do valor total dos pedidos do grupo", example = "15420.50")
+    private BigDecimal valorTotal;
+}
@@ -1,5 +1,6 @@
 package com.deliverytech.delivery_api.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 import org.springframework.data.domain.Page;
 import java.util.List;
@@ -16,11 +17,17 @@ public class PagedResponseWrapper<T> {
     private List<T> content;
 
     @Schema(description = "Informações de paginação")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private PageInfo page;
 
     @Schema(description = "Links de navegação")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private PageLinks links;
 
+    @Schema(description = "Cursores de navegação (somente na paginação por cursor)")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Cursores cursors;
+
     public PagedResponseWrapper(Page<T> page) {
         this.content = page.getContent();
         this.page = new PageInfo(
@@ -34,6 +41,12 @@ public class PagedResponseWrapper<T> {
         this.links = new PageLinks(page);
     }
 
+    // Paginação por cursor: sem número de página nem total, que exigiriam a contagem do conjunto filtrado
+    public PagedResponseWrapper(PaginaCursorDTO<T> pagina) {
+        this.content = pagina.getContent();
+        this.cursors = new Cursores(pagina.getProximo(), pagina.getAnterior());
+    }
+
     @Data // Gera getters, setters, toString, equals e hashCode para a classe aninhada
     @NoArgsConstructor // Gera construtor sem argumentos
     @AllArgsConstructor // Gera construtor com todos os argumentos
@@ -79,4 +92,15 @@ public class PagedResponseWrapper<T> {
             }
         }
     }
-}
\ No newline at end of file
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "Cursores opacos para as janelas vizinhas")
+    public static class Cursores {
+        @Schema(description = "Cursor da próxima janela (usar em ?after=); nulo na última")
+        private String next;
+        @Schema(description = "Cursor da janela anterior (usar em ?before=); nulo na primeira")
+        private String prev;
+    }
+}
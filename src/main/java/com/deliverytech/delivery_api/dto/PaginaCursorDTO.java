@@ -0,0 +1,22 @@
+package com.deliverytech.delivery_api.dto;
+
+import java.util.List;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/**
+ * Janela de resultados da paginação por cursor: o conteúdo e os cursores opacos das
+ * janelas vizinhas (nulos quando não há mais resultados naquela direção).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaCursorDTO<T> {
+
+    private List<T> content;
+
+    private String proximo;
+
+    private String anterior;
+}
@@ -0,0 +1,37 @@
+package com.deliverytech.delivery_api.dto;
+
+import com.deliverytech.delivery_api.entity.StatusPedido;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Pedido ativo na fila da cozinha de um restaurante")
+public class PedidoFilaDTO {
+
+    @Schema(description = "ID do pedido", example = "1")
+    private Long pedidoId;
+
+    @Schema(description = "Número do pedido", example = "PED-01HV3K8Q2M7ZT")
+    private String numeroPedido;
+
+    @Schema(description = "Status atual (PENDENTE, CONFIRMADO ou PREPARANDO)", example = "PREPARANDO")
+    private StatusPedido status;
+
+    @Schema(description = "Data e hora do pedido; a fila é ordenada do mais antigo para o mais recente", example = "2025-08-01T10:30:00")
+    private LocalDateTime dataPedido;
+
+    @Schema(description = "Nome do cliente", example = "João Silva")
+    private String clienteNome;
+
+    @Schema(description = "Observações do cliente", example = "Sem cebola, por favor.")
+    private String observacoes;
+
+    @Schema(description = "Itens do pedido")
+    private List<ItemPedidoResponseDTO> itens;
+}
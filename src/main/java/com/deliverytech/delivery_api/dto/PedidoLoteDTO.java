@@ -0,0 +1,24 @@
+package com.deliverytech.delivery_api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Lote de pedidos para ingestão em massa (ex: quiosques parceiros)")
+public class PedidoLoteDTO {
+
+    // Sem @Valid de propósito: cada pedido é validado individualmente no serviço,
+    // para que um pedido inválido não rejeite o lote inteiro. Um elemento null
+    // também é reportado como erro do próprio item.
+    @Schema(description = "Pedidos a serem criados", requiredMode = Schema.RequiredMode.REQUIRED)
+    @NotEmpty(message = "O lote deve conter pelo menos um pedido")
+    @Size(max = 500, message = "O lote não pode exceder 500 pedidos")
+    private List<PedidoDTO> pedidos;
+}
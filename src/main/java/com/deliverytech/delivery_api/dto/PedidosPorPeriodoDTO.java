@@ -0,0 +1,31 @@
+package com.deliverytech.delivery_api.dto;
+
+import com.deliverytech.delivery_api.entity.StatusPedido;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Pedidos de um restaurante em um status, feitos dentro do período consultado")
+public class PedidosPorPeriodoDTO {
+
+    @Schema(description = "ID do restaurante", example = "1")
+    private Long restauranteId;
+
+    @Schema(description = "Status atual dos pedidos", example = "ENTREGUE")
+    private StatusPedido status;
+
+    @Schema(description = "Quantidade de pedidos", example = "42")
+    private Long quantidade;
+
+    @Schema(description = "Valor bruto: soma do valor total dos pedidos, com a taxa de entrega", example = "2310.00")
+    private BigDecimal valorBruto;
+
+    @Schema(description = "Valor líquido: soma do subtotal dos itens, sem a taxa de entrega", example = "2100.00")
+    private BigDecimal valorLiquido;
+}
@@ -0,0 +1,25 @@
+package com.deliverytech.delivery_api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Produto no ranking dos mais vendidos, com a quantidade estimada e o erro máximo da estimativa")
+public class ProdutoMaisVendidoDTO {
+
+    @Schema(description = "ID do produto", example = "1")
+    private Long produtoId;
+
+    @Schema(description = "Nome do produto", example = "Pizza Margherita")
+    private String nome;
+
+    @Schema(description = "Unidades vendidas (soma da quantidade dos itens de pedidos confirmados em diante)", example = "128")
+    private Long quantidadeVendida;
+
+    @Schema(description = "Quanto quantidadeVendida pode superar a quantidade real; 0 quando a contagem é exata", example = "0")
+    private Long erroMaximo;
+}
@@ -0,0 +1,42 @@
+package com.deliverytech.delivery_api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Solicitação de geração assíncrona de um relatório")
+public class RelatorioJobDTO {
+
+    public enum Tipo { VENDAS_POR_RESTAURANTE, PRODUTOS_MAIS_VENDIDOS, CLIENTES_ATIVOS, PEDIDOS_POR_PERIODO }
+
+    public enum Formato { JSON, CSV }
+
+    @NotNull(message = "Tipo do relatório é obrigatório")
+    @Schema(description = "Relatório a gerar", example = "PEDIDOS_POR_PERIODO", requiredMode = Schema.RequiredMode.REQUIRED)
+    private Tipo tipo;
+
+    @Schema(description = "Formato do resultado (padrão JSON)", example = "CSV")
+    private Formato formato;
+
+    @Schema(description = "PRODUTOS_MAIS_VENDIDOS: apenas produtos deste restaurante", example = "1", nullable = true)
+    private Long restauranteId;
+
+    @Schema(description = "PRODUTOS_MAIS_VENDIDOS: apenas produtos desta categoria", example = "Pizza", nullable = true)
+    private String categoria;
+
+    @Schema(description = "PRODUTOS_MAIS_VENDIDOS e CLIENTES_ATIVOS: quantidade de linhas", example = "10", nullable = true)
+    private Integer limite;
+
+    @Schema(description = "PEDIDOS_POR_PERIODO: data inicial", example = "2025-03-01", nullable = true)
+    private LocalDate dataInicio;
+
+    @Schema(description = "PEDIDOS_POR_PERIODO: data final (inclusive)", example = "2025-03-31", nullable = true)
+    private LocalDate dataFim;
+}
@@ -0,0 +1,41 @@
+package com.deliverytech.delivery_api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Situação de um relatório gerado de forma assíncrona")
+public class RelatorioJobResponseDTO {
+
+    public enum Situacao { NA_FILA, EXECUTANDO, CONCLUIDO, FALHOU }
+
+    @Schema(description = "ID do job, usado para acompanhar e baixar o resultado", example = "3f2b8c1e-7d4a-4e0b-9a55-2c1f0e6d9b10")
+    private String id;
+
+    @Schema(description = "Relatório solicitado", example = "PEDIDOS_POR_PERIODO")
+    private RelatorioJobDTO.Tipo tipo;
+
+    @Schema(description = "Formato do resultado", example = "CSV")
+    private RelatorioJobDTO.Formato formato;
+
+    @Schema(description = "Situação atual do job", example = "CONCLUIDO")
+    private Situacao situacao;
+
+    @Schema(description = "Momento da solicitação que originou o resultado (anterior à atual quando reaproveitado do cache)")
+    private LocalDateTime criadoEm;
+
+    @Schema(description = "Momento em que o resultado ficou pronto", nullable = true)
+    private LocalDateTime concluidoEm;
+
+    @Schema(description = "Mensagem do erro, quando falhou", nullable = true)
+    private String erroMensagem;
+
+    @Schema(description = "Endereço para baixar o resultado, quando concluído", example = "/api/relatorios/jobs/3f2b8c1e-7d4a-4e0b-9a55-2c1f0e6d9b10/resultado", nullable = true)
+    private String resultado;
+}
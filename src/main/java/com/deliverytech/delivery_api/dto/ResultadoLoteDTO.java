@@ -0,0 +1,56 @@
+package com.deliverytech.delivery_api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import java.util.Map;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Resultado da ingestão de um lote de pedidos")
+public class ResultadoLoteDTO {
+
+    @Schema(description = "Quantidade de pedidos recebidos no lote", example = "100")
+    private int total;
+
+    @Schema(description = "Quantidade de pedidos criados", example = "98")
+    private int sucessos;
+
+    @Schema(description = "Quantidade de pedidos rejeitados", example = "2")
+    private int falhas;
+
+    @Schema(description = "Resultado individual de cada pedido, na mesma ordem do lote")
+    private List<ResultadoPedido> resultados;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "Resultado do processamento de um pedido do lote")
+    public static class ResultadoPedido {
+        @Schema(description = "Posição do pedido no lote (base 0)", example = "0")
+        private int indice;
+        @Schema(description = "Indica se o pedido foi criado", example = "true")
+        private boolean sucesso;
+        @Schema(description = "ID do pedido criado", example = "1", nullable = true)
+        private Long pedidoId;
+        @Schema(description = "Número do pedido criado", example = "PED-ABC123D4", nullable = true)
+        private String numeroPedido;
+        @Schema(description = "Código do erro, quando rejeitado", example = "ENTITY_NOT_FOUND", nullable = true)
+        private String erroCodigo;
+        @Schema(description = "Mensagem do erro, quando rejeitado", nullable = true)
+        private String erroMensagem;
+        @Schema(description = "Detalhes do erro por campo, quando houver", nullable = true)
+        private Map<String, String> detalhes;
+
+        public static ResultadoPedido sucesso(int indice, Long pedidoId, String numeroPedido) {
+            return new ResultadoPedido(indice, true, pedidoId, numeroPedido, null, null, null);
+        }
+
+        public static ResultadoPedido falha(int indice, String erroCodigo, String erroMensagem, Map<String, String> detalhes) {
+            return new ResultadoPedido(indice, false, null, null, erroCodigo, erroMensagem, detalhes);
+        }
+    }
+}
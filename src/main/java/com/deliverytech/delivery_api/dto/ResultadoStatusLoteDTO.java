@@ -0,0 +1,28 @@
+package com.deliverytech.delivery_api.dto;
+
+import com.deliverytech.delivery_api.entity.StatusPedido;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import java.util.Map;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Resultado de uma atualização de status em lote")
+public class ResultadoStatusLoteDTO {
+
+    @Schema(description = "Quantidade de pedidos distintos solicitados", example = "3")
+    private int total;
+
+    @Schema(description = "Status aplicado", example = "PREPARANDO")
+    private StatusPedido status;
+
+    @Schema(description = "IDs dos pedidos que foram atualizados", example = "[1, 2]")
+    private List<Long> atualizados;
+
+    @Schema(description = "Pedidos não atualizados, com o motivo", example = "{\"3\": \"Pedido ENTREGUE não pode passar para PREPARANDO. Transições permitidas: [].\"}")
+    private Map<Long, String> rejeitados;
+}
@@ -0,0 +1,35 @@
+package com.deliverytech.delivery_api.dto;
+
+import com.deliverytech.delivery_api.entity.StatusPedido;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Dados para mover vários pedidos para o mesmo status")
+public class StatusPedidoLoteDTO {
+
+    @Schema(description = "IDs dos pedidos a serem atualizados", example = "[1, 2, 3]", requiredMode = Schema.RequiredMode.REQUIRED)
+    @NotEmpty(message = "Informe pelo menos um pedido")
+    @Size(max = 500, message = "O lote não pode exceder 500 pedidos")
+    private List<@NotNull Long> pedidoIds;
+
+    @Schema(description = "Novo status dos pedidos", example = "PREPARANDO", requiredMode = Schema.RequiredMode.REQUIRED)
+    @NotNull(message = "Status é obrigatório")
+    private StatusPedido status;
+
+    @Schema(description = "Motivo do cancelamento, anotado nas observações quando o status é CANCELADO", example = "Restaurante fechado")
+    @Size(max = 200, message = "O motivo não pode exceder 200 caracteres")
+    private String motivo;
+
+    public StatusPedidoLoteDTO(List<Long> pedidoIds, StatusPedido status) {
+        this(pedidoIds, status, null);
+    }
+}
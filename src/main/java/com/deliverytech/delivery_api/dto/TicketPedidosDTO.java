@@ -0,0 +1,49 @@
+package com.deliverytech.delivery_api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Distribuição do valor total dos pedidos confirmados em um restaurante no período")
+public class TicketPedidosDTO {
+
+    @Schema(description = "ID do restaurante", example = "1")
+    private Long restauranteId;
+
+    @Schema(description = "Data inicial do período", example = "2025-01-01")
+    private LocalDate dataInicio;
+
+    @Schema(description = "Data final do período, inclusive", example = "2025-01-31")
+    private LocalDate dataFim;
+
+    @Schema(description = "Pedidos confirmados no período", example = "1840")
+    private Long pedidos;
+
+    @Schema(description = "Soma do valor total dos pedidos", example = "101200.00")
+    private BigDecimal valorTotal;
+
+    @Schema(description = "Ticket médio (exato)", example = "55.00", nullable = true)
+    private BigDecimal ticketMedio;
+
+    @Schema(description = "Mediana do valor total (estimativa)", example = "48.90", nullable = true)
+    private BigDecimal mediana;
+
+    @Schema(description = "Percentil 75 do valor total (estimativa)", example = "67.30", nullable = true)
+    private BigDecimal p75;
+
+    @Schema(description = "Percentil 90 do valor total (estimativa)", example = "92.10", nullable = true)
+    private BigDecimal p90;
+
+    @Schema(description = "Percentil 99 do valor total (estimativa)", example = "180.40", nullable = true)
+    private BigDecimal p99;
+
+    @Schema(description = "Erro relativo máximo dos percentis estimados", example = "0.01")
+    private Double erroRelativo;
+}
@@ -0,0 +1,56 @@
+package com.deliverytech.delivery_api.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Evento de pedido a ser entregue aos sistemas externos, gravado na mesma transação da alteração
+ * que o originou e removido pelo relay após a entrega.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+public class EventoOutbox {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "evento_outbox_seq")
+    @SequenceGenerator(name = "evento_outbox_seq", sequenceName = "evento_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private TipoEventoPedido tipo;
+
+    @Column(nullable = false)
+    private Long pedidoId;
+
+    // Versão do pedido após a alteração: ordena os eventos de um mesmo pedido
+    @Column(nullable = false)
+    private Long versaoPedido;
+
+    // Corpo do evento em JSON
+    @Lob
+    @Column(nullable = false)
+    private String payload;
+
+    @Column(nullable = false)
+    private LocalDateTime criadoEm;
+
+    // Entregas já tentadas sem sucesso, contadas quando o evento é o primeiro de um lote recusado
+    private int tentativas;
+
+    // Reservado por um relay, que o entrega fora da transação da reserva, até este instante
+    private LocalDateTime reservadoAte;
+
+    // Excedeu delivery.outbox.relay.max-tentativas: fora das entregas até ser liberado manualmente
+    private boolean estacionado;
+
+    public EventoOutbox(TipoEventoPedido tipo, Long pedidoId, Long versaoPedido, String payload, LocalDateTime criadoEm) {
+        this.tipo = tipo;
+        this.pedidoId = pedidoId;
+        this.versaoPedido = versaoPedido;
+        this.payload = payload;
+        this.criadoEm = criadoEm;
+    }
+}
@@ -0,0 +1,33 @@
+package com.deliverytech.delivery_api.entity;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/** Tamanho dos baldes de RollupPedidos. */
+public enum GranularidadeRollup {
+
+    HORA(ChronoUnit.HOURS),
+    DIA(ChronoUnit.DAYS);
+
+    private final ChronoUnit unidade;
+
+    GranularidadeRollup(ChronoUnit unidade) {
+        this.unidade = unidade;
+    }
+
+    /** Início do balde que contém o instante. */
+    public LocalDateTime inicio(LocalDateTime instante) {
+        return instante.truncatedTo(unidade);
+    }
+
+    /** Fim (exclusivo) do balde que começa em inicio. */
+    public LocalDateTime fim(LocalDateTime inicio) {
+        return inicio.plus(1, unidade);
+    }
+
+    /** Primeiro início de balde igual ou posterior ao instante. */
+    public LocalDateTime teto(LocalDateTime instante) {
+        LocalDateTime inicio = inicio(instante);
+        return inicio.equals(instante) ? inicio : fim(inicio);
+    }
+}
@@ -9,8 +9,11 @@ import java.math.BigDecimal;
 
 public class ItemPedido { 
     @Id 
-    @GeneratedValue(strategy = GenerationType.IDENTITY) 
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "item_pedido_seq") 
+    @SequenceGenerator(name = "item_pedido_seq", sequenceName = "item_pedido_seq", allocationSize = 50) 
     private Long id; 
+    @Version 
+    private Long versao; 
     private int quantidade; 
     private BigDecimal precoUnitario; 
     private BigDecimal subtotal; 
@@ -0,0 +1,36 @@
+package com.deliverytech.delivery_api.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+
+/** Item de um PedidoArquivado, com o mesmo id do item original. */
+@Entity
+@Immutable
+@Data
+public class ItemPedidoArquivado {
+    @Id
+    private Long id;
+
+    private Long versao;
+
+    private int quantidade;
+
+    private BigDecimal precoUnitario;
+
+    private BigDecimal subtotal;
+
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "pedido_id")
+    private PedidoArquivado pedido;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "produto_id")
+    private Produto produto;
+}
@@ -0,0 +1,68 @@
+package com.deliverytech.delivery_api.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Comparator;
+
+/**
+ * Pedidos confirmados de um restaurante em um dia (data do pedido): quantidade, soma do valorTotal e
+ * os resumos serializados de clientes distintos (HyperLogLog) e da distribuição do valorTotal
+ * (EsbocoQuantis). Os resumos de vários dias se juntam sem perda para qualquer período.
+ */
+@Entity
+@Table(name = "metricas_pedidos_dia", indexes = {
+        @Index(name = "idx_metricas_pedidos_dia_restaurante_dia", columnList = "restaurante_id, dia")
+})
+@Data
+@NoArgsConstructor
+public class MetricasPedidosDia {
+
+    @EmbeddedId
+    private Chave id;
+
+    @Column(nullable = false)
+    private Long quantidade;
+
+    @Column(nullable = false)
+    private BigDecimal valorTotal;
+
+    @Column(nullable = false, length = 8192)
+    private byte[] clientes;
+
+    @Column(nullable = false, length = 8192)
+    private byte[] valores;
+
+    public MetricasPedidosDia(Chave id) {
+        this.id = id;
+        this.quantidade = 0L;
+        this.valorTotal = BigDecimal.ZERO;
+        this.clientes = new byte[0];
+        this.valores = new byte[0];
+    }
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Chave implements Serializable, Comparable<Chave> {
+
+        // Ordem em que as linhas são bloqueadas por uma transação que altera várias
+        private static final Comparator<Chave> ORDEM = Comparator.comparing(Chave::getDia)
+                .thenComparing(Chave::getRestauranteId);
+
+        private Long restauranteId;
+
+        private LocalDate dia;
+
+        @Override
+        public int compareTo(Chave outra) {
+            return ORDEM.compare(this, outra);
+        }
+    }
+}
@@ -6,19 +6,35 @@ import jakarta.persistence.*;
 import lombok.Data;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Table(indexes = {
+        // Fila de pedidos do restaurante: igualdade em restaurante e status, ordenação por data
+        @Index(name = "idx_pedido_restaurante_status_data", columnList = "restaurante_id, status, data_pedido"),
+        @Index(name = "idx_pedido_restaurante_data", columnList = "restaurante_id, data_pedido"),
+        // Paginação por cursor na ordenação (data_pedido, id), com e sem filtro de status
+        @Index(name = "idx_pedido_data_id", columnList = "data_pedido, id"),
+        @Index(name = "idx_pedido_status_data_id", columnList = "status, data_pedido, id")
+})
 @Data
 @Schema(description = "Entidade que representa um pedido no sistema")
 public class Pedido {
+    // Sequência com otimizador pooled: IDENTITY impede o Hibernate de agrupar os INSERTs em lotes JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pedido_seq")
+    @SequenceGenerator(name = "pedido_seq", sequenceName = "pedido_seq", allocationSize = 50)
     @Schema(description = "Identificador único do pedido", example = "1")
     private Long id;
 
-    @Schema(description = "Número único para identificação do pedido", example = "PED-ABC123D4")
+    // Controle de concorrência otimista: atualizações simultâneas do mesmo pedido são detectadas no commit
+    @Version
+    private Long versao;
+
+    @Column(unique = true, length = 20)
+    @Schema(description = "Número único para identificação do pedido (ordenado pelo momento de criação)", example = "PED-01HV3K8Q2M7ZT")
     private String numeroPedido;
 
     @Schema(description = "Data e hora em que o pedido foi realizado", example = "2025-08-01T10:30:00")
@@ -58,7 +74,8 @@ public class Pedido {
     // Métodos da classe...
     // Construtor padrão e outros métodos... (mantidos como antes)
     public Pedido() {
-        this.dataPedido = LocalDateTime.now();
+        // Precisão de microssegundos, a mesma da coluna: o valor em memória é igual ao lido do banco (cursores de paginação)
+        this.dataPedido = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
         this.subtotal = BigDecimal.ZERO;
         this.taxaEntrega = BigDecimal.ZERO;
         this.valorTotal = BigDecimal.ZERO;
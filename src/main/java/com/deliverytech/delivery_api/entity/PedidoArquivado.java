@@ -0,0 +1,59 @@
+package com.deliverytech.delivery_api.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pedido em status final movido da tabela pedido pelo arquivamento. Mesmas colunas e mesmo id do
+ * pedido original, somente leitura.
+ */
+@Entity
+@Immutable
+@Data
+public class PedidoArquivado {
+    @Id
+    private Long id;
+
+    private Long versao;
+
+    @Column(unique = true, length = 20)
+    private String numeroPedido;
+
+    private LocalDateTime dataPedido;
+
+    private String enderecoEntrega;
+
+    private BigDecimal subtotal;
+
+    private BigDecimal taxaEntrega;
+
+    private BigDecimal valorTotal;
+
+    private String observacoes;
+
+    @Enumerated(EnumType.STRING)
+    private StatusPedido status;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "cliente_id")
+    private Cliente cliente;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "restaurante_id")
+    private Restaurante restaurante;
+
+    private LocalDateTime arquivadoEm;
+
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    @OneToMany(mappedBy = "pedido", cascade = CascadeType.REMOVE)
+    private List<ItemPedidoArquivado> itens = new ArrayList<>();
+}
@@ -0,0 +1,28 @@
+package com.deliverytech.delivery_api.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Heartbeat da réplica de leitura (linha ID): o MonitorReplica grava o instante atual na primária e
+ * mede o atraso pelo instante que chegou à réplica. Mapeada para que o schema a crie com as demais
+ * tabelas; o monitor só a atualiza.
+ */
+@Entity
+@Table(name = "replica_heartbeat")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReplicaHeartbeat {
+
+    public static final Integer ID = 1;
+
+    @Id
+    private Integer id;
+
+    // Epoch em ms
+    @Column(nullable = false)
+    private Long instante;
+}
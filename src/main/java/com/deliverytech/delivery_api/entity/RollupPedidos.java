@@ -0,0 +1,72 @@
+package com.deliverytech.delivery_api.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+
+/**
+ * Balde de pedidos por hora ou por dia (data do pedido), restaurante e status atual: quantidade,
+ * valor bruto (valorTotal, com a taxa de entrega) e valor líquido (subtotal dos itens). Mantido na
+ * mesma transação de cada alteração de pedido; pedidos arquivados continuam contando.
+ */
+@Entity
+@Table(name = "rollup_pedidos")
+@Data
+@NoArgsConstructor
+public class RollupPedidos {
+
+    @EmbeddedId
+    private Chave id;
+
+    @Column(nullable = false)
+    private Long quantidade;
+
+    @Column(nullable = false)
+    private BigDecimal valorBruto;
+
+    @Column(nullable = false)
+    private BigDecimal valorLiquido;
+
+    public RollupPedidos(Chave id) {
+        this.id = id;
+        this.quantidade = 0L;
+        this.valorBruto = BigDecimal.ZERO;
+        this.valorLiquido = BigDecimal.ZERO;
+    }
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Chave implements Serializable, Comparable<Chave> {
+
+        // Ordem em que as linhas são bloqueadas por uma transação que altera várias
+        private static final Comparator<Chave> ORDEM = Comparator.comparing(Chave::getGranularidade)
+                .thenComparing(Chave::getInicio)
+                .thenComparing(Chave::getRestauranteId)
+                .thenComparing(Chave::getStatus);
+
+        @Enumerated(EnumType.STRING)
+        @Column(length = 10)
+        private GranularidadeRollup granularidade;
+
+        private LocalDateTime inicio;
+
+        private Long restauranteId;
+
+        @Enumerated(EnumType.STRING)
+        @Column(length = 20)
+        private StatusPedido status;
+
+        @Override
+        public int compareTo(Chave outra) {
+            return ORDEM.compare(this, outra);
+        }
+    }
+}
@@ -2,6 +2,12 @@ package com.deliverytech.delivery_api.entity;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 @Schema(description = "Status possíveis de um pedido no sistema", enumAsRef = true)
 public enum StatusPedido {
 
@@ -25,6 +31,35 @@ public enum StatusPedido {
 
     private final String descricao;
 
+    // Tabela de transições pré-calculada (EnumSet é um bitmask sobre os ordinais), compartilhada
+    // por todas as operações que mudam o status do pedido.
+    private static final Map<StatusPedido, Set<StatusPedido>> DESTINOS = new EnumMap<>(StatusPedido.class);
+    private static final Map<StatusPedido, Set<StatusPedido>> ORIGENS = new EnumMap<>(StatusPedido.class);
+
+    static {
+        permitir(PENDENTE, CONFIRMADO, CANCELADO);
+        permitir(CONFIRMADO, PREPARANDO, CANCELADO);
+        permitir(PREPARANDO, SAIU_PARA_ENTREGA, CANCELADO);
+        permitir(SAIU_PARA_ENTREGA, ENTREGUE, CANCELADO);
+        permitir(ENTREGUE);
+        permitir(CANCELADO, PENDENTE);
+        for (StatusPedido destino : values()) {
+            EnumSet<StatusPedido> origens = EnumSet.noneOf(StatusPedido.class);
+            for (StatusPedido origem : values()) {
+                if (DESTINOS.get(origem).contains(destino)) {
+                    origens.add(origem);
+                }
+            }
+            ORIGENS.put(destino, Collections.unmodifiableSet(origens));
+        }
+    }
+
+    private static void permitir(StatusPedido origem, StatusPedido... destinos) {
+        EnumSet<StatusPedido> permitidos = EnumSet.noneOf(StatusPedido.class);
+        Collections.addAll(permitidos, destinos);
+        DESTINOS.put(origem, Collections.unmodifiableSet(permitidos));
+    }
+
     StatusPedido(String descricao) {
         this.descricao = descricao;
     }
@@ -32,4 +67,17 @@ public enum StatusPedido {
     public String getDescricao() {
         return descricao;
     }
+
+    public boolean podeIrPara(StatusPedido destino) {
+        return DESTINOS.get(this).contains(destino);
+    }
+
+    public Set<StatusPedido> destinosPermitidos() {
+        return DESTINOS.get(this);
+    }
+
+    /** Status a partir dos quais é permitido chegar em {@code destino}. */
+    public static Set<StatusPedido> origensPermitidas(StatusPedido destino) {
+        return ORIGENS.get(destino);
+    }
 }
\ No newline at end of file
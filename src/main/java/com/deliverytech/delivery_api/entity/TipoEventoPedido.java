@@ -0,0 +1,8 @@
+package com.deliverytech.delivery_api.entity;
+
+/** Tipos de evento do ciclo de vida do pedido publicados para os sistemas externos (outbox). */
+public enum TipoEventoPedido {
+    PEDIDO_CRIADO,
+    ITENS_ALTERADOS,
+    STATUS_ALTERADO
+}
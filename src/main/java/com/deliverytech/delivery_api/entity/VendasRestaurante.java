@@ -0,0 +1,40 @@
+package com.deliverytech.delivery_api.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Vendas acumuladas de um restaurante (pedidos não cancelados, incluindo os arquivados), mantidas
+ * na mesma transação de cada alteração de pedido. O relatório de vendas lê uma linha por
+ * restaurante em vez de agrupar todos os pedidos.
+ */
+@Entity
+@Table(name = "vendas_restaurante")
+@Data
+@NoArgsConstructor
+public class VendasRestaurante {
+    // Sem chave estrangeira: a linha é criada em uma transação própria, antes que a transação
+    // que cadastrou o restaurante seja confirmada
+    @Id
+    private Long restauranteId;
+
+    @Column(nullable = false)
+    private BigDecimal totalVendas;
+
+    @Column(nullable = false)
+    private Long quantidadePedidos;
+
+    @Column(nullable = false)
+    private LocalDateTime atualizadoEm;
+
+    public VendasRestaurante(Long restauranteId, BigDecimal totalVendas, Long quantidadePedidos, LocalDateTime atualizadoEm) {
+        this.restauranteId = restauranteId;
+        this.totalVendas = totalVendas;
+        this.quantidadePedidos = quantidadePedidos;
+        this.atualizadoEm = atualizadoEm;
+    }
+}
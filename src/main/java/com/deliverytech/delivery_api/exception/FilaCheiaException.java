@@ -0,0 +1,15 @@
+package com.deliverytech.delivery_api.exception;
+
+public class FilaCheiaException extends BusinessException {
+    private final long retryAfterSegundos;
+
+    public FilaCheiaException(String message, long retryAfterSegundos) {
+        super(message);
+        this.retryAfterSegundos = retryAfterSegundos;
+        this.setErrorCode("QUEUE_FULL");
+    }
+
+    public long getRetryAfterSegundos() {
+        return retryAfterSegundos;
+    }
+}
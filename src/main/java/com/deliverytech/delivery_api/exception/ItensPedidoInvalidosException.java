@@ -0,0 +1,17 @@
+package com.deliverytech.delivery_api.exception;
+
+import java.util.Map;
+
+public class ItensPedidoInvalidosException extends BusinessException {
+    private final Map<String, String> itensInvalidos;
+
+    public ItensPedidoInvalidosException(Map<String, String> itensInvalidos) {
+        super(String.format("%d item(ns) do pedido não pode(m) ser processado(s)", itensInvalidos.size()));
+        this.itensInvalidos = itensInvalidos;
+        this.setErrorCode("ORDER_ITEMS_INVALID");
+    }
+
+    public Map<String, String> getItensInvalidos() {
+        return itensInvalidos;
+    }
+}
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param; 
 import org.springframework.stereotype.Repository; 
  
+import java.math.BigDecimal;
 import java.util.List; 
 import java.util.Optional; 
  
@@ -40,12 +41,20 @@ public interface ClienteRepository extends JpaRepository<Cliente, Long> {
     @Query("SELECT COUNT(c) FROM Cliente c WHERE c.ativo = true") 
     Long countClientesAtivos(); 
 
-    // Ranking de clientes por total de pedidos (consulta nativa)
-@Query(value = "SELECT c.nome, COUNT(p.id) as total_pedidos " + //
-               "FROM cliente c " + //
-               "LEFT JOIN pedido p ON c.id = p.cliente_id " + //
-               "GROUP BY c.id, c.nome " + //
-               "ORDER BY total_pedidos DESC " + //
-               "LIMIT 10", nativeQuery = true) //
-List<Object[]> rankingClientesPorPedidos(); //
-}
\ No newline at end of file
+    // Pedidos não cancelados e valor gasto por cliente, na tabela principal e no arquivo; valores exatos
+    // que carregam o RankingClientesService
+    @Query("SELECT new com.deliverytech.delivery_api.repository.ClienteRepository$TotalPedidosCliente(" +
+           "p.cliente.id, p.cliente.nome, COUNT(p), SUM(p.valorTotal)) " +
+           "FROM Pedido p WHERE p.status <> com.deliverytech.delivery_api.entity.StatusPedido.CANCELADO " +
+           "GROUP BY p.cliente.id, p.cliente.nome")
+    List<TotalPedidosCliente> somarPedidosPorCliente();
+
+    @Query("SELECT new com.deliverytech.delivery_api.repository.ClienteRepository$TotalPedidosCliente(" +
+           "p.cliente.id, p.cliente.nome, COUNT(p), SUM(p.valorTotal)) " +
+           "FROM PedidoArquivado p WHERE p.status <> com.deliverytech.delivery_api.entity.StatusPedido.CANCELADO " +
+           "GROUP BY p.cliente.id, p.cliente.nome")
+    List<TotalPedidosCliente> somarPedidosArquivadosPorCliente();
+
+    record TotalPedidosCliente(Long clienteId, String nome, Long quantidadePedidos, BigDecimal valorTotal) {
+    }
+}
@@ -0,0 +1,22 @@
+package com.deliverytech.delivery_api.repository;
+
+import com.deliverytech.delivery_api.entity.EventoOutbox;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface EventoOutboxRepository extends JpaRepository<EventoOutbox, Long> {
+
+    // Próximo lote de eventos não estacionados, na ordem de gravação, para reserva. As linhas ficam
+    // bloqueadas só durante a transação da reserva; outra instância do relay espera por elas (em vez
+    // de pular para as seguintes) e encontra a reserva gravada, o que mantém a ordem de gravação
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM EventoOutbox e WHERE e.estacionado = false ORDER BY e.id")
+    List<EventoOutbox> reservarLote(Pageable pageable);
+}
@@ -0,0 +1,81 @@
+package com.deliverytech.delivery_api.repository;
+
+import com.deliverytech.delivery_api.entity.MetricasPedidosDia;
+import com.deliverytech.delivery_api.entity.StatusPedido;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface MetricasPedidosDiaRepository extends JpaRepository<MetricasPedidosDia, MetricasPedidosDia.Chave> {
+
+    // Os resumos são lidos, alterados e regravados: a linha fica bloqueada até o fim da transação
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT m FROM MetricasPedidosDia m WHERE m.id = :id")
+    Optional<MetricasPedidosDia> bloquear(@Param("id") MetricasPedidosDia.Chave id);
+
+    // Dias em [inicio, fim] de um restaurante (índice (restaurante_id, dia))
+    @Query("SELECT m FROM MetricasPedidosDia m WHERE m.id.restauranteId = :restauranteId " +
+           "AND m.id.dia >= :inicio AND m.id.dia <= :fim ORDER BY m.id.dia")
+    List<MetricasPedidosDia> findByRestauranteAndPeriodo(@Param("restauranteId") Long restauranteId,
+                                                         @Param("inicio") LocalDate inicio,
+                                                         @Param("fim") LocalDate fim);
+
+    @Query("SELECT m FROM MetricasPedidosDia m WHERE m.id.dia = :dia")
+    List<MetricasPedidosDia> findByDia(@Param("dia") LocalDate dia);
+
+    // Pedidos contados (status em :status) com data em [inicio, fim), por restaurante, da tabela
+    // principal e do arquivo: valores de referência do preenchimento
+    @Query("SELECT new com.deliverytech.delivery_api.repository.MetricasPedidosDiaRepository$Total(" +
+           "p.restaurante.id, COUNT(p), SUM(p.valorTotal)) " +
+           "FROM Pedido p WHERE p.dataPedido >= :inicio AND p.dataPedido < :fim AND p.status IN :status " +
+           "GROUP BY p.restaurante.id")
+    List<Total> somarPedidos(@Param("inicio") LocalDateTime inicio, @Param("fim") LocalDateTime fim,
+                             @Param("status") Collection<StatusPedido> status);
+
+    @Query("SELECT new com.deliverytech.delivery_api.repository.MetricasPedidosDiaRepository$Total(" +
+           "p.restaurante.id, COUNT(p), SUM(p.valorTotal)) " +
+           "FROM PedidoArquivado p WHERE p.dataPedido >= :inicio AND p.dataPedido < :fim AND p.status IN :status " +
+           "GROUP BY p.restaurante.id")
+    List<Total> somarPedidosArquivados(@Param("inicio") LocalDateTime inicio, @Param("fim") LocalDateTime fim,
+                                       @Param("status") Collection<StatusPedido> status);
+
+    // Cliente e valor de cada pedido contado de um restaurante em [inicio, fim), para recalcular os resumos
+    @Query("SELECT new com.deliverytech.delivery_api.repository.MetricasPedidosDiaRepository$PedidoContado(" +
+           "p.cliente.id, p.valorTotal) " +
+           "FROM Pedido p WHERE p.restaurante.id = :restauranteId " +
+           "AND p.dataPedido >= :inicio AND p.dataPedido < :fim AND p.status IN :status")
+    List<PedidoContado> findPedidosContados(@Param("restauranteId") Long restauranteId,
+                                            @Param("inicio") LocalDateTime inicio, @Param("fim") LocalDateTime fim,
+                                            @Param("status") Collection<StatusPedido> status);
+
+    @Query("SELECT new com.deliverytech.delivery_api.repository.MetricasPedidosDiaRepository$PedidoContado(" +
+           "p.cliente.id, p.valorTotal) " +
+           "FROM PedidoArquivado p WHERE p.restaurante.id = :restauranteId " +
+           "AND p.dataPedido >= :inicio AND p.dataPedido < :fim AND p.status IN :status")
+    List<PedidoContado> findPedidosContadosArquivados(@Param("restauranteId") Long restauranteId,
+                                                      @Param("inicio") LocalDateTime inicio, @Param("fim") LocalDateTime fim,
+                                                      @Param("status") Collection<StatusPedido> status);
+
+    @Query("SELECT MIN(p.dataPedido) FROM Pedido p WHERE p.status IN :status")
+    Optional<LocalDateTime> findPrimeiraDataPedido(@Param("status") Collection<StatusPedido> status);
+
+    @Query("SELECT MIN(p.dataPedido) FROM PedidoArquivado p WHERE p.status IN :status")
+    Optional<LocalDateTime> findPrimeiraDataPedidoArquivado(@Param("status") Collection<StatusPedido> status);
+
+    record Total(Long restauranteId, Long quantidade, BigDecimal valorTotal) {
+    }
+
+    record PedidoContado(Long clienteId, BigDecimal valorTotal) {
+    }
+}
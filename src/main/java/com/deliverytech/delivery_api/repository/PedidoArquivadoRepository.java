@@ -0,0 +1,81 @@
+package com.deliverytech.delivery_api.repository;
+
+import com.deliverytech.delivery_api.entity.PedidoArquivado;
+import com.deliverytech.delivery_api.entity.StatusPedido;
+import com.deliverytech.delivery_api.repository.PedidoRepository.LinhaAnalise;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@Repository
+public interface PedidoArquivadoRepository extends JpaRepository<PedidoArquivado, Long> {
+
+    // Mesmas leituras de PedidoRepository, usadas quando o pedido não está mais na tabela principal
+    @EntityGraph(attributePaths = {"cliente", "restaurante", "itens", "itens.produto"})
+    @Query("SELECT p FROM PedidoArquivado p WHERE p.id = :id")
+    Optional<PedidoArquivado> findComItensById(@Param("id") Long id);
+
+    @EntityGraph(attributePaths = {"cliente", "restaurante", "itens", "itens.produto"})
+    Optional<PedidoArquivado> findByNumeroPedido(String numeroPedido);
+
+    // Históricos do cliente e do restaurante: a parte arquivada, lida depois da tabela principal
+    @EntityGraph(attributePaths = {"cliente", "restaurante"})
+    List<PedidoArquivado> findByClienteIdOrderByDataPedidoDesc(Long clienteId);
+
+    @Query("SELECT DISTINCT p FROM PedidoArquivado p LEFT JOIN FETCH p.itens i LEFT JOIN FETCH i.produto WHERE p.id IN :ids")
+    List<PedidoArquivado> carregarItens(@Param("ids") Collection<Long> ids);
+
+    @EntityGraph(attributePaths = {"cliente", "restaurante"})
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + PedidoRepository.FETCH_SIZE_EXPORTACAO),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<PedidoArquivado> streamByClienteIdOrderByDataPedidoDesc(Long clienteId);
+
+    @EntityGraph(attributePaths = {"cliente", "restaurante"})
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + PedidoRepository.FETCH_SIZE_EXPORTACAO),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<PedidoArquivado> streamByRestauranteIdOrderByDataPedidoDesc(Long restauranteId);
+
+    @EntityGraph(attributePaths = {"cliente", "restaurante"})
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + PedidoRepository.FETCH_SIZE_EXPORTACAO),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<PedidoArquivado> streamByRestauranteIdAndStatusOrderByDataPedidoDesc(Long restauranteId, StatusPedido status);
+
+    // Cópia dos pedidos e itens no próprio banco (INSERT ... SELECT), sem carregar as entidades
+    @Modifying
+    @Query("INSERT INTO PedidoArquivado (id, versao, numeroPedido, dataPedido, enderecoEntrega, subtotal, taxaEntrega, " +
+           "valorTotal, observacoes, status, cliente, restaurante, arquivadoEm) " +
+           "SELECT p.id, p.versao, p.numeroPedido, p.dataPedido, p.enderecoEntrega, p.subtotal, p.taxaEntrega, " +
+           "p.valorTotal, p.observacoes, p.status, p.cliente, p.restaurante, :arquivadoEm " +
+           "FROM Pedido p WHERE p.id IN :ids")
+    int copiarPedidos(@Param("ids") Collection<Long> ids, @Param("arquivadoEm") LocalDateTime arquivadoEm);
+
+    @Modifying
+    @Query("INSERT INTO ItemPedidoArquivado (id, versao, quantidade, precoUnitario, subtotal, pedido, produto) " +
+           "SELECT i.id, i.versao, i.quantidade, i.precoUnitario, i.subtotal, pa, i.produto " +
+           "FROM ItemPedido i JOIN PedidoArquivado pa ON pa.id = i.pedido.id WHERE i.pedido.id IN :ids")
+    int copiarItens(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT new com.deliverytech.delivery_api.repository.PedidoRepository$LinhaAnalise(" +
+           "p.id, p.restaurante.id, p.cliente.id, p.dataPedido, p.status, p.valorTotal) " +
+           "FROM PedidoArquivado p WHERE p.id > :ultimoId ORDER BY p.id")
+    List<LinhaAnalise> findLinhasAnalise(@Param("ultimoId") Long ultimoId, Pageable pageable);
+}
@@ -3,15 +3,29 @@ package com.deliverytech.delivery_api.repository;
 import com.deliverytech.delivery_api.entity.Pedido;
 import com.deliverytech.delivery_api.entity.Cliente;
 import com.deliverytech.delivery_api.entity.StatusPedido;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor; // IMPORTANTE: Nova importação
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PedidoRepository extends JpaRepository<Pedido, Long>, JpaSpecificationExecutor<Pedido> { // IMPORTANTE: Adicione JpaSpecificationExecutor
@@ -20,14 +34,31 @@ public interface PedidoRepository extends JpaRepository<Pedido, Long>, JpaSpecif
     List<Pedido> findByClienteOrderByDataPedidoDesc(Cliente cliente);
 
     // Buscar pedidos por cliente ID (e ordenados pela data)
+    @EntityGraph(attributePaths = {"cliente", "restaurante"})
     List<Pedido> findByClienteIdOrderByDataPedidoDesc(Long clienteId);
 
     // Buscar por status (e ordenados pela data)
     List<Pedido> findByStatusOrderByDataPedidoDesc(StatusPedido status);
 
-    // Buscar por número do pedido
+    // Buscar por número do pedido (já com cliente, restaurante, itens e produtos)
+    @EntityGraph(attributePaths = {"cliente", "restaurante", "itens", "itens.produto"})
     Pedido findByNumeroPedido(String numeroPedido);
 
+    // Pedido completo para leitura: cliente, restaurante, itens e produtos em uma única consulta
+    @EntityGraph(attributePaths = {"cliente", "restaurante", "itens", "itens.produto"})
+    @Query("SELECT p FROM Pedido p WHERE p.id = :id")
+    Optional<Pedido> findComItensById(@Param("id") Long id);
+
+    // Listagem paginada com cliente e restaurante na mesma consulta; os itens vêm depois, em carregarItens
+    @Override
+    @EntityGraph(attributePaths = {"cliente", "restaurante"})
+    Page<Pedido> findAll(Specification<Pedido> spec, Pageable pageable);
+
+    // Inicializa, em uma única consulta, as coleções de itens (com os produtos) de pedidos já carregados.
+    // Separado da consulta principal porque JOIN FETCH de coleção impede a paginação no banco.
+    @Query("SELECT DISTINCT p FROM Pedido p LEFT JOIN FETCH p.itens i LEFT JOIN FETCH i.produto WHERE p.id IN :ids")
+    List<Pedido> carregarItens(@Param("ids") Collection<Long> ids);
+
     // Os 10 pedidos mais recentes
     List<Pedido> findTop10ByOrderByDataPedidoDesc();
 
@@ -43,6 +74,44 @@ LocalDateTime fim);
     @Query("SELECT p FROM Pedido p WHERE p.restaurante.id = :restauranteId ORDER BY p.dataPedido DESC")
     List<Pedido> findByRestauranteId(@Param("restauranteId") Long restauranteId);
 
+    // Fila de pedidos do restaurante, paginada; resolvidas pelos índices (restaurante_id, status, data_pedido)
+    // e (restaurante_id, data_pedido). Slice evita a consulta de contagem a cada página.
+    @EntityGraph(attributePaths = {"cliente", "restaurante"})
+    Slice<Pedido> findByRestauranteIdAndStatus(Long restauranteId, StatusPedido status, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"cliente", "restaurante"})
+    Slice<Pedido> findByRestauranteId(Long restauranteId, Pageable pageable);
+
+    // Exportação do histórico: cursor do banco lido em blocos de FETCH_SIZE_EXPORTACAO linhas, sem
+    // snapshot de dirty checking (read-only). Devem ser consumidos dentro de uma transação e fechados.
+    // No MySQL, o fetch size só é respeitado com useCursorFetch=true na URL de conexão.
+    int FETCH_SIZE_EXPORTACAO = 500;
+
+    @EntityGraph(attributePaths = {"cliente", "restaurante"})
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + FETCH_SIZE_EXPORTACAO),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Pedido> streamByClienteIdOrderByDataPedidoDesc(Long clienteId);
+
+    @EntityGraph(attributePaths = {"cliente", "restaurante"})
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + FETCH_SIZE_EXPORTACAO),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Pedido> streamByRestauranteIdOrderByDataPedidoDesc(Long restauranteId);
+
+    @EntityGraph(attributePaths = {"cliente", "restaurante"})
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + FETCH_SIZE_EXPORTACAO),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Pedido> streamByRestauranteIdAndStatusOrderByDataPedidoDesc(Long restauranteId, StatusPedido status);
+
+    // Pedidos nos status informados com o que a fila da cozinha exibe (sincronização da fila com o banco)
+    @EntityGraph(attributePaths = {"cliente", "restaurante", "itens", "itens.produto"})
+    List<Pedido> findByStatusIn(Collection<StatusPedido> status);
+
     // Relatório - pedidos por status
     @Query("SELECT p.status, COUNT(p) FROM Pedido p GROUP BY p.status")
     List<Object[]> countPedidosByStatus();
@@ -58,11 +127,10 @@ LocalDateTime fim);
     BigDecimal calcularVendasPorPeriodo(@Param("inicio") LocalDateTime inicio,
                                        @Param("fim") LocalDateTime fim);
 
-    // Calcular o total de vendas por restaurante
-    @Query("SELECT p.restaurante.nome, SUM(p.valorTotal) " +
-           "FROM Pedido p " +
-           "GROUP BY p.restaurante.id, p.restaurante.nome " +
-           "ORDER BY SUM(p.valorTotal) DESC")
+    // Calcular o total de vendas por restaurante (agregado vendas_restaurante, sem cancelados)
+    @Query("SELECT r.nome, v.totalVendas " +
+           "FROM VendasRestaurante v JOIN Restaurante r ON r.id = v.restauranteId " +
+           "ORDER BY v.totalVendas DESC")
     List<Object[]> calcularTotalVendasPorRestaurante();
 
     // Buscar pedidos com valor total acima de um determinado valor
@@ -79,4 +147,70 @@ LocalDateTime fim);
         @Param("fim") LocalDateTime fim,
         @Param("status") StatusPedido status
     );
-}
\ No newline at end of file
+
+    // Status atual, restaurante, versão, valores e data, sem carregar as entidades (validação de
+    // transições em lote e atualização dos agregados). Os pedidos ficam bloqueados até o fim da
+    // transação, em ordem de ID, para que nenhuma alteração concorrente mude o status entre a
+    // validação e o UPDATE
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT new com.deliverytech.delivery_api.repository.PedidoRepository$SituacaoPedido(" +
+           "p.id, p.status, p.restaurante.id, p.cliente.id, p.versao, p.valorTotal, p.subtotal, p.dataPedido) " +
+           "FROM Pedido p WHERE p.id IN :ids ORDER BY p.id")
+    List<SituacaoPedido> bloquearSituacoes(@Param("ids") Collection<Long> ids);
+
+    // Status e versão atuais, sem bloqueio: pedidos que saíram da fila da cozinha por alterações de
+    // outras instâncias
+    @Query("SELECT new com.deliverytech.delivery_api.repository.PedidoRepository$VersaoPedido(p.id, p.status, p.versao) " +
+           "FROM Pedido p WHERE p.id IN :ids")
+    List<VersaoPedido> findVersoes(@Param("ids") Collection<Long> ids);
+
+    // Transição de status em lote: só altera pedidos que ainda estão em um dos status de origem
+    // permitidos; a versão é incrementada para invalidar leituras concorrentes
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Pedido p SET p.status = :destino, p.versao = p.versao + 1 " +
+           "WHERE p.id IN :ids AND p.status IN :origens")
+    int atualizarStatus(@Param("ids") Collection<Long> ids,
+                        @Param("origens") Collection<StatusPedido> origens,
+                        @Param("destino") StatusPedido destino);
+
+    // Cancelamento em lote: acrescenta a nota de cancelamento às observações, como no cancelamento individual
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Pedido p SET p.observacoes = CASE WHEN p.observacoes IS NULL THEN :nota " +
+           "ELSE CONCAT(p.observacoes, ' | ', :nota) END WHERE p.id IN :ids")
+    int anotar(@Param("ids") Collection<Long> ids, @Param("nota") String nota);
+
+    // Arquivamento: bloqueia o próximo bloco de pedidos nos status informados anteriores ao limite
+    // (índice (status, data_pedido, id)); o bloqueio impede que uma alteração concorrente os reative
+    // entre a cópia e a exclusão
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p.id FROM Pedido p WHERE p.status IN :status AND p.dataPedido < :limite ORDER BY p.id")
+    List<Long> reservarParaArquivamento(@Param("status") Collection<StatusPedido> status,
+                                        @Param("limite") LocalDateTime limite,
+                                        Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM ItemPedido i WHERE i.pedido.id IN :ids")
+    int excluirItens(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM Pedido p WHERE p.id IN :ids")
+    int excluir(@Param("ids") Collection<Long> ids);
+
+    // Carga do snapshot colunar de análise: próximo bloco de pedidos após o último ID lido, só com as
+    // colunas usadas (paginação pela chave primária, sem OFFSET)
+    @Query("SELECT new com.deliverytech.delivery_api.repository.PedidoRepository$LinhaAnalise(" +
+           "p.id, p.restaurante.id, p.cliente.id, p.dataPedido, p.status, p.valorTotal) " +
+           "FROM Pedido p WHERE p.id > :ultimoId ORDER BY p.id")
+    List<LinhaAnalise> findLinhasAnalise(@Param("ultimoId") Long ultimoId, Pageable pageable);
+
+    record VersaoPedido(Long id, StatusPedido status, Long versao) {
+    }
+
+    record SituacaoPedido(Long id, StatusPedido status, Long restauranteId, Long clienteId, Long versao,
+                          BigDecimal valorTotal, BigDecimal subtotal, LocalDateTime dataPedido) {
+    }
+
+    record LinhaAnalise(Long id, Long restauranteId, Long clienteId, LocalDateTime dataPedido, StatusPedido status,
+                        BigDecimal valorTotal) {
+    }
+}
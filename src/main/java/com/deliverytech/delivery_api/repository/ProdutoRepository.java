@@ -2,6 +2,7 @@ package com.deliverytech.delivery_api.repository;
 
 import com.deliverytech.delivery_api.entity.Restaurante;
 import com.deliverytech.delivery_api.entity.Produto;
+import com.deliverytech.delivery_api.entity.StatusPedido;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -9,6 +10,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -34,14 +36,19 @@ precoMax);
     List<Produto> findByDisponivelTrueOrderByPrecoAsc();
     List<Produto> findByDisponivelTrueOrderByPrecoDesc();
 
-    // Query customizada - produtos mais vendidos (já existia e estava conforme roteiro) (original)
-    @Query(value = "SELECT p.nome, COUNT(ip.produto_id) as quantidade_vendida " +
-           "FROM produto p " +
-           "LEFT JOIN item_pedido ip ON p.id = ip.produto_id " +
-           "GROUP BY p.id, p.nome " +
-           "ORDER BY quantidade_vendida DESC " +
-           "LIMIT 5", nativeQuery = true)
-    List<Object[]> findProdutosMaisVendidos();
+    // Quantidade vendida (soma da quantidade dos itens) de cada produto nos pedidos com os status informados,
+    // na tabela principal e no arquivo; valores exatos que carregam o ProdutosMaisVendidosService
+    @Query("SELECT new com.deliverytech.delivery_api.repository.ProdutoRepository$QuantidadeVendida(" +
+           "pr.id, pr.nome, pr.restaurante.id, pr.categoria, SUM(i.quantidade)) " +
+           "FROM ItemPedido i JOIN i.produto pr WHERE i.pedido.status IN :status " +
+           "GROUP BY pr.id, pr.nome, pr.restaurante.id, pr.categoria")
+    List<QuantidadeVendida> somarQuantidadesVendidas(@Param("status") Collection<StatusPedido> status);
+
+    @Query("SELECT new com.deliverytech.delivery_api.repository.ProdutoRepository$QuantidadeVendida(" +
+           "pr.id, pr.nome, pr.restaurante.id, pr.categoria, SUM(i.quantidade)) " +
+           "FROM ItemPedidoArquivado i JOIN i.produto pr WHERE i.pedido.status IN :status " +
+           "GROUP BY pr.id, pr.nome, pr.restaurante.id, pr.categoria")
+    List<QuantidadeVendida> somarQuantidadesVendidasArquivadas(@Param("status") Collection<StatusPedido> status);
 
     // Buscar por restaurante e categoria (original)
     @Query("SELECT p FROM Produto p WHERE p.restaurante.id = :restauranteId " +
@@ -62,4 +69,11 @@ precoMax);
     List<Produto> findByRestauranteIdAndDisponivelFalse(Long restauranteId);
 
     // --- FIM DOS NOVOS MÉTODOS ---
-}
\ No newline at end of file
+
+    // Carrega de uma vez todos os produtos de um pedido, já com o restaurante (evita uma consulta por item)
+    @Query("SELECT p FROM Produto p JOIN FETCH p.restaurante WHERE p.id IN :ids")
+    List<Produto> findAllByIdComRestaurante(@Param("ids") Collection<Long> ids);
+
+    record QuantidadeVendida(Long produtoId, String nome, Long restauranteId, String categoria, Long quantidade) {
+    }
+}
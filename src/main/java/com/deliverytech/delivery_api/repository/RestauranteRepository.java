@@ -5,13 +5,17 @@ import org.springframework.data.domain.Page; // Importe para suportar paginaçã
 import org.springframework.data.domain.Pageable; // Importe para suportar paginação
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 import com.deliverytech.delivery_api.repository.projections.RelatorioVendas;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 
 @Repository
 public interface RestauranteRepository extends JpaRepository<Restaurante, Long> {
@@ -60,12 +64,27 @@ public interface RestauranteRepository extends JpaRepository<Restaurante, Long>
     @Query("SELECT DISTINCT r.categoria FROM Restaurante r WHERE r.ativo = true ORDER BY r.categoria")
     List<String> findCategoriasDisponiveis();
 
-    // Relatório de vendas por restaurante usando projeção
+    // Relatório de vendas por restaurante usando projeção: lê o agregado mantido a cada alteração de
+    // pedido (uma linha por restaurante), sem agrupar os pedidos; cancelados não contam
     @Query("SELECT r.nome as nomeRestaurante, " +
-           "SUM(p.valorTotal) as totalVendas, " +
-           "COUNT(p.id) as quantidePedidos " +
+           "COALESCE(v.totalVendas, 0) as totalVendas, " +
+           "COALESCE(v.quantidadePedidos, 0) as quantidePedidos " +
            "FROM Restaurante r " +
-           "LEFT JOIN Pedido p ON r.id = p.restaurante.id " +
-           "GROUP BY r.id, r.nome")
+           "LEFT JOIN VendasRestaurante v ON v.restauranteId = r.id " +
+           "ORDER BY r.id")
     List<RelatorioVendas> relatorioVendasPorRestaurante();
+
+    // Mesmo relatório por um cursor do banco (relatórios assíncronos), como a exportação do histórico de
+    // pedidos: deve ser consumido dentro de uma transação e fechado
+    @Query("SELECT r.nome as nomeRestaurante, " +
+           "COALESCE(v.totalVendas, 0) as totalVendas, " +
+           "COALESCE(v.quantidadePedidos, 0) as quantidePedidos " +
+           "FROM Restaurante r " +
+           "LEFT JOIN VendasRestaurante v ON v.restauranteId = r.id " +
+           "ORDER BY r.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + PedidoRepository.FETCH_SIZE_EXPORTACAO),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<RelatorioVendas> streamRelatorioVendasPorRestaurante();
 }
\ No newline at end of file
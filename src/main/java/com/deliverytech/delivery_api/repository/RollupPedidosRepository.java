@@ -0,0 +1,109 @@
+package com.deliverytech.delivery_api.repository;
+
+import com.deliverytech.delivery_api.entity.GranularidadeRollup;
+import com.deliverytech.delivery_api.entity.RollupPedidos;
+import com.deliverytech.delivery_api.entity.StatusPedido;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RollupPedidosRepository extends JpaRepository<RollupPedidos, RollupPedidos.Chave> {
+
+    // Incremento atômico do balde; devolve 0 se a linha ainda não existe. SQL nativo pelo mesmo
+    // motivo de VendasRestauranteRepository.somar (CAST do parâmetro decimal no H2)
+    @Modifying
+    @Query(value = "UPDATE rollup_pedidos SET quantidade = quantidade + :quantidade, " +
+                   "valor_bruto = valor_bruto + :valorBruto, valor_liquido = valor_liquido + :valorLiquido " +
+                   "WHERE granularidade = :granularidade AND inicio = :inicio " +
+                   "AND restaurante_id = :restauranteId AND status = :status", nativeQuery = true)
+    int somar(@Param("granularidade") String granularidade,
+              @Param("inicio") LocalDateTime inicio,
+              @Param("restauranteId") Long restauranteId,
+              @Param("status") String status,
+              @Param("quantidade") long quantidade,
+              @Param("valorBruto") BigDecimal valorBruto,
+              @Param("valorLiquido") BigDecimal valorLiquido);
+
+    // Reconciliação: bloqueia o balde enquanto os pedidos correspondentes são somados
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM RollupPedidos r WHERE r.id = :id")
+    Optional<RollupPedidos> bloquear(@Param("id") RollupPedidos.Chave id);
+
+    @Query("SELECT r FROM RollupPedidos r WHERE r.id.inicio >= :inicio AND r.id.inicio < :fim")
+    List<RollupPedidos> findByInicio(@Param("inicio") LocalDateTime inicio, @Param("fim") LocalDateTime fim);
+
+    // Soma dos baldes de uma granularidade cujo início está em [inicio, fim)
+    @Query("SELECT new com.deliverytech.delivery_api.repository.RollupPedidosRepository$Total(" +
+           "r.id.restauranteId, r.id.status, SUM(r.quantidade), SUM(r.valorBruto), SUM(r.valorLiquido)) " +
+           "FROM RollupPedidos r WHERE r.id.granularidade = :granularidade " +
+           "AND r.id.inicio >= :inicio AND r.id.inicio < :fim " +
+           "GROUP BY r.id.restauranteId, r.id.status")
+    List<Total> somarBaldes(@Param("granularidade") GranularidadeRollup granularidade,
+                            @Param("inicio") LocalDateTime inicio,
+                            @Param("fim") LocalDateTime fim);
+
+    // Pedidos com data em [inicio, fim), da tabela principal e do arquivo: bordas de período que
+    // não fecham uma hora e valores de referência da reconciliação
+    @Query("SELECT new com.deliverytech.delivery_api.repository.RollupPedidosRepository$Total(" +
+           "p.restaurante.id, p.status, COUNT(p), SUM(p.valorTotal), SUM(p.subtotal)) " +
+           "FROM Pedido p WHERE p.dataPedido >= :inicio AND p.dataPedido < :fim " +
+           "GROUP BY p.restaurante.id, p.status")
+    List<Total> somarPedidos(@Param("inicio") LocalDateTime inicio, @Param("fim") LocalDateTime fim);
+
+    @Query("SELECT new com.deliverytech.delivery_api.repository.RollupPedidosRepository$Total(" +
+           "p.restaurante.id, p.status, COUNT(p), SUM(p.valorTotal), SUM(p.subtotal)) " +
+           "FROM PedidoArquivado p WHERE p.dataPedido >= :inicio AND p.dataPedido < :fim " +
+           "GROUP BY p.restaurante.id, p.status")
+    List<Total> somarPedidosArquivados(@Param("inicio") LocalDateTime inicio, @Param("fim") LocalDateTime fim);
+
+    @Query("SELECT new com.deliverytech.delivery_api.repository.RollupPedidosRepository$TotalHora(" +
+           "hour(p.dataPedido), p.restaurante.id, p.status, COUNT(p), SUM(p.valorTotal), SUM(p.subtotal)) " +
+           "FROM Pedido p WHERE p.dataPedido >= :inicio AND p.dataPedido < :fim " +
+           "GROUP BY hour(p.dataPedido), p.restaurante.id, p.status")
+    List<TotalHora> somarPedidosPorHora(@Param("inicio") LocalDateTime inicio, @Param("fim") LocalDateTime fim);
+
+    @Query("SELECT new com.deliverytech.delivery_api.repository.RollupPedidosRepository$TotalHora(" +
+           "hour(p.dataPedido), p.restaurante.id, p.status, COUNT(p), SUM(p.valorTotal), SUM(p.subtotal)) " +
+           "FROM PedidoArquivado p WHERE p.dataPedido >= :inicio AND p.dataPedido < :fim " +
+           "GROUP BY hour(p.dataPedido), p.restaurante.id, p.status")
+    List<TotalHora> somarPedidosArquivadosPorHora(@Param("inicio") LocalDateTime inicio, @Param("fim") LocalDateTime fim);
+
+    // Um balde recalculado a partir dos pedidos (índice (restaurante_id, status, data_pedido))
+    @Query("SELECT new com.deliverytech.delivery_api.repository.RollupPedidosRepository$Total(" +
+           "p.restaurante.id, p.status, COUNT(p), SUM(p.valorTotal), SUM(p.subtotal)) " +
+           "FROM Pedido p WHERE p.restaurante.id = :restauranteId AND p.status = :status " +
+           "AND p.dataPedido >= :inicio AND p.dataPedido < :fim " +
+           "GROUP BY p.restaurante.id, p.status")
+    Optional<Total> somarPedidos(@Param("restauranteId") Long restauranteId, @Param("status") StatusPedido status,
+                                 @Param("inicio") LocalDateTime inicio, @Param("fim") LocalDateTime fim);
+
+    @Query("SELECT new com.deliverytech.delivery_api.repository.RollupPedidosRepository$Total(" +
+           "p.restaurante.id, p.status, COUNT(p), SUM(p.valorTotal), SUM(p.subtotal)) " +
+           "FROM PedidoArquivado p WHERE p.restaurante.id = :restauranteId AND p.status = :status " +
+           "AND p.dataPedido >= :inicio AND p.dataPedido < :fim " +
+           "GROUP BY p.restaurante.id, p.status")
+    Optional<Total> somarPedidosArquivados(@Param("restauranteId") Long restauranteId, @Param("status") StatusPedido status,
+                                           @Param("inicio") LocalDateTime inicio, @Param("fim") LocalDateTime fim);
+
+    @Query("SELECT MIN(p.dataPedido) FROM Pedido p")
+    Optional<LocalDateTime> findPrimeiraDataPedido();
+
+    @Query("SELECT MIN(p.dataPedido) FROM PedidoArquivado p")
+    Optional<LocalDateTime> findPrimeiraDataPedidoArquivado();
+
+    record Total(Long restauranteId, StatusPedido status, Long quantidade, BigDecimal valorBruto, BigDecimal valorLiquido) {
+    }
+
+    record TotalHora(Integer hora, Long restauranteId, StatusPedido status, Long quantidade, BigDecimal valorBruto, BigDecimal valorLiquido) {
+    }
+}
@@ -0,0 +1,67 @@
+package com.deliverytech.delivery_api.repository;
+
+import com.deliverytech.delivery_api.entity.VendasRestaurante;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface VendasRestauranteRepository extends JpaRepository<VendasRestaurante, Long> {
+
+    // Incremento atômico: transações concorrentes do mesmo restaurante se enfileiram no bloqueio da
+    // linha, sem perder atualizações. Devolve 0 se a linha ainda não existe. SQL nativo: o JPQL
+    // equivalente gera um CAST do parâmetro decimal que o H2 não aceita.
+    @Modifying
+    @Query(value = "UPDATE vendas_restaurante SET total_vendas = total_vendas + :valor, " +
+                   "quantidade_pedidos = quantidade_pedidos + :quantidade, atualizado_em = :agora " +
+                   "WHERE restaurante_id = :restauranteId", nativeQuery = true)
+    int somar(@Param("restauranteId") Long restauranteId,
+              @Param("valor") BigDecimal valor,
+              @Param("quantidade") long quantidade,
+              @Param("agora") LocalDateTime agora);
+
+    // Reconciliação: bloqueia a linha enquanto os pedidos do restaurante são somados, para que
+    // nenhuma alteração de pedido seja confirmada entre a soma e a correção
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT v FROM VendasRestaurante v WHERE v.restauranteId = :restauranteId")
+    Optional<VendasRestaurante> bloquear(@Param("restauranteId") Long restauranteId);
+
+    // Valores de referência, calculados a partir dos pedidos (tabela principal e arquivo)
+    @Query("SELECT new com.deliverytech.delivery_api.repository.VendasRestauranteRepository$TotalVendas(" +
+           "p.restaurante.id, SUM(p.valorTotal), COUNT(p)) " +
+           "FROM Pedido p WHERE p.status <> com.deliverytech.delivery_api.entity.StatusPedido.CANCELADO " +
+           "GROUP BY p.restaurante.id")
+    List<TotalVendas> calcularPedidos();
+
+    @Query("SELECT new com.deliverytech.delivery_api.repository.VendasRestauranteRepository$TotalVendas(" +
+           "p.restaurante.id, SUM(p.valorTotal), COUNT(p)) " +
+           "FROM PedidoArquivado p WHERE p.status <> com.deliverytech.delivery_api.entity.StatusPedido.CANCELADO " +
+           "GROUP BY p.restaurante.id")
+    List<TotalVendas> calcularPedidosArquivados();
+
+    @Query("SELECT new com.deliverytech.delivery_api.repository.VendasRestauranteRepository$TotalVendas(" +
+           "p.restaurante.id, SUM(p.valorTotal), COUNT(p)) " +
+           "FROM Pedido p WHERE p.restaurante.id = :restauranteId " +
+           "AND p.status <> com.deliverytech.delivery_api.entity.StatusPedido.CANCELADO " +
+           "GROUP BY p.restaurante.id")
+    Optional<TotalVendas> calcularPedidos(@Param("restauranteId") Long restauranteId);
+
+    @Query("SELECT new com.deliverytech.delivery_api.repository.VendasRestauranteRepository$TotalVendas(" +
+           "p.restaurante.id, SUM(p.valorTotal), COUNT(p)) " +
+           "FROM PedidoArquivado p WHERE p.restaurante.id = :restauranteId " +
+           "AND p.status <> com.deliverytech.delivery_api.entity.StatusPedido.CANCELADO " +
+           "GROUP BY p.restaurante.id")
+    Optional<TotalVendas> calcularPedidosArquivados(@Param("restauranteId") Long restauranteId);
+
+    record TotalVendas(Long restauranteId, BigDecimal totalVendas, Long quantidadePedidos) {
+    }
+}
@@ -1,7 +1,11 @@
 package com.deliverytech.delivery_api.repository.projections; // Ajuste o pacote conforme sua estrutura
 
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
 import java.math.BigDecimal;
 
+// Ordem fixa das colunas no CSV dos relatórios assíncronos; sem ela, segue a ordem dos métodos na reflexão
+@JsonPropertyOrder({"nomeRestaurante", "totalVendas", "quantidePedidos"})
 public interface RelatorioVendas { //
     String getNomeRestaurante(); //
     BigDecimal getTotalVendas(); //
@@ -0,0 +1,233 @@
+package com.deliverytech.delivery_api.service;
+
+import com.deliverytech.delivery_api.dto.AnalisePedidosDTO;
+import com.deliverytech.delivery_api.dto.GrupoAnaliseDTO;
+import com.deliverytech.delivery_api.entity.StatusPedido;
+import com.deliverytech.delivery_api.exception.BusinessException;
+import com.deliverytech.delivery_api.repository.PedidoArquivadoRepository;
+import com.deliverytech.delivery_api.repository.PedidoRepository;
+import com.deliverytech.delivery_api.repository.PedidoRepository.LinhaAnalise;
+import com.deliverytech.delivery_api.service.analise.AgregacaoPedidos;
+import com.deliverytech.delivery_api.service.analise.AgregacaoPedidos.Dimensao;
+import com.deliverytech.delivery_api.service.analise.AgregacaoPedidos.Filtro;
+import com.deliverytech.delivery_api.service.analise.AgregacaoPedidos.Grupo;
+import com.deliverytech.delivery_api.service.analise.AgregacaoPedidos.Ordem;
+import com.deliverytech.delivery_api.service.analise.AgregacaoPedidos.Resultado;
+import com.deliverytech.delivery_api.service.analise.ColunasPedidos;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+
+/**
+ * Análises ad hoc dos pedidos (GET /api/relatorios/analise) sobre um snapshot colunar em memória
+ * (ColunasPedidos), sem consultar o banco: agrupamentos livres por restaurante, cliente, status, dia,
+ * hora e dia da semana, varridos em paralelo no ForkJoinPool do serviço (delivery.analise.paralelismo
+ * threads, para não disputar o pool comum).
+ *
+ * O snapshot é reconstruído dos pedidos e do arquivo a cada delivery.analise.reconstrucao.intervalo e,
+ * entre as reconstruções, recebe a cada delivery.analise.atualizacao.intervalo os pedidos com ID
+ * maior que o último carregado. Mudanças de status e pedidos confirmados fora da ordem dos IDs só
+ * aparecem na reconstrução seguinte; a resposta informa quando o snapshot foi atualizado. As leituras
+ * são transações readOnly, atendidas pela réplica quando disponível. Durante uma reconstrução, o
+ * snapshot anterior e o novo coexistem em memória.
+ */
+@Service
+public class AnalisePedidosService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalisePedidosService.class);
+
+    private final PedidoRepository pedidoRepository;
+    private final PedidoArquivadoRepository pedidoArquivadoRepository;
+    private final TransactionTemplate leitura;
+    private final MeterRegistry meterRegistry;
+    private final boolean habilitado;
+    private final Duration intervalo;
+    private final Duration intervaloReconstrucao;
+    private final int tamanhoLote;
+    private final ForkJoinPool pool;
+    private final Timer duracaoConsulta;
+
+    private volatile Snapshot atual = new Snapshot(ColunasPedidos.vazio(), 0, null);
+    private ScheduledExecutorService executor;
+
+    public AnalisePedidosService(PedidoRepository pedidoRepository,
+                                 PedidoArquivadoRepository pedidoArquivadoRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${delivery.analise.atualizacao.habilitado:true}") boolean habilitado,
+                                 @Value("${delivery.analise.atualizacao.intervalo:PT1M}") Duration intervalo,
+                                 @Value("${delivery.analise.reconstrucao.intervalo:PT1H}") Duration intervaloReconstrucao,
+                                 @Value("${delivery.analise.tamanho-lote:10000}") int tamanhoLote,
+                                 @Value("${delivery.analise.paralelismo:0}") int paralelismo) {
+        this.pedidoRepository = pedidoRepository;
+        this.pedidoArquivadoRepository = pedidoArquivadoRepository;
+        this.leitura = new TransactionTemplate(transactionManager);
+        this.leitura.setReadOnly(true);
+        this.meterRegistry = meterRegistry;
+        this.habilitado = habilitado;
+        this.intervalo = intervalo;
+        this.intervaloReconstrucao = intervaloReconstrucao;
+        this.tamanhoLote = tamanhoLote;
+        this.pool = new ForkJoinPool(paralelismo > 0 ? paralelismo : Runtime.getRuntime().availableProcessors(), p -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            thread.setName("analise-pedidos-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+
+        Gauge.builder("delivery.analise.pedidos", this, servico -> servico.atual.colunas().tamanho())
+                .description("Pedidos no snapshot colunar de análise")
+                .register(meterRegistry);
+        this.duracaoConsulta = Timer.builder("delivery.analise.consulta")
+                .description("Duração de uma análise sobre o snapshot colunar")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        if (!habilitado || executor != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "carga-analise-pedidos");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.execute(() -> executar(this::reconstruir, "reconstrução"));
+        executor.scheduleWithFixedDelay(() -> executar(this::acrescentar, "atualização"),
+                intervalo.toMillis(), intervalo.toMillis(), TimeUnit.MILLISECONDS);
+        executor.scheduleWithFixedDelay(() -> executar(this::reconstruir, "reconstrução"),
+                intervaloReconstrucao.toMillis(), intervaloReconstrucao.toMillis(), TimeUnit.MILLISECONDS);
+        logger.info("Snapshot de análise de pedidos: novos pedidos a cada {}, reconstrução a cada {}", intervalo, intervaloReconstrucao);
+    }
+
+    @PreDestroy
+    public void parar() throws InterruptedException {
+        pool.shutdownNow();
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private void executar(Runnable carga, String descricao) {
+        try {
+            carga.run();
+        } catch (Exception e) {
+            logger.warn("Falha na {} do snapshot de análise de pedidos", descricao, e);
+        }
+    }
+
+    /** Recarrega todo o snapshot, do arquivo e dos pedidos. Devolve a quantidade de pedidos carregados. */
+    public synchronized int reconstruir() {
+        long inicio = System.nanoTime();
+        LocalDateTime agora = LocalDateTime.now();
+        ColunasPedidos.Construtor construtor = ColunasPedidos.construtor();
+        // Arquivo antes dos pedidos: um pedido arquivado durante a carga fica de fora até a próxima
+        long ultimoArquivado = carregar(construtor, 0, desde -> pedidoArquivadoRepository.findLinhasAnalise(desde, PageRequest.of(0, tamanhoLote)));
+        long ultimoPedido = carregar(construtor, 0, desde -> pedidoRepository.findLinhasAnalise(desde, PageRequest.of(0, tamanhoLote)));
+        atual = new Snapshot(construtor.construir(), Math.max(ultimoArquivado, ultimoPedido), agora);
+        registrarCarga("completa", inicio);
+        logger.info("Snapshot de análise reconstruído com {} pedido(s)", atual.colunas().tamanho());
+        return atual.colunas().tamanho();
+    }
+
+    /** Acrescenta os pedidos com ID maior que o último carregado. Devolve a quantidade acrescentada. */
+    public synchronized int acrescentar() {
+        long inicio = System.nanoTime();
+        LocalDateTime agora = LocalDateTime.now();
+        Snapshot anterior = atual;
+        ColunasPedidos.Construtor construtor = anterior.colunas().estender();
+        long ultimoId = carregar(construtor, anterior.ultimoId(), desde -> pedidoRepository.findLinhasAnalise(desde, PageRequest.of(0, tamanhoLote)));
+        int acrescentados = construtor.tamanho() - anterior.colunas().tamanho();
+        atual = new Snapshot(acrescentados > 0 ? construtor.construir() : anterior.colunas(), ultimoId, agora);
+        registrarCarga("incremental", inicio);
+        return acrescentados;
+    }
+
+    /**
+     * Agrupa os pedidos do snapshot que atendem ao filtro pelas dimensões escolhidas (nenhuma: um único
+     * grupo com o total) e devolve os primeiros limite grupos na ordem pedida.
+     *
+     * @throws BusinessException se a combinação de dimensões não couber na chave de agrupamento
+     */
+    public AnalisePedidosDTO consultar(Set<Dimensao> dimensoes, Filtro filtro, Ordem ordem, int limite) {
+        Snapshot snapshot = atual;
+        Resultado resultado;
+        try {
+            resultado = duracaoConsulta.record(() ->
+                    AgregacaoPedidos.agregar(snapshot.colunas(), dimensoes, filtro, ordem, limite, pool));
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException(e.getMessage() + ". Remova CLIENTE ou RESTAURANTE, ou outra dimensão.",
+                    "ANALYSIS_DIMENSIONS_TOO_LARGE");
+        }
+        return new AnalisePedidosDTO(snapshot.atualizadoEm(), snapshot.colunas().tamanho(), resultado.pedidos(),
+                BigDecimal.valueOf(resultado.centavos(), 2), resultado.totalGrupos(),
+                resultado.grupos().stream().map(AnalisePedidosService::toGrupoDTO).toList());
+    }
+
+    private long carregar(ColunasPedidos.Construtor construtor, long ultimoId, LongFunction<List<LinhaAnalise>> proximoBloco) {
+        List<LinhaAnalise> linhas;
+        do {
+            long desde = ultimoId;
+            linhas = leitura.execute(status -> proximoBloco.apply(desde));
+            for (LinhaAnalise linha : linhas) {
+                construtor.adicionar(linha.restauranteId() == null ? 0 : linha.restauranteId(),
+                        linha.clienteId() == null ? 0 : linha.clienteId(),
+                        linha.dataPedido(), linha.status(), linha.valorTotal());
+                ultimoId = linha.id();
+            }
+        } while (linhas.size() == tamanhoLote);
+        return ultimoId;
+    }
+
+    private void registrarCarga(String tipo, long inicio) {
+        Timer.builder("delivery.analise.carga")
+                .description("Duração de uma carga do snapshot colunar de análise")
+                .tag("tipo", tipo)
+                .register(meterRegistry)
+                .record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+    }
+
+    private static GrupoAnaliseDTO toGrupoDTO(Grupo grupo) {
+        Map<Dimensao, Long> valores = grupo.dimensoes();
+        Long status = valores.get(Dimensao.STATUS);
+        Long dia = valores.get(Dimensao.DIA);
+        Long hora = valores.get(Dimensao.HORA);
+        Long diaDaSemana = valores.get(Dimensao.DIA_DA_SEMANA);
+        return new GrupoAnaliseDTO(valores.get(Dimensao.RESTAURANTE), valores.get(Dimensao.CLIENTE),
+                status == null ? null : StatusPedido.values()[status.intValue()],
+                dia == null ? null : LocalDate.ofEpochDay(dia),
+                hora == null ? null : hora.intValue(),
+                diaDaSemana == null ? null : DayOfWeek.of(diaDaSemana.intValue()),
+                grupo.quantidade(), BigDecimal.valueOf(grupo.centavos(), 2));
+    }
+
+    private record Snapshot(ColunasPedidos colunas, long ultimoId, LocalDateTime atualizadoEm) {
+    }
+}
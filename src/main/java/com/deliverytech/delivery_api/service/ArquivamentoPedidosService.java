@@ -0,0 +1,143 @@
+package com.deliverytech.delivery_api.service;
+
+import com.deliverytech.delivery_api.entity.StatusPedido;
+import com.deliverytech.delivery_api.repository.PedidoArquivadoRepository;
+import com.deliverytech.delivery_api.repository.PedidoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Arquivamento (delivery.pedido.arquivamento.habilitado=true): a cada delivery.pedido.arquivamento.intervalo,
+ * move os pedidos ENTREGUE e CANCELADO mais antigos que delivery.pedido.arquivamento.idade-minima, com
+ * seus itens, para as tabelas pedido_arquivado e item_pedido_arquivado. Cada bloco de até
+ * delivery.pedido.arquivamento.tamanho-lote pedidos é copiado e excluído em uma transação própria, para
+ * que os bloqueios durem pouco; assim a tabela pedido cresce com os pedidos em andamento e recentes, não
+ * com o histórico.
+ *
+ * Pedidos arquivados continuam disponíveis para GET /api/pedidos/{id} e /numero/{numeroPedido}, no
+ * histórico do cliente (GET /api/pedidos/cliente/{clienteId}) e nas exportações NDJSON do cliente e do
+ * restaurante, mas não podem mais ser alterados (um pedido CANCELADO arquivado não pode ser reativado).
+ * As listagens paginadas (GET /api/pedidos e /restaurante/{restauranteId}) cobrem só a tabela principal.
+ */
+@Service
+public class ArquivamentoPedidosService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArquivamentoPedidosService.class);
+    private static final Set<StatusPedido> ARQUIVAVEIS = EnumSet.of(StatusPedido.ENTREGUE, StatusPedido.CANCELADO);
+
+    private final PedidoRepository pedidoRepository;
+    private final PedidoArquivadoRepository pedidoArquivadoRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean habilitado;
+    private final Duration idadeMinima;
+    private final Duration intervalo;
+    private final int tamanhoLote;
+    private final Counter arquivados;
+    private final Timer duracaoLote;
+
+    private ScheduledExecutorService executor;
+
+    public ArquivamentoPedidosService(PedidoRepository pedidoRepository,
+                                      PedidoArquivadoRepository pedidoArquivadoRepository,
+                                      PlatformTransactionManager transactionManager,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${delivery.pedido.arquivamento.habilitado:true}") boolean habilitado,
+                                      @Value("${delivery.pedido.arquivamento.idade-minima:P90D}") Duration idadeMinima,
+                                      @Value("${delivery.pedido.arquivamento.intervalo:PT1H}") Duration intervalo,
+                                      @Value("${delivery.pedido.arquivamento.tamanho-lote:500}") int tamanhoLote) {
+        this.pedidoRepository = pedidoRepository;
+        this.pedidoArquivadoRepository = pedidoArquivadoRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.habilitado = habilitado;
+        this.idadeMinima = idadeMinima;
+        this.intervalo = intervalo;
+        this.tamanhoLote = tamanhoLote;
+        this.arquivados = Counter.builder("delivery.pedidos.arquivados")
+                .description("Pedidos movidos para as tabelas de arquivo")
+                .register(meterRegistry);
+        this.duracaoLote = Timer.builder("delivery.pedidos.arquivamento.lote")
+                .description("Duração da transação de arquivamento de um bloco de pedidos")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        if (!habilitado) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "arquivamento-pedidos");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::executar, intervalo.toMillis(), intervalo.toMillis(), TimeUnit.MILLISECONDS);
+        logger.info("Arquivamento de pedidos iniciado: pedidos finalizados há mais de {}, a cada {}", idadeMinima, intervalo);
+    }
+
+    @PreDestroy
+    public void parar() throws InterruptedException {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private void executar() {
+        try {
+            int total = arquivar();
+            if (total > 0) {
+                logger.info("{} pedido(s) arquivado(s)", total);
+            }
+        } catch (Exception e) {
+            logger.warn("Falha no arquivamento de pedidos; nova tentativa em {}", intervalo, e);
+        }
+    }
+
+    /** Arquiva, bloco a bloco, todos os pedidos elegíveis neste momento. Devolve a quantidade arquivada. */
+    public int arquivar() {
+        LocalDateTime limite = LocalDateTime.now().minus(idadeMinima);
+        int total = 0;
+        int noLote;
+        do {
+            noLote = arquivarLote(limite);
+            total += noLote;
+        } while (noLote == tamanhoLote && (executor == null || !executor.isShutdown()));
+        return total;
+    }
+
+    /** Copia e exclui, em uma transação, um bloco de pedidos finalizados antes do limite. */
+    public int arquivarLote(LocalDateTime limite) {
+        Integer quantidade = duracaoLote.record(() -> transactionTemplate.execute(status -> {
+            List<Long> ids = pedidoRepository.reservarParaArquivamento(ARQUIVAVEIS, limite, PageRequest.of(0, tamanhoLote));
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            pedidoArquivadoRepository.copiarPedidos(ids, LocalDateTime.now());
+            pedidoArquivadoRepository.copiarItens(ids);
+            pedidoRepository.excluirItens(ids);
+            return pedidoRepository.excluir(ids);
+        }));
+        arquivados.increment(quantidade);
+        return quantidade;
+    }
+}
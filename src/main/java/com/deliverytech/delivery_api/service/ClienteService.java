@@ -20,6 +20,9 @@ public class ClienteService {
     @Autowired
     private ClienteRepository clienteRepository;
 
+    @Autowired
+    private RankingClientesService rankingClientesService;
+
     /**
      * Cadastrar novo cliente
      */
@@ -77,6 +80,7 @@ public class ClienteService {
         cliente.setTelefone(clienteAtualizado.getTelefone());
         cliente.setEndereco(clienteAtualizado.getEndereco());
         validarDadosCliente(cliente);
+        rankingClientesService.renomear(id, cliente.getNome());
         return clienteRepository.save(cliente);
     }
 
@@ -0,0 +1,37 @@
+package com.deliverytech.delivery_api.service;
+
+import com.deliverytech.delivery_api.entity.Pedido;
+import com.deliverytech.delivery_api.exception.BusinessException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Posição de um pedido na ordenação (dataPedido, id), usada na paginação por cursor.
+ * O cliente recebe apenas a forma codificada e a devolve sem interpretá-la.
+ */
+public record CursorPedido(LocalDateTime dataPedido, Long id) {
+
+    private static final char SEPARADOR = '|';
+
+    public static CursorPedido de(Pedido pedido) {
+        return new CursorPedido(pedido.getDataPedido(), pedido.getId());
+    }
+
+    public String codificar() {
+        String valor = dataPedido.toString() + SEPARADOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static CursorPedido decodificar(String cursor) {
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = valor.lastIndexOf(SEPARADOR);
+            return new CursorPedido(LocalDateTime.parse(valor.substring(0, separador)),
+                    Long.parseLong(valor.substring(separador + 1)));
+        } catch (RuntimeException e) {
+            throw new BusinessException("Cursor de paginação inválido.", "INVALID_CURSOR");
+        }
+    }
+}
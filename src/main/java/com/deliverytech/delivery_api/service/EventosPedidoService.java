@@ -0,0 +1,263 @@
+package com.deliverytech.delivery_api.service;
+
+import com.deliverytech.delivery_api.dto.EventoStatusPedidoDTO;
+import com.deliverytech.delivery_api.entity.StatusPedido;
+import com.deliverytech.delivery_api.exception.FilaCheiaException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static com.deliverytech.delivery_api.util.Transacoes.aposCommit;
+
+/**
+ * Distribui as mudanças de status dos pedidos para as conexões SSE de GET /api/pedidos/{id}/eventos.
+ *
+ * Cada conexão é uma requisição assíncrona do servlet (SseEmitter): enquanto aberta não ocupa thread,
+ * apenas o emitter registrado aqui. Os envios são feitos em threads virtuais, para que um cliente lento
+ * não atrase a requisição que alterou o pedido nem os demais clientes. Os eventos são publicados após o
+ * commit; conexões ociosas recebem um comentário de heartbeat a cada delivery.pedido.eventos.heartbeat,
+ * o que também detecta clientes desconectados. Acima de delivery.pedido.eventos.max-conexoes, novas
+ * conexões são recusadas com 429.
+ *
+ * As conexões são desta instância e recebem as mudanças feitas nela; com várias instâncias, uma mudança
+ * feita em outra chega ao cliente quando ele reconecta, pelo evento inicial lido do banco.
+ */
+@Service
+public class EventosPedidoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventosPedidoService.class);
+    static final String EVENTO_STATUS = "status";
+    private static final int MAX_PENDENTES = 100;
+
+    private final int maxConexoes;
+    private final Duration timeout;
+    private final Map<Long, Set<Assinatura>> assinaturas = new ConcurrentHashMap<>();
+    private final AtomicInteger conexoes = new AtomicInteger();
+    private final ExecutorService envios = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService heartbeat;
+    private final Counter eventosEnviados;
+    private final Counter conexoesRecusadas;
+
+    public EventosPedidoService(MeterRegistry meterRegistry,
+                                @Value("${delivery.pedido.eventos.max-conexoes:10000}") int maxConexoes,
+                                @Value("${delivery.pedido.eventos.timeout:PT30M}") Duration timeout,
+                                @Value("${delivery.pedido.eventos.heartbeat:PT15S}") Duration intervaloHeartbeat) {
+        this.maxConexoes = maxConexoes;
+        this.timeout = timeout;
+        Gauge.builder("delivery.pedidos.eventos.conexoes", conexoes, AtomicInteger::get)
+                .description("Conexões SSE abertas acompanhando pedidos")
+                .register(meterRegistry);
+        this.eventosEnviados = Counter.builder("delivery.pedidos.eventos.enviados")
+                .description("Eventos de status encaminhados às conexões SSE")
+                .register(meterRegistry);
+        this.conexoesRecusadas = Counter.builder("delivery.pedidos.eventos.recusadas")
+                .description("Conexões SSE recusadas por limite de conexões")
+                .register(meterRegistry);
+
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "eventos-pedidos-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalo = intervaloHeartbeat.toMillis();
+        heartbeat.scheduleAtFixedRate(this::enviarHeartbeats, intervalo, intervalo, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void parar() {
+        heartbeat.shutdownNow();
+        assinaturas.values().forEach(conjunto -> conjunto.forEach(a -> a.emitter.complete()));
+        envios.shutdown();
+    }
+
+    /**
+     * Abre uma conexão para o pedido. O primeiro evento traz o status atual; eventos publicados
+     * enquanto ele ainda não foi enviado são entregues logo depois, na ordem. Para um pedido em
+     * status final a conexão é encerrada após o evento inicial.
+     *
+     * @throws FilaCheiaException se o limite de conexões abertas foi atingido
+     */
+    public SseEmitter assinar(Long pedidoId, Supplier<StatusPedido> statusAtual) {
+        if (conexoes.incrementAndGet() > maxConexoes) {
+            conexoes.decrementAndGet();
+            conexoesRecusadas.increment();
+            throw new FilaCheiaException("Limite de conexões de acompanhamento atingido. Tente novamente em instantes.", 5);
+        }
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Assinatura assinatura = new Assinatura(pedidoId, emitter);
+        emitter.onCompletion(() -> remover(assinatura));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(erro -> remover(assinatura));
+        assinaturas.computeIfAbsent(pedidoId, id -> ConcurrentHashMap.newKeySet()).add(assinatura);
+
+        // Registrada antes da leitura do status: uma mudança concorrente não se perde, fica pendente
+        StatusPedido status;
+        try {
+            status = statusAtual.get();
+        } catch (RuntimeException e) {
+            remover(assinatura);
+            throw e;
+        }
+        assinatura.iniciar(new EventoStatusPedidoDTO(pedidoId, null, status, LocalDateTime.now()));
+        return emitter;
+    }
+
+    /** Publica as mudanças após o commit da transação corrente (ou imediatamente, sem transação). */
+    public void publicar(List<EventoStatusPedidoDTO> eventos) {
+        if (eventos.isEmpty()) {
+            return;
+        }
+        aposCommit(() -> distribuir(eventos));
+    }
+
+    public void publicar(Long pedidoId, StatusPedido statusAnterior, StatusPedido status) {
+        publicar(List.of(new EventoStatusPedidoDTO(pedidoId, statusAnterior, status, LocalDateTime.now())));
+    }
+
+    int conexoesAbertas() {
+        return conexoes.get();
+    }
+
+    private void distribuir(List<EventoStatusPedidoDTO> eventos) {
+        for (EventoStatusPedidoDTO evento : eventos) {
+            Set<Assinatura> conjunto = assinaturas.get(evento.getPedidoId());
+            if (conjunto != null) {
+                conjunto.forEach(assinatura -> assinatura.enviar(evento));
+            }
+        }
+    }
+
+    private void enviarHeartbeats() {
+        assinaturas.values().forEach(conjunto -> conjunto.forEach(Assinatura::heartbeat));
+    }
+
+    private void remover(Assinatura assinatura) {
+        if (assinatura.removida.compareAndSet(false, true)) {
+            conexoes.decrementAndGet();
+            assinaturas.computeIfPresent(assinatura.pedidoId, (id, conjunto) -> {
+                conjunto.remove(assinatura);
+                return conjunto.isEmpty() ? null : conjunto;
+            });
+        }
+    }
+
+    /**
+     * Uma conexão. Eventos e heartbeats entram em uma fila própria, drenada por uma única tarefa de
+     * cada vez: os envios de uma conexão saem na ordem de publicação, sem bloquear as demais.
+     */
+    private final class Assinatura {
+        private final Long pedidoId;
+        private final SseEmitter emitter;
+        private final Deque<Envio> fila = new ArrayDeque<>();
+        private final AtomicBoolean removida = new AtomicBoolean();
+        private boolean iniciada;
+        private boolean drenando;
+        private boolean encerrarAposEnvio;
+
+        private Assinatura(Long pedidoId, SseEmitter emitter) {
+            this.pedidoId = pedidoId;
+            this.emitter = emitter;
+        }
+
+        // O evento inicial passa à frente dos publicados durante a leitura do status
+        synchronized void iniciar(EventoStatusPedidoDTO inicial) {
+            fila.addFirst(evento(inicial));
+            iniciada = true;
+            encerrarAposEnvio |= inicial.getStatus().destinosPermitidos().isEmpty();
+            agendarDrenagem();
+        }
+
+        synchronized void enviar(EventoStatusPedidoDTO evento) {
+            if (fila.size() >= MAX_PENDENTES) {
+                // Cliente que não consome: encerra a conexão; ao reconectar recebe o status atual
+                desconectar(new IOException("mais de " + MAX_PENDENTES + " eventos pendentes"));
+                return;
+            }
+            fila.add(evento(evento));
+            encerrarAposEnvio |= evento.getStatus().destinosPermitidos().isEmpty();
+            agendarDrenagem();
+        }
+
+        synchronized void heartbeat() {
+            if (fila.isEmpty()) {
+                fila.add(new Envio(SseEmitter.event().comment("heartbeat"), false));
+                agendarDrenagem();
+            }
+        }
+
+        private void agendarDrenagem() {
+            if (iniciada && !drenando && !removida.get()) {
+                drenando = true;
+                envios.execute(this::drenar);
+            }
+        }
+
+        private void drenar() {
+            while (true) {
+                Envio proximo;
+                boolean ultimo;
+                synchronized (this) {
+                    proximo = fila.poll();
+                    if (proximo == null || removida.get()) {
+                        drenando = false;
+                        return;
+                    }
+                    ultimo = encerrarAposEnvio && fila.isEmpty();
+                }
+                try {
+                    emitter.send(proximo.conteudo());
+                } catch (IOException | IllegalStateException e) {
+                    desconectar(e);
+                    return;
+                }
+                if (proximo.status()) {
+                    eventosEnviados.increment();
+                }
+                if (ultimo) {
+                    // Status final (ENTREGUE): não haverá novas mudanças
+                    emitter.complete();
+                    remover(this);
+                    return;
+                }
+            }
+        }
+
+        private Envio evento(EventoStatusPedidoDTO evento) {
+            return new Envio(SseEmitter.event().name(EVENTO_STATUS).data(evento, MediaType.APPLICATION_JSON), true);
+        }
+
+        private void desconectar(Exception e) {
+            logger.debug("Conexão SSE do pedido {} encerrada: {}", pedidoId, e.getMessage());
+            emitter.completeWithError(e);
+            remover(this);
+        }
+    }
+
+    // status distingue eventos de status (contados em eventosEnviados) dos heartbeats
+    private record Envio(SseEmitter.SseEventBuilder conteudo, boolean status) {
+    }
+}
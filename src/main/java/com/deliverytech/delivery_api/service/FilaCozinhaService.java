@@ -0,0 +1,305 @@
+package com.deliverytech.delivery_api.service;
+
+import com.deliverytech.delivery_api.dto.ItemPedidoResponseDTO;
+import com.deliverytech.delivery_api.dto.PedidoFilaDTO;
+import com.deliverytech.delivery_api.entity.ItemPedido;
+import com.deliverytech.delivery_api.entity.Pedido;
+import com.deliverytech.delivery_api.entity.StatusPedido;
+import com.deliverytech.delivery_api.repository.PedidoRepository;
+import com.deliverytech.delivery_api.repository.PedidoRepository.VersaoPedido;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.deliverytech.delivery_api.util.Transacoes.aposCommit;
+
+/**
+ * Fila da cozinha: os pedidos ativos (PENDENTE, CONFIRMADO e PREPARANDO) de cada restaurante, em memória
+ * e ordenados do mais antigo para o mais recente, servidos por GET /api/restaurantes/{id}/fila sem
+ * consultar o banco.
+ *
+ * A fila é mantida pelas escritas do PedidoService desta instância, aplicadas após o commit, e
+ * sincronizada com o banco na inicialização e a cada delivery.cozinha.sincronizacao.intervalo, o que
+ * traz as alterações feitas por outras instâncias. Cada alteração traz a versão que o pedido terá
+ * depois dela: uma alteração com versão igual ou menor que a já aplicada (commits concorrentes
+ * concluídos fora de ordem, ou a sincronização lendo um estado já superado) é ignorada.
+ */
+@Service
+public class FilaCozinhaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FilaCozinhaService.class);
+    private static final Set<StatusPedido> ATIVOS = EnumSet.of(StatusPedido.PENDENTE, StatusPedido.CONFIRMADO, StatusPedido.PREPARANDO);
+    private static final int MAX_REMOVIDOS_RASTREADOS = 10000;
+
+    private final PedidoRepository pedidoRepository;
+    private final boolean sincronizacaoHabilitada;
+    private final Duration intervalo;
+    private final Map<Long, FilaRestaurante> filas = new ConcurrentHashMap<>();
+
+    // Alterados apenas com o lock do serviço
+    private final Map<Long, Posicao> ativos = new HashMap<>();
+    // Versão dos pedidos que saíram da fila, para que uma alteração atrasada não os traga de volta
+    private final Map<Long, Long> versoesRemovidos = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Long> maisAntigo) {
+            return size() > MAX_REMOVIDOS_RASTREADOS;
+        }
+    };
+
+    private ScheduledExecutorService executor;
+
+    public FilaCozinhaService(PedidoRepository pedidoRepository, MeterRegistry meterRegistry,
+                              @Value("${delivery.cozinha.sincronizacao.habilitado:true}") boolean sincronizacaoHabilitada,
+                              @Value("${delivery.cozinha.sincronizacao.intervalo:PT5S}") Duration intervalo) {
+        this.pedidoRepository = pedidoRepository;
+        this.sincronizacaoHabilitada = sincronizacaoHabilitada;
+        this.intervalo = intervalo;
+        Gauge.builder("delivery.pedidos.cozinha.ativos", this, FilaCozinhaService::quantidadeAtivos)
+                .description("Pedidos ativos nas filas das cozinhas")
+                .register(meterRegistry);
+    }
+
+    public static boolean isAtivo(StatusPedido status) {
+        return ATIVOS.contains(status);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        logger.info("Fila da cozinha reconstruída com {} pedido(s) ativo(s)", reconstruir());
+        if (!sincronizacaoHabilitada || executor != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "sincronizacao-fila-cozinha");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::sincronizar, intervalo.toMillis(), intervalo.toMillis(), TimeUnit.MILLISECONDS);
+        logger.info("Sincronização da fila da cozinha com o banco a cada {}", intervalo);
+    }
+
+    @PreDestroy
+    public void parar() throws InterruptedException {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Aplica o estado do banco: os pedidos ativos e, dos pedidos na fila que não estão entre eles, o
+     * status atual (os que não existem mais, arquivados, saem da fila). As versões descartam o que
+     * já foi superado por uma alteração aplicada depois da leitura.
+     */
+    public int reconstruir() {
+        List<Pedido> pedidos = pedidoRepository.findByStatusIn(ATIVOS);
+        Set<Long> lidos = new HashSet<>();
+        for (Pedido pedido : pedidos) {
+            lidos.add(pedido.getId());
+            aplicar(pedido.getRestaurante().getId(), versao(pedido), toFilaDTO(pedido));
+        }
+        Set<Long> ausentes;
+        synchronized (this) {
+            ausentes = ativos.keySet().stream().filter(id -> !lidos.contains(id)).collect(Collectors.toSet());
+        }
+        if (!ausentes.isEmpty()) {
+            Map<Long, VersaoPedido> atuais = pedidoRepository.findVersoes(ausentes).stream()
+                    .collect(Collectors.toMap(VersaoPedido::id, Function.identity()));
+            for (Long pedidoId : ausentes) {
+                VersaoPedido atual = atuais.get(pedidoId);
+                if (atual == null) {
+                    descartar(pedidoId);
+                } else {
+                    aplicarStatus(pedidoId, atual.status(), atual.versao() != null ? atual.versao() : 0L);
+                }
+            }
+        }
+        return pedidos.size();
+    }
+
+    private void sincronizar() {
+        try {
+            reconstruir();
+        } catch (Exception e) {
+            logger.warn("Falha na sincronização da fila da cozinha; nova tentativa em {}", intervalo, e);
+        }
+    }
+
+    /**
+     * Pedido criado ou alterado por completo (itens, reativação). O DTO é montado agora, dentro da
+     * transação, e aplicado após o commit.
+     */
+    public void registrar(Pedido pedido, long versao) {
+        Long restauranteId = pedido.getRestaurante().getId();
+        PedidoFilaDTO dto = toFilaDTO(pedido);
+        aposCommit(() -> aplicar(restauranteId, versao, dto));
+    }
+
+    /** Mudança de status de um pedido; se ele voltou a ficar ativo, é registrado por completo. */
+    public void alterarStatus(Pedido pedido, StatusPedido statusAnterior, long versao) {
+        if (!isAtivo(statusAnterior) && isAtivo(pedido.getStatus())) {
+            registrar(pedido, versao);
+        } else {
+            alterarStatus(pedido.getId(), pedido.getStatus(), versao);
+        }
+    }
+
+    /** Mudança apenas de status, sem os dados do pedido: só pode manter, mover ou retirar uma entrada existente. */
+    public void alterarStatus(Long pedidoId, StatusPedido status, long versao) {
+        aposCommit(() -> aplicarStatus(pedidoId, status, versao));
+    }
+
+    /** Os primeiros pedidos da fila do restaurante (todos os ativos ou só os de um status), em O(limite). */
+    public List<PedidoFilaDTO> listar(Long restauranteId, StatusPedido status, int limite) {
+        FilaRestaurante fila = filas.get(restauranteId);
+        if (fila == null) {
+            return List.of();
+        }
+        NavigableMap<ChaveFila, PedidoFilaDTO> pedidos = status == null ? fila.todos : fila.porStatus.get(status);
+        if (pedidos == null) {
+            return List.of();
+        }
+        return pedidos.values().stream().limit(limite).collect(Collectors.toList());
+    }
+
+    synchronized int quantidadeAtivos() {
+        return ativos.size();
+    }
+
+    private synchronized void aplicar(Long restauranteId, long versao, PedidoFilaDTO pedido) {
+        Long pedidoId = pedido.getPedidoId();
+        if (versao <= versaoConhecida(pedidoId)) {
+            return;
+        }
+        retirar(pedidoId);
+        colocar(restauranteId, versao, pedido);
+    }
+
+    private synchronized void descartar(Long pedidoId) {
+        retirar(pedidoId);
+    }
+
+    private synchronized void aplicarStatus(Long pedidoId, StatusPedido status, long versao) {
+        if (versao <= versaoConhecida(pedidoId)) {
+            return;
+        }
+        Posicao posicao = ativos.get(pedidoId);
+        if (posicao == null) {
+            // Fora da fila e sem os dados para incluí-lo. Só a saída é registrada: um status ainda
+            // ativo (alteração anterior à sincronização) não pode impedir que a sincronização, lendo a
+            // mesma versão do banco, inclua o pedido
+            if (!isAtivo(status)) {
+                versoesRemovidos.put(pedidoId, versao);
+            }
+            return;
+        }
+        PedidoFilaDTO atual = posicao.pedido();
+        PedidoFilaDTO alterado = new PedidoFilaDTO(atual.getPedidoId(), atual.getNumeroPedido(), status,
+                atual.getDataPedido(), atual.getClienteNome(), atual.getObservacoes(), atual.getItens());
+        retirar(pedidoId);
+        colocar(posicao.restauranteId(), versao, alterado);
+    }
+
+    // Chamados com o lock
+    private long versaoConhecida(Long pedidoId) {
+        Posicao posicao = ativos.get(pedidoId);
+        if (posicao != null) {
+            return posicao.versao();
+        }
+        return versoesRemovidos.getOrDefault(pedidoId, -1L);
+    }
+
+    private void colocar(Long restauranteId, long versao, PedidoFilaDTO pedido) {
+        if (!isAtivo(pedido.getStatus())) {
+            versoesRemovidos.put(pedido.getPedidoId(), versao);
+            return;
+        }
+        ChaveFila chave = new ChaveFila(pedido.getDataPedido(), pedido.getPedidoId());
+        FilaRestaurante fila = filas.computeIfAbsent(restauranteId, id -> new FilaRestaurante());
+        fila.todos.put(chave, pedido);
+        fila.porStatus.get(pedido.getStatus()).put(chave, pedido);
+        ativos.put(pedido.getPedidoId(), new Posicao(restauranteId, chave, versao, pedido));
+        versoesRemovidos.remove(pedido.getPedidoId());
+    }
+
+    private void retirar(Long pedidoId) {
+        Posicao posicao = ativos.remove(pedidoId);
+        if (posicao == null) {
+            return;
+        }
+        FilaRestaurante fila = filas.get(posicao.restauranteId());
+        fila.todos.remove(posicao.chave());
+        fila.porStatus.get(posicao.pedido().getStatus()).remove(posicao.chave());
+    }
+
+    private static long versao(Pedido pedido) {
+        return pedido.getVersao() != null ? pedido.getVersao() : 0L;
+    }
+
+    private static PedidoFilaDTO toFilaDTO(Pedido pedido) {
+        return new PedidoFilaDTO(pedido.getId(), pedido.getNumeroPedido(), pedido.getStatus(), pedido.getDataPedido(),
+                pedido.getCliente() != null ? pedido.getCliente().getNome() : null,
+                pedido.getObservacoes(),
+                pedido.getItens().stream().map(FilaCozinhaService::toItemDTO).collect(Collectors.toList()));
+    }
+
+    private static ItemPedidoResponseDTO toItemDTO(ItemPedido item) {
+        return new ItemPedidoResponseDTO(item.getId(),
+                item.getProduto() != null ? item.getProduto().getId() : null,
+                item.getProduto() != null ? item.getProduto().getNome() : null,
+                item.getQuantidade(), item.getPrecoUnitario(), item.getSubtotal());
+    }
+
+    /** Pedidos ativos de um restaurante: todos e por status, na mesma ordem. */
+    private static final class FilaRestaurante {
+        private final ConcurrentSkipListMap<ChaveFila, PedidoFilaDTO> todos = new ConcurrentSkipListMap<>();
+        // Preenchido na criação e nunca alterado: lido sem lock
+        private final Map<StatusPedido, ConcurrentSkipListMap<ChaveFila, PedidoFilaDTO>> porStatus =
+                new EnumMap<>(StatusPedido.class);
+
+        private FilaRestaurante() {
+            ATIVOS.forEach(status -> porStatus.put(status, new ConcurrentSkipListMap<>()));
+        }
+    }
+
+    private record ChaveFila(LocalDateTime dataPedido, Long pedidoId) implements Comparable<ChaveFila> {
+        private static final Comparator<ChaveFila> ORDEM = Comparator
+                .comparing(ChaveFila::dataPedido, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(ChaveFila::pedidoId);
+
+        @Override
+        public int compareTo(ChaveFila outra) {
+            return ORDEM.compare(this, outra);
+        }
+    }
+
+    private record Posicao(Long restauranteId, ChaveFila chave, long versao, PedidoFilaDTO pedido) {
+    }
+}
@@ -0,0 +1,254 @@
+package com.deliverytech.delivery_api.service;
+
+import com.deliverytech.delivery_api.dto.AceitePedidoDTO;
+import com.deliverytech.delivery_api.dto.PedidoDTO;
+import com.deliverytech.delivery_api.dto.ResultadoLoteDTO;
+import com.deliverytech.delivery_api.exception.FilaCheiaException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Aceite assíncrono de pedidos (delivery.pedido.async.habilitado=true).
+ *
+ * O POST /api/pedidos apenas valida o DTO, gera o número do pedido e o coloca em uma fila em memória
+ * de capacidade limitada, devolvendo 202 sem ocupar uma conexão com o banco. Um pool de workers drena
+ * a fila em blocos e grava cada bloco com PedidoService.criarPedidosEmLote (INSERTs em lote JDBC).
+ * Se a gravação do bloco falhar, cada pedido é gravado de novo sozinho, e só os que falharem de novo
+ * são rejeitados. Com a fila cheia o aceite falha imediatamente com 429, em vez de acumular threads
+ * do Tomcat. A situação de um aceite só é consultável pelo usuário que o fez (ou por um ADMIN).
+ */
+@Service
+public class FilaPedidosService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FilaPedidosService.class);
+    private static final int MAX_ACEITES_RASTREADOS = 10000;
+
+    private final PedidoService pedidoService;
+    private final NumeroPedidoGenerator numeroPedidoGenerator;
+    private final MetricsService metricsService;
+    private final boolean habilitado;
+    private final int workers;
+    private final int tamanhoLote;
+    private final BlockingQueue<PedidoEnfileirado> fila;
+    private final Timer tempoAtePersistir;
+    private final Counter rejeitadosFilaCheia;
+
+    // Situação dos aceites mais recentes e quem os fez, para consulta pelo número do pedido
+    private final Map<String, Aceite> aceites = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Aceite> maisAntigo) {
+            return size() > MAX_ACEITES_RASTREADOS;
+        }
+    };
+
+    private ExecutorService executor;
+    private volatile boolean ativo;
+
+    public FilaPedidosService(PedidoService pedidoService,
+                              NumeroPedidoGenerator numeroPedidoGenerator,
+                              MetricsService metricsService,
+                              MeterRegistry meterRegistry,
+                              @Value("${delivery.pedido.async.habilitado:false}") boolean habilitado,
+                              @Value("${delivery.pedido.async.capacidade:1000}") int capacidade,
+                              @Value("${delivery.pedido.async.workers:2}") int workers,
+                              @Value("${delivery.pedido.async.tamanho-lote:50}") int tamanhoLote) {
+        this.pedidoService = pedidoService;
+        this.numeroPedidoGenerator = numeroPedidoGenerator;
+        this.metricsService = metricsService;
+        this.habilitado = habilitado;
+        this.workers = workers;
+        this.tamanhoLote = tamanhoLote;
+        this.fila = new ArrayBlockingQueue<>(capacidade);
+
+        Gauge.builder("delivery.pedidos.fila.tamanho", fila, BlockingQueue::size)
+                .description("Pedidos aceitos aguardando persistência")
+                .register(meterRegistry);
+        this.tempoAtePersistir = Timer.builder("delivery.pedidos.fila.persistencia.tempo")
+                .description("Tempo entre o aceite do pedido e sua gravação no banco")
+                .register(meterRegistry);
+        this.rejeitadosFilaCheia = Counter.builder("delivery.pedidos.fila.rejeitados")
+                .description("Pedidos recusados com 429 por fila cheia")
+                .register(meterRegistry);
+    }
+
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        if (!habilitado) {
+            return;
+        }
+        ativo = true;
+        AtomicInteger contador = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(workers, r -> {
+            Thread thread = new Thread(r, "fila-pedidos-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workers; i++) {
+            executor.submit(this::consumir);
+        }
+        logger.info("Fila de pedidos assíncrona iniciada: {} workers, lote de {}", workers, tamanhoLote);
+    }
+
+    @PreDestroy
+    public void parar() throws InterruptedException {
+        if (executor == null) {
+            return;
+        }
+        ativo = false; // os workers terminam de drenar o que já foi aceito
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            logger.warn("Fila de pedidos encerrada com {} pedido(s) não persistido(s)", fila.size());
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Enfileira o pedido e devolve o número gerado para acompanhamento.
+     *
+     * @throws FilaCheiaException se a fila estiver na capacidade máxima
+     */
+    public String aceitar(PedidoDTO dto) {
+        String numeroPedido = numeroPedidoGenerator.gerar();
+        synchronized (aceites) {
+            aceites.put(numeroPedido, new Aceite(new AceitePedidoDTO(numeroPedido, AceitePedidoDTO.Situacao.NA_FILA,
+                    null, null, null, null), usuarioAtual()));
+        }
+        if (!fila.offer(new PedidoEnfileirado(dto, numeroPedido, System.nanoTime()))) {
+            synchronized (aceites) {
+                aceites.remove(numeroPedido);
+            }
+            rejeitadosFilaCheia.increment();
+            throw new FilaCheiaException("Sistema com alta demanda. Tente novamente em instantes.", 1);
+        }
+        return numeroPedido;
+    }
+
+    public Optional<AceitePedidoDTO> buscarAceite(String numeroPedido) {
+        synchronized (aceites) {
+            return Optional.ofNullable(aceites.get(numeroPedido)).map(Aceite::situacao);
+        }
+    }
+
+    /** Se o usuário autenticado fez o aceite; falso também para aceites desconhecidos ou já descartados. */
+    public boolean isAutor(String numeroPedido) {
+        String usuario = usuarioAtual();
+        synchronized (aceites) {
+            Aceite aceite = aceites.get(numeroPedido);
+            return aceite != null && usuario != null && usuario.equals(aceite.autor());
+        }
+    }
+
+    int tamanhoFila() {
+        return fila.size();
+    }
+
+    private void consumir() {
+        List<PedidoEnfileirado> lote = new ArrayList<>(tamanhoLote);
+        while (ativo || !fila.isEmpty()) {
+            try {
+                PedidoEnfileirado primeiro = fila.poll(200, TimeUnit.MILLISECONDS);
+                if (primeiro == null) {
+                    continue;
+                }
+                lote.add(primeiro);
+                fila.drainTo(lote, tamanhoLote - 1);
+                persistir(lote);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    void persistir(List<PedidoEnfileirado> lote) {
+        try {
+            gravar(lote);
+        } catch (Exception e) {
+            if (lote.size() == 1) {
+                rejeitar(lote.get(0), e);
+                return;
+            }
+            logger.warn("Falha ao persistir lote de {} pedido(s) da fila; gravando um a um", lote.size(), e);
+            for (PedidoEnfileirado item : lote) {
+                try {
+                    gravar(List.of(item));
+                } catch (Exception erroItem) {
+                    rejeitar(item, erroItem);
+                }
+            }
+        }
+    }
+
+    private void gravar(List<PedidoEnfileirado> lote) {
+        List<PedidoDTO> dtos = lote.stream().map(PedidoEnfileirado::dto).collect(Collectors.toList());
+        List<String> numeros = lote.stream().map(PedidoEnfileirado::numeroPedido).collect(Collectors.toList());
+        ResultadoLoteDTO resultado = pedidoService.criarPedidosEmLote(dtos, numeros);
+        for (ResultadoLoteDTO.ResultadoPedido r : resultado.getResultados()) {
+            PedidoEnfileirado item = lote.get(r.getIndice());
+            if (r.isSucesso()) {
+                registrar(new AceitePedidoDTO(item.numeroPedido(), AceitePedidoDTO.Situacao.PERSISTIDO, r.getPedidoId(), null, null, null));
+            } else {
+                registrar(new AceitePedidoDTO(item.numeroPedido(), AceitePedidoDTO.Situacao.REJEITADO, null,
+                        r.getErroCodigo(), r.getErroMensagem(), r.getDetalhes()));
+            }
+            tempoAtePersistir.record(System.nanoTime() - item.enfileiradoEm(), TimeUnit.NANOSECONDS);
+        }
+        metricsService.incrementarPedidosComSucesso(resultado.getSucessos());
+        metricsService.incrementarPedidosComErro(resultado.getFalhas());
+    }
+
+    private void rejeitar(PedidoEnfileirado item, Exception e) {
+        logger.error("Falha ao persistir o pedido {} da fila", item.numeroPedido(), e);
+        registrar(new AceitePedidoDTO(item.numeroPedido(), AceitePedidoDTO.Situacao.REJEITADO, null,
+                "PERSISTENCE_ERROR", "Não foi possível gravar o pedido.", null));
+        metricsService.incrementarPedidosComErro(1);
+    }
+
+    // Mantém o autor registrado no aceite
+    private void registrar(AceitePedidoDTO situacao) {
+        synchronized (aceites) {
+            aceites.compute(situacao.getNumeroPedido(),
+                    (numero, atual) -> new Aceite(situacao, atual != null ? atual.autor() : null));
+        }
+    }
+
+    private static String usuarioAtual() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : null;
+    }
+
+    record PedidoEnfileirado(PedidoDTO dto, String numeroPedido, long enfileiradoEm) {
+    }
+
+    private record Aceite(AceitePedidoDTO situacao, String autor) {
+    }
+}
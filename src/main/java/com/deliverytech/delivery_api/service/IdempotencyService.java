@@ -0,0 +1,179 @@
+package com.deliverytech.delivery_api.service;
+
+import com.deliverytech.delivery_api.exception.BusinessException;
+import com.deliverytech.delivery_api.exception.ConflictException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Armazena, por Idempotency-Key, a resposta da primeira execução de uma operação de escrita e a
+ * reproduz nas repetições, sem executar o serviço de novo. Repetições que chegam enquanto a primeira
+ * execução ainda está em andamento aguardam o resultado dela em vez de concorrer com ela.
+ *
+ * O armazenamento é limitado (delivery.idempotencia.max-entradas, descartando as chaves mais antigas)
+ * e cada chave expira após delivery.idempotencia.ttl. As chaves são isoladas por operação e por usuário.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String HEADER_REPETIDA = "Idempotent-Replayed";
+    private static final int TAMANHO_MAXIMO_CHAVE = 255;
+
+    private final int maxEntradas;
+    private final Duration ttl;
+    private final Duration esperaMaxima;
+    private final Clock clock;
+    private final Counter repeticoes;
+
+    // Ordem de inserção = ordem de expiração, pois o TTL é o mesmo para todas as chaves
+    private final LinkedHashMap<String, Entrada> entradas = new LinkedHashMap<>();
+
+    @Autowired
+    public IdempotencyService(MeterRegistry meterRegistry,
+                              @Value("${delivery.idempotencia.max-entradas:10000}") int maxEntradas,
+                              @Value("${delivery.idempotencia.ttl:PT24H}") Duration ttl,
+                              @Value("${delivery.idempotencia.espera-maxima:PT30S}") Duration esperaMaxima) {
+        this(meterRegistry, maxEntradas, ttl, esperaMaxima, Clock.systemUTC());
+    }
+
+    IdempotencyService(MeterRegistry meterRegistry, int maxEntradas, Duration ttl, Duration esperaMaxima, Clock clock) {
+        this.maxEntradas = maxEntradas;
+        this.ttl = ttl;
+        this.esperaMaxima = esperaMaxima;
+        this.clock = clock;
+        this.repeticoes = Counter.builder("delivery.idempotencia.repeticoes")
+                .description("Requisições respondidas a partir de uma Idempotency-Key já processada")
+                .register(meterRegistry);
+        Gauge.builder("delivery.idempotencia.entradas", this, IdempotencyService::tamanho)
+                .description("Chaves de idempotência armazenadas")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Executa a operação uma única vez por chave. Sem chave, apenas executa.
+     *
+     * @param operacao   identifica o endpoint (a mesma chave pode ser usada em operações diferentes)
+     * @param chave      valor do header Idempotency-Key (opcional)
+     * @param requisicao conteúdo da requisição; repetir a chave com outro conteúdo é rejeitado
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ResponseEntity<T> executar(String operacao, String chave, Object requisicao, Supplier<ResponseEntity<T>> execucao) {
+        if (chave == null) {
+            return execucao.get();
+        }
+        if (chave.isBlank() || chave.length() > TAMANHO_MAXIMO_CHAVE) {
+            throw new BusinessException("Idempotency-Key deve ter entre 1 e " + TAMANHO_MAXIMO_CHAVE + " caracteres.", "IDEMPOTENCY_KEY_INVALID");
+        }
+
+        String escopo = operacao + "|" + usuarioAtual() + "|" + chave;
+        Entrada nova = new Entrada(requisicao, clock.millis() + ttl.toMillis());
+        Entrada existente;
+        synchronized (entradas) {
+            removerExpiradas();
+            existente = entradas.get(escopo);
+            if (existente == null) {
+                entradas.put(escopo, nova);
+                while (entradas.size() > maxEntradas) {
+                    Iterator<String> maisAntiga = entradas.keySet().iterator();
+                    maisAntiga.next();
+                    maisAntiga.remove();
+                }
+            }
+        }
+
+        if (existente != null) {
+            if (!Objects.equals(existente.requisicao, requisicao)) {
+                throw new BusinessException("Idempotency-Key já utilizada com outro conteúdo de requisição.", "IDEMPOTENCY_KEY_MISMATCH");
+            }
+            ResponseEntity<T> resposta = (ResponseEntity<T>) aguardar(existente);
+            repeticoes.increment();
+            return ResponseEntity.status(resposta.getStatusCode())
+                    .headers(resposta.getHeaders())
+                    .header(HEADER_REPETIDA, "true")
+                    .body(resposta.getBody());
+        }
+
+        try {
+            ResponseEntity<T> resposta = execucao.get();
+            nova.resultado.complete(resposta);
+            return resposta;
+        } catch (RuntimeException e) {
+            // Falhas não ficam armazenadas: quem aguardava recebe o mesmo erro e a chave pode ser reenviada
+            synchronized (entradas) {
+                entradas.remove(escopo, nova);
+            }
+            nova.resultado.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    int tamanho() {
+        synchronized (entradas) {
+            return entradas.size();
+        }
+    }
+
+    private ResponseEntity<?> aguardar(Entrada entrada) {
+        try {
+            return entrada.resultado.get(esperaMaxima.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new ConflictException("Requisição com esta Idempotency-Key ainda está em processamento.", HEADER, null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("Requisição com esta Idempotency-Key ainda está em processamento.", HEADER, null);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void removerExpiradas() {
+        long agora = clock.millis();
+        Iterator<Map.Entry<String, Entrada>> it = entradas.entrySet().iterator();
+        while (it.hasNext()) {
+            Entrada entrada = it.next().getValue();
+            if (entrada.expiraEm > agora) {
+                break;
+            }
+            it.remove();
+        }
+    }
+
+    private String usuarioAtual() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : "anonimo";
+    }
+
+    private static final class Entrada {
+        private final Object requisicao;
+        private final long expiraEm;
+        private final CompletableFuture<ResponseEntity<?>> resultado = new CompletableFuture<>();
+
+        private Entrada(Object requisicao, long expiraEm) {
+            this.requisicao = requisicao;
+            this.expiraEm = expiraEm;
+        }
+    }
+}
@@ -0,0 +1,367 @@
+package com.deliverytech.delivery_api.service;
+
+import com.deliverytech.delivery_api.dto.ClientesUnicosDTO;
+import com.deliverytech.delivery_api.dto.TicketPedidosDTO;
+import com.deliverytech.delivery_api.entity.MetricasPedidosDia;
+import com.deliverytech.delivery_api.entity.Pedido;
+import com.deliverytech.delivery_api.entity.StatusPedido;
+import com.deliverytech.delivery_api.exception.BusinessException;
+import com.deliverytech.delivery_api.repository.MetricasPedidosDiaRepository;
+import com.deliverytech.delivery_api.repository.MetricasPedidosDiaRepository.PedidoContado;
+import com.deliverytech.delivery_api.repository.MetricasPedidosDiaRepository.Total;
+import com.deliverytech.delivery_api.service.sketch.EsbocoQuantis;
+import com.deliverytech.delivery_api.service.sketch.HyperLogLog;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Clientes distintos e distribuição do valor dos pedidos por restaurante e dia (tabela
+ * metricas_pedidos_dia), mantidos na transação de cada confirmação de pedido (MANDATORY) em resumos
+ * de tamanho fixo ou logarítmico: HyperLogLog para os clientes e EsbocoQuantis para o valorTotal. As
+ * consultas de um período juntam os resumos dos dias e não leem os pedidos; o custo depende do
+ * número de dias, não da quantidade de pedidos.
+ *
+ * Cada confirmação conta no dia da data do pedido com o valorTotal desse momento (os itens só mudam
+ * enquanto o pedido está PENDENTE). O cancelamento de um pedido contado (CONFIRMADO em diante) o
+ * desconta da quantidade, do valor total e da distribuição dos valores, e um pedido reaberto conta de
+ * novo só quando é confirmado outra vez: quantidade, valor total e ticket médio correspondem aos
+ * pedidos que estão em CONTADOS. O HyperLogLog não tem remoção, então os clientes distintos incluem
+ * clientes cujos pedidos foram cancelados depois da confirmação.
+ *
+ * O preenchimento (delivery.pedido.metricas.preenchimento.habilitado=true) roda uma vez na
+ * inicialização: compara, dia a dia desde o primeiro pedido contado, a quantidade e o valor total de
+ * cada restaurante com os pedidos (tabela principal e arquivo) e recalcula os resumos dos dias
+ * ausentes ou divergentes, como os anteriores à criação da tabela. Os resumos recalculados deixam de
+ * contar os clientes só de pedidos cancelados.
+ */
+@Service
+public class MetricasPedidosService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MetricasPedidosService.class);
+
+    // Limita a resposta dia a dia; os resumos de um ano inteiro se juntam em milissegundos
+    static final int MAX_DIAS = 366;
+
+    /** Status em que um pedido conta nos resumos: da confirmação à entrega, sem os cancelados. */
+    private static final Set<StatusPedido> CONTADOS = EnumSet.of(StatusPedido.CONFIRMADO, StatusPedido.PREPARANDO,
+            StatusPedido.SAIU_PARA_ENTREGA, StatusPedido.ENTREGUE);
+
+    private final MetricasPedidosDiaRepository metricasPedidosDiaRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate novaTransacao;
+    private final boolean preenchimentoHabilitado;
+
+    private ExecutorService executor;
+
+    public MetricasPedidosService(MetricasPedidosDiaRepository metricasPedidosDiaRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${delivery.pedido.metricas.preenchimento.habilitado:true}") boolean preenchimentoHabilitado) {
+        this.metricasPedidosDiaRepository = metricasPedidosDiaRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.novaTransacao = new TransactionTemplate(transactionManager);
+        this.novaTransacao.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.preenchimentoHabilitado = preenchimentoHabilitado;
+    }
+
+    public static boolean isContado(StatusPedido status) {
+        return CONTADOS.contains(status);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        if (!preenchimentoHabilitado || executor != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "preenchimento-metricas-pedidos");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.execute(this::preencherHistorico);
+    }
+
+    @PreDestroy
+    public void parar() throws InterruptedException {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private void preencherHistorico() {
+        try {
+            Optional<LocalDateTime> primeiro = Stream.of(metricasPedidosDiaRepository.findPrimeiraDataPedido(CONTADOS),
+                            metricasPedidosDiaRepository.findPrimeiraDataPedidoArquivado(CONTADOS))
+                    .flatMap(Optional::stream).min(Comparator.naturalOrder());
+            if (primeiro.isPresent()) {
+                int recalculados = preencher(primeiro.get().toLocalDate(), LocalDate.now().plusDays(1));
+                logger.info("Métricas diárias de pedidos conferidas a partir de {}: {} dia(s) de restaurante recalculado(s)",
+                        primeiro.get().toLocalDate(), recalculados);
+            }
+        } catch (Exception e) {
+            logger.warn("Falha ao preencher as métricas diárias de pedidos", e);
+        }
+    }
+
+    /**
+     * Inclui os pedidos confirmados nos resumos do seu restaurante e dia. As linhas são bloqueadas
+     * em ordem de chave, para que transações com dias em comum as bloqueiem na mesma ordem.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrar(List<Confirmacao> confirmacoes) {
+        porDia(confirmacoes).forEach(this::incluir);
+    }
+
+    /**
+     * Retira dos resumos do seu restaurante e dia os pedidos contados que foram cancelados, na mesma
+     * ordem de bloqueio de registrar. Os clientes distintos continuam contando.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void descontar(List<Confirmacao> cancelamentos) {
+        porDia(cancelamentos).forEach(this::retirar);
+    }
+
+    private static Map<MetricasPedidosDia.Chave, List<Confirmacao>> porDia(List<Confirmacao> confirmacoes) {
+        Map<MetricasPedidosDia.Chave, List<Confirmacao>> porDia = new TreeMap<>();
+        for (Confirmacao confirmacao : confirmacoes) {
+            porDia.computeIfAbsent(new MetricasPedidosDia.Chave(confirmacao.restauranteId(), confirmacao.dataPedido().toLocalDate()),
+                    chave -> new ArrayList<>()).add(confirmacao);
+        }
+        return porDia;
+    }
+
+    private void incluir(MetricasPedidosDia.Chave chave, List<Confirmacao> confirmacoes) {
+        // Verificação sem bloqueio antes de criar: uma leitura bloqueante sem linha pode bloquear o
+        // intervalo da chave e impedir a inserção na transação própria
+        if (!metricasPedidosDiaRepository.existsById(chave)) {
+            criarLinha(chave);
+        }
+        MetricasPedidosDia linha = metricasPedidosDiaRepository.bloquear(chave).orElseThrow();
+        HyperLogLog clientes = HyperLogLog.desserializar(linha.getClientes());
+        EsbocoQuantis valores = EsbocoQuantis.desserializar(linha.getValores());
+        BigDecimal valorTotal = linha.getValorTotal();
+        for (Confirmacao confirmacao : confirmacoes) {
+            clientes.adicionar(confirmacao.clienteId());
+            valores.adicionar(confirmacao.valorTotal().doubleValue());
+            valorTotal = valorTotal.add(confirmacao.valorTotal());
+        }
+        linha.setQuantidade(linha.getQuantidade() + confirmacoes.size());
+        linha.setValorTotal(valorTotal);
+        linha.setClientes(clientes.serializar());
+        linha.setValores(valores.serializar());
+    }
+
+    private void retirar(MetricasPedidosDia.Chave chave, List<Confirmacao> cancelamentos) {
+        // Sem linha, a confirmação não chegou aos resumos (anterior à tabela) e não há o que retirar
+        if (!metricasPedidosDiaRepository.existsById(chave)) {
+            return;
+        }
+        MetricasPedidosDia linha = metricasPedidosDiaRepository.bloquear(chave).orElseThrow();
+        EsbocoQuantis valores = EsbocoQuantis.desserializar(linha.getValores());
+        long quantidade = linha.getQuantidade();
+        BigDecimal valorTotal = linha.getValorTotal();
+        for (Confirmacao cancelamento : cancelamentos) {
+            if (valores.remover(cancelamento.valorTotal().doubleValue())) {
+                quantidade--;
+                valorTotal = valorTotal.subtract(cancelamento.valorTotal());
+            } else {
+                logger.debug("Pedido cancelado sem confirmação nas métricas de {}", chave);
+            }
+        }
+        linha.setQuantidade(quantidade);
+        linha.setValorTotal(valorTotal);
+        linha.setValores(valores.serializar());
+    }
+
+    // Linha nova: criada vazia e confirmada em uma transação própria (ver VendasRestauranteService)
+    private void criarLinha(MetricasPedidosDia.Chave chave) {
+        try {
+            novaTransacao.executeWithoutResult(status -> {
+                if (!metricasPedidosDiaRepository.existsById(chave)) {
+                    metricasPedidosDiaRepository.save(new MetricasPedidosDia(chave));
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            logger.debug("Métricas de {} criadas por outra transação", chave);
+        }
+    }
+
+    /**
+     * Compara a quantidade e o valor total de cada restaurante nos dias em [de, ate) com os pedidos
+     * contados e recalcula os resumos dos ausentes ou divergentes. Como em RollupPedidosService, a
+     * comparação não bloqueia nada; cada linha suspeita é recalculada bloqueada, e uma confirmação
+     * concorrente espera o recálculo ou já está nos pedidos lidos por ele. Devolve a quantidade de
+     * linhas recalculadas.
+     */
+    public int preencher(LocalDate de, LocalDate ate) {
+        int recalculados = 0;
+        for (LocalDate dia = de; dia.isBefore(ate) && !Thread.currentThread().isInterrupted(); dia = dia.plusDays(1)) {
+            recalculados += preencherDia(dia);
+        }
+        return recalculados;
+    }
+
+    private int preencherDia(LocalDate dia) {
+        LocalDateTime inicio = dia.atStartOfDay();
+        LocalDateTime fim = inicio.plusDays(1);
+        Map<Long, Total> esperado = transactionTemplate.execute(status -> Stream.concat(
+                        metricasPedidosDiaRepository.somarPedidos(inicio, fim, CONTADOS).stream(),
+                        metricasPedidosDiaRepository.somarPedidosArquivados(inicio, fim, CONTADOS).stream())
+                .collect(Collectors.toMap(Total::restauranteId, Function.identity(), MetricasPedidosService::somar)));
+        Map<Long, MetricasPedidosDia> registrado = metricasPedidosDiaRepository.findByDia(dia).stream()
+                .collect(Collectors.toMap(linha -> linha.getId().getRestauranteId(), Function.identity()));
+
+        Set<Long> suspeitos = new TreeSet<>();
+        esperado.forEach((restauranteId, total) -> {
+            if (divergente(total, registrado.get(restauranteId))) {
+                suspeitos.add(restauranteId);
+            }
+        });
+        registrado.forEach((restauranteId, linha) -> {
+            if (!esperado.containsKey(restauranteId) && divergente(null, linha)) {
+                suspeitos.add(restauranteId);
+            }
+        });
+
+        int recalculados = 0;
+        for (Long restauranteId : suspeitos) {
+            MetricasPedidosDia.Chave chave = new MetricasPedidosDia.Chave(restauranteId, dia);
+            if (!registrado.containsKey(restauranteId)) {
+                criarLinha(chave);
+            }
+            if (Boolean.TRUE.equals(transactionTemplate.execute(status -> recalcular(chave)))) {
+                recalculados++;
+            }
+        }
+        return recalculados;
+    }
+
+    private boolean recalcular(MetricasPedidosDia.Chave chave) {
+        MetricasPedidosDia linha = metricasPedidosDiaRepository.bloquear(chave).orElseThrow();
+        LocalDateTime inicio = chave.getDia().atStartOfDay();
+        LocalDateTime fim = inicio.plusDays(1);
+        List<PedidoContado> pedidos = new ArrayList<>(
+                metricasPedidosDiaRepository.findPedidosContados(chave.getRestauranteId(), inicio, fim, CONTADOS));
+        pedidos.addAll(metricasPedidosDiaRepository.findPedidosContadosArquivados(chave.getRestauranteId(), inicio, fim, CONTADOS));
+        HyperLogLog clientes = new HyperLogLog();
+        EsbocoQuantis valores = new EsbocoQuantis();
+        BigDecimal valorTotal = BigDecimal.ZERO;
+        for (PedidoContado pedido : pedidos) {
+            clientes.adicionar(pedido.clienteId());
+            valores.adicionar(pedido.valorTotal().doubleValue());
+            valorTotal = valorTotal.add(pedido.valorTotal());
+        }
+        if (!divergente(new Total(chave.getRestauranteId(), (long) pedidos.size(), valorTotal), linha)) {
+            return false;
+        }
+        linha.setQuantidade((long) pedidos.size());
+        linha.setValorTotal(valorTotal);
+        linha.setClientes(clientes.serializar());
+        linha.setValores(valores.serializar());
+        return true;
+    }
+
+    private static Total somar(Total a, Total b) {
+        return new Total(a.restauranteId(), a.quantidade() + b.quantidade(), a.valorTotal().add(b.valorTotal()));
+    }
+
+    // Linha ausente ou zerada sem pedidos não é divergência
+    private static boolean divergente(Total total, MetricasPedidosDia linha) {
+        long quantidade = total != null ? total.quantidade() : 0L;
+        BigDecimal valorTotal = total != null ? total.valorTotal() : BigDecimal.ZERO;
+        if (linha == null) {
+            return quantidade != 0 || valorTotal.signum() != 0;
+        }
+        return quantidade != linha.getQuantidade() || valorTotal.compareTo(linha.getValorTotal()) != 0;
+    }
+
+    /** Clientes distintos com pedidos confirmados no período [inicio, fim] e em cada dia com pedidos. */
+    @Transactional(readOnly = true)
+    public ClientesUnicosDTO clientesUnicos(Long restauranteId, LocalDate inicio, LocalDate fim) {
+        HyperLogLog periodo = new HyperLogLog();
+        long pedidos = 0;
+        List<ClientesUnicosDTO.Dia> dias = new ArrayList<>();
+        for (MetricasPedidosDia linha : linhas(restauranteId, inicio, fim)) {
+            HyperLogLog dia = HyperLogLog.desserializar(linha.getClientes());
+            periodo.juntar(dia);
+            pedidos += linha.getQuantidade();
+            dias.add(new ClientesUnicosDTO.Dia(linha.getId().getDia(), linha.getQuantidade(), dia.estimar()));
+        }
+        return new ClientesUnicosDTO(restauranteId, inicio, fim, pedidos, periodo.estimar(), HyperLogLog.ERRO_PADRAO, dias);
+    }
+
+    /** Ticket médio (exato) e quantis do valor dos pedidos confirmados no período [inicio, fim]. */
+    @Transactional(readOnly = true)
+    public TicketPedidosDTO ticket(Long restauranteId, LocalDate inicio, LocalDate fim) {
+        EsbocoQuantis valores = new EsbocoQuantis();
+        long pedidos = 0;
+        BigDecimal valorTotal = BigDecimal.ZERO;
+        for (MetricasPedidosDia linha : linhas(restauranteId, inicio, fim)) {
+            valores.juntar(EsbocoQuantis.desserializar(linha.getValores()));
+            pedidos += linha.getQuantidade();
+            valorTotal = valorTotal.add(linha.getValorTotal());
+        }
+        if (pedidos == 0) {
+            return new TicketPedidosDTO(restauranteId, inicio, fim, 0L, BigDecimal.ZERO, null, null, null, null, null,
+                    EsbocoQuantis.ERRO_RELATIVO);
+        }
+        return new TicketPedidosDTO(restauranteId, inicio, fim, pedidos, valorTotal,
+                valorTotal.divide(BigDecimal.valueOf(pedidos), 2, RoundingMode.HALF_UP),
+                quantil(valores, 0.5), quantil(valores, 0.75), quantil(valores, 0.9), quantil(valores, 0.99),
+                EsbocoQuantis.ERRO_RELATIVO);
+    }
+
+    private List<MetricasPedidosDia> linhas(Long restauranteId, LocalDate inicio, LocalDate fim) {
+        if (fim.isBefore(inicio) || ChronoUnit.DAYS.between(inicio, fim) >= MAX_DIAS) {
+            throw new BusinessException("Informe dataFim não anterior a dataInicio, em um período de até " + MAX_DIAS + " dias.",
+                    "REPORT_PARAMETERS_INVALID");
+        }
+        return metricasPedidosDiaRepository.findByRestauranteAndPeriodo(restauranteId, inicio, fim);
+    }
+
+    private static BigDecimal quantil(EsbocoQuantis valores, double q) {
+        return BigDecimal.valueOf(valores.quantil(q)).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    /** Um pedido que acabou de ser confirmado, ou de ser cancelado depois de contado: restaurante, cliente, data e valor total. */
+    public record Confirmacao(Long restauranteId, Long clienteId, LocalDateTime dataPedido, BigDecimal valorTotal) {
+
+        public static Confirmacao de(Pedido pedido) {
+            return new Confirmacao(pedido.getRestaurante().getId(), pedido.getCliente().getId(), pedido.getDataPedido(),
+                    pedido.getValorTotal());
+        }
+    }
+}
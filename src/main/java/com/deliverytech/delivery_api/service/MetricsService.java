@@ -47,6 +47,18 @@ public class MetricsService {
         pedidosComErro.increment(); // [cite: 278]
     }
 
+    public void incrementarPedidosProcessados(int quantidade) {
+        pedidosProcessados.increment(quantidade);
+    }
+
+    public void incrementarPedidosComSucesso(int quantidade) {
+        pedidosComSucesso.increment(quantidade);
+    }
+
+    public void incrementarPedidosComErro(int quantidade) {
+        pedidosComErro.increment(quantidade);
+    }
+
     public Timer.Sample iniciarTimerPedido() {
         return Timer.start();
     }
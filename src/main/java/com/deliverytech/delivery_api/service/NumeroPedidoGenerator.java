@@ -0,0 +1,10 @@
+package com.deliverytech.delivery_api.service;
+
+/**
+ * Estratégia de geração do número público de um pedido (Pedido.numeroPedido).
+ * Implementações devem gerar valores únicos sem consultar o banco de dados.
+ */
+public interface NumeroPedidoGenerator {
+
+    String gerar();
+}
@@ -0,0 +1,270 @@
+package com.deliverytech.delivery_api.service;
+
+import com.deliverytech.delivery_api.config.datasource.LeituraNaPrimaria;
+import com.deliverytech.delivery_api.dto.ItemPedidoResponseDTO;
+import com.deliverytech.delivery_api.dto.PedidoResponseDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Cache de leitura (read-through) de PedidoResponseDTO, consultável pelo id e pelo número do pedido.
+ *
+ * O cache é limitado (delivery.pedido.cache.max-entradas) e cada entrada expira após
+ * delivery.pedido.cache.ttl. As consultas não usam lock: as entradas ficam em um ConcurrentHashMap e
+ * cada uma marca se foi acessada; acima do limite, as entradas são percorridas na ordem de inserção e a
+ * primeira não acessada desde a última passagem é descartada (algoritmo do relógio, aproximação do
+ * menos usado recentemente). Cada consulta recebe uma cópia do pedido armazenado.
+ *
+ * Só são armazenados pedidos lidos fora de uma transação, ou seja, já confirmados. As escritas do
+ * PedidoService invalidam o pedido alterado no momento da alteração e de novo após o commit. Cada
+ * invalidação deixa uma marca com um número de sequência no id do pedido: um pedido carregado antes de
+ * uma invalidação dele não é armazenado, para que uma leitura concorrente não devolva ao cache o estado
+ * antigo, sem afetar os carregamentos dos demais pedidos. Os carregamentos que podem ser armazenados
+ * leem da primária (LeituraNaPrimaria): a réplica pode ainda não ter recebido a alteração que acabou de
+ * invalidar o pedido.
+ *
+ * O cache é desta instância e só as escritas feitas nela o invalidam: uma alteração feita em outra
+ * instância aparece aqui quando a entrada expira, em até delivery.pedido.cache.ttl.
+ */
+@Service
+public class PedidoCacheService {
+
+    private final int maxEntradas;
+    private final Duration ttl;
+    private final Clock clock;
+    private final Counter acertos;
+    private final Counter faltas;
+    private final Counter removidasPorCapacidade;
+    private final Counter removidasPorExpiracao;
+    private final Counter removidasPorInvalidacao;
+
+    private final Map<Long, Entrada> porId = new ConcurrentHashMap<>();
+    private final Map<String, Long> idPorNumero = new ConcurrentHashMap<>();
+    // Ordem de inserção percorrida pelo relógio; pode conter entradas já removidas, descartadas ao passar
+    private final Queue<Entrada> ordem = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger tamanhoOrdem = new AtomicInteger();
+    // Marca da última invalidação de cada pedido. Um carregamento mais longo que o TTL não é armazenado,
+    // então as marcas mais antigas que o TTL podem ser limpas
+    private final AtomicLong sequencia = new AtomicLong();
+    private final Map<Long, Marca> invalidacoes = new ConcurrentHashMap<>();
+    private volatile long proximaLimpeza;
+
+    @Autowired
+    public PedidoCacheService(MeterRegistry meterRegistry,
+                              @Value("${delivery.pedido.cache.max-entradas:10000}") int maxEntradas,
+                              @Value("${delivery.pedido.cache.ttl:PT30S}") Duration ttl) {
+        this(meterRegistry, maxEntradas, ttl, Clock.systemUTC());
+    }
+
+    PedidoCacheService(MeterRegistry meterRegistry, int maxEntradas, Duration ttl, Clock clock) {
+        this.maxEntradas = maxEntradas;
+        this.ttl = ttl;
+        this.clock = clock;
+        this.acertos = consultas(meterRegistry, "acerto");
+        this.faltas = consultas(meterRegistry, "falta");
+        this.removidasPorCapacidade = remocoes(meterRegistry, "capacidade");
+        this.removidasPorExpiracao = remocoes(meterRegistry, "expiracao");
+        this.removidasPorInvalidacao = remocoes(meterRegistry, "invalidacao");
+        Gauge.builder("delivery.pedidos.cache.tamanho", this, PedidoCacheService::tamanho)
+                .description("Pedidos armazenados no cache de leitura")
+                .register(meterRegistry);
+    }
+
+    /** Devolve uma cópia do pedido do cache ou, na falta, carrega-o e o armazena. */
+    public PedidoResponseDTO obterPorId(Long id, Supplier<PedidoResponseDTO> carregar) {
+        PedidoResponseDTO pedido = buscar(id);
+        return pedido != null ? pedido : carregarEArmazenar(carregar);
+    }
+
+    /** Mesmo que {@link #obterPorId}, pelo número do pedido. */
+    public PedidoResponseDTO obterPorNumero(String numeroPedido, Supplier<PedidoResponseDTO> carregar) {
+        Long id = idPorNumero.get(numeroPedido);
+        PedidoResponseDTO pedido = id != null ? buscar(id) : null;
+        return pedido != null ? pedido : carregarEArmazenar(carregar);
+    }
+
+    /**
+     * Remove os pedidos do cache agora e, se houver uma transação em andamento, de novo após o commit:
+     * uma leitura concorrente feita antes do commit ainda enxerga o estado antigo.
+     */
+    public void invalidar(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        remover(ids);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            List<Long> aposCommit = List.copyOf(ids);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remover(aposCommit);
+                }
+            });
+        }
+    }
+
+    public void invalidar(Long id) {
+        invalidar(List.of(id));
+    }
+
+    int tamanho() {
+        return porId.size();
+    }
+
+    private PedidoResponseDTO carregarEArmazenar(Supplier<PedidoResponseDTO> carregar) {
+        faltas.increment();
+        // Dentro de uma transação a leitura pode enxergar alterações ainda não confirmadas (ou desfeitas depois)
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return carregar.get();
+        }
+        long inicio = sequencia.get();
+        long iniciadoEm = clock.millis();
+        PedidoResponseDTO pedido = LeituraNaPrimaria.executar(carregar);
+        if (pedido == null || clock.millis() - iniciadoEm >= ttl.toMillis() || invalidadoApos(pedido.getId(), inicio)) {
+            return pedido;
+        }
+        Entrada entrada = new Entrada(pedido.getId(), copiar(pedido), clock.millis() + ttl.toMillis());
+        porId.put(entrada.id, entrada);
+        idPorNumero.put(pedido.getNumeroPedido(), entrada.id);
+        // Invalidação concorrente com o armazenamento: ou ela já encontra a entrada, ou a marca aparece aqui
+        if (invalidadoApos(entrada.id, inicio)) {
+            descartar(entrada);
+            return pedido;
+        }
+        ordem.add(entrada);
+        if (tamanhoOrdem.incrementAndGet() > 2 * maxEntradas) {
+            ordem.removeIf(antiga -> porId.get(antiga.id) != antiga);
+            tamanhoOrdem.set(ordem.size());
+        }
+        while (porId.size() > maxEntradas && descartarMenosUsada()) {
+            removidasPorCapacidade.increment();
+        }
+        return pedido;
+    }
+
+    // Conta o acerto ou descarta a entrada expirada
+    private PedidoResponseDTO buscar(Long id) {
+        Entrada entrada = porId.get(id);
+        if (entrada == null) {
+            return null;
+        }
+        if (entrada.expiraEm <= clock.millis()) {
+            if (descartar(entrada)) {
+                removidasPorExpiracao.increment();
+            }
+            return null;
+        }
+        entrada.acessada = true;
+        acertos.increment();
+        return copiar(entrada.pedido);
+    }
+
+    // Relógio: entradas acessadas ganham outra volta; a primeira não acessada é descartada
+    private boolean descartarMenosUsada() {
+        Entrada entrada;
+        while ((entrada = ordem.poll()) != null) {
+            tamanhoOrdem.decrementAndGet();
+            if (porId.get(entrada.id) != entrada) {
+                continue;
+            }
+            if (entrada.acessada) {
+                entrada.acessada = false;
+                ordem.add(entrada);
+                tamanhoOrdem.incrementAndGet();
+                continue;
+            }
+            if (descartar(entrada)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void remover(Collection<Long> ids) {
+        long agora = clock.millis();
+        for (Long id : ids) {
+            invalidacoes.put(id, new Marca(sequencia.incrementAndGet(), agora));
+            Entrada entrada = porId.get(id);
+            if (entrada != null && descartar(entrada)) {
+                removidasPorInvalidacao.increment();
+            }
+        }
+        if (agora >= proximaLimpeza) {
+            proximaLimpeza = agora + ttl.toMillis();
+            invalidacoes.values().removeIf(marca -> agora - marca.registradaEm > ttl.toMillis());
+        }
+    }
+
+    private boolean invalidadoApos(Long id, long inicio) {
+        Marca marca = invalidacoes.get(id);
+        return marca != null && marca.sequencia > inicio;
+    }
+
+    private boolean descartar(Entrada entrada) {
+        if (!porId.remove(entrada.id, entrada)) {
+            return false;
+        }
+        idPorNumero.remove(entrada.pedido.getNumeroPedido(), entrada.id);
+        return true;
+    }
+
+    private static PedidoResponseDTO copiar(PedidoResponseDTO pedido) {
+        List<ItemPedidoResponseDTO> itens = pedido.getItens() == null ? null : pedido.getItens().stream()
+                .map(item -> new ItemPedidoResponseDTO(item.getId(), item.getProdutoId(), item.getProdutoNome(),
+                        item.getQuantidade(), item.getPrecoUnitario(), item.getSubtotal()))
+                .collect(Collectors.toList());
+        return new PedidoResponseDTO(pedido.getId(), pedido.getNumeroPedido(), pedido.getDataPedido(),
+                pedido.getEnderecoEntrega(), pedido.getSubtotal(), pedido.getTaxaEntrega(), pedido.getValorTotal(),
+                pedido.getObservacoes(), pedido.getStatus(), pedido.getClienteId(), pedido.getClienteNome(),
+                pedido.getRestauranteId(), pedido.getRestauranteNome(), itens);
+    }
+
+    private static Counter consultas(MeterRegistry meterRegistry, String resultado) {
+        return Counter.builder("delivery.pedidos.cache.consultas")
+                .description("Consultas ao cache de leitura de pedidos")
+                .tag("resultado", resultado)
+                .register(meterRegistry);
+    }
+
+    private static Counter remocoes(MeterRegistry meterRegistry, String motivo) {
+        return Counter.builder("delivery.pedidos.cache.remocoes")
+                .description("Pedidos removidos do cache de leitura")
+                .tag("motivo", motivo)
+                .register(meterRegistry);
+    }
+
+    private static final class Entrada {
+        private final Long id;
+        private final PedidoResponseDTO pedido;
+        private final long expiraEm;
+        private volatile boolean acessada;
+
+        private Entrada(Long id, PedidoResponseDTO pedido, long expiraEm) {
+            this.id = id;
+            this.pedido = pedido;
+            this.expiraEm = expiraEm;
+        }
+    }
+
+    private record Marca(long sequencia, long registradaEm) {
+    }
+}
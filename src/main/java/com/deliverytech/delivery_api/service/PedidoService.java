@@ -1,23 +1,53 @@
 package com.deliverytech.delivery_api.service;
 
+import com.deliverytech.delivery_api.config.retry.RepetirEmConflito;
 import com.deliverytech.delivery_api.entity.*;
 import com.deliverytech.delivery_api.repository.*;
+import com.deliverytech.delivery_api.repository.PedidoRepository.SituacaoPedido;
+import com.deliverytech.delivery_api.service.MetricasPedidosService.Confirmacao;
+import com.deliverytech.delivery_api.service.RollupPedidosService.Movimento;
+import com.deliverytech.delivery_api.service.VendasRestauranteService.Variacao;
 import com.deliverytech.delivery_api.dto.*;
 import com.deliverytech.delivery_api.exception.EntityNotFoundException;
 import com.deliverytech.delivery_api.exception.BusinessException;
+import com.deliverytech.delivery_api.exception.ItensPedidoInvalidosException;
 import com.deliverytech.delivery_api.security.SecurityUtils; // Import adicionado
+import com.deliverytech.delivery_api.service.outbox.OutboxService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.Path;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
@@ -26,11 +56,40 @@ public class PedidoService {
     @Autowired
     private PedidoRepository pedidoRepository;
     @Autowired
+    private PedidoArquivadoRepository pedidoArquivadoRepository;
+    @Autowired
     private ClienteRepository clienteRepository;
     @Autowired
     private RestauranteRepository restauranteRepository;
     @Autowired
     private ProdutoRepository produtoRepository;
+    @Autowired
+    private NumeroPedidoGenerator numeroPedidoGenerator;
+    @Autowired
+    private PedidoCacheService pedidoCacheService;
+    @Autowired
+    private EventosPedidoService eventosPedidoService;
+    @Autowired
+    private FilaCozinhaService filaCozinhaService;
+    @Autowired
+    private OutboxService outboxService;
+    @Autowired
+    private VendasRestauranteService vendasRestauranteService;
+    @Autowired
+    private RollupPedidosService rollupPedidosService;
+    @Autowired
+    private ProdutosMaisVendidosService produtosMaisVendidosService;
+    @Autowired
+    private RankingClientesService rankingClientesService;
+    @Autowired
+    private MetricasPedidosService metricasPedidosService;
+    @Autowired
+    private Validator validator;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:20}")
+    private int tamanhoLoteJdbc;
 
     // ... (todos os outros métodos do serviço permanecem os mesmos)
 
@@ -48,6 +107,40 @@ public class PedidoService {
         );
     }
 
+    private PedidoResponseDTO toResponseDTO(PedidoArquivado pedido) {
+        return new PedidoResponseDTO(
+                pedido.getId(), pedido.getNumeroPedido(), pedido.getDataPedido(),
+                pedido.getEnderecoEntrega(), pedido.getSubtotal(), pedido.getTaxaEntrega(),
+                pedido.getValorTotal(), pedido.getObservacoes(), pedido.getStatus(),
+                pedido.getCliente() != null ? pedido.getCliente().getId() : null,
+                pedido.getCliente() != null ? pedido.getCliente().getNome() : null,
+                pedido.getRestaurante() != null ? pedido.getRestaurante().getId() : null,
+                pedido.getRestaurante() != null ? pedido.getRestaurante().getNome() : null,
+                pedido.getItens().stream().map(item -> new ItemPedidoResponseDTO(
+                        item.getId(),
+                        item.getProduto() != null ? item.getProduto().getId() : null,
+                        item.getProduto() != null ? item.getProduto().getNome() : null,
+                        item.getQuantidade(), item.getPrecoUnitario(), item.getSubtotal()
+                )).collect(Collectors.toList())
+        );
+    }
+
+    // Listagens: cliente e restaurante já vêm na consulta principal (entity graph); os itens de todos os
+    // pedidos são carregados juntos aqui, em vez de uma consulta por pedido ao montar o DTO.
+    private List<PedidoResponseDTO> toResponseDTOs(List<Pedido> pedidos) {
+        if (!pedidos.isEmpty()) {
+            pedidoRepository.carregarItens(pedidos.stream().map(Pedido::getId).collect(Collectors.toList()));
+        }
+        return pedidos.stream().map(this::toResponseDTO).collect(Collectors.toList());
+    }
+
+    private List<PedidoResponseDTO> toResponseDTOsArquivados(List<PedidoArquivado> pedidos) {
+        if (!pedidos.isEmpty()) {
+            pedidoArquivadoRepository.carregarItens(pedidos.stream().map(PedidoArquivado::getId).collect(Collectors.toList()));
+        }
+        return pedidos.stream().map(this::toResponseDTO).collect(Collectors.toList());
+    }
+
     private ItemPedidoResponseDTO toItemPedidoResponseDTO(ItemPedido itemPedido) {
         if (itemPedido == null) return null;
         return new ItemPedidoResponseDTO(
@@ -58,34 +151,79 @@ public class PedidoService {
         );
     }
 
-    public PedidoResponseDTO criarPedido(PedidoDTO dto) {
-        Cliente cliente = clienteRepository.findById(dto.getClienteId())
-                .orElseThrow(() -> new EntityNotFoundException("Cliente", dto.getClienteId()));
-        Restaurante restaurante = restauranteRepository.findById(dto.getRestauranteId())
-                .orElseThrow(() -> new EntityNotFoundException("Restaurante", dto.getRestauranteId()));
+    /**
+     * Carrega todos os produtos referenciados pelos itens em uma única consulta (já com o restaurante)
+     * e valida existência, disponibilidade e pertencimento ao restaurante contra esse conjunto em memória.
+     * Todos os itens com problema são reportados juntos em uma ItensPedidoInvalidosException.
+     */
+    private Map<Long, Produto> resolverProdutos(Long restauranteId, List<Long> produtoIds) {
+        Map<Long, Produto> produtos = produtoRepository.findAllByIdComRestaurante(new HashSet<>(produtoIds)).stream()
+                .collect(Collectors.toMap(Produto::getId, Function.identity()));
+        validarItens(restauranteId, produtoIds, produtos);
+        return produtos;
+    }
+
+    private void validarItens(Long restauranteId, List<Long> produtoIds, Map<Long, Produto> produtos) {
+        Map<String, String> erros = new LinkedHashMap<>();
+        for (int i = 0; i < produtoIds.size(); i++) {
+            Long produtoId = produtoIds.get(i);
+            Produto produto = produtos.get(produtoId);
+            String campo = "itens[" + i + "].produtoId";
+            if (produto == null) {
+                erros.put(campo, "Produto com ID " + produtoId + " não foi encontrado(a)");
+            } else if (!produto.isDisponivel()) {
+                erros.put(campo, "Produto " + produto.getNome() + " não está disponível.");
+            } else if (!produto.getRestaurante().getId().equals(restauranteId)) {
+                erros.put(campo, "Produto " + produto.getNome() + " não pertence a este restaurante.");
+            }
+        }
+        if (!erros.isEmpty()) {
+            throw new ItensPedidoInvalidosException(erros);
+        }
+    }
+
+    private List<Long> produtoIds(PedidoDTO dto) {
+        return dto.getItens().stream().map(ItemPedidoDTO::getProdutoId).collect(Collectors.toList());
+    }
+
+    private void validarRestauranteAtivo(Restaurante restaurante) {
         if (!restaurante.isAtivo()) {
             throw new BusinessException("Restaurante inativo, não é possível fazer pedidos.", "RESTAURANT_INACTIVE");
         }
+    }
+
+    private void validarTransicao(Pedido pedido, StatusPedido destino) {
+        validarTransicao(pedido, destino, "INVALID_STATUS_TRANSITION");
+    }
+
+    // Confirmação e cancelamento mantêm os códigos de erro que tinham antes da máquina de estados
+    private void validarTransicao(Pedido pedido, StatusPedido destino, String codigo) {
+        if (!pedido.getStatus().podeIrPara(destino)) {
+            throw new BusinessException(mensagemTransicaoInvalida(pedido.getStatus(), destino), codigo);
+        }
+    }
+
+    private String mensagemTransicaoInvalida(StatusPedido origem, StatusPedido destino) {
+        return "Pedido " + origem + " não pode passar para " + destino + ". Transições permitidas: " + origem.destinosPermitidos() + ".";
+    }
+
+    private void validarPedidoComItens(Pedido pedido) {
+        if (pedido.getItens().isEmpty()) {
+            throw new BusinessException("Pedido deve ter pelo menos um item para ser confirmado.", "ORDER_EMPTY");
+        }
+    }
+
+    private Pedido montarPedido(PedidoDTO dto, String numeroPedido, Cliente cliente, Restaurante restaurante, Map<Long, Produto> produtos) {
         Pedido pedido = new Pedido();
         pedido.setCliente(cliente);
         pedido.setRestaurante(restaurante);
         pedido.setEnderecoEntrega(dto.getEnderecoEntrega());
         pedido.setObservacoes(dto.getObservacoes());
-        pedido.setNumeroPedido("PED-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase());
+        pedido.setNumeroPedido(numeroPedido);
         pedido.setStatus(StatusPedido.PENDENTE);
         pedido.setTaxaEntrega(restaurante.getTaxaEntrega());
-        if (dto.getItens() == null || dto.getItens().isEmpty()) {
-            throw new BusinessException("Pedido deve conter pelo menos um item.", "ORDER_EMPTY");
-        }
         for (ItemPedidoDTO itemDto : dto.getItens()) {
-            Produto produto = produtoRepository.findById(itemDto.getProdutoId())
-                    .orElseThrow(() -> new EntityNotFoundException("Produto", itemDto.getProdutoId()));
-            if (!produto.isDisponivel()) {
-                throw new BusinessException("Produto " + produto.getNome() + " não está disponível.", "PRODUCT_UNAVAILABLE");
-            }
-            if (!produto.getRestaurante().getId().equals(restaurante.getId())) {
-                throw new BusinessException("Produto " + produto.getNome() + " não pertence a este restaurante.", "PRODUCT_MISMATCH");
-            }
+            Produto produto = produtos.get(itemDto.getProdutoId());
             ItemPedido itemPedido = new ItemPedido();
             itemPedido.setProduto(produto);
             itemPedido.setQuantidade(itemDto.getQuantidade());
@@ -94,10 +232,133 @@ public class PedidoService {
             pedido.adicionarItem(itemPedido);
         }
         pedido.calcularTotais();
-        Pedido pedidoSalvo = pedidoRepository.save(pedido);
-        return toResponseDTO(pedidoSalvo);
+        return pedido;
     }
 
+    public PedidoResponseDTO criarPedido(PedidoDTO dto) {
+        Cliente cliente = clienteRepository.findById(dto.getClienteId())
+                .orElseThrow(() -> new EntityNotFoundException("Cliente", dto.getClienteId()));
+        Restaurante restaurante = restauranteRepository.findById(dto.getRestauranteId())
+                .orElseThrow(() -> new EntityNotFoundException("Restaurante", dto.getRestauranteId()));
+        validarRestauranteAtivo(restaurante);
+        if (dto.getItens() == null || dto.getItens().isEmpty()) {
+            throw new BusinessException("Pedido deve conter pelo menos um item.", "ORDER_EMPTY");
+        }
+        Map<Long, Produto> produtos = resolverProdutos(restaurante.getId(), produtoIds(dto));
+        Pedido pedidoSalvo = pedidoRepository.save(montarPedido(dto, numeroPedidoGenerator.gerar(), cliente, restaurante, produtos));
+        PedidoResponseDTO resposta = toResponseDTO(pedidoSalvo);
+        outboxService.registrar(TipoEventoPedido.PEDIDO_CRIADO, pedidoSalvo.getId(), versaoAtual(pedidoSalvo), resposta);
+        filaCozinhaService.registrar(pedidoSalvo, versaoAtual(pedidoSalvo));
+        vendasRestauranteService.registrar(restaurante.getId(), Variacao.pedidoCriado(pedidoSalvo.getValorTotal()));
+        rankingClientesService.registrar(cliente.getId(), cliente.getNome(), Variacao.pedidoCriado(pedidoSalvo.getValorTotal()));
+        rollupPedidosService.registrar(List.of(Movimento.entrada(pedidoSalvo)));
+        return resposta;
+    }
+
+    /**
+     * Cria um lote de pedidos. Clientes, restaurantes e produtos de todo o lote são carregados com
+     * uma consulta cada; os pedidos válidos são persistidos em blocos do tamanho do batch JDBC
+     * (flush + clear por bloco), e cada pedido recebe seu próprio resultado de sucesso ou falha.
+     */
+    public ResultadoLoteDTO criarPedidosEmLote(List<PedidoDTO> dtos) {
+        return criarPedidosEmLote(dtos, null);
+    }
+
+    /**
+     * Variante usada pela fila de aceite assíncrono, em que o número de cada pedido já foi
+     * devolvido ao cliente no momento do aceite. Com numeros nulo, os números são gerados aqui.
+     */
+    public ResultadoLoteDTO criarPedidosEmLote(List<PedidoDTO> dtos, List<String> numeros) {
+        Map<Long, Cliente> clientes = clienteRepository.findAllById(dtos.stream().filter(Objects::nonNull)
+                        .map(PedidoDTO::getClienteId).filter(Objects::nonNull).collect(Collectors.toSet()))
+                .stream().collect(Collectors.toMap(Cliente::getId, Function.identity()));
+        Map<Long, Restaurante> restaurantes = restauranteRepository.findAllById(dtos.stream().filter(Objects::nonNull)
+                        .map(PedidoDTO::getRestauranteId).filter(Objects::nonNull).collect(Collectors.toSet()))
+                .stream().collect(Collectors.toMap(Restaurante::getId, Function.identity()));
+        Set<Long> todosProdutoIds = dtos.stream()
+                .filter(dto -> dto != null && dto.getItens() != null)
+                .flatMap(dto -> dto.getItens().stream())
+                .map(ItemPedidoDTO::getProdutoId).filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Produto> produtos = todosProdutoIds.isEmpty() ? Map.of()
+                : produtoRepository.findAllByIdComRestaurante(todosProdutoIds).stream()
+                        .collect(Collectors.toMap(Produto::getId, Function.identity()));
+
+        ResultadoLoteDTO.ResultadoPedido[] resultados = new ResultadoLoteDTO.ResultadoPedido[dtos.size()];
+        Pedido[] criados = new Pedido[dtos.size()];
+        List<Pedido> bloco = new ArrayList<>(tamanhoLoteJdbc);
+        for (int i = 0; i < dtos.size(); i++) {
+            PedidoDTO dto = dtos.get(i);
+            if (dto == null) {
+                resultados[i] = ResultadoLoteDTO.ResultadoPedido.falha(i, "VALIDATION_ERROR", "Pedido não informado.", null);
+                continue;
+            }
+            try {
+                Set<ConstraintViolation<PedidoDTO>> violacoes = validator.validate(dto);
+                if (!violacoes.isEmpty()) {
+                    Map<String, String> detalhes = new LinkedHashMap<>();
+                    violacoes.forEach(v -> detalhes.put(v.getPropertyPath().toString(), v.getMessage()));
+                    resultados[i] = ResultadoLoteDTO.ResultadoPedido.falha(i, "VALIDATION_ERROR",
+                            "Erro de validação nos dados enviados", detalhes);
+                    continue;
+                }
+                Cliente cliente = clientes.get(dto.getClienteId());
+                if (cliente == null) {
+                    throw new EntityNotFoundException("Cliente", dto.getClienteId());
+                }
+                Restaurante restaurante = restaurantes.get(dto.getRestauranteId());
+                if (restaurante == null) {
+                    throw new EntityNotFoundException("Restaurante", dto.getRestauranteId());
+                }
+                validarRestauranteAtivo(restaurante);
+                validarItens(restaurante.getId(), produtoIds(dto), produtos);
+                String numeroPedido = numeros != null ? numeros.get(i) : numeroPedidoGenerator.gerar();
+                criados[i] = montarPedido(dto, numeroPedido, cliente, restaurante, produtos);
+                bloco.add(criados[i]);
+            } catch (ItensPedidoInvalidosException e) {
+                resultados[i] = ResultadoLoteDTO.ResultadoPedido.falha(i, e.getErrorCode(), e.getMessage(), e.getItensInvalidos());
+            } catch (BusinessException e) {
+                resultados[i] = ResultadoLoteDTO.ResultadoPedido.falha(i, e.getErrorCode(), e.getMessage(), null);
+            }
+            if (bloco.size() >= tamanhoLoteJdbc) {
+                gravarBloco(bloco);
+            }
+        }
+        gravarBloco(bloco);
+
+        int sucessos = 0;
+        for (int i = 0; i < dtos.size(); i++) {
+            if (criados[i] != null) {
+                resultados[i] = ResultadoLoteDTO.ResultadoPedido.sucesso(i, criados[i].getId(), criados[i].getNumeroPedido());
+                sucessos++;
+            }
+        }
+        return new ResultadoLoteDTO(dtos.size(), sucessos, dtos.size() - sucessos, List.of(resultados));
+    }
+
+    // Persiste um bloco de pedidos e libera o contexto de persistência, para que os INSERTs
+    // saiam em lote e a memória não cresça com o tamanho do lote recebido.
+    private void gravarBloco(List<Pedido> bloco) {
+        if (bloco.isEmpty()) {
+            return;
+        }
+        pedidoRepository.saveAll(bloco);
+        // Antes do flush: os eventos saem no mesmo lote de INSERTs e não se perdem no clear
+        outboxService.registrarTodos(bloco.stream()
+                .map(pedido -> new OutboxService.Evento(TipoEventoPedido.PEDIDO_CRIADO, pedido.getId(), versaoAtual(pedido), toResponseDTO(pedido)))
+                .collect(Collectors.toList()));
+        vendasRestauranteService.registrar(bloco.stream().collect(Collectors.toMap(pedido -> pedido.getRestaurante().getId(),
+                pedido -> Variacao.pedidoCriado(pedido.getValorTotal()), Variacao::somar)));
+        bloco.forEach(pedido -> rankingClientesService.registrar(pedido.getCliente().getId(), pedido.getCliente().getNome(),
+                Variacao.pedidoCriado(pedido.getValorTotal())));
+        rollupPedidosService.registrar(bloco.stream().map(Movimento::entrada).collect(Collectors.toList()));
+        entityManager.flush();
+        bloco.forEach(pedido -> filaCozinhaService.registrar(pedido, versaoAtual(pedido)));
+        entityManager.clear();
+        bloco.clear();
+    }
+
+    @RepetirEmConflito
     public PedidoResponseDTO adicionarItem(Long pedidoId, Long produtoId, Integer quantidade) {
         Pedido pedido = pedidoRepository.findById(pedidoId)
                 .orElseThrow(() -> new EntityNotFoundException("Pedido", pedidoId));
@@ -132,84 +393,85 @@ public class PedidoService {
             pedido.adicionarItem(novoItem);
         }
         
+        BigDecimal valorAnterior = pedido.getValorTotal();
+        BigDecimal subtotalAnterior = pedido.getSubtotal();
         pedido.calcularTotais();
-        return toResponseDTO(pedidoRepository.save(pedido));
+        pedidoCacheService.invalidar(pedidoId);
+        Pedido pedidoSalvo = pedidoRepository.save(pedido);
+        PedidoResponseDTO resposta = toResponseDTO(pedidoSalvo);
+        outboxService.registrar(TipoEventoPedido.ITENS_ALTERADOS, pedidoId, versaoAposAlteracao(pedidoSalvo), resposta);
+        filaCozinhaService.registrar(pedidoSalvo, versaoAposAlteracao(pedidoSalvo));
+        vendasRestauranteService.registrar(pedido.getRestaurante().getId(), Variacao.valorAlterado(valorAnterior, pedidoSalvo.getValorTotal()));
+        rankingClientesService.registrar(pedido.getCliente().getId(), pedido.getCliente().getNome(),
+                Variacao.valorAlterado(valorAnterior, pedidoSalvo.getValorTotal()));
+        rollupPedidosService.registrar(List.of(Movimento.valores(pedidoSalvo, valorAnterior, subtotalAnterior)));
+        return resposta;
     }
 
+    @RepetirEmConflito
     public PedidoResponseDTO confirmarPedido(Long pedidoId) {
         Pedido pedido = pedidoRepository.findById(pedidoId)
                 .orElseThrow(() -> new EntityNotFoundException("Pedido", pedidoId));
 
-        if (pedido.getItens().isEmpty()) {
-            throw new BusinessException("Pedido deve ter pelo menos um item para ser confirmado.", "ORDER_EMPTY");
-        }
-        if (pedido.getStatus() != StatusPedido.PENDENTE) {
-            throw new BusinessException("Pedido não está no status PENDENTE para ser confirmado.", "ORDER_STATUS_INVALID");
-        }
+        validarPedidoComItens(pedido);
+        validarTransicao(pedido, StatusPedido.CONFIRMADO, "ORDER_STATUS_INVALID");
 
+        StatusPedido statusAnterior = pedido.getStatus();
         pedido.confirmar();
+        registrarMudancaStatus(pedido, statusAnterior);
         return toResponseDTO(pedidoRepository.save(pedido));
     }
 
-    @Transactional(readOnly = true)
+    // SUPPORTS: um acerto no cache não abre transação nem obtém conexão; na falta, o pedido completo
+    // vem em uma única consulta (mais uma no arquivo, se ele não estiver na tabela principal)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public PedidoResponseDTO buscarPedidoPorId(Long id) {
-        Pedido pedido = pedidoRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Pedido", id));
-        return toResponseDTO(pedido);
+        return pedidoCacheService.obterPorId(id, () -> pedidoRepository.findComItensById(id).map(this::toResponseDTO)
+                .or(() -> pedidoArquivadoRepository.findComItensById(id).map(this::toResponseDTO))
+                .orElseThrow(() -> new EntityNotFoundException("Pedido", id)));
     }
 
     @Transactional(readOnly = true)
     public List<PedidoResponseDTO> buscarPedidosPorCliente(Long clienteId) {
         clienteRepository.findById(clienteId)
                 .orElseThrow(() -> new EntityNotFoundException("Cliente", clienteId));
-        List<Pedido> pedidos = pedidoRepository.findByClienteIdOrderByDataPedidoDesc(clienteId);
-        return pedidos.stream().map(this::toResponseDTO).collect(Collectors.toList());
+        // Histórico completo: pedidos da tabela principal e do arquivo, do mais recente ao mais antigo
+        List<PedidoResponseDTO> historico = toResponseDTOs(pedidoRepository.findByClienteIdOrderByDataPedidoDesc(clienteId));
+        List<PedidoResponseDTO> arquivados = toResponseDTOsArquivados(pedidoArquivadoRepository.findByClienteIdOrderByDataPedidoDesc(clienteId));
+        if (!arquivados.isEmpty()) {
+            historico.addAll(arquivados);
+            historico.sort(Comparator.comparing(PedidoResponseDTO::getDataPedido, Comparator.nullsLast(Comparator.reverseOrder())));
+        }
+        return historico;
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public PedidoResponseDTO buscarPedidoPorNumero(String numeroPedido) {
-        Pedido pedido = pedidoRepository.findByNumeroPedido(numeroPedido);
-        if (pedido == null) {
-            throw new EntityNotFoundException("Pedido com número " + numeroPedido + " não encontrado.", null);
-        }
-        return toResponseDTO(pedido);
+        return pedidoCacheService.obterPorNumero(numeroPedido, () -> {
+            Pedido pedido = pedidoRepository.findByNumeroPedido(numeroPedido);
+            if (pedido != null) {
+                return toResponseDTO(pedido);
+            }
+            return pedidoArquivadoRepository.findByNumeroPedido(numeroPedido).map(this::toResponseDTO)
+                    .orElseThrow(() -> new EntityNotFoundException("Pedido com número " + numeroPedido + " não encontrado.", null));
+        });
     }
 
+    @RepetirEmConflito
     public PedidoResponseDTO atualizarStatusPedido(Long pedidoId, StatusPedidoDTO statusDTO) {
         Pedido pedido = pedidoRepository.findById(pedidoId)
                 .orElseThrow(() -> new EntityNotFoundException("Pedido", pedidoId));
 
         StatusPedido novoStatus = statusDTO.getStatus();
-        StatusPedido currentStatus = pedido.getStatus();
-
-        if (novoStatus == StatusPedido.CANCELADO) {
-             if (currentStatus == StatusPedido.ENTREGUE) {
-                throw new BusinessException("Pedido entregue não pode ser cancelado.", "INVALID_STATUS_TRANSITION");
-            }
-        } else if (novoStatus == StatusPedido.CONFIRMADO) {
-            if (currentStatus != StatusPedido.PENDENTE) {
-                throw new BusinessException("Pedido só pode ser confirmado se estiver PENDENTE.", "INVALID_STATUS_TRANSITION");
-            }
-        } else if (novoStatus == StatusPedido.PREPARANDO) {
-            if (currentStatus != StatusPedido.CONFIRMADO) {
-                throw new BusinessException("Pedido só pode ir para PREPARANDO se estiver CONFIRMADO.", "INVALID_STATUS_TRANSITION");
-            }
-        } else if (novoStatus == StatusPedido.SAIU_PARA_ENTREGA) {
-            if (currentStatus != StatusPedido.PREPARANDO) {
-                throw new BusinessException("Pedido só pode SAIR_PARA_ENTREGA se estiver PREPARANDO.", "INVALID_STATUS_TRANSITION");
-            }
-        } else if (novoStatus == StatusPedido.ENTREGUE) {
-            if (currentStatus != StatusPedido.SAIU_PARA_ENTREGA) {
-                throw new BusinessException("Pedido só pode ser ENTREGUE se estiver SAIU_PARA_ENTREGA.", "INVALID_STATUS_TRANSITION");
-            }
-        } else if (novoStatus == StatusPedido.PENDENTE && currentStatus != StatusPedido.CANCELADO) {
-            throw new BusinessException("Não é possível alterar o status para PENDENTE a partir de " + currentStatus, "INVALID_STATUS_TRANSITION");
-        }
+        validarTransicao(pedido, novoStatus);
 
+        StatusPedido statusAnterior = pedido.getStatus();
         pedido.setStatus(novoStatus);
+        registrarMudancaStatus(pedido, statusAnterior);
         return toResponseDTO(pedidoRepository.save(pedido));
     }
 
+    @RepetirEmConflito
     public void cancelarPedido(Long pedidoId, String motivo) {
         Pedido pedido = pedidoRepository.findById(pedidoId)
                 .orElseThrow(() -> new EntityNotFoundException("Pedido", pedidoId));
@@ -220,26 +482,229 @@ public class PedidoService {
         if (pedido.getStatus() == StatusPedido.CANCELADO) {
             throw new BusinessException("Pedido já está cancelado.", "ORDER_ALREADY_CANCELLED");
         }
-        
+        validarTransicao(pedido, StatusPedido.CANCELADO);
+
+        StatusPedido statusAnterior = pedido.getStatus();
         pedido.setStatus(StatusPedido.CANCELADO);
         pedido.setObservacoes(pedido.getObservacoes() != null ? pedido.getObservacoes() + " | Cancelado: " + motivo : "Cancelado: " + motivo);
+        registrarMudancaStatus(pedido, statusAnterior);
         pedidoRepository.save(pedido);
     }
 
+    // Propaga a mudança de status de um pedido carregado: cache, SSE, fila da cozinha, outbox, vendas, baldes,
+    // rankings de produtos e clientes e, na confirmação e no cancelamento, métricas diárias
+    private void registrarMudancaStatus(Pedido pedido, StatusPedido statusAnterior) {
+        EventoStatusPedidoDTO evento = new EventoStatusPedidoDTO(pedido.getId(), statusAnterior, pedido.getStatus(), LocalDateTime.now());
+        pedidoCacheService.invalidar(pedido.getId());
+        eventosPedidoService.publicar(List.of(evento));
+        filaCozinhaService.alterarStatus(pedido, statusAnterior, versaoAposAlteracao(pedido));
+        outboxService.registrar(TipoEventoPedido.STATUS_ALTERADO, pedido.getId(), versaoAposAlteracao(pedido), evento);
+        vendasRestauranteService.registrar(pedido.getRestaurante().getId(),
+                Variacao.statusAlterado(pedido.getValorTotal(), statusAnterior, pedido.getStatus()));
+        rankingClientesService.registrar(pedido.getCliente().getId(), pedido.getCliente().getNome(),
+                Variacao.statusAlterado(pedido.getValorTotal(), statusAnterior, pedido.getStatus()));
+        rollupPedidosService.registrar(Movimento.mudancaStatus(pedido.getRestaurante().getId(), pedido.getDataPedido(),
+                pedido.getValorTotal(), pedido.getSubtotal(), statusAnterior, pedido.getStatus()));
+        produtosMaisVendidosService.alterarStatus(pedido, statusAnterior);
+        if (pedido.getStatus() == StatusPedido.CONFIRMADO) {
+            metricasPedidosService.registrar(List.of(Confirmacao.de(pedido)));
+        } else if (pedido.getStatus() == StatusPedido.CANCELADO && MetricasPedidosService.isContado(statusAnterior)) {
+            metricasPedidosService.descontar(List.of(Confirmacao.de(pedido)));
+        }
+    }
+
+    /**
+     * Move vários pedidos para o mesmo status. Os status atuais são lidos e bloqueados com uma única
+     * consulta e validados contra a tabela de transições; os pedidos aceitos são atualizados com um
+     * único UPDATE, sem carregar as entidades. Como os pedidos ficam bloqueados desde a leitura, o
+     * UPDATE altera exatamente os aceitos e nenhuma alteração concorrente é contada como deste lote.
+     * Com restauranteId informado, apenas pedidos desse restaurante são considerados; no
+     * cancelamento, o motivo é anotado nas observações como em cancelarPedido.
+     */
+    public ResultadoStatusLoteDTO atualizarStatusEmLote(List<Long> pedidoIds, StatusPedido destino, Long restauranteId, String motivo) {
+        Set<Long> ids = new LinkedHashSet<>(pedidoIds);
+        Map<Long, SituacaoPedido> situacoes = pedidoRepository.bloquearSituacoes(ids).stream()
+                .collect(Collectors.toMap(SituacaoPedido::id, Function.identity()));
+
+        Map<Long, String> rejeitados = new LinkedHashMap<>();
+        List<Long> atualizados = new ArrayList<>();
+        for (Long id : ids) {
+            SituacaoPedido situacao = situacoes.get(id);
+            if (situacao == null || (restauranteId != null && !restauranteId.equals(situacao.restauranteId()))) {
+                rejeitados.put(id, "Pedido com ID " + id + " não foi encontrado(a)");
+            } else if (!situacao.status().podeIrPara(destino)) {
+                rejeitados.put(id, mensagemTransicaoInvalida(situacao.status(), destino));
+            } else {
+                atualizados.add(id);
+            }
+        }
+
+        if (!atualizados.isEmpty()) {
+            int linhas = pedidoRepository.atualizarStatus(atualizados, StatusPedido.origensPermitidas(destino), destino);
+            if (linhas != atualizados.size()) {
+                throw new IllegalStateException("UPDATE em lote alterou " + linhas + " de " + atualizados.size() + " pedidos bloqueados");
+            }
+            if (destino == StatusPedido.CANCELADO) {
+                pedidoRepository.anotar(atualizados, "Cancelado: " + motivo);
+            }
+        }
+        pedidoCacheService.invalidar(atualizados);
+        LocalDateTime agora = LocalDateTime.now();
+        List<EventoStatusPedidoDTO> eventos = atualizados.stream()
+                .map(id -> new EventoStatusPedidoDTO(id, situacoes.get(id).status(), destino, agora))
+                .collect(Collectors.toList());
+        eventosPedidoService.publicar(eventos);
+        atualizarFilaCozinha(atualizados, situacoes, destino);
+        outboxService.registrarTodos(eventos.stream()
+                .map(evento -> new OutboxService.Evento(TipoEventoPedido.STATUS_ALTERADO, evento.getPedidoId(),
+                        versaoAposAlteracao(situacoes.get(evento.getPedidoId())), evento))
+                .collect(Collectors.toList()));
+        vendasRestauranteService.registrar(atualizados.stream().map(situacoes::get).collect(Collectors.toMap(SituacaoPedido::restauranteId,
+                situacao -> Variacao.statusAlterado(situacao.valorTotal(), situacao.status(), destino), Variacao::somar)));
+        rankingClientesService.registrar(atualizados.stream().map(situacoes::get).collect(Collectors.toMap(SituacaoPedido::clienteId,
+                situacao -> Variacao.statusAlterado(situacao.valorTotal(), situacao.status(), destino), Variacao::somar)));
+        rollupPedidosService.registrar(atualizados.stream().map(situacoes::get)
+                .flatMap(situacao -> Movimento.mudancaStatus(situacao.restauranteId(), situacao.dataPedido(), situacao.valorTotal(),
+                        situacao.subtotal(), situacao.status(), destino).stream())
+                .collect(Collectors.toList()));
+        if (destino == StatusPedido.CONFIRMADO) {
+            metricasPedidosService.registrar(atualizados.stream().map(situacoes::get)
+                    .map(situacao -> new Confirmacao(situacao.restauranteId(), situacao.clienteId(), situacao.dataPedido(),
+                            situacao.valorTotal()))
+                    .collect(Collectors.toList()));
+        } else if (destino == StatusPedido.CANCELADO) {
+            metricasPedidosService.descontar(atualizados.stream().map(situacoes::get)
+                    .filter(situacao -> MetricasPedidosService.isContado(situacao.status()))
+                    .map(situacao -> new Confirmacao(situacao.restauranteId(), situacao.clienteId(), situacao.dataPedido(),
+                            situacao.valorTotal()))
+                    .collect(Collectors.toList()));
+        }
+        atualizarProdutosMaisVendidos(atualizados, situacoes, destino);
+        return new ResultadoStatusLoteDTO(ids.size(), destino, atualizados, rejeitados);
+    }
+
+    // Só os pedidos que entraram ou saíram das vendas precisam dos itens, lidos em uma única consulta
+    private void atualizarProdutosMaisVendidos(List<Long> atualizados, Map<Long, SituacaoPedido> situacoes, StatusPedido destino) {
+        List<Long> alterados = atualizados.stream()
+                .filter(id -> ProdutosMaisVendidosService.isVendido(situacoes.get(id).status()) != ProdutosMaisVendidosService.isVendido(destino))
+                .collect(Collectors.toList());
+        if (!alterados.isEmpty()) {
+            pedidoRepository.carregarItens(alterados)
+                    .forEach(pedido -> produtosMaisVendidosService.alterarStatus(pedido, situacoes.get(pedido.getId()).status(), destino));
+        }
+    }
+
+    // O UPDATE em lote incrementou a versão de cada pedido; os que voltaram a ficar ativos
+    // (CANCELADO -> PENDENTE) precisam dos dados completos e são relidos, já com a nova versão
+    private void atualizarFilaCozinha(List<Long> atualizados, Map<Long, SituacaoPedido> situacoes, StatusPedido destino) {
+        List<Long> reativados = new ArrayList<>();
+        for (Long id : atualizados) {
+            SituacaoPedido situacao = situacoes.get(id);
+            if (!FilaCozinhaService.isAtivo(situacao.status()) && FilaCozinhaService.isAtivo(destino)) {
+                reativados.add(id);
+            } else {
+                filaCozinhaService.alterarStatus(id, destino, versaoAposAlteracao(situacao));
+            }
+        }
+        if (!reativados.isEmpty()) {
+            pedidoRepository.carregarItens(reativados)
+                    .forEach(pedido -> filaCozinhaService.registrar(pedido, versaoAtual(pedido)));
+        }
+    }
+
+    private static long versaoAtual(Pedido pedido) {
+        return pedido.getVersao() != null ? pedido.getVersao() : 0L;
+    }
+
+    // Versão que o pedido terá após o flush da alteração em andamento
+    private static long versaoAposAlteracao(Pedido pedido) {
+        return versaoAtual(pedido) + 1;
+    }
+
+    // Versão após o UPDATE em lote, que a incrementa
+    private static long versaoAposAlteracao(SituacaoPedido situacao) {
+        return (situacao.versao() != null ? situacao.versao() : 0L) + 1;
+    }
+
     @Transactional(readOnly = true)
-    public List<PedidoResponseDTO> buscarPedidosPorRestaurante(Long restauranteId, StatusPedido status) {
-        restauranteRepository.findById(restauranteId)
-                .orElseThrow(() -> new EntityNotFoundException("Restaurante", restauranteId));
-        List<Pedido> pedidos;
-        if (status != null) {
-            pedidos = pedidoRepository.relatorioPedidosPorPeriodoEStatus(LocalDateTime.MIN, LocalDateTime.MAX, status)
-                                    .stream()
-                                    .filter(p -> p.getRestaurante().getId().equals(restauranteId))
-                                    .collect(Collectors.toList());
-        } else {
-            pedidos = pedidoRepository.findByRestauranteId(restauranteId);
+    public Slice<PedidoResponseDTO> buscarPedidosPorRestaurante(Long restauranteId, StatusPedido status, Pageable pageable) {
+        if (!restauranteRepository.existsById(restauranteId)) {
+            throw new EntityNotFoundException("Restaurante", restauranteId);
         }
-        return pedidos.stream().map(this::toResponseDTO).collect(Collectors.toList());
+        Slice<Pedido> pedidos = status != null
+                ? pedidoRepository.findByRestauranteIdAndStatus(restauranteId, status, pageable)
+                : pedidoRepository.findByRestauranteId(restauranteId, pageable);
+        return new SliceImpl<>(toResponseDTOs(pedidos.getContent()), pedidos.getPageable(), pedidos.hasNext());
+    }
+
+    @Transactional(readOnly = true)
+    public void verificarCliente(Long clienteId) {
+        if (!clienteRepository.existsById(clienteId)) {
+            throw new EntityNotFoundException("Cliente", clienteId);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void verificarRestaurante(Long restauranteId) {
+        if (!restauranteRepository.existsById(restauranteId)) {
+            throw new EntityNotFoundException("Restaurante", restauranteId);
+        }
+    }
+
+    /**
+     * Entrega o histórico completo do cliente, do pedido mais recente ao mais antigo, um pedido por vez
+     * ao destino. A memória usada não depende do tamanho do histórico: os pedidos vêm de um cursor do
+     * banco e são desanexados do contexto de persistência a cada bloco entregue. Os pedidos arquivados
+     * vêm depois dos da tabela principal, também do mais recente ao mais antigo.
+     */
+    @Transactional(readOnly = true)
+    public void exportarPedidosPorCliente(Long clienteId, Consumer<PedidoResponseDTO> destino) {
+        try (Stream<Pedido> pedidos = pedidoRepository.streamByClienteIdOrderByDataPedidoDesc(clienteId)) {
+            exportar(pedidos, this::toResponseDTOs, destino);
+        }
+        try (Stream<PedidoArquivado> arquivados = pedidoArquivadoRepository.streamByClienteIdOrderByDataPedidoDesc(clienteId)) {
+            exportar(arquivados, this::toResponseDTOsArquivados, destino);
+        }
+    }
+
+    /** Mesmo que {@link #exportarPedidosPorCliente}, para o histórico do restaurante (status opcional). */
+    @Transactional(readOnly = true)
+    public void exportarPedidosPorRestaurante(Long restauranteId, StatusPedido status, Consumer<PedidoResponseDTO> destino) {
+        try (Stream<Pedido> pedidos = status != null
+                ? pedidoRepository.streamByRestauranteIdAndStatusOrderByDataPedidoDesc(restauranteId, status)
+                : pedidoRepository.streamByRestauranteIdOrderByDataPedidoDesc(restauranteId)) {
+            exportar(pedidos, this::toResponseDTOs, destino);
+        }
+        try (Stream<PedidoArquivado> arquivados = status != null
+                ? pedidoArquivadoRepository.streamByRestauranteIdAndStatusOrderByDataPedidoDesc(restauranteId, status)
+                : pedidoArquivadoRepository.streamByRestauranteIdOrderByDataPedidoDesc(restauranteId)) {
+            exportar(arquivados, this::toResponseDTOsArquivados, destino);
+        }
+    }
+
+    // Os pedidos são agrupados em blocos do tamanho do fetch size para que os itens de cada bloco
+    // venham em uma única consulta (carregarItens), em vez de uma consulta por pedido.
+    private <T> void exportar(Stream<T> pedidos, Function<List<T>, List<PedidoResponseDTO>> conversor,
+                              Consumer<PedidoResponseDTO> destino) {
+        List<T> bloco = new ArrayList<>(PedidoRepository.FETCH_SIZE_EXPORTACAO);
+        Iterator<T> iterador = pedidos.iterator();
+        while (iterador.hasNext()) {
+            bloco.add(iterador.next());
+            if (bloco.size() == PedidoRepository.FETCH_SIZE_EXPORTACAO) {
+                entregarBloco(bloco, conversor, destino);
+            }
+        }
+        entregarBloco(bloco, conversor, destino);
+    }
+
+    private <T> void entregarBloco(List<T> bloco, Function<List<T>, List<PedidoResponseDTO>> conversor,
+                                   Consumer<PedidoResponseDTO> destino) {
+        if (bloco.isEmpty()) {
+            return;
+        }
+        conversor.apply(bloco).forEach(destino);
+        entityManager.clear();
+        bloco.clear();
     }
 
     @Transactional(readOnly = true)
@@ -250,13 +715,10 @@ public class PedidoService {
         if (dto.getItens() == null || dto.getItens().isEmpty()) {
             throw new BusinessException("Deve conter pelo menos um item para cálculo.", "CALCULATION_EMPTY_ITEMS");
         }
+        List<Long> produtoIds = dto.getItens().stream().map(ItemCalculoDTO::getProdutoId).collect(Collectors.toList());
+        Map<Long, Produto> produtos = resolverProdutos(restaurante.getId(), produtoIds);
         for (ItemCalculoDTO itemDto : dto.getItens()) {
-            Produto produto = produtoRepository.findById(itemDto.getProdutoId())
-                    .orElseThrow(() -> new EntityNotFoundException("Produto", itemDto.getProdutoId()));
-            if (!produto.isDisponivel()) {
-                throw new BusinessException("Produto " + produto.getNome() + " não está disponível para cálculo.", "PRODUCT_UNAVAILABLE_FOR_CALC");
-            }
-            BigDecimal precoUnitario = produto.getPreco();
+            BigDecimal precoUnitario = produtos.get(itemDto.getProdutoId()).getPreco();
             BigDecimal itemSubtotal = precoUnitario.multiply(BigDecimal.valueOf(itemDto.getQuantidade()));
             subtotal = subtotal.add(itemSubtotal);
         }
@@ -267,6 +729,48 @@ public class PedidoService {
 
     @Transactional(readOnly = true)
     public Page<PedidoResponseDTO> listarPedidos(StatusPedido status, LocalDateTime dataInicio, LocalDateTime dataFim, Pageable pageable) {
+        Page<Pedido> pedidosPage = pedidoRepository.findAll(filtroPedidos(status, dataInicio, dataFim), pageable);
+        return new PageImpl<>(toResponseDTOs(pedidosPage.getContent()), pedidosPage.getPageable(), pedidosPage.getTotalElements());
+    }
+
+    /**
+     * Paginação por cursor (keyset) na ordenação (dataPedido, id), do mais recente para o mais antigo.
+     * Cada janela é um seek no índice a partir do cursor, com tamanho + 1 linhas para saber se há
+     * mais resultados, sem OFFSET nem consulta de contagem. Com before informado, a janela é a
+     * anterior ao cursor; caso contrário, a seguinte a after (vazio ou nulo para a primeira janela).
+     */
+    @Transactional(readOnly = true)
+    public PaginaCursorDTO<PedidoResponseDTO> listarPedidosPorCursor(StatusPedido status, LocalDateTime dataInicio, LocalDateTime dataFim,
+                                                                    String after, String before, int tamanho) {
+        boolean paraTras = before != null && !before.isBlank();
+        String valorCursor = paraTras ? before : after;
+        CursorPedido cursor = valorCursor == null || valorCursor.isBlank() ? null : CursorPedido.decodificar(valorCursor);
+
+        Specification<Pedido> spec = filtroPedidos(status, dataInicio, dataFim);
+        if (cursor != null) {
+            spec = spec.and(aposCursor(cursor, paraTras));
+        }
+        Sort ordem = Sort.by(paraTras ? Sort.Direction.ASC : Sort.Direction.DESC, "dataPedido", "id");
+        List<Pedido> pedidos = pedidoRepository.findBy(spec, consulta -> consulta.project("cliente", "restaurante")
+                .sortBy(ordem).limit(tamanho + 1).all());
+
+        boolean haMais = pedidos.size() > tamanho;
+        List<Pedido> janela = new ArrayList<>(haMais ? pedidos.subList(0, tamanho) : pedidos);
+        if (paraTras) {
+            Collections.reverse(janela);
+        }
+        String proximo = null;
+        String anterior = null;
+        if (!janela.isEmpty()) {
+            String primeiro = CursorPedido.de(janela.get(0)).codificar();
+            String ultimo = CursorPedido.de(janela.get(janela.size() - 1)).codificar();
+            proximo = (paraTras || haMais) ? ultimo : null;
+            anterior = paraTras ? (haMais ? primeiro : null) : (cursor != null ? primeiro : null);
+        }
+        return new PaginaCursorDTO<>(toResponseDTOs(janela), proximo, anterior);
+    }
+
+    private Specification<Pedido> filtroPedidos(StatusPedido status, LocalDateTime dataInicio, LocalDateTime dataFim) {
         Specification<Pedido> spec = Specification.where(null);
         if (status != null) {
             spec = spec.and((root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("status"), status));
@@ -277,8 +781,20 @@ public class PedidoService {
         if (dataFim != null) {
             spec = spec.and((root, query, criteriaBuilder) -> criteriaBuilder.lessThanOrEqualTo(root.get("dataPedido"), dataFim));
         }
-        Page<Pedido> pedidosPage = pedidoRepository.findAll(spec, pageable);
-        return pedidosPage.map(this::toResponseDTO);
+        return spec;
+    }
+
+    // (dataPedido, id) estritamente antes do cursor na ordem decrescente (ou depois, indo para trás)
+    private Specification<Pedido> aposCursor(CursorPedido cursor, boolean paraTras) {
+        return (root, query, cb) -> {
+            Path<LocalDateTime> data = root.get("dataPedido");
+            Path<Long> id = root.get("id");
+            return paraTras
+                    ? cb.or(cb.greaterThan(data, cursor.dataPedido()),
+                            cb.and(cb.equal(data, cursor.dataPedido()), cb.greaterThan(id, cursor.id())))
+                    : cb.or(cb.lessThan(data, cursor.dataPedido()),
+                            cb.and(cb.equal(data, cursor.dataPedido()), cb.lessThan(id, cursor.id())));
+        };
     }
 
     // --- NOVO MÉTODO PARA AUTORIZAÇÃO ---
@@ -296,4 +812,23 @@ public class PedidoService {
         }
         return false;
     }
+
+    // Acesso a um pedido específico (GET /{id}/eventos): o cliente que o fez ou o dono do restaurante.
+    // Um pedido inexistente nega o acesso, sem revelar a outros usuários se o id existe.
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public boolean canAccessPedido(Long pedidoId) {
+        PedidoResponseDTO pedido;
+        try {
+            pedido = buscarPedidoPorId(pedidoId);
+        } catch (EntityNotFoundException e) {
+            return false;
+        }
+        if (SecurityUtils.hasRole("CLIENTE")) {
+            return canAccess(pedido.getClienteId(), "CLIENTE");
+        }
+        if (SecurityUtils.hasRole("RESTAURANTE")) {
+            return canAccess(pedido.getRestauranteId(), "RESTAURANTE");
+        }
+        return false;
+    }
 }
\ No newline at end of file
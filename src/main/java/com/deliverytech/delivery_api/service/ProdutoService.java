@@ -130,6 +130,7 @@ public class ProdutoService {
     }
     
     // --- NOVO MÉTODO PARA AUTORIZAÇÃO ---
+    @Transactional(readOnly = true)
     public boolean isOwner(Long produtoId) {
         Produto produto = produtoRepository.findById(produtoId)
                 .orElseThrow(() -> new EntityNotFoundException("Produto", produtoId));
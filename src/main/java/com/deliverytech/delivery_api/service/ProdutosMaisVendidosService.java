@@ -0,0 +1,254 @@
+package com.deliverytech.delivery_api.service;
+
+import com.deliverytech.delivery_api.dto.ProdutoMaisVendidoDTO;
+import com.deliverytech.delivery_api.entity.ItemPedido;
+import com.deliverytech.delivery_api.entity.Pedido;
+import com.deliverytech.delivery_api.entity.StatusPedido;
+import com.deliverytech.delivery_api.repository.ProdutoRepository;
+import com.deliverytech.delivery_api.service.sketch.SpaceSaving;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.deliverytech.delivery_api.util.Transacoes.aposCommit;
+
+/**
+ * Ranking dos produtos mais vendidos em memória, geral, por restaurante e por categoria, servido por
+ * GET /api/relatorios/produtos-mais-vendidos sem consultar o banco. Cada ranking é um resumo
+ * Space-Saving da quantidade vendida: o geral e os por categoria monitoram até
+ * delivery.produtos.mais-vendidos.capacidade produtos, os por restaurante até capacidade-restaurante
+ * (em geral mais que o cardápio inteiro, e então exatos).
+ *
+ * Um produto é vendido quando o pedido chega a CONFIRMADO (ou PREPARANDO, SAIU_PARA_ENTREGA e
+ * ENTREGUE) e deixa de ser quando o pedido é cancelado; as mudanças de status do PedidoService são
+ * aplicadas após o commit. Só as escritas desta instância chegam a eles; os resumos são recarregados
+ * do banco, com as quantidades exatas dos pedidos e do arquivo, na inicialização e a cada
+ * delivery.produtos.mais-vendidos.recarga.intervalo, o que traz as vendas das outras instâncias com
+ * essa defasagem máxima.
+ */
+@Service
+public class ProdutosMaisVendidosService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProdutosMaisVendidosService.class);
+    private static final Set<StatusPedido> VENDIDOS = EnumSet.of(StatusPedido.CONFIRMADO, StatusPedido.PREPARANDO,
+            StatusPedido.SAIU_PARA_ENTREGA, StatusPedido.ENTREGUE);
+
+    private final ProdutoRepository produtoRepository;
+    private final int capacidade;
+    private final int capacidadeRestaurante;
+    private final boolean recargaHabilitada;
+    private final Duration intervalo;
+
+    // Substituídos a cada carga; as alterações e a substituição acontecem com o lock do serviço e as
+    // consultas leem sem ele
+    private volatile Resumos resumos;
+    // Vendas aplicadas durante uma recarga, repetidas sobre os resumos recarregados; null fora dela
+    private List<Consumer<Resumos>> alteracoesDuranteCarga;
+
+    private ScheduledExecutorService executor;
+
+    public ProdutosMaisVendidosService(ProdutoRepository produtoRepository,
+                                       @Value("${delivery.produtos.mais-vendidos.capacidade:1000}") int capacidade,
+                                       @Value("${delivery.produtos.mais-vendidos.capacidade-restaurante:100}") int capacidadeRestaurante,
+                                       @Value("${delivery.produtos.mais-vendidos.recarga.habilitado:true}") boolean recargaHabilitada,
+                                       @Value("${delivery.produtos.mais-vendidos.recarga.intervalo:PT5M}") Duration intervalo) {
+        this.produtoRepository = produtoRepository;
+        this.capacidade = capacidade;
+        this.capacidadeRestaurante = capacidadeRestaurante;
+        this.recargaHabilitada = recargaHabilitada;
+        this.intervalo = intervalo;
+        this.resumos = new Resumos(capacidade, capacidadeRestaurante);
+    }
+
+    public static boolean isVendido(StatusPedido status) {
+        return VENDIDOS.contains(status);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        carregar();
+        logger.info("Produtos mais vendidos carregados: {} unidade(s) de {} produto(s)",
+                resumos.geral.total(), resumos.produtos.size());
+        if (!recargaHabilitada || executor != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "recarga-produtos-mais-vendidos");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::recarregar, intervalo.toMillis(), intervalo.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void parar() throws InterruptedException {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Monta resumos novos a partir do banco e os coloca no lugar dos atuais, com as vendas aplicadas
+     * durante a consulta repetidas sobre eles. Uma venda confirmada antes da consulta, mas aplicada
+     * depois do início da carga, é contada duas vezes até a carga seguinte.
+     */
+    public void carregar() {
+        synchronized (this) {
+            alteracoesDuranteCarga = new ArrayList<>();
+        }
+        Resumos novos = new Resumos(capacidade, capacidadeRestaurante);
+        try {
+            Stream.concat(produtoRepository.somarQuantidadesVendidas(VENDIDOS).stream(),
+                            produtoRepository.somarQuantidadesVendidasArquivadas(VENDIDOS).stream())
+                    .forEach(quantidade -> novos.aplicar(new Venda(new DadosProduto(quantidade.produtoId(),
+                            quantidade.nome(), quantidade.restauranteId(), quantidade.categoria()), quantidade.quantidade()), 1));
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                alteracoesDuranteCarga = null;
+            }
+            throw e;
+        }
+        synchronized (this) {
+            alteracoesDuranteCarga.forEach(alteracao -> alteracao.accept(novos));
+            alteracoesDuranteCarga = null;
+            resumos = novos;
+        }
+    }
+
+    private void recarregar() {
+        try {
+            carregar();
+        } catch (Exception e) {
+            logger.warn("Falha na recarga dos produtos mais vendidos; nova tentativa em {}", intervalo, e);
+        }
+    }
+
+    /** Mudança de status de um pedido carregado, já com o status novo. */
+    public void alterarStatus(Pedido pedido, StatusPedido statusAnterior) {
+        alterarStatus(pedido, statusAnterior, pedido.getStatus());
+    }
+
+    /**
+     * Mudança de status de um pedido. Só lê os itens quando o pedido entra ou sai das vendas; eles são
+     * lidos agora, dentro da transação, e aplicados após o commit.
+     */
+    public void alterarStatus(Pedido pedido, StatusPedido statusAnterior, StatusPedido statusNovo) {
+        boolean vendidoAntes = isVendido(statusAnterior);
+        if (vendidoAntes == isVendido(statusNovo)) {
+            return;
+        }
+        Long restauranteId = pedido.getRestaurante().getId();
+        List<Venda> vendas = pedido.getItens().stream()
+                .map(item -> venda(item, restauranteId))
+                .collect(Collectors.toList());
+        int sinal = vendidoAntes ? -1 : 1;
+        aposCommit(() -> alterar(atuais -> vendas.forEach(venda -> atuais.aplicar(venda, sinal))));
+    }
+
+    /**
+     * Os produtos mais vendidos: de um restaurante (restauranteId), de uma categoria ou no geral. Com
+     * restaurante e categoria, o ranking do restaurante é filtrado pela categoria.
+     */
+    public List<ProdutoMaisVendidoDTO> maisVendidos(Long restauranteId, String categoria, int limite) {
+        Resumos resumos = this.resumos;
+        List<SpaceSaving.Estimativa<Long>> estimativas;
+        if (restauranteId != null) {
+            SpaceSaving<Long> ranking = resumos.porRestaurante.get(restauranteId);
+            if (ranking == null) {
+                return List.of();
+            }
+            estimativas = ranking.maisFrequentes(categoria == null ? limite : ranking.capacidade()).stream()
+                    .filter(estimativa -> categoria == null || resumos.daCategoria(estimativa.item(), categoria))
+                    .limit(limite)
+                    .toList();
+        } else if (categoria != null) {
+            SpaceSaving<Long> ranking = resumos.porCategoria.get(chaveCategoria(categoria));
+            estimativas = ranking == null ? List.of() : ranking.maisFrequentes(limite);
+        } else {
+            estimativas = resumos.geral.maisFrequentes(limite);
+        }
+        return estimativas.stream()
+                .map(estimativa -> new ProdutoMaisVendidoDTO(estimativa.item(), resumos.produtos.get(estimativa.item()).nome(),
+                        estimativa.contagem(), estimativa.erro()))
+                .collect(Collectors.toList());
+    }
+
+    private synchronized void alterar(Consumer<Resumos> alteracao) {
+        alteracao.accept(resumos);
+        if (alteracoesDuranteCarga != null) {
+            alteracoesDuranteCarga.add(alteracao);
+        }
+    }
+
+    private static Venda venda(ItemPedido item, Long restauranteId) {
+        return new Venda(new DadosProduto(item.getProduto().getId(), item.getProduto().getNome(), restauranteId,
+                item.getProduto().getCategoria()), item.getQuantidade());
+    }
+
+    private static String chaveCategoria(String categoria) {
+        return Objects.requireNonNullElse(categoria, "").trim().toLowerCase(Locale.ROOT);
+    }
+
+    /** Resumos geral, por restaurante e por categoria de uma carga, com os dados dos produtos. */
+    private static final class Resumos {
+        private final SpaceSaving<Long> geral;
+        private final int capacidadeRestaurante;
+        private final Map<Long, SpaceSaving<Long>> porRestaurante = new ConcurrentHashMap<>();
+        private final Map<String, SpaceSaving<Long>> porCategoria = new ConcurrentHashMap<>();
+        private final Map<Long, DadosProduto> produtos = new ConcurrentHashMap<>();
+
+        private Resumos(int capacidade, int capacidadeRestaurante) {
+            this.geral = new SpaceSaving<>(capacidade);
+            this.capacidadeRestaurante = capacidadeRestaurante;
+        }
+
+        private void aplicar(Venda venda, int sinal) {
+            DadosProduto produto = venda.produto();
+            produtos.put(produto.id(), produto);
+            SpaceSaving<Long> restaurante = porRestaurante.computeIfAbsent(produto.restauranteId(),
+                    id -> new SpaceSaving<>(capacidadeRestaurante));
+            SpaceSaving<Long> categoria = produto.categoria() == null ? null
+                    : porCategoria.computeIfAbsent(chaveCategoria(produto.categoria()), chave -> new SpaceSaving<>(geral.capacidade()));
+            Stream.of(geral, restaurante, categoria).filter(Objects::nonNull).forEach(ranking -> {
+                if (sinal > 0) {
+                    ranking.adicionar(produto.id(), venda.quantidade());
+                } else {
+                    ranking.remover(produto.id(), venda.quantidade());
+                }
+            });
+        }
+
+        private boolean daCategoria(Long produtoId, String categoria) {
+            return chaveCategoria(categoria).equals(chaveCategoria(produtos.get(produtoId).categoria()));
+        }
+    }
+
+    // Dados do produto guardados para montar a resposta sem consultar o banco
+    private record DadosProduto(Long id, String nome, Long restauranteId, String categoria) {
+    }
+
+    private record Venda(DadosProduto produto, long quantidade) {
+    }
+}
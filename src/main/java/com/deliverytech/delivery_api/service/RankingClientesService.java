@@ -0,0 +1,211 @@
+package com.deliverytech.delivery_api.service;
+
+import com.deliverytech.delivery_api.dto.ClienteRankingDTO;
+import com.deliverytech.delivery_api.repository.ClienteRepository;
+import com.deliverytech.delivery_api.service.VendasRestauranteService.Variacao;
+import com.deliverytech.delivery_api.service.ranking.ArvoreOrdenada;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static com.deliverytech.delivery_api.util.Transacoes.aposCommit;
+
+/**
+ * Ranking dos clientes mais ativos em memória, servido por GET /api/relatorios/clientes-ativos sem
+ * consultar o banco: clientes ordenados pela quantidade de pedidos não cancelados, depois pelo valor
+ * gasto e, no empate, pelo ID. Os primeiros N e a posição de um cliente saem de uma ArvoreOrdenada,
+ * em O(log n).
+ *
+ * As variações são as mesmas do agregado de vendas por restaurante (VendasRestauranteService.Variacao):
+ * pedido criado, itens adicionados e pedido cancelado ou reativado, registradas pelo PedidoService e
+ * aplicadas após o commit. Só as escritas desta instância chegam a elas; o ranking é recarregado do
+ * banco na inicialização e a cada delivery.clientes.ranking.recarga.intervalo, o que traz os pedidos
+ * das outras instâncias com essa defasagem máxima.
+ */
+@Service
+public class RankingClientesService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RankingClientesService.class);
+    private static final Comparator<Pontuacao> ORDEM = Comparator.comparingLong(Pontuacao::quantidadePedidos).reversed()
+            .thenComparing(Pontuacao::valorTotal, Comparator.reverseOrder())
+            .thenComparing(Pontuacao::clienteId);
+
+    private final ClienteRepository clienteRepository;
+    private final boolean recargaHabilitada;
+    private final Duration intervalo;
+
+    // Alterados apenas com o lock do serviço
+    private Ranking ranking = new Ranking();
+    // Alterações aplicadas durante uma recarga, repetidas sobre o ranking recarregado; null fora dela
+    private List<Consumer<Ranking>> alteracoesDuranteCarga;
+
+    private ScheduledExecutorService executor;
+
+    public RankingClientesService(ClienteRepository clienteRepository,
+                                  @Value("${delivery.clientes.ranking.recarga.habilitado:true}") boolean recargaHabilitada,
+                                  @Value("${delivery.clientes.ranking.recarga.intervalo:PT5M}") Duration intervalo) {
+        this.clienteRepository = clienteRepository;
+        this.recargaHabilitada = recargaHabilitada;
+        this.intervalo = intervalo;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        carregar();
+        logger.info("Ranking de clientes carregado com {} cliente(s)", quantidadeClientes());
+        if (!recargaHabilitada || executor != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "recarga-ranking-clientes");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::recarregar, intervalo.toMillis(), intervalo.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void parar() throws InterruptedException {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Monta um ranking novo a partir do banco e o coloca no lugar do atual, com as variações aplicadas
+     * durante a consulta repetidas sobre ele. Uma variação confirmada antes da consulta, mas aplicada
+     * depois do início da carga, é contada duas vezes até a carga seguinte.
+     */
+    public void carregar() {
+        synchronized (this) {
+            alteracoesDuranteCarga = new ArrayList<>();
+        }
+        Ranking novo = new Ranking();
+        try {
+            Stream.concat(clienteRepository.somarPedidosPorCliente().stream(),
+                            clienteRepository.somarPedidosArquivadosPorCliente().stream())
+                    .forEach(total -> {
+                        novo.nomes.put(total.clienteId(), total.nome());
+                        novo.aplicar(total.clienteId(), new Variacao(total.valorTotal(), total.quantidadePedidos()));
+                    });
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                alteracoesDuranteCarga = null;
+            }
+            throw e;
+        }
+        synchronized (this) {
+            alteracoesDuranteCarga.forEach(alteracao -> alteracao.accept(novo));
+            alteracoesDuranteCarga = null;
+            ranking = novo;
+        }
+    }
+
+    private void recarregar() {
+        try {
+            carregar();
+        } catch (Exception e) {
+            logger.warn("Falha na recarga do ranking de clientes; nova tentativa em {}", intervalo, e);
+        }
+    }
+
+    /** Variação nos pedidos de um cliente; o nome mantém a resposta atualizada sem consultar o banco. */
+    public void registrar(Long clienteId, String nome, Variacao variacao) {
+        aposCommit(() -> alterar(ranking -> {
+            ranking.nomes.put(clienteId, nome);
+            ranking.aplicar(clienteId, variacao);
+        }));
+    }
+
+    /** Variações de vários clientes, já somadas por cliente (mudanças de status em lote). */
+    public void registrar(Map<Long, Variacao> variacoes) {
+        Map<Long, Variacao> alteradas = variacoes.entrySet().stream()
+                .filter(variacao -> !variacao.getValue().isNula())
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        if (!alteradas.isEmpty()) {
+            aposCommit(() -> alterar(ranking -> alteradas.forEach(ranking::aplicar)));
+        }
+    }
+
+    public void renomear(Long clienteId, String nome) {
+        aposCommit(() -> alterar(ranking -> ranking.nomes.computeIfPresent(clienteId, (id, atual) -> nome)));
+    }
+
+    /** Os primeiros clientes do ranking, em O(log n + limite). */
+    public synchronized List<ClienteRankingDTO> primeiros(int limite) {
+        List<Pontuacao> primeiros = ranking.arvore.primeiros(limite);
+        return IntStream.range(0, primeiros.size())
+                .mapToObj(posicao -> ranking.toDTO(posicao, primeiros.get(posicao)))
+                .collect(Collectors.toList());
+    }
+
+    /** Posição de um cliente no ranking, em O(log n); vazio se ele não tem pedidos não cancelados. */
+    public synchronized Optional<ClienteRankingDTO> posicao(Long clienteId) {
+        Pontuacao pontuacao = ranking.pontuacoes.get(clienteId);
+        if (pontuacao == null) {
+            return Optional.empty();
+        }
+        return Optional.of(ranking.toDTO(ranking.arvore.posicao(pontuacao), pontuacao));
+    }
+
+    synchronized int quantidadeClientes() {
+        return ranking.arvore.tamanho();
+    }
+
+    private synchronized void alterar(Consumer<Ranking> alteracao) {
+        alteracao.accept(ranking);
+        if (alteracoesDuranteCarga != null) {
+            alteracoesDuranteCarga.add(alteracao);
+        }
+    }
+
+    /** Árvore, pontuações e nomes de uma carga; alterados apenas com o lock do serviço. */
+    private static final class Ranking {
+        private final ArvoreOrdenada<Pontuacao> arvore = new ArvoreOrdenada<>(ORDEM);
+        private final Map<Long, Pontuacao> pontuacoes = new HashMap<>();
+        private final Map<Long, String> nomes = new HashMap<>();
+
+        private void aplicar(Long clienteId, Variacao variacao) {
+            Pontuacao atual = pontuacoes.getOrDefault(clienteId, new Pontuacao(clienteId, 0, BigDecimal.ZERO));
+            Pontuacao nova = new Pontuacao(clienteId, atual.quantidadePedidos() + variacao.quantidade(),
+                    atual.valorTotal().add(variacao.valor()));
+            arvore.remover(atual);
+            if (nova.quantidadePedidos() <= 0 && nova.valorTotal().signum() <= 0) {
+                pontuacoes.remove(clienteId);
+                return;
+            }
+            pontuacoes.put(clienteId, nova);
+            arvore.incluir(nova);
+        }
+
+        private ClienteRankingDTO toDTO(int posicao, Pontuacao pontuacao) {
+            return new ClienteRankingDTO(posicao + 1, pontuacao.clienteId(), nomes.get(pontuacao.clienteId()),
+                    pontuacao.quantidadePedidos(), pontuacao.valorTotal());
+        }
+    }
+
+    private record Pontuacao(Long clienteId, long quantidadePedidos, BigDecimal valorTotal) {
+    }
+}
@@ -0,0 +1,413 @@
+package com.deliverytech.delivery_api.service;
+
+import com.deliverytech.delivery_api.dto.RelatorioJobDTO;
+import com.deliverytech.delivery_api.dto.RelatorioJobDTO.Formato;
+import com.deliverytech.delivery_api.dto.RelatorioJobDTO.Tipo;
+import com.deliverytech.delivery_api.dto.RelatorioJobResponseDTO;
+import com.deliverytech.delivery_api.dto.RelatorioJobResponseDTO.Situacao;
+import com.deliverytech.delivery_api.exception.BusinessException;
+import com.deliverytech.delivery_api.exception.ConflictException;
+import com.deliverytech.delivery_api.exception.EntityNotFoundException;
+import com.deliverytech.delivery_api.exception.FilaCheiaException;
+import com.deliverytech.delivery_api.service.outbox.OutboxService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.cfg.JsonNodeFeature;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Geração assíncrona dos relatórios: POST /api/relatorios/jobs devolve o ID de um job, acompanhado por
+ * GET /api/relatorios/jobs/{id} e baixado em GET /api/relatorios/jobs/{id}/resultado. Os jobs rodam em
+ * um pool próprio de delivery.relatorios.jobs.threads threads, com fila de até capacidade jobs (cheia,
+ * a solicitação falha com 429): os relatórios usam no máximo essas conexões com o banco, sem disputá-las
+ * com o tráfego de pedidos nas threads do Tomcat.
+ *
+ * O resultado é gravado linha a linha em um arquivo temporário, em JSON ou CSV, e enviado a partir do
+ * arquivo, sem ficar inteiro em memória. Uma solicitação com o mesmo relatório, parâmetros e versão
+ * dos dados (OutboxService.alteracoesConfirmadas, que muda a cada alteração de pedido) reaproveita o
+ * job em andamento ou concluído. Jobs terminados expiram após delivery.relatorios.jobs.validade, o que
+ * também limita a defasagem de dados que não mudam a versão, como o nome de um cliente.
+ *
+ * Os jobs, seus arquivos e a versão dos dados são desta instância: GET /jobs/{id} só encontra o job na
+ * instância que o criou (com várias instâncias, as rotas /api/relatorios/jobs precisam de afinidade de
+ * sessão), e a versão só muda com as escritas feitas nela. Um job concluído pode então ser reaproveitado
+ * depois de alterações feitas em outra instância, no máximo até expirar.
+ */
+@Service
+public class RelatorioJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RelatorioJobService.class);
+    private static final int MAX_LINHAS_RANKING = 100;
+    private static final long RETRY_AFTER_SEGUNDOS = 5;
+
+    private final RelatorioService relatorioService;
+    private final OutboxService outboxService;
+    private final ObjectMapper objectMapper;
+    // Para as linhas do CSV: mantém a escala dos valores (120.50, e não 120.5)
+    private final ObjectMapper objectMapperCsv;
+    private final MeterRegistry meterRegistry;
+    private final int threads;
+    private final ArrayBlockingQueue<Runnable> fila;
+    private final Duration validade;
+    private final Counter acertosCache;
+    private final Counter faltasCache;
+    private final Counter rejeitados;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    // Alterado apenas com o lock do serviço
+    private final Map<Chave, Job> porChave = new ConcurrentHashMap<>();
+
+    private Path diretorio;
+    private ThreadPoolExecutor executor;
+
+    public RelatorioJobService(RelatorioService relatorioService,
+                               OutboxService outboxService,
+                               ObjectMapper objectMapper,
+                               MeterRegistry meterRegistry,
+                               @Value("${delivery.relatorios.jobs.threads:2}") int threads,
+                               @Value("${delivery.relatorios.jobs.capacidade:20}") int capacidade,
+                               @Value("${delivery.relatorios.jobs.validade:PT10M}") Duration validade) {
+        this.relatorioService = relatorioService;
+        this.outboxService = outboxService;
+        this.objectMapper = objectMapper;
+        this.objectMapperCsv = objectMapper.copy().configure(JsonNodeFeature.STRIP_TRAILING_BIGDECIMAL_ZEROES, false);
+        this.meterRegistry = meterRegistry;
+        this.threads = threads;
+        this.fila = new ArrayBlockingQueue<>(capacidade);
+        this.validade = validade;
+
+        Gauge.builder("delivery.relatorios.jobs.fila", fila, ArrayBlockingQueue::size)
+                .description("Relatórios aguardando uma thread do pool de relatórios")
+                .register(meterRegistry);
+        this.acertosCache = Counter.builder("delivery.relatorios.jobs.cache").tag("resultado", "acerto")
+                .description("Solicitações de relatório atendidas por um job existente")
+                .register(meterRegistry);
+        this.faltasCache = Counter.builder("delivery.relatorios.jobs.cache").tag("resultado", "falta")
+                .description("Solicitações de relatório que criaram um novo job")
+                .register(meterRegistry);
+        this.rejeitados = Counter.builder("delivery.relatorios.jobs.rejeitados")
+                .description("Solicitações de relatório recusadas com 429 por fila cheia")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void iniciar() throws IOException {
+        diretorio = Files.createTempDirectory("delivery-relatorios");
+        AtomicInteger contador = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, fila, r -> {
+            Thread thread = new Thread(r, "relatorio-job-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        logger.info("Pool de relatórios iniciado: {} thread(s), resultados em {}", threads, diretorio);
+    }
+
+    @PreDestroy
+    public void parar() {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdownNow();
+        jobs.values().forEach(Job::excluirArquivo);
+        try {
+            Files.deleteIfExists(diretorio);
+        } catch (IOException e) {
+            logger.debug("Diretório de relatórios {} não removido", diretorio, e);
+        }
+    }
+
+    /**
+     * Agenda o relatório, ou devolve o job que já o gerou (ou está gerando) para a mesma versão dos dados.
+     *
+     * @throws FilaCheiaException se a fila de relatórios estiver na capacidade máxima
+     */
+    public RelatorioJobResponseDTO solicitar(RelatorioJobDTO dto) {
+        Chave chave = chave(dto, outboxService.alteracoesConfirmadas());
+        removerExpirados();
+        synchronized (this) {
+            Job existente = porChave.get(chave);
+            if (existente != null) {
+                acertosCache.increment();
+                return toResponseDTO(existente);
+            }
+            Job job = new Job(UUID.randomUUID().toString(), chave);
+            try {
+                executor.execute(() -> executar(job));
+            } catch (RejectedExecutionException e) {
+                rejeitados.increment();
+                throw new FilaCheiaException("Fila de relatórios cheia. Tente novamente em instantes.", RETRY_AFTER_SEGUNDOS);
+            }
+            jobs.put(job.id, job);
+            porChave.put(chave, job);
+            faltasCache.increment();
+            return toResponseDTO(job);
+        }
+    }
+
+    public RelatorioJobResponseDTO consultar(String id) {
+        return toResponseDTO(buscar(id));
+    }
+
+    /**
+     * Arquivo com o resultado de um job concluído.
+     *
+     * @throws ConflictException se o job ainda não terminou ou falhou
+     */
+    public Resultado resultado(String id) {
+        Job job = buscar(id);
+        if (job.situacao != Situacao.CONCLUIDO) {
+            throw new ConflictException("Relatório " + id + " não está disponível: " + job.situacao, "situacao", job.situacao);
+        }
+        Chave chave = job.chave;
+        return new Resultado(job.arquivo, chave.formato(),
+                chave.tipo().name().toLowerCase() + "-" + id + "." + chave.formato().name().toLowerCase());
+    }
+
+    private Job buscar(String id) {
+        removerExpirados();
+        Job job = jobs.get(id);
+        if (job == null) {
+            throw new EntityNotFoundException("Relatório", id);
+        }
+        return job;
+    }
+
+    private void executar(Job job) {
+        job.situacao = Situacao.EXECUTANDO;
+        Chave chave = job.chave;
+        Path arquivo = diretorio.resolve(job.id + "." + chave.formato().name().toLowerCase());
+        long inicio = System.nanoTime();
+        String resultado = "sucesso";
+        try {
+            try (Escritor escritor = new Escritor(chave.formato(), new BufferedOutputStream(Files.newOutputStream(arquivo)))) {
+                gerar(chave, escritor);
+            }
+            job.arquivo = arquivo;
+            job.concluir(Situacao.CONCLUIDO, null);
+        } catch (Exception e) {
+            resultado = "erro";
+            logger.warn("Falha ao gerar o relatório {} ({})", job.id, chave.tipo(), e);
+            job.arquivo = arquivo;
+            job.excluirArquivo();
+            job.concluir(Situacao.FALHOU, e.getMessage());
+            synchronized (this) {
+                porChave.remove(chave, job); // a próxima solicitação tenta de novo
+            }
+        } finally {
+            Timer.builder("delivery.relatorios.jobs.execucao")
+                    .description("Tempo de geração de um relatório assíncrono")
+                    .tag("tipo", chave.tipo().name())
+                    .tag("resultado", resultado)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Só o relatório de vendas cresce com os dados (uma linha por restaurante) e vem de um cursor do banco.
+    // Os demais já chegam prontos em memória e são limitados: rankings a MAX_LINHAS_RANKING linhas, o
+    // relatório por período a uma linha por restaurante e status, juntada das somas parciais
+    private void gerar(Chave chave, Escritor escritor) {
+        switch (chave.tipo()) {
+            case VENDAS_POR_RESTAURANTE -> relatorioService.exportarVendasPorRestaurante(escritor::escrever);
+            case PRODUTOS_MAIS_VENDIDOS -> relatorioService.getProdutosMaisVendidos(chave.restauranteId(), chave.categoria(),
+                    chave.limite()).forEach(escritor::escrever);
+            case CLIENTES_ATIVOS -> relatorioService.getClientesMaisAtivos(chave.limite()).forEach(escritor::escrever);
+            case PEDIDOS_POR_PERIODO -> relatorioService.getPedidosPorPeriodo(chave.dataInicio().atStartOfDay(),
+                    chave.dataFim().atTime(23, 59, 59, 999999999)).forEach(escritor::escrever);
+        }
+    }
+
+    private static void escreverLinhaCsv(Writer csv, Iterator<String> valores) throws IOException {
+        while (valores.hasNext()) {
+            String valor = valores.next();
+            if (valor.contains(",") || valor.contains("\"") || valor.contains("\n") || valor.contains("\r")) {
+                valor = "\"" + valor.replace("\"", "\"\"") + "\"";
+            }
+            csv.write(valor);
+            if (valores.hasNext()) {
+                csv.write(',');
+            }
+        }
+        csv.write("\r\n");
+    }
+
+    private static String valorCsv(JsonNode valor) {
+        if (valor == null || valor.isNull()) {
+            return "";
+        }
+        if (valor.isBigDecimal()) {
+            return valor.decimalValue().toPlainString();
+        }
+        return valor.isValueNode() ? valor.asText() : valor.toString();
+    }
+
+    // Parâmetros que não se aplicam ao relatório ficam de fora da chave, para não separar resultados iguais
+    static Chave chave(RelatorioJobDTO dto, long versao) {
+        Formato formato = dto.getFormato() != null ? dto.getFormato() : Formato.JSON;
+        return switch (dto.getTipo()) {
+            case VENDAS_POR_RESTAURANTE -> new Chave(dto.getTipo(), formato, null, null, null, null, null, versao);
+            case PRODUTOS_MAIS_VENDIDOS -> new Chave(dto.getTipo(), formato, dto.getRestauranteId(),
+                    dto.getCategoria() == null || dto.getCategoria().isBlank() ? null : dto.getCategoria().trim(),
+                    limite(dto.getLimite(), 5), null, null, versao);
+            case CLIENTES_ATIVOS -> new Chave(dto.getTipo(), formato, null, null, limite(dto.getLimite(), 10), null, null, versao);
+            case PEDIDOS_POR_PERIODO -> {
+                if (dto.getDataInicio() == null || dto.getDataFim() == null || dto.getDataFim().isBefore(dto.getDataInicio())) {
+                    throw new BusinessException("Informe dataInicio e dataFim (não anterior à inicial) para o relatório PEDIDOS_POR_PERIODO.",
+                            "REPORT_PARAMETERS_INVALID");
+                }
+                yield new Chave(dto.getTipo(), formato, null, null, null, dto.getDataInicio(), dto.getDataFim(), versao);
+            }
+        };
+    }
+
+    private static int limite(Integer limite, int padrao) {
+        return limite == null ? padrao : Math.max(1, Math.min(limite, MAX_LINHAS_RANKING));
+    }
+
+    private void removerExpirados() {
+        long agora = System.nanoTime();
+        jobs.values().removeIf(job -> {
+            if (!job.isExpirado(agora, validade)) {
+                return false;
+            }
+            synchronized (this) {
+                porChave.remove(job.chave, job);
+            }
+            job.excluirArquivo();
+            return true;
+        });
+    }
+
+    private static RelatorioJobResponseDTO toResponseDTO(Job job) {
+        return new RelatorioJobResponseDTO(job.id, job.chave.tipo(), job.chave.formato(), job.situacao, job.criadoEm,
+                job.concluidoEm, job.erroMensagem,
+                job.situacao == Situacao.CONCLUIDO ? "/api/relatorios/jobs/" + job.id + "/resultado" : null);
+    }
+
+    record Chave(Tipo tipo, Formato formato, Long restauranteId, String categoria, Integer limite,
+                 LocalDate dataInicio, LocalDate dataFim, long versao) {
+    }
+
+    public record Resultado(Path arquivo, Formato formato, String nomeArquivo) {
+    }
+
+    // Uma linha por vez: JSON como array de objetos, CSV com cabeçalho a partir dos campos da primeira linha
+    private final class Escritor implements AutoCloseable {
+        private final JsonGenerator json;
+        private final Writer csv;
+        private List<String> colunas;
+
+        private Escritor(Formato formato, OutputStream saida) throws IOException {
+            if (formato == Formato.JSON) {
+                json = objectMapper.createGenerator(saida);
+                json.writeStartArray();
+                csv = null;
+            } else {
+                json = null;
+                csv = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+            }
+        }
+
+        void escrever(Object linha) {
+            try {
+                if (json != null) {
+                    json.writeObject(linha);
+                    return;
+                }
+                JsonNode campos = objectMapperCsv.valueToTree(linha);
+                if (colunas == null) {
+                    colunas = new ArrayList<>();
+                    campos.fieldNames().forEachRemaining(colunas::add);
+                    escreverLinhaCsv(csv, colunas.iterator());
+                }
+                escreverLinhaCsv(csv, colunas.stream().map(coluna -> valorCsv(campos.get(coluna))).iterator());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (json != null) {
+                json.writeEndArray();
+                json.close();
+            } else {
+                csv.close();
+            }
+        }
+    }
+
+    private static final class Job {
+        private final String id;
+        private final Chave chave;
+        private final LocalDateTime criadoEm = LocalDateTime.now();
+        private volatile Situacao situacao = Situacao.NA_FILA;
+        private volatile LocalDateTime concluidoEm;
+        private volatile long concluidoNanos;
+        private volatile String erroMensagem;
+        private volatile Path arquivo;
+
+        private Job(String id, Chave chave) {
+            this.id = id;
+            this.chave = chave;
+        }
+
+        private void concluir(Situacao situacao, String erroMensagem) {
+            this.erroMensagem = erroMensagem;
+            this.concluidoNanos = System.nanoTime();
+            this.concluidoEm = LocalDateTime.now();
+            this.situacao = situacao;
+        }
+
+        private boolean isExpirado(long agora, Duration validade) {
+            return (situacao == Situacao.CONCLUIDO || situacao == Situacao.FALHOU)
+                    && agora - concluidoNanos > validade.toNanos();
+        }
+
+        private void excluirArquivo() {
+            if (arquivo == null) {
+                return;
+            }
+            try {
+                Files.deleteIfExists(arquivo);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -1,16 +1,26 @@
 package com.deliverytech.delivery_api.service;
 
-import com.deliverytech.delivery_api.repository.ClienteRepository;
-import com.deliverytech.delivery_api.repository.PedidoRepository;
-import com.deliverytech.delivery_api.repository.ProdutoRepository;
+import com.deliverytech.delivery_api.dto.AnalisePedidosDTO;
+import com.deliverytech.delivery_api.dto.ClienteRankingDTO;
+import com.deliverytech.delivery_api.dto.ClientesUnicosDTO;
+import com.deliverytech.delivery_api.dto.PedidosPorPeriodoDTO;
+import com.deliverytech.delivery_api.dto.ProdutoMaisVendidoDTO;
+import com.deliverytech.delivery_api.dto.TicketPedidosDTO;
+import com.deliverytech.delivery_api.exception.EntityNotFoundException;
 import com.deliverytech.delivery_api.repository.RestauranteRepository;
 import com.deliverytech.delivery_api.repository.projections.RelatorioVendas; // Para a projeção de vendas
+import com.deliverytech.delivery_api.service.analise.AgregacaoPedidos;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @Transactional(readOnly = true) // Relatórios são geralmente apenas leitura
@@ -20,13 +30,19 @@ public class RelatorioService {
     private RestauranteRepository restauranteRepository;
 
     @Autowired
-    private ProdutoRepository produtoRepository;
+    private ProdutosMaisVendidosService produtosMaisVendidosService;
 
     @Autowired
-    private ClienteRepository clienteRepository;
+    private RankingClientesService rankingClientesService;
 
     @Autowired
-    private PedidoRepository pedidoRepository;
+    private RollupPedidosService rollupPedidosService;
+
+    @Autowired
+    private AnalisePedidosService analisePedidosService;
+
+    @Autowired
+    private MetricasPedidosService metricasPedidosService;
 
     /**
      * Retorna o relatório de vendas por restaurante.
@@ -37,36 +53,75 @@ public class RelatorioService {
     }
 
     /**
-     * Retorna o relatório de top produtos mais vendidos.
-     * Utiliza o método findProdutosMaisVendidos do ProdutoRepository, que retorna Object[].
+     * Entrega o relatório de vendas por restaurante uma linha por vez ao destino, lido de um cursor do
+     * banco: a memória usada não depende da quantidade de restaurantes.
+     */
+    public void exportarVendasPorRestaurante(Consumer<RelatorioVendas> destino) {
+        try (Stream<RelatorioVendas> linhas = restauranteRepository.streamRelatorioVendasPorRestaurante()) {
+            linhas.forEach(destino);
+        }
+    }
+
+    /**
+     * Retorna o relatório de top produtos mais vendidos, geral, de um restaurante ou de uma categoria.
+     * Lido dos rankings em memória do ProdutosMaisVendidosService, sem consultar o banco (e sem abrir transação).
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<ProdutoMaisVendidoDTO> getProdutosMaisVendidos(Long restauranteId, String categoria, int limite) {
+        return produtosMaisVendidosService.maisVendidos(restauranteId, categoria, limite);
+    }
+
+    /**
+     * Retorna o relatório de clientes mais ativos (por número de pedidos não cancelados e valor gasto).
+     * Lido do ranking em memória do RankingClientesService, sem consultar o banco.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<ClienteRankingDTO> getClientesMaisAtivos(int limite) {
+        return rankingClientesService.primeiros(limite);
+    }
+
+    /**
+     * Retorna a posição de um cliente no ranking de clientes mais ativos.
+     * Um cliente sem pedidos não cancelados não está no ranking.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ClienteRankingDTO getPosicaoCliente(Long clienteId) {
+        return rankingClientesService.posicao(clienteId)
+                .orElseThrow(() -> new EntityNotFoundException("Cliente com ID " + clienteId + " não está no ranking de clientes ativos"));
+    }
+
+    /**
+     * Retorna o relatório de pedidos por período: quantidade, valor bruto e valor líquido por
+     * restaurante e status dos pedidos feitos entre dataInicio e dataFim (inclusive).
+     * Calculado a partir dos baldes por hora e por dia do RollupPedidosService.
+     */
+    public List<PedidosPorPeriodoDTO> getPedidosPorPeriodo(LocalDateTime dataInicio, LocalDateTime dataFim) {
+        return rollupPedidosService.consultar(dataInicio, dataFim);
+    }
+
+    /**
+     * Retorna uma análise ad hoc dos pedidos, agrupados pelas dimensões informadas.
+     * Calculada sobre o snapshot colunar em memória do AnalisePedidosService, sem consultar o banco.
      */
-    public List<Object[]> getProdutosMaisVendidos() {
-        return produtoRepository.findProdutosMaisVendidos();
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public AnalisePedidosDTO getAnalisePedidos(Set<AgregacaoPedidos.Dimensao> dimensoes, AgregacaoPedidos.Filtro filtro,
+                                               AgregacaoPedidos.Ordem ordem, int limite) {
+        return analisePedidosService.consultar(dimensoes, filtro, ordem, limite);
     }
 
     /**
-     * Retorna o relatório de clientes mais ativos (por número de pedidos).
-     * Utiliza o método rankingClientesPorPedidos do ClienteRepository, que retorna Object[].
+     * Retorna os clientes distintos com pedidos confirmados em um restaurante entre dataInicio e dataFim
+     * (inclusive), no período e por dia. Estimados pela junção dos resumos diários do MetricasPedidosService.
      */
-    public List<Object[]> getClientesMaisAtivos() {
-        return clienteRepository.rankingClientesPorPedidos();
+    public ClientesUnicosDTO getClientesUnicos(Long restauranteId, LocalDate dataInicio, LocalDate dataFim) {
+        return metricasPedidosService.clientesUnicos(restauranteId, dataInicio, dataFim);
     }
 
     /**
-     * Retorna o relatório de pedidos por período.
-     * O PedidoRepository.countPedidosByStatus() retorna o total por status (Object[]: StatusPedido, Long count).
-     * O roteiro sugere "Pedidos por período", então podemos usar relatorioPedidosPorPeriodoEStatus do PedidoRepository
-     * e agrupar ou sumarizar. Por simplicidade, este método retornará a contagem de pedidos por status no período.
+     * Retorna o ticket médio e os percentis do valor dos pedidos confirmados em um restaurante entre
+     * dataInicio e dataFim (inclusive). Estimados pela junção dos resumos diários do MetricasPedidosService.
      */
-    public List<Object[]> getPedidosPorPeriodo(LocalDateTime dataInicio, LocalDateTime dataFim) {
-        // Esta é uma adaptação. O roteiro sugere "pedidos-por-periodo", mas o PedidoRepository
-        // tem "relatorioPedidosPorPeriodoEStatus" que inclui StatusPedido.
-        // Se a intenção é apenas contar todos os pedidos no período, seria uma nova query.
-        // Para alinhar com o retorno do controller, podemos retornar algo como a contagem por status.
-        // Ou você pode ter uma query que retorne o total de pedidos ou o valor total no período.
-        // Vamos retornar o count de pedidos por status no período, similar ao que já existe.
-        return pedidoRepository.countPedidosByStatus(); // Você pode precisar de uma query mais específica aqui.
-        // Exemplo: List<Pedido> pedidosNoPeriodo = pedidoRepository.findByDataPedidoBetweenOrderByDataPedidoDesc(dataInicio, dataFim);
-        // Retornando a lista de pedidos em si, ou sumarizando como no exemplo.
+    public TicketPedidosDTO getTicketPedidos(Long restauranteId, LocalDate dataInicio, LocalDate dataFim) {
+        return metricasPedidosService.ticket(restauranteId, dataInicio, dataFim);
     }
-}
\ No newline at end of file
+}
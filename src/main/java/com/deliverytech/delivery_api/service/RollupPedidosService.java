@@ -0,0 +1,370 @@
+package com.deliverytech.delivery_api.service;
+
+import com.deliverytech.delivery_api.dto.PedidosPorPeriodoDTO;
+import com.deliverytech.delivery_api.entity.GranularidadeRollup;
+import com.deliverytech.delivery_api.entity.Pedido;
+import com.deliverytech.delivery_api.entity.RollupPedidos;
+import com.deliverytech.delivery_api.entity.StatusPedido;
+import com.deliverytech.delivery_api.repository.RollupPedidosRepository;
+import com.deliverytech.delivery_api.repository.RollupPedidosRepository.Total;
+import com.deliverytech.delivery_api.repository.RollupPedidosRepository.TotalHora;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Baldes de pedidos por hora e por dia (tabela rollup_pedidos), por restaurante e status: cada
+ * alteração de pedido move o pedido entre os baldes na mesma transação (MANDATORY). O relatório de
+ * um período soma os dias inteiros nos baldes diários, as horas inteiras restantes nos horários e lê
+ * dos pedidos apenas as bordas que não fecham uma hora; o custo depende do tamanho do período em
+ * dias, não da quantidade de pedidos.
+ *
+ * A reconciliação (delivery.pedido.rollup.reconciliacao.habilitado=true) compara, dia a dia, os baldes
+ * dos últimos delivery.pedido.rollup.reconciliacao.janela com os pedidos e corrige os divergentes, a
+ * cada delivery.pedido.rollup.reconciliacao.intervalo. Na inicialização, com a tabela vazia, preenche
+ * os baldes de todo o histórico.
+ */
+@Service
+public class RollupPedidosService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RollupPedidosService.class);
+
+    private final RollupPedidosRepository rollupPedidosRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate novaTransacao;
+    private final boolean reconciliacaoHabilitada;
+    private final Duration intervalo;
+    private final Period janela;
+    private final Counter divergencias;
+
+    private ScheduledExecutorService executor;
+
+    public RollupPedidosService(RollupPedidosRepository rollupPedidosRepository,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${delivery.pedido.rollup.reconciliacao.habilitado:true}") boolean reconciliacaoHabilitada,
+                                @Value("${delivery.pedido.rollup.reconciliacao.intervalo:PT1H}") Duration intervalo,
+                                @Value("${delivery.pedido.rollup.reconciliacao.janela:P2D}") Period janela) {
+        this.rollupPedidosRepository = rollupPedidosRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.novaTransacao = new TransactionTemplate(transactionManager);
+        this.novaTransacao.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.reconciliacaoHabilitada = reconciliacaoHabilitada;
+        this.intervalo = intervalo;
+        this.janela = janela;
+        this.divergencias = Counter.builder("delivery.pedidos.rollup.divergencias")
+                .description("Baldes de pedidos por hora/dia que divergiam dos pedidos e foram corrigidos")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        if (!reconciliacaoHabilitada || executor != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "reconciliacao-rollup-pedidos");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.execute(this::preencherSeVazio);
+        executor.scheduleWithFixedDelay(this::executar, intervalo.toMillis(), intervalo.toMillis(), TimeUnit.MILLISECONDS);
+        logger.info("Reconciliação dos baldes de pedidos iniciada: últimos {}, a cada {}", janela, intervalo);
+    }
+
+    @PreDestroy
+    public void parar() throws InterruptedException {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private void preencherSeVazio() {
+        try {
+            if (rollupPedidosRepository.count() > 0) {
+                executar();
+                return;
+            }
+            Optional<LocalDateTime> primeiro = Stream.of(rollupPedidosRepository.findPrimeiraDataPedido(),
+                            rollupPedidosRepository.findPrimeiraDataPedidoArquivado())
+                    .flatMap(Optional::stream).min(Comparator.naturalOrder());
+            if (primeiro.isPresent()) {
+                int corrigidos = reconciliar(primeiro.get().toLocalDate(), LocalDate.now().plusDays(1));
+                logger.info("Baldes de pedidos preenchidos a partir de {}: {} balde(s)", primeiro.get().toLocalDate(), corrigidos);
+            }
+        } catch (Exception e) {
+            logger.warn("Falha ao preencher os baldes de pedidos", e);
+        }
+    }
+
+    private void executar() {
+        try {
+            LocalDate amanha = LocalDate.now().plusDays(1);
+            int corrigidos = reconciliar(amanha.minus(janela), amanha);
+            if (corrigidos > 0) {
+                logger.warn("{} balde(s) de pedidos corrigido(s) na reconciliação", corrigidos);
+            }
+        } catch (Exception e) {
+            logger.warn("Falha na reconciliação dos baldes de pedidos; nova tentativa em {}", intervalo, e);
+        }
+    }
+
+    /**
+     * Aplica as variações nos baldes horário e diário de cada uma, em ordem de chave, para que
+     * transações com baldes em comum os bloqueiem na mesma ordem.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrar(List<Movimento> movimentos) {
+        Map<RollupPedidos.Chave, Movimento> porBalde = new TreeMap<>();
+        for (Movimento movimento : movimentos) {
+            for (GranularidadeRollup granularidade : GranularidadeRollup.values()) {
+                porBalde.merge(new RollupPedidos.Chave(granularidade, granularidade.inicio(movimento.dataPedido()),
+                        movimento.restauranteId(), movimento.status()), movimento, Movimento::somar);
+            }
+        }
+        porBalde.forEach((chave, movimento) -> {
+            if (movimento.isNulo()) {
+                return;
+            }
+            if (somar(chave, movimento) == 0) {
+                criarLinha(chave);
+                somar(chave, movimento);
+            }
+        });
+    }
+
+    private int somar(RollupPedidos.Chave chave, Movimento movimento) {
+        return rollupPedidosRepository.somar(chave.getGranularidade().name(), chave.getInicio(), chave.getRestauranteId(),
+                chave.getStatus().name(), movimento.quantidade(), movimento.valorBruto(), movimento.valorLiquido());
+    }
+
+    // Balde novo: criado zerado e confirmado em uma transação própria (ver VendasRestauranteService)
+    private void criarLinha(RollupPedidos.Chave chave) {
+        try {
+            novaTransacao.executeWithoutResult(status -> {
+                if (!rollupPedidosRepository.existsById(chave)) {
+                    rollupPedidosRepository.save(new RollupPedidos(chave));
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            logger.debug("Balde {} criado por outra transação", chave);
+        }
+    }
+
+    /**
+     * Pedidos com data em [inicio, fim], por restaurante e status. Dias inteiros vêm dos baldes
+     * diários, horas inteiras dos horários e as frações de hora nas bordas, dos pedidos.
+     */
+    @Transactional(readOnly = true)
+    public List<PedidosPorPeriodoDTO> consultar(LocalDateTime inicio, LocalDateTime fim) {
+        LocalDateTime fimExclusivo = fim.plusNanos(1);
+        List<Total> parciais = new ArrayList<>();
+        LocalDateTime primeiraHora = GranularidadeRollup.HORA.teto(inicio);
+        LocalDateTime ultimaHora = GranularidadeRollup.HORA.inicio(fimExclusivo);
+        if (!primeiraHora.isBefore(ultimaHora)) {
+            somarPedidos(inicio, fimExclusivo, parciais);
+        } else {
+            somarPedidos(inicio, primeiraHora, parciais);
+            LocalDateTime primeiroDia = GranularidadeRollup.DIA.teto(primeiraHora);
+            LocalDateTime ultimoDia = GranularidadeRollup.DIA.inicio(ultimaHora);
+            if (primeiroDia.isBefore(ultimoDia)) {
+                somarBaldes(GranularidadeRollup.HORA, primeiraHora, primeiroDia, parciais);
+                somarBaldes(GranularidadeRollup.DIA, primeiroDia, ultimoDia, parciais);
+                somarBaldes(GranularidadeRollup.HORA, ultimoDia, ultimaHora, parciais);
+            } else {
+                somarBaldes(GranularidadeRollup.HORA, primeiraHora, ultimaHora, parciais);
+            }
+            somarPedidos(ultimaHora, fimExclusivo, parciais);
+        }
+
+        Map<List<Object>, Total> totais = new HashMap<>();
+        for (Total parcial : parciais) {
+            totais.merge(List.of(parcial.restauranteId(), parcial.status()), parcial, RollupPedidosService::somar);
+        }
+        return totais.values().stream()
+                .filter(total -> total.quantidade() > 0)
+                .sorted(Comparator.comparing(Total::restauranteId).thenComparing(Total::status))
+                .map(total -> new PedidosPorPeriodoDTO(total.restauranteId(), total.status(), total.quantidade(),
+                        total.valorBruto(), total.valorLiquido()))
+                .collect(Collectors.toList());
+    }
+
+    private void somarPedidos(LocalDateTime inicio, LocalDateTime fim, List<Total> parciais) {
+        if (inicio.isBefore(fim)) {
+            parciais.addAll(rollupPedidosRepository.somarPedidos(inicio, fim));
+            parciais.addAll(rollupPedidosRepository.somarPedidosArquivados(inicio, fim));
+        }
+    }
+
+    private void somarBaldes(GranularidadeRollup granularidade, LocalDateTime inicio, LocalDateTime fim, List<Total> parciais) {
+        if (inicio.isBefore(fim)) {
+            parciais.addAll(rollupPedidosRepository.somarBaldes(granularidade, inicio, fim));
+        }
+    }
+
+    /**
+     * Compara os baldes dos dias em [de, ate) com os pedidos e corrige os divergentes. Como em
+     * VendasRestauranteService, a comparação inicial não bloqueia nada; cada balde suspeito é
+     * recalculado com a linha bloqueada. Devolve a quantidade de baldes corrigidos.
+     */
+    public int reconciliar(LocalDate de, LocalDate ate) {
+        int corrigidos = 0;
+        for (LocalDate dia = de; dia.isBefore(ate); dia = dia.plusDays(1)) {
+            corrigidos += reconciliarDia(dia);
+        }
+        divergencias.increment(corrigidos);
+        return corrigidos;
+    }
+
+    private int reconciliarDia(LocalDate dia) {
+        LocalDateTime inicio = dia.atStartOfDay();
+        LocalDateTime fim = inicio.plusDays(1);
+        Map<RollupPedidos.Chave, Total> esperado = transactionTemplate.execute(status -> {
+            Map<RollupPedidos.Chave, Total> baldes = new HashMap<>();
+            for (TotalHora total : concatenar(rollupPedidosRepository.somarPedidosPorHora(inicio, fim),
+                    rollupPedidosRepository.somarPedidosArquivadosPorHora(inicio, fim))) {
+                Total parcial = new Total(total.restauranteId(), total.status(), total.quantidade(), total.valorBruto(), total.valorLiquido());
+                baldes.merge(new RollupPedidos.Chave(GranularidadeRollup.HORA, inicio.plusHours(total.hora()),
+                        total.restauranteId(), total.status()), parcial, RollupPedidosService::somar);
+                baldes.merge(new RollupPedidos.Chave(GranularidadeRollup.DIA, inicio,
+                        total.restauranteId(), total.status()), parcial, RollupPedidosService::somar);
+            }
+            return baldes;
+        });
+        Map<RollupPedidos.Chave, RollupPedidos> registrado = rollupPedidosRepository.findByInicio(inicio, fim).stream()
+                .collect(Collectors.toMap(RollupPedidos::getId, Function.identity()));
+
+        Set<RollupPedidos.Chave> suspeitos = new TreeSet<>();
+        esperado.forEach((chave, total) -> {
+            if (divergente(total, registrado.get(chave))) {
+                suspeitos.add(chave);
+            }
+        });
+        registrado.forEach((chave, linha) -> {
+            if (!esperado.containsKey(chave) && divergente(null, linha)) {
+                suspeitos.add(chave);
+            }
+        });
+
+        int corrigidos = 0;
+        for (RollupPedidos.Chave chave : suspeitos) {
+            if (!registrado.containsKey(chave)) {
+                criarLinha(chave);
+            }
+            if (Boolean.TRUE.equals(transactionTemplate.execute(status -> corrigir(chave)))) {
+                corrigidos++;
+            }
+        }
+        return corrigidos;
+    }
+
+    private boolean corrigir(RollupPedidos.Chave chave) {
+        RollupPedidos linha = rollupPedidosRepository.bloquear(chave).orElseThrow();
+        LocalDateTime fim = chave.getGranularidade().fim(chave.getInicio());
+        Total total = Stream.of(
+                        rollupPedidosRepository.somarPedidos(chave.getRestauranteId(), chave.getStatus(), chave.getInicio(), fim),
+                        rollupPedidosRepository.somarPedidosArquivados(chave.getRestauranteId(), chave.getStatus(), chave.getInicio(), fim))
+                .flatMap(Optional::stream)
+                .reduce(RollupPedidosService::somar)
+                .orElse(null);
+        if (!divergente(total, linha)) {
+            return false;
+        }
+        linha.setQuantidade(total != null ? total.quantidade() : 0L);
+        linha.setValorBruto(total != null ? total.valorBruto() : BigDecimal.ZERO);
+        linha.setValorLiquido(total != null ? total.valorLiquido() : BigDecimal.ZERO);
+        return true;
+    }
+
+    private static <T> List<T> concatenar(List<T> a, List<T> b) {
+        List<T> todos = new ArrayList<>(a);
+        todos.addAll(b);
+        return todos;
+    }
+
+    private static Total somar(Total a, Total b) {
+        return new Total(a.restauranteId(), a.status(), a.quantidade() + b.quantidade(),
+                a.valorBruto().add(b.valorBruto()), a.valorLiquido().add(b.valorLiquido()));
+    }
+
+    // Balde ausente ou zerado sem pedidos não é divergência
+    private static boolean divergente(Total total, RollupPedidos linha) {
+        long quantidade = total != null ? total.quantidade() : 0L;
+        BigDecimal valorBruto = total != null ? total.valorBruto() : BigDecimal.ZERO;
+        BigDecimal valorLiquido = total != null ? total.valorLiquido() : BigDecimal.ZERO;
+        if (linha == null) {
+            return quantidade != 0 || valorBruto.signum() != 0 || valorLiquido.signum() != 0;
+        }
+        return quantidade != linha.getQuantidade()
+                || valorBruto.compareTo(linha.getValorBruto()) != 0
+                || valorLiquido.compareTo(linha.getValorLiquido()) != 0;
+    }
+
+    /** Variação de um balde (o horário e o diário da data do pedido) de um restaurante e status. */
+    public record Movimento(Long restauranteId, LocalDateTime dataPedido, StatusPedido status,
+                            long quantidade, BigDecimal valorBruto, BigDecimal valorLiquido) {
+
+        /** O pedido entra no balde do seu status atual. */
+        public static Movimento entrada(Pedido pedido) {
+            return new Movimento(pedido.getRestaurante().getId(), pedido.getDataPedido(), pedido.getStatus(),
+                    1, pedido.getValorTotal(), pedido.getSubtotal());
+        }
+
+        /** Os valores do pedido mudaram sem mudança de status (itens adicionados). */
+        public static Movimento valores(Pedido pedido, BigDecimal valorTotalAnterior, BigDecimal subtotalAnterior) {
+            return new Movimento(pedido.getRestaurante().getId(), pedido.getDataPedido(), pedido.getStatus(),
+                    0, pedido.getValorTotal().subtract(valorTotalAnterior), pedido.getSubtotal().subtract(subtotalAnterior));
+        }
+
+        /** O pedido sai do balde do status anterior e entra no do novo. */
+        public static List<Movimento> mudancaStatus(Long restauranteId, LocalDateTime dataPedido, BigDecimal valorTotal,
+                                                    BigDecimal subtotal, StatusPedido anterior, StatusPedido atual) {
+            return List.of(new Movimento(restauranteId, dataPedido, anterior, -1, valorTotal.negate(), subtotal.negate()),
+                    new Movimento(restauranteId, dataPedido, atual, 1, valorTotal, subtotal));
+        }
+
+        public Movimento somar(Movimento outro) {
+            return new Movimento(restauranteId, dataPedido, status, quantidade + outro.quantidade,
+                    valorBruto.add(outro.valorBruto), valorLiquido.add(outro.valorLiquido));
+        }
+
+        public boolean isNulo() {
+            return quantidade == 0 && valorBruto.signum() == 0 && valorLiquido.signum() == 0;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.deliverytech.delivery_api.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Gera números de pedido no estilo Snowflake: 41 bits de milissegundos desde 2024-01-01,
+ * 10 bits de nó e 12 bits de sequência, codificados em Base32 Crockford com largura fixa.
+ * A ordem lexicográfica do número é a ordem de criação, então o índice único de numero_pedido
+ * também serve para varreduras por intervalo de tempo.
+ *
+ * O estado (timestamp + sequência) fica em um único AtomicLong atualizado por CAS: não há lock,
+ * SecureRandom nem ida ao banco. Se a sequência de um milissegundo se esgota, ou se o relógio
+ * volta para trás, o gerador avança sobre o último timestamp usado, mantendo a monotonicidade.
+ *
+ * Duas instâncias com o mesmo nó podem gerar o mesmo número no mesmo milissegundo, então
+ * delivery.pedido.node-id é obrigatório fora dos perfis de desenvolvimento e teste (que usam o nó 0):
+ * sem ele, a aplicação não sobe.
+ */
+@Component
+public class SnowflakeNumeroPedidoGenerator implements NumeroPedidoGenerator {
+
+    static final long EPOCA = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    static final int BITS_NO = 10;
+    static final int BITS_SEQUENCIA = 12;
+    static final long MAX_NO = (1L << BITS_NO) - 1;
+    static final long MAX_SEQUENCIA = (1L << BITS_SEQUENCIA) - 1;
+
+    private static final String PREFIXO = "PED-";
+    private static final String ALFABETO = "0123456789ABCDEFGHJKMNPQRSTVWXYZ";
+    private static final int TAMANHO = 13; // 13 * 5 bits cobrem os 63 bits do id
+    private static final Profiles PERFIS_SEM_NO = Profiles.of("dev", "development", "test");
+
+    private final long no;
+    private final LongSupplier relogio;
+    // (timestamp relativo << BITS_SEQUENCIA) | sequência do último id emitido
+    private final AtomicLong ultimo = new AtomicLong();
+
+    @Autowired
+    public SnowflakeNumeroPedidoGenerator(@Value("${delivery.pedido.node-id:-1}") long no, Environment environment) {
+        this(resolverNo(no, environment), System::currentTimeMillis);
+    }
+
+    SnowflakeNumeroPedidoGenerator(long no) {
+        this(no, System::currentTimeMillis);
+    }
+
+    SnowflakeNumeroPedidoGenerator(long no, LongSupplier relogio) {
+        if (no < 0 || no > MAX_NO) {
+            throw new IllegalArgumentException("delivery.pedido.node-id deve estar entre 0 e " + MAX_NO);
+        }
+        this.no = no;
+        this.relogio = relogio;
+    }
+
+    @Override
+    public String gerar() {
+        return PREFIXO + codificar(proximoId());
+    }
+
+    long proximoId() {
+        long agora = relogio.getAsLong() - EPOCA;
+        long anterior;
+        long proximo;
+        do {
+            anterior = ultimo.get();
+            long ultimoTimestamp = anterior >>> BITS_SEQUENCIA;
+            if (agora > ultimoTimestamp) {
+                proximo = agora << BITS_SEQUENCIA;
+            } else {
+                // Mesmo milissegundo (ou relógio atrasado): incrementa a sequência; ao estourar,
+                // o carry avança naturalmente para o próximo milissegundo.
+                proximo = anterior + 1;
+            }
+        } while (!ultimo.compareAndSet(anterior, proximo));
+
+        long timestamp = proximo >>> BITS_SEQUENCIA;
+        long sequencia = proximo & MAX_SEQUENCIA;
+        return (timestamp << (BITS_NO + BITS_SEQUENCIA)) | (no << BITS_SEQUENCIA) | sequencia;
+    }
+
+    /**
+     * Instante de criação embutido em um número gerado por esta classe.
+     */
+    public static Instant instanteDe(String numeroPedido) {
+        return Instant.ofEpochMilli((decodificar(numeroPedido) >>> (BITS_NO + BITS_SEQUENCIA)) + EPOCA);
+    }
+
+    static String codificar(long id) {
+        char[] saida = new char[TAMANHO];
+        for (int i = TAMANHO - 1; i >= 0; i--) {
+            saida[i] = ALFABETO.charAt((int) (id & 31));
+            id >>>= 5;
+        }
+        return new String(saida);
+    }
+
+    static long decodificar(String numeroPedido) {
+        String corpo = numeroPedido.startsWith(PREFIXO) ? numeroPedido.substring(PREFIXO.length()) : numeroPedido;
+        long id = 0;
+        for (char c : corpo.toCharArray()) {
+            int valor = ALFABETO.indexOf(c);
+            if (valor < 0) {
+                throw new IllegalArgumentException("Número de pedido inválido: " + numeroPedido);
+            }
+            id = (id << 5) | valor;
+        }
+        return id;
+    }
+
+    static long resolverNo(long no, Environment environment) {
+        if (no >= 0) {
+            return no;
+        }
+        if (environment.acceptsProfiles(PERFIS_SEM_NO)) {
+            return 0;
+        }
+        throw new IllegalStateException("Defina delivery.pedido.node-id (0 a " + MAX_NO
+                + ") com um valor distinto para cada instância; sem ele, duas instâncias podem gerar o mesmo número de pedido.");
+    }
+}
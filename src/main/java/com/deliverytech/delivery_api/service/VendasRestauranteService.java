@@ -0,0 +1,272 @@
+package com.deliverytech.delivery_api.service;
+
+import com.deliverytech.delivery_api.entity.StatusPedido;
+import com.deliverytech.delivery_api.entity.VendasRestaurante;
+import com.deliverytech.delivery_api.repository.VendasRestauranteRepository;
+import com.deliverytech.delivery_api.repository.VendasRestauranteRepository.TotalVendas;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Mantém a tabela vendas_restaurante: total vendido e quantidade de pedidos não cancelados de cada
+ * restaurante. Cada alteração de pedido soma a sua variação à linha do restaurante na mesma
+ * transação (MANDATORY), com um UPDATE atômico; o relatório de vendas por restaurante lê uma linha
+ * por restaurante, independentemente do volume de pedidos. Pedidos arquivados continuam contando.
+ *
+ * A reconciliação (delivery.vendas.reconciliacao.habilitado=true) roda na inicialização, o que
+ * preenche a tabela em uma base existente, e depois a cada delivery.vendas.reconciliacao.intervalo:
+ * compara o agregado com a soma dos pedidos e corrige os restaurantes divergentes, registrando-os
+ * em delivery.vendas.agregado.divergencias. Divergências indicam pedidos alterados fora do
+ * PedidoService (carga de dados, scripts).
+ */
+@Service
+public class VendasRestauranteService {
+
+    private static final Logger logger = LoggerFactory.getLogger(VendasRestauranteService.class);
+
+    private final VendasRestauranteRepository vendasRestauranteRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate novaTransacao;
+    private final boolean reconciliacaoHabilitada;
+    private final Duration intervalo;
+    private final Counter divergencias;
+    private final Timer duracaoReconciliacao;
+
+    private ScheduledExecutorService executor;
+
+    public VendasRestauranteService(VendasRestauranteRepository vendasRestauranteRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${delivery.vendas.reconciliacao.habilitado:true}") boolean reconciliacaoHabilitada,
+                                    @Value("${delivery.vendas.reconciliacao.intervalo:PT1H}") Duration intervalo) {
+        this.vendasRestauranteRepository = vendasRestauranteRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.novaTransacao = new TransactionTemplate(transactionManager);
+        this.novaTransacao.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.reconciliacaoHabilitada = reconciliacaoHabilitada;
+        this.intervalo = intervalo;
+        this.divergencias = Counter.builder("delivery.vendas.agregado.divergencias")
+                .description("Restaurantes cujo agregado de vendas divergia dos pedidos e foi corrigido")
+                .register(meterRegistry);
+        this.duracaoReconciliacao = Timer.builder("delivery.vendas.agregado.reconciliacao")
+                .description("Duração da reconciliação do agregado de vendas com os pedidos")
+                .register(meterRegistry);
+    }
+
+    // Após a inicialização completa (inclusive a carga de dados), para que a primeira execução
+    // já encontre os pedidos existentes
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        if (!reconciliacaoHabilitada || executor != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "reconciliacao-vendas");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::executar, 0, intervalo.toMillis(), TimeUnit.MILLISECONDS);
+        logger.info("Reconciliação do agregado de vendas iniciada, a cada {}", intervalo);
+    }
+
+    @PreDestroy
+    public void parar() throws InterruptedException {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private void executar() {
+        try {
+            int corrigidos = reconciliar();
+            if (corrigidos > 0) {
+                logger.warn("Agregado de vendas corrigido para {} restaurante(s)", corrigidos);
+            }
+        } catch (Exception e) {
+            logger.warn("Falha na reconciliação do agregado de vendas; nova tentativa em {}", intervalo, e);
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrar(Long restauranteId, Variacao variacao) {
+        registrar(Map.of(restauranteId, variacao));
+    }
+
+    /**
+     * Aplica as variações de vários restaurantes. As linhas são atualizadas em ordem de id, para que
+     * duas transações com restaurantes em comum as bloqueiem na mesma ordem, sem deadlock.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrar(Map<Long, Variacao> variacoes) {
+        LocalDateTime agora = LocalDateTime.now();
+        new TreeMap<>(variacoes).forEach((restauranteId, variacao) -> {
+            if (variacao.isNula()) {
+                return;
+            }
+            if (vendasRestauranteRepository.somar(restauranteId, variacao.valor(), variacao.quantidade(), agora) == 0) {
+                criarLinha(restauranteId);
+                vendasRestauranteRepository.somar(restauranteId, variacao.valor(), variacao.quantidade(), agora);
+            }
+        });
+    }
+
+    // Primeiro pedido do restaurante: a linha zerada é criada e confirmada em uma transação própria,
+    // e o incremento é aplicado na transação do pedido, como nos demais
+    private void criarLinha(Long restauranteId) {
+        try {
+            novaTransacao.executeWithoutResult(status -> {
+                if (!vendasRestauranteRepository.existsById(restauranteId)) {
+                    vendasRestauranteRepository.save(new VendasRestaurante(restauranteId, BigDecimal.ZERO, 0L, LocalDateTime.now()));
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            logger.debug("Linha de vendas do restaurante {} criada por outra transação", restauranteId);
+        }
+    }
+
+    /**
+     * Compara o agregado com a soma dos pedidos e corrige os restaurantes divergentes. A comparação
+     * inicial não bloqueia nada e pode acusar restaurantes com transações em andamento; cada suspeito
+     * é então recalculado com a sua linha bloqueada e só é corrigido se a divergência se confirmar.
+     * Devolve a quantidade de restaurantes corrigidos.
+     */
+    public int reconciliar() {
+        return duracaoReconciliacao.record(() -> {
+            Map<Long, TotalVendas> esperado = transactionTemplate.execute(status ->
+                    somar(vendasRestauranteRepository.calcularPedidos(), vendasRestauranteRepository.calcularPedidosArquivados()));
+            Map<Long, VendasRestaurante> registrado = vendasRestauranteRepository.findAll().stream()
+                    .collect(Collectors.toMap(VendasRestaurante::getRestauranteId, Function.identity()));
+
+            Set<Long> suspeitos = new TreeSet<>();
+            esperado.forEach((id, total) -> {
+                if (divergente(total, registrado.get(id))) {
+                    suspeitos.add(id);
+                }
+            });
+            registrado.forEach((id, linha) -> {
+                if (!esperado.containsKey(id) && divergente(null, linha)) {
+                    suspeitos.add(id);
+                }
+            });
+
+            int corrigidos = 0;
+            for (Long restauranteId : suspeitos) {
+                if (!registrado.containsKey(restauranteId)) {
+                    criarLinha(restauranteId);
+                }
+                if (Boolean.TRUE.equals(transactionTemplate.execute(status -> corrigir(restauranteId)))) {
+                    corrigidos++;
+                }
+            }
+            divergencias.increment(corrigidos);
+            return corrigidos;
+        });
+    }
+
+    private boolean corrigir(Long restauranteId) {
+        VendasRestaurante linha = vendasRestauranteRepository.bloquear(restauranteId).orElseThrow();
+        TotalVendas total = somar(
+                vendasRestauranteRepository.calcularPedidos(restauranteId).stream().toList(),
+                vendasRestauranteRepository.calcularPedidosArquivados(restauranteId).stream().toList())
+                .get(restauranteId);
+        if (!divergente(total, linha)) {
+            return false;
+        }
+        BigDecimal totalVendas = total != null ? total.totalVendas() : BigDecimal.ZERO;
+        long quantidadePedidos = total != null ? total.quantidadePedidos() : 0L;
+        logger.info("Vendas do restaurante {} divergiam dos pedidos: registrado {} em {} pedido(s), corrigido para {} em {} pedido(s)",
+                restauranteId, linha.getTotalVendas(), linha.getQuantidadePedidos(), totalVendas, quantidadePedidos);
+        linha.setTotalVendas(totalVendas);
+        linha.setQuantidadePedidos(quantidadePedidos);
+        linha.setAtualizadoEm(LocalDateTime.now());
+        return true;
+    }
+
+    private static Map<Long, TotalVendas> somar(List<TotalVendas> pedidos, List<TotalVendas> arquivados) {
+        Map<Long, TotalVendas> totais = new HashMap<>();
+        for (List<TotalVendas> parcial : List.of(pedidos, arquivados)) {
+            for (TotalVendas total : parcial) {
+                totais.merge(total.restauranteId(), total, (a, b) -> new TotalVendas(a.restauranteId(),
+                        a.totalVendas().add(b.totalVendas()), a.quantidadePedidos() + b.quantidadePedidos()));
+            }
+        }
+        return totais;
+    }
+
+    // Sem pedidos e sem linha (ou linha zerada) não é divergência
+    private static boolean divergente(TotalVendas total, VendasRestaurante linha) {
+        BigDecimal esperadoValor = total != null ? total.totalVendas() : BigDecimal.ZERO;
+        long esperadoQuantidade = total != null ? total.quantidadePedidos() : 0L;
+        BigDecimal registradoValor = linha != null ? linha.getTotalVendas() : BigDecimal.ZERO;
+        long registradoQuantidade = linha != null ? linha.getQuantidadePedidos() : 0L;
+        return esperadoValor.compareTo(registradoValor) != 0 || esperadoQuantidade != registradoQuantidade;
+    }
+
+    /** Pedidos cancelados não contam como venda. */
+    public static boolean isContabilizado(StatusPedido status) {
+        return status != StatusPedido.CANCELADO;
+    }
+
+    /** Variação do total vendido e da quantidade de pedidos de um restaurante. */
+    public record Variacao(BigDecimal valor, long quantidade) {
+
+        public static final Variacao NENHUMA = new Variacao(BigDecimal.ZERO, 0);
+
+        public static Variacao pedidoCriado(BigDecimal valorTotal) {
+            return new Variacao(valorTotal, 1);
+        }
+
+        public static Variacao valorAlterado(BigDecimal anterior, BigDecimal atual) {
+            return new Variacao(atual.subtract(anterior), 0);
+        }
+
+        // Só muda o agregado quando o pedido passa a ser, ou deixa de ser, cancelado
+        public static Variacao statusAlterado(BigDecimal valorTotal, StatusPedido anterior, StatusPedido atual) {
+            boolean antes = isContabilizado(anterior);
+            boolean depois = isContabilizado(atual);
+            if (antes == depois) {
+                return NENHUMA;
+            }
+            return depois ? new Variacao(valorTotal, 1) : new Variacao(valorTotal.negate(), -1);
+        }
+
+        public Variacao somar(Variacao outra) {
+            return new Variacao(valor.add(outra.valor), quantidade + outra.quantidade);
+        }
+
+        public boolean isNula() {
+            return quantidade == 0 && valor.signum() == 0;
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.deliverytech.delivery_api.service.analise;
+
+import com.deliverytech.delivery_api.entity.StatusPedido;
+import com.deliverytech.delivery_api.service.analise.ColunasPedidos.Bloco;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Agrupamento ad hoc das ColunasPedidos: filtra por restaurante, cliente, status e período e soma
+ * pedidos e valor por combinação das dimensões escolhidas. Os blocos são divididos entre tarefas de
+ * um ForkJoinPool (cerca de quatro por thread, para equilibrar a carga sem multiplicar os mapas);
+ * cada tarefa acumula em um MapaGrupos próprio e os mapas são juntados de dois em dois.
+ *
+ * As dimensões de uma linha são empacotadas em uma chave long, na ordem do enum (e por isso a
+ * Ordem.DIMENSOES ordena por restaurante, cliente, status, dia, hora): restaurante e cliente usam
+ * os bits do maior ID carregado, status 3, dia (desde a época) 17, hora 5 e dia da semana 3. Uma
+ * combinação que passe de 63 bits (restaurante e cliente com IDs grandes, mais outras) é recusada.
+ */
+public final class AgregacaoPedidos {
+
+    public enum Dimensao { RESTAURANTE, CLIENTE, STATUS, DIA, HORA, DIA_DA_SEMANA }
+
+    public enum Ordem { QUANTIDADE, VALOR, DIMENSOES }
+
+    /** Filtros nulos (ou status vazio) não restringem; o período é [inicio, fim). */
+    public record Filtro(Long restauranteId, Long clienteId, Set<StatusPedido> status,
+                         LocalDateTime inicio, LocalDateTime fim) {
+    }
+
+    /**
+     * Um grupo: valor de cada dimensão escolhida (ID, ordinal do status, dia desde a época, hora 0 a 23
+     * ou dia da semana ISO 1 a 7), quantidade de pedidos e soma dos valores em centavos.
+     */
+    public record Grupo(Map<Dimensao, Long> dimensoes, long quantidade, long centavos) {
+    }
+
+    /** Totais de todos os pedidos filtrados e os primeiros grupos na ordem pedida. */
+    public record Resultado(long pedidos, long centavos, int totalGrupos, List<Grupo> grupos) {
+    }
+
+    private static final int MINUTOS_DIA = 24 * 60;
+    private static final int BITS_MAXIMO = 63;
+
+    private AgregacaoPedidos() {
+    }
+
+    /**
+     * @throws IllegalArgumentException se a chave das dimensões escolhidas não couber em 63 bits
+     */
+    public static Resultado agregar(ColunasPedidos colunas, Set<Dimensao> dimensoes, Filtro filtro, Ordem ordem,
+                                    int limite, ForkJoinPool pool) {
+        Varredura varredura = new Varredura(colunas, dimensoes, filtro);
+        List<Bloco> blocos = colunas.blocos();
+        int limiar = Math.max(1, blocos.size() / (pool.getParallelism() * 4));
+        MapaGrupos grupos = blocos.isEmpty() ? new MapaGrupos(varredura.bitsChave)
+                : pool.invoke(new Tarefa(varredura, blocos, 0, blocos.size(), limiar));
+
+        Comparator<Contagem> comparador = switch (ordem) {
+            case QUANTIDADE -> Comparator.comparingLong(Contagem::quantidade).reversed().thenComparingLong(Contagem::chave);
+            case VALOR -> Comparator.comparingLong(Contagem::centavos).reversed().thenComparingLong(Contagem::chave);
+            case DIMENSOES -> Comparator.comparingLong(Contagem::chave);
+        };
+        // Os limite primeiros em O(grupos log limite): o pior dos selecionados fica na cabeça da fila
+        PriorityQueue<Contagem> primeiros = new PriorityQueue<>(comparador.reversed());
+        long[] totais = new long[2];
+        grupos.paraCada((chave, quantidade, centavos) -> {
+            totais[0] += quantidade;
+            totais[1] += centavos;
+            Contagem contagem = new Contagem(chave, quantidade, centavos);
+            if (primeiros.size() < limite) {
+                primeiros.add(contagem);
+            } else if (limite > 0 && comparador.compare(contagem, primeiros.peek()) < 0) {
+                primeiros.poll();
+                primeiros.add(contagem);
+            }
+        });
+        List<Contagem> ordenados = new ArrayList<>(primeiros);
+        ordenados.sort(comparador);
+        List<Grupo> resultado = ordenados.stream()
+                .map(contagem -> new Grupo(varredura.desempacotar(contagem.chave()), contagem.quantidade(), contagem.centavos()))
+                .toList();
+        return new Resultado(totais[0], totais[1], grupos.tamanho(), resultado);
+    }
+
+    private record Contagem(long chave, long quantidade, long centavos) {
+    }
+
+    private static final class Tarefa extends RecursiveTask<MapaGrupos> {
+        private final Varredura varredura;
+        private final List<Bloco> blocos;
+        private final int de;
+        private final int ate;
+        private final int limiar;
+
+        private Tarefa(Varredura varredura, List<Bloco> blocos, int de, int ate, int limiar) {
+            this.varredura = varredura;
+            this.blocos = blocos;
+            this.de = de;
+            this.ate = ate;
+            this.limiar = limiar;
+        }
+
+        @Override
+        protected MapaGrupos compute() {
+            if (ate - de <= limiar) {
+                MapaGrupos grupos = new MapaGrupos(varredura.bitsChave);
+                for (int i = de; i < ate; i++) {
+                    varredura.varrer(blocos.get(i), grupos);
+                }
+                return grupos;
+            }
+            int meio = (de + ate) >>> 1;
+            Tarefa esquerda = new Tarefa(varredura, blocos, de, meio, limiar);
+            esquerda.fork();
+            MapaGrupos direita = new Tarefa(varredura, blocos, meio, ate, limiar).compute();
+            MapaGrupos grupos = esquerda.join();
+            if (grupos.tamanho() < direita.tamanho()) {
+                direita.juntar(grupos);
+                return direita;
+            }
+            grupos.juntar(direita);
+            return grupos;
+        }
+    }
+
+    // Filtros e layout da chave, compartilhados (somente leitura) pelas tarefas
+    private static final class Varredura {
+        private final Dimensao[] dimensoes;
+        private final int[] bits;
+        private final int bitsChave;
+        private final boolean filtraRestaurante;
+        private final long restauranteId;
+        private final boolean filtraCliente;
+        private final long clienteId;
+        private final int status;
+        private final long inicio;
+        private final long fim;
+
+        private Varredura(ColunasPedidos colunas, Set<Dimensao> escolhidas, Filtro filtro) {
+            dimensoes = escolhidas.stream().sorted().toArray(Dimensao[]::new);
+            bits = new int[dimensoes.length];
+            int total = 0;
+            for (int i = 0; i < dimensoes.length; i++) {
+                bits[i] = switch (dimensoes[i]) {
+                    case RESTAURANTE -> bitsPara(colunas.maiorRestaurante());
+                    case CLIENTE -> bitsPara(colunas.maiorCliente());
+                    case STATUS -> 3;
+                    case DIA -> 17;
+                    case HORA -> 5;
+                    case DIA_DA_SEMANA -> 3;
+                };
+                total += bits[i];
+            }
+            if (total > BITS_MAXIMO) {
+                throw new IllegalArgumentException("Combinação de dimensões grande demais para agrupar: " + escolhidas);
+            }
+            bitsChave = total;
+            filtraRestaurante = filtro.restauranteId() != null;
+            restauranteId = filtraRestaurante ? filtro.restauranteId() : 0;
+            filtraCliente = filtro.clienteId() != null;
+            clienteId = filtraCliente ? filtro.clienteId() : 0;
+            int mascara = 0;
+            if (filtro.status() == null || filtro.status().isEmpty()) {
+                mascara = -1;
+            } else {
+                for (StatusPedido s : filtro.status()) {
+                    mascara |= 1 << s.ordinal();
+                }
+            }
+            status = mascara;
+            inicio = filtro.inicio() == null ? Long.MIN_VALUE : ColunasPedidos.minuto(filtro.inicio());
+            fim = filtro.fim() == null ? Long.MAX_VALUE : ColunasPedidos.minuto(filtro.fim());
+        }
+
+        private void varrer(Bloco bloco, MapaGrupos grupos) {
+            for (int i = 0; i < bloco.tamanho; i++) {
+                if ((filtraRestaurante && bloco.restaurante[i] != restauranteId)
+                        || (filtraCliente && bloco.cliente[i] != clienteId)
+                        || (status >>> bloco.status[i] & 1) == 0
+                        || bloco.minuto[i] < inicio || bloco.minuto[i] >= fim) {
+                    continue;
+                }
+                long chave = 0;
+                for (int d = 0; d < dimensoes.length; d++) {
+                    chave = chave << bits[d] | (valor(dimensoes[d], bloco, i) & ((1L << bits[d]) - 1));
+                }
+                grupos.somar(chave, 1, bloco.centavos[i]);
+            }
+        }
+
+        private Map<Dimensao, Long> desempacotar(long chave) {
+            Map<Dimensao, Long> valores = new EnumMap<>(Dimensao.class);
+            for (int d = dimensoes.length - 1; d >= 0; d--) {
+                valores.put(dimensoes[d], chave & ((1L << bits[d]) - 1));
+                chave >>>= bits[d];
+            }
+            return valores;
+        }
+
+        private static long valor(Dimensao dimensao, Bloco bloco, int i) {
+            return switch (dimensao) {
+                case RESTAURANTE -> bloco.restaurante[i];
+                case CLIENTE -> bloco.cliente[i];
+                case STATUS -> bloco.status[i];
+                case DIA -> Math.floorDiv(bloco.minuto[i], MINUTOS_DIA);
+                case HORA -> Math.floorMod(bloco.minuto[i], MINUTOS_DIA) / 60;
+                // 01/01/1970 (dia 0) foi uma quinta-feira, dia 4 na numeração ISO
+                case DIA_DA_SEMANA -> Math.floorMod(Math.floorDiv(bloco.minuto[i], MINUTOS_DIA) + 3, 7) + 1;
+            };
+        }
+
+        private static int bitsPara(int maior) {
+            return Math.max(1, Integer.SIZE - Integer.numberOfLeadingZeros(maior));
+        }
+    }
+}
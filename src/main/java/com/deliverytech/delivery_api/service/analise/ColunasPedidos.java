@@ -0,0 +1,161 @@
+package com.deliverytech.delivery_api.service.analise;
+
+import com.deliverytech.delivery_api.entity.StatusPedido;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Pedidos em colunas de arrays primitivos, para agregações ad hoc por varredura (AgregacaoPedidos):
+ * restaurante e cliente (int), minuto desde a época no horário local do pedido (int), status (byte,
+ * ordinal) e valor total em centavos (long). São 21 bytes por pedido, cerca de 420 MB para 20 milhões.
+ * IDs de restaurante e cliente acima de Integer.MAX_VALUE não são suportados.
+ *
+ * As colunas são divididas em blocos de TAMANHO_BLOCO linhas, a unidade de trabalho das varreduras
+ * paralelas. Uma instância é imutável: acrescentar pedidos (estender) gera outra, que compartilha os
+ * blocos cheios e copia apenas o último, então as consultas em andamento não são afetadas.
+ */
+public final class ColunasPedidos {
+
+    public static final int TAMANHO_BLOCO = 1 << 16;
+
+    private static final ColunasPedidos VAZIO = new ColunasPedidos(List.of(), 0, 0, 0);
+
+    private final List<Bloco> blocos;
+    private final int tamanho;
+    private final int maiorRestaurante;
+    private final int maiorCliente;
+
+    private ColunasPedidos(List<Bloco> blocos, int tamanho, int maiorRestaurante, int maiorCliente) {
+        this.blocos = blocos;
+        this.tamanho = tamanho;
+        this.maiorRestaurante = maiorRestaurante;
+        this.maiorCliente = maiorCliente;
+    }
+
+    public static ColunasPedidos vazio() {
+        return VAZIO;
+    }
+
+    public static Construtor construtor() {
+        return new Construtor(new ArrayList<>(), null, 0, 0, 0);
+    }
+
+    /** Construtor de uma cópia com mais pedidos; esta instância não muda. */
+    public Construtor estender() {
+        if (blocos.isEmpty() || blocos.get(blocos.size() - 1).tamanho == TAMANHO_BLOCO) {
+            return new Construtor(new ArrayList<>(blocos), null, tamanho, maiorRestaurante, maiorCliente);
+        }
+        List<Bloco> cheios = new ArrayList<>(blocos.subList(0, blocos.size() - 1));
+        return new Construtor(cheios, blocos.get(blocos.size() - 1).copiar(), tamanho, maiorRestaurante, maiorCliente);
+    }
+
+    public int tamanho() {
+        return tamanho;
+    }
+
+    int maiorRestaurante() {
+        return maiorRestaurante;
+    }
+
+    int maiorCliente() {
+        return maiorCliente;
+    }
+
+    List<Bloco> blocos() {
+        return blocos;
+    }
+
+    static int minuto(LocalDateTime dataHora) {
+        return Math.toIntExact(Math.floorDiv(dataHora.toEpochSecond(ZoneOffset.UTC), 60));
+    }
+
+    static final class Bloco {
+        final int[] restaurante;
+        final int[] cliente;
+        final int[] minuto;
+        final byte[] status;
+        final long[] centavos;
+        int tamanho;
+
+        private Bloco(int[] restaurante, int[] cliente, int[] minuto, byte[] status, long[] centavos, int tamanho) {
+            this.restaurante = restaurante;
+            this.cliente = cliente;
+            this.minuto = minuto;
+            this.status = status;
+            this.centavos = centavos;
+            this.tamanho = tamanho;
+        }
+
+        private static Bloco novo() {
+            return new Bloco(new int[TAMANHO_BLOCO], new int[TAMANHO_BLOCO], new int[TAMANHO_BLOCO],
+                    new byte[TAMANHO_BLOCO], new long[TAMANHO_BLOCO], 0);
+        }
+
+        private Bloco copiar() {
+            return new Bloco(Arrays.copyOf(restaurante, TAMANHO_BLOCO), Arrays.copyOf(cliente, TAMANHO_BLOCO),
+                    Arrays.copyOf(minuto, TAMANHO_BLOCO), Arrays.copyOf(status, TAMANHO_BLOCO),
+                    Arrays.copyOf(centavos, TAMANHO_BLOCO), tamanho);
+        }
+    }
+
+    /** Acrescenta pedidos a novos blocos; não é thread-safe e não pode ser usado após construir(). */
+    public static final class Construtor {
+        private final List<Bloco> blocos;
+        private Bloco atual;
+        private int tamanho;
+        private int maiorRestaurante;
+        private int maiorCliente;
+        private boolean construido;
+
+        private Construtor(List<Bloco> blocos, Bloco atual, int tamanho, int maiorRestaurante, int maiorCliente) {
+            this.blocos = blocos;
+            this.atual = atual;
+            this.tamanho = tamanho;
+            this.maiorRestaurante = maiorRestaurante;
+            this.maiorCliente = maiorCliente;
+        }
+
+        public void adicionar(long restauranteId, long clienteId, LocalDateTime dataPedido, StatusPedido status,
+                              BigDecimal valorTotal) {
+            if (construido) {
+                throw new IllegalStateException("Colunas já construídas");
+            }
+            if (atual == null || atual.tamanho == TAMANHO_BLOCO) {
+                if (atual != null) {
+                    blocos.add(atual);
+                }
+                atual = Bloco.novo();
+            }
+            int linha = atual.tamanho;
+            atual.restaurante[linha] = Math.toIntExact(restauranteId);
+            atual.cliente[linha] = Math.toIntExact(clienteId);
+            atual.minuto[linha] = minuto(dataPedido);
+            atual.status[linha] = (byte) status.ordinal();
+            atual.centavos[linha] = valorTotal == null ? 0
+                    : valorTotal.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+            atual.tamanho++;
+            tamanho++;
+            maiorRestaurante = Math.max(maiorRestaurante, atual.restaurante[linha]);
+            maiorCliente = Math.max(maiorCliente, atual.cliente[linha]);
+        }
+
+        public int tamanho() {
+            return tamanho;
+        }
+
+        public ColunasPedidos construir() {
+            construido = true;
+            List<Bloco> todos = new ArrayList<>(blocos);
+            if (atual != null) {
+                todos.add(atual);
+            }
+            return new ColunasPedidos(List.copyOf(todos), tamanho, maiorRestaurante, maiorCliente);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.deliverytech.delivery_api.service.analise;
+
+/**
+ * Soma de pedidos e centavos por chave de grupo em um único array primitivo, sem objetos por grupo,
+ * com os campos de cada grupo lado a lado (uma linha de cache por pedido somado). Com chaves de até
+ * BITS_DENSO bits, a chave é a própria posição (quantidade, centavos); acima disso, endereçamento
+ * aberto com sondagem linear sobre (chave, quantidade, centavos), com -1 marcando posição livre (as
+ * chaves são não negativas). Não é thread-safe: cada varredura usa o seu e os resultados são
+ * juntados depois.
+ */
+final class MapaGrupos {
+
+    static final int BITS_DENSO = 16;
+
+    private static final long LIVRE = -1;
+
+    private final boolean denso;
+    private final int largura;
+    private long[] tabela;
+    private int capacidade;
+    private int tamanho;
+
+    MapaGrupos(int bitsChave) {
+        denso = bitsChave <= BITS_DENSO;
+        largura = denso ? 2 : 3;
+        alocar(denso ? 1 << bitsChave : 1024);
+    }
+
+    void somar(long chave, long quantidade, long valor) {
+        int i;
+        if (denso) {
+            i = (int) chave * 2;
+            if (tabela[i] == 0) {
+                tamanho++;
+            }
+        } else {
+            i = posicao(chave) * 3;
+            if (tabela[i] == LIVRE) {
+                tabela[i] = chave;
+                tamanho++;
+            }
+            i++;
+        }
+        tabela[i] += quantidade;
+        tabela[i + 1] += valor;
+        if (!denso && tamanho * 2 > capacidade) {
+            redimensionar();
+        }
+    }
+
+    void juntar(MapaGrupos outro) {
+        outro.paraCada(this::somar);
+    }
+
+    int tamanho() {
+        return tamanho;
+    }
+
+    /** Percorre os grupos: visitante recebe chave, quantidade e centavos. */
+    void paraCada(Visitante visitante) {
+        for (int posicao = 0; posicao < capacidade; posicao++) {
+            int i = posicao * largura;
+            if (denso && tabela[i] != 0) {
+                visitante.visitar(posicao, tabela[i], tabela[i + 1]);
+            } else if (!denso && tabela[i] != LIVRE) {
+                visitante.visitar(tabela[i], tabela[i + 1], tabela[i + 2]);
+            }
+        }
+    }
+
+    interface Visitante {
+        void visitar(long chave, long quantidade, long centavos);
+    }
+
+    // Sondagem linear a partir do hash multiplicativo da chave
+    private int posicao(long chave) {
+        int mascara = capacidade - 1;
+        int posicao = (int) ((chave * 0x9E3779B97F4A7C15L) >>> 32) & mascara;
+        while (tabela[posicao * 3] != LIVRE && tabela[posicao * 3] != chave) {
+            posicao = (posicao + 1) & mascara;
+        }
+        return posicao;
+    }
+
+    private void redimensionar() {
+        long[] antiga = tabela;
+        alocar(capacidade * 2);
+        for (int i = 0; i < antiga.length; i += 3) {
+            if (antiga[i] != LIVRE) {
+                int nova = posicao(antiga[i]) * 3;
+                tabela[nova] = antiga[i];
+                tabela[nova + 1] = antiga[i + 1];
+                tabela[nova + 2] = antiga[i + 2];
+            }
+        }
+    }
+
+    private void alocar(int capacidade) {
+        this.capacidade = capacidade;
+        tabela = new long[capacidade * largura];
+        for (int i = 0; !denso && i < tabela.length; i += 3) {
+            tabela[i] = LIVRE;
+        }
+    }
+}
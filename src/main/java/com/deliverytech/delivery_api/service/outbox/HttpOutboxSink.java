@@ -0,0 +1,41 @@
+package com.deliverytech.delivery_api.service.outbox;
+
+import com.deliverytech.delivery_api.dto.EventoOutboxDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Entrega cada lote em um único POST com um array JSON de eventos para delivery.outbox.http.url.
+ * Qualquer resposta fora de 2xx (ou falha de conexão) faz o lote ser tentado de novo.
+ */
+@Component
+@ConditionalOnProperty(name = "delivery.outbox.sink", havingValue = "http")
+public class HttpOutboxSink implements OutboxSink {
+
+    private final RestClient restClient;
+
+    public HttpOutboxSink(RestClient.Builder restClientBuilder,
+                          @Value("${delivery.outbox.http.url}") String url,
+                          @Value("${delivery.outbox.http.timeout:PT5S}") Duration timeout) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(timeout);
+        requestFactory.setReadTimeout(timeout);
+        this.restClient = restClientBuilder.baseUrl(url).requestFactory(requestFactory).build();
+    }
+
+    @Override
+    public void enviar(List<EventoOutboxDTO> eventos) {
+        restClient.post()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(eventos)
+                .retrieve()
+                .toBodilessEntity();
+    }
+}
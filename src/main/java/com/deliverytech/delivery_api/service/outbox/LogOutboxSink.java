@@ -0,0 +1,24 @@
+package com.deliverytech.delivery_api.service.outbox;
+
+import com.deliverytech.delivery_api.dto.EventoOutboxDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/** Destino padrão: apenas registra os eventos no log (ambientes sem integração configurada). */
+@Component
+@ConditionalOnProperty(name = "delivery.outbox.sink", havingValue = "log", matchIfMissing = true)
+public class LogOutboxSink implements OutboxSink {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogOutboxSink.class);
+
+    @Override
+    public void enviar(List<EventoOutboxDTO> eventos) {
+        for (EventoOutboxDTO evento : eventos) {
+            logger.info("Evento {} {} do pedido {}: {}", evento.getId(), evento.getTipo(), evento.getPedidoId(), evento.getPayload());
+        }
+    }
+}
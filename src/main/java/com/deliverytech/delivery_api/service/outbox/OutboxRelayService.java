@@ -0,0 +1,234 @@
+package com.deliverytech.delivery_api.service.outbox;
+
+import com.deliverytech.delivery_api.dto.EventoOutboxDTO;
+import com.deliverytech.delivery_api.entity.EventoOutbox;
+import com.deliverytech.delivery_api.repository.EventoOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Relay do outbox (delivery.outbox.relay.habilitado=true): a cada delivery.outbox.relay.intervalo,
+ * reserva lotes de até delivery.outbox.relay.tamanho-lote eventos, entrega cada lote ao OutboxSink e
+ * remove os eventos entregues. Enquanto os lotes vierem cheios, o próximo é processado em seguida, sem
+ * esperar o intervalo.
+ *
+ * A reserva é uma transação curta, que bloqueia as linhas, marca os eventos como reservados por
+ * delivery.outbox.relay.reserva e faz o commit; a entrega acontece depois, sem locks nem transação
+ * abertos. Uma reserva vencida (relay interrompido durante a entrega) volta a ser reservável, e o lote
+ * é entregue de novo.
+ *
+ * Se o destino falhar, a reserva é desfeita, as tentativas do primeiro evento do lote são incrementadas
+ * e o relay espera um backoff exponencial, até delivery.outbox.relay.backoff-maximo, antes de tentar de
+ * novo só esse evento, sem que os seguintes o ultrapassem. Ao atingir delivery.outbox.relay.max-tentativas,
+ * o evento é estacionado (fica no outbox, fora das entregas) e os seguintes voltam a ser entregues.
+ */
+@Service
+public class OutboxRelayService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelayService.class);
+
+    private final EventoOutboxRepository eventoOutboxRepository;
+    private final OutboxSink sink;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean habilitado;
+    private final Duration intervalo;
+    private final int tamanhoLote;
+    private final Duration backoffMaximo;
+    private final int maxTentativas;
+    private final Duration reserva;
+
+    private final Counter entregues;
+    private final Counter falhas;
+    private final Counter estacionados;
+    private final DistributionSummary tamanhoDosLotes;
+    private final Timer atrasoEntrega;
+    // Idade, em ms, do evento mais antigo do último lote reservado (0 com o outbox vazio)
+    private final AtomicLong atrasoAtual = new AtomicLong();
+
+    private ScheduledExecutorService executor;
+    // Acessados apenas pela thread do relay
+    private int falhasConsecutivas;
+    private long retomarEm;
+    // Após uma falha, o próximo lote é só o primeiro evento, até que ele seja entregue ou estacionado
+    private boolean isolarPrimeiro;
+
+    public OutboxRelayService(EventoOutboxRepository eventoOutboxRepository,
+                              OutboxSink sink,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${delivery.outbox.relay.habilitado:true}") boolean habilitado,
+                              @Value("${delivery.outbox.relay.intervalo:PT1S}") Duration intervalo,
+                              @Value("${delivery.outbox.relay.tamanho-lote:100}") int tamanhoLote,
+                              @Value("${delivery.outbox.relay.backoff-maximo:PT5M}") Duration backoffMaximo,
+                              @Value("${delivery.outbox.relay.max-tentativas:10}") int maxTentativas,
+                              @Value("${delivery.outbox.relay.reserva:PT1M}") Duration reserva) {
+        this.eventoOutboxRepository = eventoOutboxRepository;
+        this.sink = sink;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.habilitado = habilitado;
+        this.intervalo = intervalo;
+        this.tamanhoLote = tamanhoLote;
+        this.backoffMaximo = backoffMaximo;
+        this.maxTentativas = maxTentativas;
+        this.reserva = reserva;
+
+        this.entregues = Counter.builder("delivery.outbox.relay.entregues")
+                .description("Eventos do outbox entregues ao destino")
+                .register(meterRegistry);
+        this.falhas = Counter.builder("delivery.outbox.relay.falhas")
+                .description("Lotes do outbox cuja entrega falhou")
+                .register(meterRegistry);
+        this.estacionados = Counter.builder("delivery.outbox.relay.estacionados")
+                .description("Eventos do outbox estacionados após max-tentativas entregas recusadas")
+                .register(meterRegistry);
+        this.tamanhoDosLotes = DistributionSummary.builder("delivery.outbox.relay.lote")
+                .description("Eventos por lote reservado pelo relay")
+                .register(meterRegistry);
+        this.atrasoEntrega = Timer.builder("delivery.outbox.relay.atraso")
+                .description("Tempo entre a gravação do evento e sua entrega")
+                .register(meterRegistry);
+        Gauge.builder("delivery.outbox.relay.atraso.atual", atrasoAtual, AtomicLong::get)
+                .description("Idade do evento mais antigo do último lote reservado")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        if (!habilitado) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "outbox-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::drenar, intervalo.toMillis(), intervalo.toMillis(), TimeUnit.MILLISECONDS);
+        logger.info("Relay do outbox iniciado: lotes de {} a cada {}", tamanhoLote, intervalo);
+    }
+
+    @PreDestroy
+    public void parar() throws InterruptedException {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private void drenar() {
+        if (falhasConsecutivas > 0 && System.nanoTime() - retomarEm < 0) {
+            return;
+        }
+        try {
+            int entreguesNoLote;
+            do {
+                entreguesNoLote = processarLote();
+            } while (entreguesNoLote == tamanhoLote && !executor.isShutdown());
+            falhasConsecutivas = 0;
+        } catch (Exception e) {
+            // Backoff exponencial a partir de 1s pela quantidade de falhas seguidas, limitado a backoffMaximo
+            falhasConsecutivas++;
+            Duration espera = Duration.ofSeconds(1L << Math.min(falhasConsecutivas - 1, 20));
+            if (espera.compareTo(backoffMaximo) > 0) {
+                espera = backoffMaximo;
+            }
+            retomarEm = System.nanoTime() + espera.toNanos();
+            logger.warn("Falha no relay do outbox ({} seguida(s)); nova tentativa em {}", falhasConsecutivas, espera, e);
+        }
+    }
+
+    /**
+     * Reserva e entrega um lote. Devolve a quantidade de eventos entregues (0 se não havia eventos
+     * disponíveis). Se o destino recusar o lote, a falha é registrada e relançada, exceto quando o
+     * primeiro evento é estacionado.
+     */
+    public int processarLote() {
+        List<EventoOutboxDTO> lote = transactionTemplate.execute(status -> reservar());
+        if (lote.isEmpty()) {
+            return 0;
+        }
+        try {
+            sink.enviar(lote);
+        } catch (Exception e) {
+            falhas.increment();
+            boolean estacionado = transactionTemplate.execute(status -> registrarFalha(lote, e));
+            isolarPrimeiro = !estacionado;
+            if (estacionado) {
+                return 0;
+            }
+            throw new IllegalStateException("Destino do outbox recusou o lote: " + e.getMessage(), e);
+        }
+        isolarPrimeiro = false;
+        List<Long> ids = lote.stream().map(EventoOutboxDTO::getId).collect(Collectors.toList());
+        transactionTemplate.executeWithoutResult(status -> eventoOutboxRepository.deleteAllByIdInBatch(ids));
+        LocalDateTime entregueEm = LocalDateTime.now();
+        lote.forEach(evento -> atrasoEntrega.record(Duration.between(evento.getCriadoEm(), entregueEm)));
+        entregues.increment(lote.size());
+        return lote.size();
+    }
+
+    // Na transação da reserva: eventos reservados por outro relay, e os seguintes, ficam para depois
+    private List<EventoOutboxDTO> reservar() {
+        LocalDateTime agora = LocalDateTime.now();
+        List<EventoOutbox> lote = eventoOutboxRepository.reservarLote(PageRequest.of(0, isolarPrimeiro ? 1 : tamanhoLote))
+                .stream()
+                .takeWhile(evento -> evento.getReservadoAte() == null || !evento.getReservadoAte().isAfter(agora))
+                .toList();
+        if (lote.isEmpty()) {
+            atrasoAtual.set(0);
+            return List.of();
+        }
+        tamanhoDosLotes.record(lote.size());
+        atrasoAtual.set(Duration.between(lote.get(0).getCriadoEm(), agora).toMillis());
+        LocalDateTime reservadoAte = agora.plus(reserva);
+        lote.forEach(evento -> evento.setReservadoAte(reservadoAte));
+        return lote.stream().map(OutboxRelayService::toDTO).collect(Collectors.toList());
+    }
+
+    // Desfaz a reserva e conta a tentativa do primeiro evento; devolve se ele foi estacionado
+    private boolean registrarFalha(List<EventoOutboxDTO> lote, Exception erro) {
+        Long primeiroId = lote.get(0).getId();
+        boolean estacionado = false;
+        for (EventoOutbox evento : eventoOutboxRepository.findAllById(lote.stream().map(EventoOutboxDTO::getId).toList())) {
+            evento.setReservadoAte(null);
+            if (evento.getId().equals(primeiroId)) {
+                evento.setTentativas(evento.getTentativas() + 1);
+                if (evento.getTentativas() >= maxTentativas) {
+                    evento.setEstacionado(true);
+                    estacionado = true;
+                    estacionados.increment();
+                    logger.error("Evento {} do outbox ({} do pedido {}) estacionado após {} tentativa(s): {}",
+                            evento.getId(), evento.getTipo(), evento.getPedidoId(), evento.getTentativas(), erro.getMessage());
+                }
+            }
+        }
+        return estacionado;
+    }
+
+    private static EventoOutboxDTO toDTO(EventoOutbox evento) {
+        return new EventoOutboxDTO(evento.getId(), evento.getTipo(), evento.getPedidoId(), evento.getVersaoPedido(),
+                evento.getCriadoEm(), evento.getPayload());
+    }
+}
@@ -0,0 +1,77 @@
+package com.deliverytech.delivery_api.service.outbox;
+
+import com.deliverytech.delivery_api.entity.EventoOutbox;
+import com.deliverytech.delivery_api.entity.TipoEventoPedido;
+import com.deliverytech.delivery_api.repository.EventoOutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Grava os eventos do ciclo de vida do pedido no outbox. Exige a transação da alteração que os
+ * originou (MANDATORY): o evento existe se, e somente se, a alteração foi confirmada. A entrega
+ * fica a cargo do OutboxRelayService, fora do caminho da requisição.
+ */
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+public class OutboxService {
+
+    private final EventoOutboxRepository eventoOutboxRepository;
+    private final ObjectMapper objectMapper;
+    private final AtomicLong alteracoesConfirmadas = new AtomicLong();
+
+    public OutboxService(EventoOutboxRepository eventoOutboxRepository, ObjectMapper objectMapper) {
+        this.eventoOutboxRepository = eventoOutboxRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    public void registrar(TipoEventoPedido tipo, Long pedidoId, long versaoPedido, Object payload) {
+        registrarTodos(List.of(new Evento(tipo, pedidoId, versaoPedido, payload)));
+    }
+
+    /** Eventos de uma operação em lote, gravados com INSERTs em lote. */
+    public void registrarTodos(List<Evento> eventos) {
+        if (eventos.isEmpty()) {
+            return;
+        }
+        LocalDateTime agora = LocalDateTime.now();
+        eventoOutboxRepository.saveAll(eventos.stream()
+                .map(evento -> new EventoOutbox(evento.tipo(), evento.pedidoId(), evento.versaoPedido(), serializar(evento), agora))
+                .collect(Collectors.toList()));
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                alteracoesConfirmadas.incrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * Transações com eventos de pedido confirmadas nesta instância desde a inicialização. Muda a cada
+     * alteração de pedido; serve de versão dos dados para resultados em cache (RelatorioJobService).
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public long alteracoesConfirmadas() {
+        return alteracoesConfirmadas.get();
+    }
+
+    private String serializar(Evento evento) {
+        try {
+            return objectMapper.writeValueAsString(evento.payload());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Não foi possível serializar o evento " + evento.tipo() + " do pedido " + evento.pedidoId(), e);
+        }
+    }
+
+    public record Evento(TipoEventoPedido tipo, Long pedidoId, long versaoPedido, Object payload) {
+    }
+}
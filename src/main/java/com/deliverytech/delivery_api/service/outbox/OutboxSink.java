@@ -0,0 +1,15 @@
+package com.deliverytech.delivery_api.service.outbox;
+
+import com.deliverytech.delivery_api.dto.EventoOutboxDTO;
+
+import java.util.List;
+
+/**
+ * Destino dos eventos do outbox (delivery.outbox.sink). Recebe um lote na ordem de gravação e deve
+ * lançar exceção se não puder entregá-lo por inteiro: o lote é tentado de novo mais tarde, então a
+ * entrega é pelo menos uma vez e o destino deve descartar eventos repetidos pelo id.
+ */
+public interface OutboxSink {
+
+    void enviar(List<EventoOutboxDTO> eventos) throws Exception;
+}
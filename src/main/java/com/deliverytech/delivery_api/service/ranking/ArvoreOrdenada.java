@@ -0,0 +1,173 @@
+package com.deliverytech.delivery_api.service.ranking;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Conjunto ordenado com posição: uma treap (árvore de busca com prioridades aleatórias, balanceada
+ * em média) em que cada nó guarda o tamanho da sua subárvore. Além de incluir e remover, responde a
+ * posição de um elemento na ordem, em O(log n), e lista os primeiros n elementos em O(log n + n),
+ * o que um TreeSet só faz percorrendo os elementos anteriores.
+ *
+ * A ordem deve ser total: elementos que o comparador considera iguais são o mesmo elemento. Não é
+ * thread-safe.
+ */
+public class ArvoreOrdenada<T> {
+
+    private final Comparator<? super T> ordem;
+    private final SplittableRandom prioridades = new SplittableRandom();
+    private No<T> raiz;
+
+    public ArvoreOrdenada(Comparator<? super T> ordem) {
+        this.ordem = ordem;
+    }
+
+    /** Inclui o elemento; devolve false se ele já estava no conjunto. */
+    public boolean incluir(T valor) {
+        if (posicao(valor) >= 0) {
+            return false;
+        }
+        raiz = incluir(raiz, new No<>(valor, prioridades.nextInt()));
+        return true;
+    }
+
+    /** Remove o elemento; devolve false se ele não estava no conjunto. */
+    public boolean remover(T valor) {
+        if (posicao(valor) < 0) {
+            return false;
+        }
+        raiz = remover(raiz, valor);
+        return true;
+    }
+
+    /** Posição do elemento na ordem, a partir de 0, ou -1 se ele não está no conjunto. */
+    public int posicao(T valor) {
+        int anteriores = 0;
+        No<T> no = raiz;
+        while (no != null) {
+            int comparacao = ordem.compare(valor, no.valor);
+            if (comparacao == 0) {
+                return anteriores + tamanho(no.esquerda);
+            }
+            if (comparacao < 0) {
+                no = no.esquerda;
+            } else {
+                anteriores += tamanho(no.esquerda) + 1;
+                no = no.direita;
+            }
+        }
+        return -1;
+    }
+
+    /** Os primeiros n elementos, na ordem. */
+    public List<T> primeiros(int n) {
+        List<T> resultado = new ArrayList<>(Math.min(n, tamanho()));
+        Deque<No<T>> pilha = new ArrayDeque<>();
+        No<T> no = raiz;
+        while (resultado.size() < n && (no != null || !pilha.isEmpty())) {
+            while (no != null) {
+                pilha.push(no);
+                no = no.esquerda;
+            }
+            no = pilha.pop();
+            resultado.add(no.valor);
+            no = no.direita;
+        }
+        return resultado;
+    }
+
+    public int tamanho() {
+        return tamanho(raiz);
+    }
+
+    private No<T> incluir(No<T> no, No<T> novo) {
+        if (no == null) {
+            return novo;
+        }
+        if (novo.prioridade > no.prioridade) {
+            Divisao<T> divisao = dividir(no, novo.valor);
+            novo.esquerda = divisao.menores();
+            novo.direita = divisao.maiores();
+            return atualizar(novo);
+        }
+        if (ordem.compare(novo.valor, no.valor) < 0) {
+            no.esquerda = incluir(no.esquerda, novo);
+        } else {
+            no.direita = incluir(no.direita, novo);
+        }
+        return atualizar(no);
+    }
+
+    private No<T> remover(No<T> no, T valor) {
+        int comparacao = ordem.compare(valor, no.valor);
+        if (comparacao == 0) {
+            return juntar(no.esquerda, no.direita);
+        }
+        if (comparacao < 0) {
+            no.esquerda = remover(no.esquerda, valor);
+        } else {
+            no.direita = remover(no.direita, valor);
+        }
+        return atualizar(no);
+    }
+
+    // Separa a subárvore nos elementos menores que valor e nos demais
+    private Divisao<T> dividir(No<T> no, T valor) {
+        if (no == null) {
+            return new Divisao<>(null, null);
+        }
+        if (ordem.compare(no.valor, valor) < 0) {
+            Divisao<T> divisao = dividir(no.direita, valor);
+            no.direita = divisao.menores();
+            return new Divisao<>(atualizar(no), divisao.maiores());
+        }
+        Divisao<T> divisao = dividir(no.esquerda, valor);
+        no.esquerda = divisao.maiores();
+        return new Divisao<>(divisao.menores(), atualizar(no));
+    }
+
+    // Une duas subárvores em que todo elemento de menores vem antes de todo elemento de maiores
+    private No<T> juntar(No<T> menores, No<T> maiores) {
+        if (menores == null) {
+            return maiores;
+        }
+        if (maiores == null) {
+            return menores;
+        }
+        if (menores.prioridade > maiores.prioridade) {
+            menores.direita = juntar(menores.direita, maiores);
+            return atualizar(menores);
+        }
+        maiores.esquerda = juntar(menores, maiores.esquerda);
+        return atualizar(maiores);
+    }
+
+    private static <T> No<T> atualizar(No<T> no) {
+        no.tamanho = tamanho(no.esquerda) + tamanho(no.direita) + 1;
+        return no;
+    }
+
+    private static int tamanho(No<?> no) {
+        return no == null ? 0 : no.tamanho;
+    }
+
+    private static final class No<T> {
+        private final T valor;
+        private final int prioridade;
+        private int tamanho = 1;
+        private No<T> esquerda;
+        private No<T> direita;
+
+        private No(T valor, int prioridade) {
+            this.valor = valor;
+            this.prioridade = prioridade;
+        }
+    }
+
+    private record Divisao<T>(No<T> menores, No<T> maiores) {
+    }
+}
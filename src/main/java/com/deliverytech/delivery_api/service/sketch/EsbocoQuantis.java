@@ -0,0 +1,196 @@
+package com.deliverytech.delivery_api.service.sketch;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Quantis aproximados de valores não negativos com erro relativo garantido, no esquema do DDSketch
+ * (Masson, Rim e Lee): cada valor positivo v conta no balde i = teto(log_gama(v)), com
+ * gama = (1 + ERRO_RELATIVO) / (1 - ERRO_RELATIVO), e o quantil devolve o ponto do balde que fica a
+ * no máximo ERRO_RELATIVO de qualquer valor dele. Zeros têm contador próprio.
+ *
+ * Ao contrário do t-digest, a junção é exata (soma balde a balde), então juntar os resumos diários
+ * dá o mesmo resumo que incluir os valores de todo o período em um só, e o erro não depende da
+ * ordem de inclusão. O número de baldes cresce com log(maior / menor): valores de R$ 0,01 a
+ * R$ 100.000 cabem em cerca de 800 baldes, e os de um dia típico, em poucas dezenas. Um valor incluído
+ * pode ser retirado do seu balde (pedido cancelado). Não é thread-safe.
+ */
+public final class EsbocoQuantis {
+
+    public static final double ERRO_RELATIVO = 0.01;
+
+    private static final byte VERSAO = 1;
+    private static final double GAMA = (1 + ERRO_RELATIVO) / (1 - ERRO_RELATIVO);
+    private static final double LOG_GAMA = Math.log(GAMA);
+    // Valores abaixo disso contam como zero (menor que qualquer centavo)
+    private static final double MENOR_VALOR = 1e-9;
+
+    private final TreeMap<Integer, Long> baldes = new TreeMap<>();
+    private long zeros;
+    private long quantidade;
+
+    /**
+     * @throws IllegalArgumentException se o valor for negativo ou não for finito
+     */
+    public void adicionar(double valor) {
+        if (!(valor >= 0) || Double.isInfinite(valor)) {
+            throw new IllegalArgumentException("Valor inválido para o resumo de quantis: " + valor);
+        }
+        if (valor < MENOR_VALOR) {
+            zeros++;
+        } else {
+            baldes.merge(indice(valor), 1L, Long::sum);
+        }
+        quantidade++;
+    }
+
+    /**
+     * Retira um valor incluído antes: desconta uma unidade do seu balde. Devolve false, sem alterar
+     * nada, se o balde do valor estiver vazio (o valor não foi incluído).
+     */
+    public boolean remover(double valor) {
+        if (!(valor >= 0) || Double.isInfinite(valor)) {
+            throw new IllegalArgumentException("Valor inválido para o resumo de quantis: " + valor);
+        }
+        if (valor < MENOR_VALOR) {
+            if (zeros == 0) {
+                return false;
+            }
+            zeros--;
+        } else {
+            int indice = indice(valor);
+            Long contagem = baldes.get(indice);
+            if (contagem == null) {
+                return false;
+            }
+            if (contagem == 1) {
+                baldes.remove(indice);
+            } else {
+                baldes.put(indice, contagem - 1);
+            }
+        }
+        quantidade--;
+        return true;
+    }
+
+    public void juntar(EsbocoQuantis outro) {
+        outro.baldes.forEach((indice, contagem) -> baldes.merge(indice, contagem, Long::sum));
+        zeros += outro.zeros;
+        quantidade += outro.quantidade;
+    }
+
+    public long quantidade() {
+        return quantidade;
+    }
+
+    /**
+     * Valor no quantil q (0 a 1) pelo posto q * (quantidade - 1), com erro relativo de até ERRO_RELATIVO.
+     *
+     * @throws IllegalStateException se o resumo estiver vazio
+     */
+    public double quantil(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("Quantil fora de [0, 1]: " + q);
+        }
+        if (quantidade == 0) {
+            throw new IllegalStateException("Resumo de quantis vazio");
+        }
+        long posto = (long) Math.floor(q * (quantidade - 1));
+        if (posto < zeros) {
+            return 0;
+        }
+        long acumulado = zeros;
+        for (Map.Entry<Integer, Long> balde : baldes.entrySet()) {
+            acumulado += balde.getValue();
+            if (acumulado > posto) {
+                return valor(balde.getKey());
+            }
+        }
+        return valor(baldes.lastKey());
+    }
+
+    /** Versão, zeros, número de baldes e, por balde, a diferença para o índice anterior e a contagem, em varint. */
+    public byte[] serializar() {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream(8 + baldes.size() * 3);
+        saida.write(VERSAO);
+        escrever(saida, zeros);
+        escrever(saida, baldes.size());
+        int anterior = 0;
+        for (Map.Entry<Integer, Long> balde : baldes.entrySet()) {
+            int delta = balde.getKey() - anterior;
+            escrever(saida, Integer.toUnsignedLong((delta << 1) ^ (delta >> 31))); // zigzag: o primeiro índice pode ser negativo
+            escrever(saida, balde.getValue());
+            anterior = balde.getKey();
+        }
+        return saida.toByteArray();
+    }
+
+    /**
+     * @throws IllegalArgumentException se os bytes não forem de um resumo serializado por esta classe
+     */
+    public static EsbocoQuantis desserializar(byte[] bytes) {
+        EsbocoQuantis esboco = new EsbocoQuantis();
+        if (bytes == null || bytes.length == 0) {
+            return esboco;
+        }
+        if (bytes[0] != VERSAO) {
+            throw new IllegalArgumentException("Resumo de quantis inválido");
+        }
+        Leitor leitor = new Leitor(bytes);
+        esboco.zeros = leitor.ler();
+        esboco.quantidade = esboco.zeros;
+        long total = leitor.ler();
+        int anterior = 0;
+        for (long i = 0; i < total; i++) {
+            int zigzag = (int) leitor.ler();
+            int indice = anterior + ((zigzag >>> 1) ^ -(zigzag & 1));
+            long contagem = leitor.ler();
+            esboco.baldes.put(indice, contagem);
+            esboco.quantidade += contagem;
+            anterior = indice;
+        }
+        return esboco;
+    }
+
+    private static int indice(double valor) {
+        return (int) Math.ceil(Math.log(valor) / LOG_GAMA);
+    }
+
+    // Ponto do balde (gama^(i-1), gama^i] com o mesmo erro relativo para as duas pontas
+    private static double valor(int indice) {
+        return 2 * Math.pow(GAMA, indice) / (GAMA + 1);
+    }
+
+    private static void escrever(ByteArrayOutputStream saida, long valor) {
+        while ((valor & ~0x7FL) != 0) {
+            saida.write((int) (valor & 0x7F) | 0x80);
+            valor >>>= 7;
+        }
+        saida.write((int) valor);
+    }
+
+    private static final class Leitor {
+        private final byte[] bytes;
+        private int posicao = 1;
+
+        private Leitor(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        private long ler() {
+            long valor = 0;
+            for (int deslocamento = 0; deslocamento < Long.SIZE; deslocamento += 7) {
+                if (posicao >= bytes.length) {
+                    throw new IllegalArgumentException("Resumo de quantis inválido");
+                }
+                byte b = bytes[posicao++];
+                valor |= (long) (b & 0x7F) << deslocamento;
+                if (b >= 0) {
+                    return valor;
+                }
+            }
+            throw new IllegalArgumentException("Resumo de quantis inválido");
+        }
+    }
+}
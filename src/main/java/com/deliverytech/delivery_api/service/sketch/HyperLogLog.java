@@ -0,0 +1,134 @@
+package com.deliverytech.delivery_api.service.sketch;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+/**
+ * Quantidade aproximada de elementos distintos pelo HyperLogLog (Flajolet et al.), com os ajustes
+ * do HyperLogLog++ que cabem aqui: hash de 64 bits (sem a correção para cardinalidades grandes) e
+ * contagem linear enquanto a estimativa é pequena. São REGISTRADORES = 2^PRECISAO registradores de
+ * um byte, com erro padrão de cerca de 1,04 / sqrt(REGISTRADORES), 1,6%.
+ *
+ * Dois resumos se juntam pelo máximo de cada registrador, e o resultado é o mesmo de ter incluído
+ * todos os elementos em um só: o resumo de um período é a junção dos resumos diários. Elementos não
+ * podem ser removidos. Não é thread-safe.
+ *
+ * A forma serializada é esparsa (posição e valor de cada registrador não nulo, 3 bytes por
+ * registrador) enquanto for menor que a densa (todos os registradores), o que mantém pequenos os
+ * resumos de poucos elementos.
+ */
+public final class HyperLogLog {
+
+    public static final int PRECISAO = 12;
+    public static final int REGISTRADORES = 1 << PRECISAO;
+    public static final double ERRO_PADRAO = 1.04 / Math.sqrt(REGISTRADORES);
+
+    private static final byte ESPARSO = 1;
+    private static final byte DENSO = 2;
+    private static final double ALFA = 0.7213 / (1 + 1.079 / REGISTRADORES);
+    // Abaixo disso a contagem linear (pelos registradores nulos) erra menos que a estimativa harmônica
+    private static final double LIMITE_CONTAGEM_LINEAR = 2.5 * REGISTRADORES;
+
+    private final byte[] registradores;
+
+    public HyperLogLog() {
+        this(new byte[REGISTRADORES]);
+    }
+
+    private HyperLogLog(byte[] registradores) {
+        this.registradores = registradores;
+    }
+
+    public void adicionar(long elemento) {
+        long hash = misturar(elemento);
+        int posicao = (int) (hash >>> (Long.SIZE - PRECISAO));
+        // Posição do primeiro bit 1 depois dos bits da posição; o bit extra limita o valor a 64 - PRECISAO + 1
+        byte valor = (byte) (Long.numberOfLeadingZeros(hash << PRECISAO | 1L << (PRECISAO - 1)) + 1);
+        if (valor > registradores[posicao]) {
+            registradores[posicao] = valor;
+        }
+    }
+
+    public void juntar(HyperLogLog outro) {
+        for (int i = 0; i < REGISTRADORES; i++) {
+            if (outro.registradores[i] > registradores[i]) {
+                registradores[i] = outro.registradores[i];
+            }
+        }
+    }
+
+    public long estimar() {
+        double soma = 0;
+        int nulos = 0;
+        for (byte valor : registradores) {
+            soma += Math.scalb(1.0, -valor);
+            if (valor == 0) {
+                nulos++;
+            }
+        }
+        double estimativa = ALFA * REGISTRADORES * REGISTRADORES / soma;
+        if (estimativa <= LIMITE_CONTAGEM_LINEAR && nulos > 0) {
+            estimativa = REGISTRADORES * Math.log((double) REGISTRADORES / nulos);
+        }
+        return Math.round(estimativa);
+    }
+
+    public byte[] serializar() {
+        int naoNulos = 0;
+        for (byte valor : registradores) {
+            if (valor != 0) {
+                naoNulos++;
+            }
+        }
+        if (naoNulos * 3 >= REGISTRADORES) {
+            byte[] bytes = new byte[REGISTRADORES + 1];
+            bytes[0] = DENSO;
+            System.arraycopy(registradores, 0, bytes, 1, REGISTRADORES);
+            return bytes;
+        }
+        ByteArrayOutputStream saida = new ByteArrayOutputStream(1 + naoNulos * 3);
+        saida.write(ESPARSO);
+        for (int i = 0; i < REGISTRADORES; i++) {
+            if (registradores[i] != 0) {
+                saida.write(i >>> 8);
+                saida.write(i);
+                saida.write(registradores[i]);
+            }
+        }
+        return saida.toByteArray();
+    }
+
+    /**
+     * @throws IllegalArgumentException se os bytes não forem de um resumo serializado por esta classe
+     */
+    public static HyperLogLog desserializar(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return new HyperLogLog();
+        }
+        if (bytes[0] == DENSO && bytes.length == REGISTRADORES + 1) {
+            return new HyperLogLog(Arrays.copyOfRange(bytes, 1, bytes.length));
+        }
+        if (bytes[0] != ESPARSO || (bytes.length - 1) % 3 != 0) {
+            throw new IllegalArgumentException("Resumo HyperLogLog inválido");
+        }
+        byte[] registradores = new byte[REGISTRADORES];
+        for (int i = 1; i < bytes.length; i += 3) {
+            int posicao = (bytes[i] & 0xFF) << 8 | bytes[i + 1] & 0xFF;
+            if (posicao >= REGISTRADORES) {
+                throw new IllegalArgumentException("Resumo HyperLogLog inválido");
+            }
+            registradores[posicao] = bytes[i + 2];
+        }
+        return new HyperLogLog(registradores);
+    }
+
+    // Finalizador de 64 bits do MurmurHash3: IDs sequenciais viram hashes bem distribuídos
+    private static long misturar(long valor) {
+        valor ^= valor >>> 33;
+        valor *= 0xFF51AFD7ED558CCDL;
+        valor ^= valor >>> 33;
+        valor *= 0xC4CEB9FE1A85EC53L;
+        valor ^= valor >>> 33;
+        return valor;
+    }
+}
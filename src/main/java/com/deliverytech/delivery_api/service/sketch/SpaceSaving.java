@@ -0,0 +1,116 @@
+package com.deliverytech.delivery_api.service.sketch;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Itens mais frequentes de um fluxo com pesos pelo algoritmo Space-Saving (Metwally, Agrawal e
+ * El Abbadi): monitora no máximo capacidade itens. Um item novo com o resumo cheio ocupa o lugar do
+ * monitorado de menor contagem e herda essa contagem como erro, então a contagem de cada item
+ * monitorado supera a real em no máximo o seu erro, e todo item com contagem real acima de
+ * total / capacidade está monitorado. Com até capacidade itens distintos, as contagens são exatas.
+ *
+ * Remoções (um pedido cancelado) só descontam de itens monitorados; as garantias acima valem para
+ * fluxos em que as remoções são raras perto das inclusões.
+ *
+ * Inclusão e remoção custam O(log capacidade) e os k mais frequentes, O(k). Os métodos são
+ * sincronizados na instância.
+ */
+public class SpaceSaving<K extends Comparable<K>> {
+
+    // Maior contagem primeiro; empate pelo item, para uma ordem estável entre consultas
+    private final Comparator<Contador<K>> ordem = Comparator.<Contador<K>>comparingLong(c -> c.contagem).reversed()
+            .thenComparing(c -> c.item);
+
+    private final int capacidade;
+    private final Map<K, Contador<K>> contadores = new HashMap<>();
+    private final TreeSet<Contador<K>> ordenados = new TreeSet<>(ordem);
+    private long total;
+
+    public SpaceSaving(int capacidade) {
+        if (capacidade < 1) {
+            throw new IllegalArgumentException("Capacidade deve ser positiva: " + capacidade);
+        }
+        this.capacidade = capacidade;
+    }
+
+    public synchronized void adicionar(K item, long peso) {
+        if (peso <= 0) {
+            return;
+        }
+        total += peso;
+        Contador<K> contador = contadores.get(item);
+        if (contador != null) {
+            ordenados.remove(contador);
+            contador.contagem += peso;
+        } else if (contadores.size() < capacidade) {
+            contador = new Contador<>(item, peso, 0);
+            contadores.put(item, contador);
+        } else {
+            Contador<K> menor = ordenados.pollLast();
+            contadores.remove(menor.item);
+            contador = new Contador<>(item, menor.contagem + peso, menor.contagem);
+            contadores.put(item, contador);
+        }
+        ordenados.add(contador);
+    }
+
+    public synchronized void remover(K item, long peso) {
+        if (peso <= 0) {
+            return;
+        }
+        total = Math.max(0, total - peso);
+        Contador<K> contador = contadores.get(item);
+        if (contador == null) {
+            return;
+        }
+        ordenados.remove(contador);
+        contador.contagem = Math.max(0, contador.contagem - peso);
+        contador.erro = Math.min(contador.erro, contador.contagem);
+        ordenados.add(contador);
+    }
+
+    /** Os k itens de maior contagem, da maior para a menor, sem os que ficaram zerados por remoções. */
+    public synchronized List<Estimativa<K>> maisFrequentes(int k) {
+        List<Estimativa<K>> resultado = new ArrayList<>(Math.min(k, contadores.size()));
+        Iterator<Contador<K>> iterator = ordenados.iterator();
+        while (resultado.size() < k && iterator.hasNext()) {
+            Contador<K> contador = iterator.next();
+            if (contador.contagem == 0) {
+                break;
+            }
+            resultado.add(new Estimativa<>(contador.item, contador.contagem, contador.erro));
+        }
+        return resultado;
+    }
+
+    /** Soma dos pesos incluídos menos os removidos, de todos os itens (monitorados ou não). */
+    public synchronized long total() {
+        return total;
+    }
+
+    public int capacidade() {
+        return capacidade;
+    }
+
+    /** Contagem estimada de um item: a real está entre contagem - erro e contagem. */
+    public record Estimativa<K>(K item, long contagem, long erro) {
+    }
+
+    private static final class Contador<K> {
+        private final K item;
+        private long contagem;
+        private long erro;
+
+        private Contador(K item, long contagem, long erro) {
+            this.item = item;
+            this.contagem = contagem;
+            this.erro = erro;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.deliverytech.delivery_api.config.datasource;
+
+import com.deliverytech.delivery_api.dto.PedidoResponseDTO;
+import com.deliverytech.delivery_api.service.PedidoCacheService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Roteamento entre dois bancos H2 independentes; cada um tem uma tabela origem com o próprio nome,
+ * e a "replicação" do heartbeat é feita pelo teste.
+ */
+@DisplayName("Testes do roteamento entre primária e réplica")
+class RoteamentoDataSourceTest {
+
+    private JdbcTemplate primaria;
+    private JdbcTemplate replica;
+    private MutableClock clock;
+    private MonitorReplica monitor;
+    private JdbcTemplate aplicacao;
+    private TransactionTemplate escrita;
+    private TransactionTemplate leitura;
+
+    @BeforeEach
+    void setup() {
+        DriverManagerDataSource bancoPrimaria = new DriverManagerDataSource("jdbc:h2:mem:roteamento_primaria;DB_CLOSE_DELAY=-1", "sa", "");
+        DriverManagerDataSource bancoReplica = new DriverManagerDataSource("jdbc:h2:mem:roteamento_replica;DB_CLOSE_DELAY=-1", "sa", "");
+        primaria = new JdbcTemplate(bancoPrimaria);
+        replica = new JdbcTemplate(bancoReplica);
+        for (JdbcTemplate banco : new JdbcTemplate[]{primaria, replica}) {
+            banco.execute("CREATE TABLE IF NOT EXISTS origem (nome VARCHAR(20))");
+            banco.execute("CREATE TABLE IF NOT EXISTS replica_heartbeat (id INT PRIMARY KEY, instante BIGINT NOT NULL)");
+        }
+        primaria.update("INSERT INTO origem (nome) VALUES ('primaria')");
+        replica.update("INSERT INTO origem (nome) VALUES ('replica')");
+
+        clock = new MutableClock();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        monitor = new MonitorReplica(bancoPrimaria, bancoReplica, meterRegistry, Duration.ofSeconds(2), Duration.ofSeconds(1), clock);
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(
+                new RoteamentoDataSource(bancoPrimaria, bancoReplica, monitor, meterRegistry, clock));
+        aplicacao = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        escrita = new TransactionTemplate(transactionManager);
+        leitura = new TransactionTemplate(transactionManager);
+        leitura.setReadOnly(true);
+    }
+
+    @AfterEach
+    void limpar() {
+        SecurityContextHolder.clearContext();
+        primaria.execute("DROP ALL OBJECTS");
+        replica.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    @DisplayName("Deve ler da réplica em transações readOnly e da primária nas demais")
+    void deveLerDaReplicaEmTransacoesSomenteLeitura() {
+        monitor.verificar();
+        replicarHeartbeat();
+        monitor.verificar();
+
+        assertTrue(monitor.isDisponivel());
+        assertEquals("replica", origem(leitura));
+        assertEquals("primaria", origem(escrita));
+        assertEquals("primaria", aplicacao.queryForObject("SELECT nome FROM origem WHERE nome IN ('primaria', 'replica')", String.class));
+    }
+
+    @Test
+    @DisplayName("Deve usar a primária enquanto a réplica não tiver heartbeat ou estiver atrasada além do limite")
+    void deveUsarPrimariaComReplicaAtrasada() {
+        monitor.verificar();
+        assertFalse(monitor.isDisponivel());
+        assertEquals("primaria", origem(leitura));
+
+        replicarHeartbeat();
+        clock.avancar(Duration.ofSeconds(3));
+        monitor.verificar();
+        assertEquals(3000, monitor.atrasoMedido());
+        assertEquals("primaria", origem(leitura));
+
+        replicarHeartbeat();
+        monitor.verificar();
+        assertEquals("replica", origem(leitura));
+    }
+
+    @Test
+    @DisplayName("Deve manter as leituras do usuário na primária logo após uma escrita dele")
+    void deveLerAsPropriasEscritasDaPrimaria() {
+        monitor.verificar();
+        replicarHeartbeat();
+        monitor.verificar();
+
+        autenticar("cliente1");
+        escrita.executeWithoutResult(status -> aplicacao.update("INSERT INTO origem (nome) VALUES ('nova')"));
+        assertEquals("primaria", origem(leitura));
+
+        autenticar("cliente2");
+        assertEquals("replica", origem(leitura));
+
+        // Passada a janela (atraso máximo + intervalo de verificação), a réplica já recebeu a escrita
+        autenticar("cliente1");
+        clock.avancar(monitor.janelaConsistencia());
+        assertEquals("replica", origem(leitura));
+    }
+
+    @Test
+    @DisplayName("Não deve marcar o usuário quando a transação de escrita é desfeita")
+    void naoDeveMarcarEscritaDesfeita() {
+        monitor.verificar();
+        replicarHeartbeat();
+        monitor.verificar();
+
+        autenticar("cliente1");
+        escrita.executeWithoutResult(status -> {
+            aplicacao.update("INSERT INTO origem (nome) VALUES ('desfeita')");
+            status.setRollbackOnly();
+        });
+        assertEquals("replica", origem(leitura));
+    }
+
+    @Test
+    @DisplayName("Deve preencher o cache de pedidos pela primária, mesmo com a leitura em transação readOnly")
+    void devePreencherCacheDePedidosPelaPrimaria() {
+        monitor.verificar();
+        replicarHeartbeat();
+        monitor.verificar();
+        PedidoCacheService cache = new PedidoCacheService(new SimpleMeterRegistry(), 10, Duration.ofMinutes(1));
+
+        // Como nos repositórios do Spring Data, a consulta roda em uma transação readOnly própria
+        PedidoResponseDTO pedido = cache.obterPorId(1L, () -> pedidoLidoDa(origem(leitura)));
+        assertEquals("primaria", pedido.getObservacoes());
+        assertEquals("primaria", cache.obterPorId(1L, () -> fail("deveria vir do cache")).getObservacoes());
+
+        // Fora do preenchimento, as leituras continuam na réplica
+        assertEquals("replica", origem(leitura));
+    }
+
+    private static PedidoResponseDTO pedidoLidoDa(String origem) {
+        PedidoResponseDTO pedido = new PedidoResponseDTO();
+        pedido.setId(1L);
+        pedido.setNumeroPedido("PED-1");
+        pedido.setObservacoes(origem);
+        return pedido;
+    }
+
+    private String origem(TransactionTemplate transacao) {
+        return transacao.execute(status -> aplicacao.queryForObject("SELECT nome FROM origem WHERE nome IN ('primaria', 'replica')", String.class));
+    }
+
+    // Faz o papel da replicação: copia o heartbeat gravado na primária para a réplica
+    private void replicarHeartbeat() {
+        Long instante = primaria.queryForObject("SELECT instante FROM replica_heartbeat WHERE id = 1", Long.class);
+        replica.update("DELETE FROM replica_heartbeat");
+        replica.update("INSERT INTO replica_heartbeat (id, instante) VALUES (1, ?)", instante);
+    }
+
+    private static void autenticar(String usuario) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(usuario, null, AuthorityUtils.createAuthorityList("ROLE_CLIENTE")));
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant agora = Instant.parse("2025-08-01T10:00:00Z");
+
+        void avancar(Duration duracao) {
+            agora = agora.plus(duracao);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return agora;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.deliverytech.delivery_api.config.retry;
+
+import com.deliverytech.delivery_api.exception.ConflictException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Testes Unitários do RepetirEmConflitoAspect")
+public class RepetirEmConflitoAspectTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private Operacao operacao;
+    private Operacao proxy;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        operacao = new Operacao();
+        AspectJProxyFactory factory = new AspectJProxyFactory(operacao);
+        factory.addAspect(new RepetirEmConflitoAspect(meterRegistry));
+        proxy = factory.getProxy();
+    }
+
+    @Test
+    @DisplayName("Deve repetir a operação até ela vencer o conflito de versão")
+    void deveRepetirAteSucesso() {
+        operacao.conflitosRestantes.set(2);
+
+        assertEquals("ok", proxy.atualizar());
+        assertEquals(3, operacao.execucoes.get());
+        assertEquals(2.0, meterRegistry.get("delivery.concorrencia.conflitos").tag("resultado", "repetido").counter().count());
+    }
+
+    @Test
+    @DisplayName("Deve lançar ConflictException quando as tentativas se esgotarem")
+    void deveLancarConflictExceptionAoEsgotar() {
+        operacao.conflitosRestantes.set(10);
+
+        assertThrows(ConflictException.class, () -> proxy.atualizar());
+        assertEquals(3, operacao.execucoes.get());
+        assertEquals(1.0, meterRegistry.get("delivery.concorrencia.conflitos").tag("resultado", "esgotado").counter().count());
+    }
+
+    @Test
+    @DisplayName("Não deve repetir outras exceções")
+    void naoDeveRepetirOutrasExcecoes() {
+        operacao.falhaDeNegocio = true;
+
+        assertThrows(IllegalStateException.class, () -> proxy.atualizar());
+        assertEquals(1, operacao.execucoes.get());
+    }
+
+    static class Operacao {
+        final AtomicInteger execucoes = new AtomicInteger();
+        final AtomicInteger conflitosRestantes = new AtomicInteger();
+        boolean falhaDeNegocio;
+
+        @RepetirEmConflito(tentativas = 3, esperaMs = 1)
+        public String atualizar() {
+            execucoes.incrementAndGet();
+            if (falhaDeNegocio) {
+                throw new IllegalStateException("falha de negócio");
+            }
+            if (conflitosRestantes.getAndDecrement() > 0) {
+                throw new ObjectOptimisticLockingFailureException(Operacao.class, 1L);
+            }
+            return "ok";
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.deliverytech.delivery_api.config.threads;
+
+import com.deliverytech.delivery_api.Application;
+import com.deliverytech.delivery_api.entity.Role;
+import com.deliverytech.delivery_api.entity.Usuario;
+import com.deliverytech.delivery_api.repository.UsuarioRepository;
+import com.deliverytech.delivery_api.security.JwtUtil;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.servlet.function.RouterFunction;
+import org.springframework.web.servlet.function.RouterFunctions;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Teste de carga comparando a latência das requisições com o pool de threads do Tomcat e com threads
+ * virtuais (spring.threads.virtual.enabled). Sobe a aplicação duas vezes, em uma porta aleatória, e
+ * dispara rajadas de requisições autenticadas a um endpoint que consulta o banco e simula uma espera
+ * de I/O de LATENCIA_MS (uma consulta lenta ou um serviço externo). Com mais requisições simultâneas
+ * que threads no pool, as excedentes esperam na fila do Tomcat; com threads virtuais, não.
+ *
+ * Demorado, por isso fora da suíte padrão: mvn test -Dtest=CargaThreadsVirtuaisTest -Dcarga=true
+ */
+@EnabledIfSystemProperty(named = "carga", matches = "true")
+@DisplayName("Teste de carga: pool de threads da plataforma x threads virtuais")
+class CargaThreadsVirtuaisTest {
+
+    private static final int THREADS_TOMCAT = 200;
+    private static final int SIMULTANEAS = 600;
+    private static final int RAJADAS = 5;
+    private static final long LATENCIA_MS = 50;
+
+    @Test
+    @DisplayName("p99 com threads virtuais deve ficar abaixo do p99 com o pool fixo")
+    void deveCompararP99() throws Exception {
+        Resultado plataforma = medir(false);
+        Resultado virtuais = medir(true);
+
+        System.out.printf("%d requisições simultâneas x %d rajadas, espera de %d ms, %d threads no Tomcat%n",
+                SIMULTANEAS, RAJADAS, LATENCIA_MS, THREADS_TOMCAT);
+        System.out.printf("Plataforma: p50 %d ms, p99 %d ms%n", plataforma.p50(), plataforma.p99());
+        System.out.printf("Virtuais:   p50 %d ms, p99 %d ms%n", virtuais.p50(), virtuais.p99());
+        assertTrue(virtuais.p99() < plataforma.p99(),
+                "p99 virtuais " + virtuais.p99() + " ms, plataforma " + plataforma.p99() + " ms");
+    }
+
+    private Resultado medir(boolean threadsVirtuais) throws Exception {
+        try (ConfigurableApplicationContext contexto = new SpringApplicationBuilder(Application.class)
+                .profiles("test")
+                .properties(
+                        "server.port=0",
+                        "server.tomcat.threads.max=" + THREADS_TOMCAT,
+                        "spring.threads.virtual.enabled=" + threadsVirtuais,
+                        "spring.datasource.url=jdbc:h2:mem:carga_" + threadsVirtuais + ";DB_CLOSE_DELAY=-1",
+                        "spring.datasource.hikari.maximum-pool-size=" + SIMULTANEAS,
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN")
+                .initializers(ctx -> ((GenericApplicationContext) ctx).registerBean("rotaCarga", RouterFunction.class,
+                        () -> rotaCarga(ctx.getBean(JdbcTemplate.class))))
+                .run()) {
+            int porta = ((WebServerApplicationContext) contexto).getWebServer().getPort();
+            String token = token(contexto);
+            HttpClient cliente = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+            HttpRequest requisicao = HttpRequest.newBuilder(URI.create("http://localhost:" + porta + "/api/carga"))
+                    .header("Authorization", "Bearer " + token)
+                    .build();
+
+            rajada(cliente, requisicao); // aquecimento
+            List<Long> latencias = new ArrayList<>();
+            for (int i = 0; i < RAJADAS; i++) {
+                latencias.addAll(rajada(cliente, requisicao));
+            }
+            Collections.sort(latencias);
+            return new Resultado(percentil(latencias, 0.50), percentil(latencias, 0.99));
+        }
+    }
+
+    private static RouterFunction<ServerResponse> rotaCarga(JdbcTemplate jdbcTemplate) {
+        return RouterFunctions.route().GET("/api/carga", requisicao -> {
+            jdbcTemplate.queryForObject("SELECT COUNT(*) FROM usuario", Long.class);
+            Thread.sleep(LATENCIA_MS);
+            return ServerResponse.ok().body("ok");
+        }).build();
+    }
+
+    private static String token(ConfigurableApplicationContext contexto) {
+        Usuario usuario = new Usuario("carga@teste.com", "senha", "Carga", Role.CLIENTE);
+        contexto.getBean(UsuarioRepository.class).save(usuario);
+        return contexto.getBean(JwtUtil.class).generateToken(usuario);
+    }
+
+    // Dispara SIMULTANEAS requisições ao mesmo tempo; devolve a latência de cada uma em ms
+    private static List<Long> rajada(HttpClient cliente, HttpRequest requisicao) throws Exception {
+        try (ExecutorService clientes = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Long>> futuros = new ArrayList<>();
+            for (int i = 0; i < SIMULTANEAS; i++) {
+                futuros.add(clientes.submit(() -> {
+                    long inicio = System.nanoTime();
+                    HttpResponse<String> resposta = cliente.send(requisicao, HttpResponse.BodyHandlers.ofString());
+                    assertEquals(200, resposta.statusCode(), resposta.body());
+                    return (System.nanoTime() - inicio) / 1_000_000;
+                }));
+            }
+            List<Long> latencias = new ArrayList<>();
+            for (Future<Long> futuro : futuros) {
+                latencias.add(futuro.get());
+            }
+            return latencias;
+        }
+    }
+
+    private static long percentil(List<Long> ordenadas, double percentil) {
+        return ordenadas.get((int) Math.ceil(percentil * ordenadas.size()) - 1);
+    }
+
+    private record Resultado(long p50, long p99) {
+    }
+}
@@ -0,0 +1,85 @@
+package com.deliverytech.delivery_api.config.threads;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Testes do monitor de pinning de threads virtuais")
+class MonitorPinningTest {
+
+    private final Object trava = new Object();
+    private SimpleMeterRegistry meterRegistry;
+    private MonitorPinning monitor;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        monitor = new MonitorPinning(meterRegistry, Duration.ofMillis(10));
+        monitor.iniciar();
+    }
+
+    @AfterEach
+    void parar() {
+        monitor.parar();
+    }
+
+    @Test
+    @DisplayName("Deve medir o bloqueio dentro de synchronized e apontar o método que o causou")
+    void deveMedirPinningPorOrigem() throws Exception {
+        Thread.ofVirtual().start(this::bloquearSincronizado).join();
+        Thread.ofVirtual().start(this::bloquearComLock).join();
+
+        Timer timer = aguardarTimer("MonitorPinningTest.bloquearSincronizado");
+        assertNotNull(timer, "Nenhum pinning registrado para o bloco synchronized");
+        assertTrue(timer.totalTime(TimeUnit.MILLISECONDS) >= 50);
+        assertNull(meterRegistry.find("delivery.threads.virtual.pinning").tag("origem", "MonitorPinningTest.bloquearComLock").timer());
+    }
+
+    // A origem é o primeiro método fora do JDK na pilha: aqui, o que chama Thread.sleep
+    private void bloquearSincronizado() {
+        synchronized (trava) {
+            try {
+                Thread.sleep(60);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // ReentrantLock não prende a thread virtual: a espera libera a carregadora
+    private void bloquearComLock() {
+        ReentrantLock lock = new ReentrantLock();
+        lock.lock();
+        try {
+            Thread.sleep(60);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Os eventos do JFR chegam ao stream no flush seguinte (cerca de 1s); o timer é criado antes da medição
+    private Timer aguardarTimer(String origem) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(15);
+        while (System.nanoTime() < limite) {
+            Timer timer = meterRegistry.find("delivery.threads.virtual.pinning").tag("origem", origem).timer();
+            if (timer != null && timer.count() > 0) {
+                return timer;
+            }
+            Thread.sleep(100);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,200 @@
+package com.deliverytech.delivery_api.controller;
+
+import com.deliverytech.delivery_api.dto.ItemPedidoDTO;
+import com.deliverytech.delivery_api.dto.PedidoDTO;
+import com.deliverytech.delivery_api.dto.StatusPedidoLoteDTO;
+import com.deliverytech.delivery_api.entity.*;
+import com.deliverytech.delivery_api.repository.*;
+import com.deliverytech.delivery_api.service.PedidoService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Endpoints de pedidos que dependem de dados confirmados no banco, por isso sem @Transactional:
+ * a exportação NDJSON escreve o corpo em outra thread e a atualização de status em lote concorre
+ * com outra transação. Os serviços alimentados pelas alterações de pedido têm seus próprios
+ * *CommitTest.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Sql(scripts = "/limpar-pedidos.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+class PedidoControllerCommitTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private PedidoRepository pedidoRepository;
+    @Autowired private ClienteRepository clienteRepository;
+    @Autowired private RestauranteRepository restauranteRepository;
+    @Autowired private ProdutoRepository produtoRepository;
+    @Autowired private RollupPedidosRepository rollupPedidosRepository;
+    @Autowired private MetricasPedidosDiaRepository metricasPedidosDiaRepository;
+    @Autowired private PedidoService pedidoService;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private Cliente cliente;
+    private Restaurante restaurante;
+    private Produto produto;
+    private final List<Long> pedidoIds = new ArrayList<>();
+
+    @BeforeEach
+    void setup() {
+        cliente = clienteRepository.save(new Cliente());
+        restaurante = new Restaurante();
+        restaurante.setAtivo(true);
+        restaurante = restauranteRepository.save(restaurante);
+        produto = new Produto();
+        produto.setRestaurante(restaurante);
+        produto.setPreco(new BigDecimal("10.00"));
+        produto.setDisponivel(true);
+        produto = produtoRepository.save(produto);
+
+        for (int i = 0; i < 3; i++) {
+            Pedido pedido = new Pedido();
+            pedido.setCliente(cliente);
+            pedido.setRestaurante(restaurante);
+            pedido.setNumeroPedido("PED-E" + i);
+            pedido.setDataPedido(pedido.getDataPedido().minusMinutes(i));
+            ItemPedido item = new ItemPedido();
+            item.setProduto(produto);
+            item.setQuantidade(i + 1);
+            item.setPrecoUnitario(produto.getPreco());
+            item.calcularSubtotal();
+            pedido.adicionarItem(item);
+            pedidoIds.add(pedidoRepository.save(pedido).getId());
+        }
+    }
+
+    @Test
+    @DisplayName("Deve exportar o histórico do restaurante em NDJSON, um pedido por linha")
+    @WithMockUser(roles = "ADMIN")
+    void deveExportarHistoricoDoRestaurante() throws Exception {
+        MvcResult resultado = mockMvc.perform(get("/api/pedidos/restaurante/{id}", restaurante.getId())
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String corpo = mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] linhas = corpo.split("\n");
+        assertEquals(3, linhas.length);
+        for (int i = 0; i < linhas.length; i++) {
+            JsonNode pedido = objectMapper.readTree(linhas[i]);
+            assertEquals(pedidoIds.get(i).longValue(), pedido.get("id").asLong());
+            assertEquals(i + 1, pedido.get("itens").get(0).get("quantidade").asInt());
+        }
+    }
+
+    @Test
+    @DisplayName("Deve exportar o histórico do cliente em NDJSON")
+    @WithMockUser(roles = "ADMIN")
+    void deveExportarHistoricoDoCliente() throws Exception {
+        MvcResult resultado = mockMvc.perform(get("/api/pedidos/cliente/{id}", cliente.getId())
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String corpo = mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(3, corpo.lines().count());
+    }
+
+    @Test
+    @DisplayName("Deve responder 404 em JSON antes de iniciar o streaming quando o cliente não existe")
+    @WithMockUser(roles = "ADMIN")
+    void deveResponder404ParaClienteInexistente() throws Exception {
+        mockMvc.perform(get("/api/pedidos/cliente/{id}", 999999L).accept(MediaType.APPLICATION_NDJSON, MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error.code").exists());
+    }
+
+    @Test
+    @DisplayName("Não deve contar como do lote um pedido que outra transação moveu para o mesmo status")
+    @WithMockUser(roles = "ADMIN")
+    void naoDeveDuplicarTransicaoConcorrenteNoLote() throws Exception {
+        Long id = criarPedidoPelaApi();
+        CountDownLatch bloqueado = new CountDownLatch(1);
+        // Outra transação bloqueia o pedido, espera o lote começar e o confirma
+        CompletableFuture<Void> concorrente = CompletableFuture.runAsync(() -> new TransactionTemplate(transactionManager)
+                .executeWithoutResult(status -> {
+                    pedidoRepository.bloquearSituacoes(List.of(id));
+                    bloqueado.countDown();
+                    try {
+                        Thread.sleep(300);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    pedidoService.confirmarPedido(id);
+                }));
+        assertTrue(bloqueado.await(5, TimeUnit.SECONDS));
+
+        mockMvc.perform(patch("/api/pedidos/status").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new StatusPedidoLoteDTO(List.of(id), StatusPedido.CONFIRMADO))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.atualizados.length()").value(0))
+                .andExpect(jsonPath("$.data.rejeitados." + id).exists());
+        concorrente.get(5, TimeUnit.SECONDS);
+
+        // A confirmação moveu os baldes e contou nas métricas uma única vez
+        Map<StatusPedido, Long> baldes = rollupPedidosRepository.findByInicio(LocalDate.now().minusDays(1).atStartOfDay(),
+                        LocalDate.now().plusDays(1).atStartOfDay()).stream()
+                .filter(balde -> balde.getId().getGranularidade() == GranularidadeRollup.DIA)
+                .collect(Collectors.toMap(balde -> balde.getId().getStatus(), RollupPedidos::getQuantidade, Long::sum));
+        assertEquals(0L, baldes.get(StatusPedido.PENDENTE));
+        assertEquals(1L, baldes.get(StatusPedido.CONFIRMADO));
+        assertEquals(1L, metricasPedidosDiaRepository.findAll().stream().mapToLong(MetricasPedidosDia::getQuantidade).sum());
+
+        // O cancelamento em lote anota o motivo, como o individual
+        mockMvc.perform(patch("/api/pedidos/status").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new StatusPedidoLoteDTO(List.of(id), StatusPedido.CANCELADO, "Sem entregador"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.atualizados[0]").value(id));
+        assertEquals("Cancelado: Sem entregador", pedidoRepository.findById(id).orElseThrow().getObservacoes());
+    }
+
+    private Long criarPedidoPelaApi() throws Exception {
+        PedidoDTO dto = new PedidoDTO(cliente.getId(), restaurante.getId(), "Endereço", "12345-678", null, "PIX",
+                List.of(new ItemPedidoDTO(produto.getId(), 2, null)));
+        String corpo = mockMvc.perform(post("/api/pedidos").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(corpo).get("data").get("id").asLong();
+    }
+}
@@ -4,10 +4,17 @@ import com.deliverytech.delivery_api.dto.CalculoPedidoDTO;
 import com.deliverytech.delivery_api.dto.ItemCalculoDTO;
 import com.deliverytech.delivery_api.dto.ItemPedidoDTO;
 import com.deliverytech.delivery_api.dto.PedidoDTO;
+import com.deliverytech.delivery_api.dto.PedidoLoteDTO;
 import com.deliverytech.delivery_api.dto.StatusPedidoDTO;
+import com.deliverytech.delivery_api.dto.StatusPedidoLoteDTO;
 import com.deliverytech.delivery_api.entity.*;
 import com.deliverytech.delivery_api.repository.*;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -18,12 +25,17 @@ import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -39,6 +51,8 @@ class PedidoControllerTest {
     @Autowired private ClienteRepository clienteRepository;
     @Autowired private RestauranteRepository restauranteRepository;
     @Autowired private ProdutoRepository produtoRepository;
+    @Autowired private EntityManager entityManager;
+    @Autowired private EntityManagerFactory entityManagerFactory;
 
     private Cliente cliente;
     private Restaurante restaurante;
@@ -152,6 +166,22 @@ class PedidoControllerTest {
                 .andExpect(jsonPath("$.data").isArray());
     }
     
+    @Test
+    @DisplayName("Deve manter filtro, tamanho e ordenação nos links de página dos pedidos do restaurante")
+    @WithMockUser(roles = "ADMIN")
+    void deveManterOrdenacaoNosLinksDePagina() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            criarPedidoComItens(cliente);
+        }
+        String base = "/api/pedidos/restaurante/" + restaurante.getId();
+
+        mockMvc.perform(get(base).param("status", "PENDENTE").param("page", "1").param("size", "1").param("sort", "valorTotal,asc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(1))
+                .andExpect(header().string("Link", "<" + base + "?page=2&size=1&status=PENDENTE&sort=valorTotal,asc>; rel=\"next\", "
+                        + "<" + base + "?page=0&size=1&status=PENDENTE&sort=valorTotal,asc>; rel=\"prev\""));
+    }
+
     @Test
     @DisplayName("Deve calcular o total de um pedido")
     @WithMockUser
@@ -165,4 +195,185 @@ class PedidoControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.data.valorTotal").value(35.00)); // 3 * 10.00 + 5.00
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Deve criar pedidos em lote reportando o resultado de cada pedido")
+    @WithMockUser(roles = "ADMIN")
+    void deveCriarPedidosEmLote() throws Exception {
+        long antes = pedidoRepository.count();
+        List<ItemPedidoDTO> itens = Collections.singletonList(new ItemPedidoDTO(produto1.getId(), 1, null));
+        PedidoDTO valido = new PedidoDTO(cliente.getId(), restaurante.getId(), "Endereço", "12345-678", null, "PIX", itens);
+        PedidoDTO produtoInexistente = new PedidoDTO(cliente.getId(), restaurante.getId(), "Endereço", "12345-678", null, "PIX",
+                Collections.singletonList(new ItemPedidoDTO(999999L, 1, null)));
+        PedidoDTO semEndereco = new PedidoDTO(cliente.getId(), restaurante.getId(), "", "12345-678", null, "PIX", itens);
+        PedidoLoteDTO lote = new PedidoLoteDTO(Arrays.asList(valido, produtoInexistente, valido, semEndereco, null));
+
+        mockMvc.perform(post("/api/pedidos/lote").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(lote)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.total").value(5))
+                .andExpect(jsonPath("$.data.sucessos").value(2))
+                .andExpect(jsonPath("$.data.resultados[0].sucesso").value(true))
+                .andExpect(jsonPath("$.data.resultados[0].pedidoId").isNumber())
+                .andExpect(jsonPath("$.data.resultados[1].erroCodigo").value("ORDER_ITEMS_INVALID"))
+                .andExpect(jsonPath("$.data.resultados[2].sucesso").value(true))
+                .andExpect(jsonPath("$.data.resultados[3].erroCodigo").value("VALIDATION_ERROR"))
+                .andExpect(jsonPath("$.data.resultados[4].erroCodigo").value("VALIDATION_ERROR"));
+
+        assertEquals(antes + 2, pedidoRepository.count());
+    }
+
+    @Test
+    @DisplayName("Deve reproduzir a criação de pedido repetida com a mesma Idempotency-Key")
+    @WithMockUser(roles = "CLIENTE")
+    void deveReproduzirCriacaoComIdempotencyKey() throws Exception {
+        long antes = pedidoRepository.count();
+        ItemPedidoDTO itemDTO = new ItemPedidoDTO(produto1.getId(), 1, null);
+        PedidoDTO pedidoDTO = new PedidoDTO(cliente.getId(), restaurante.getId(), "Endereço", "12345-678", null, "PIX", Collections.singletonList(itemDTO));
+        String corpo = objectMapper.writeValueAsString(pedidoDTO);
+
+        String numero = JsonPath.read(mockMvc.perform(post("/api/pedidos").header("Idempotency-Key", "chave-teste-1")
+                        .contentType(MediaType.APPLICATION_JSON).content(corpo))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString(), "$.data.numeroPedido");
+
+        mockMvc.perform(post("/api/pedidos").header("Idempotency-Key", "chave-teste-1")
+                        .contentType(MediaType.APPLICATION_JSON).content(corpo))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.data.numeroPedido").value(numero));
+
+        assertEquals(antes + 1, pedidoRepository.count());
+    }
+
+    @Test
+    @DisplayName("Deve atualizar o status de vários pedidos rejeitando transições inválidas")
+    @WithMockUser(roles = "ADMIN")
+    void deveAtualizarStatusEmLote() throws Exception {
+        Pedido entregue = new Pedido();
+        entregue.setCliente(cliente);
+        entregue.setRestaurante(restaurante);
+        entregue.setStatus(StatusPedido.ENTREGUE);
+        entregue.setNumeroPedido("PED-67890");
+        entregue = pedidoRepository.save(entregue);
+
+        StatusPedidoLoteDTO lote = new StatusPedidoLoteDTO(List.of(pedidoSalvo.getId(), entregue.getId(), 999999L), StatusPedido.CANCELADO);
+        mockMvc.perform(patch("/api/pedidos/status").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(lote)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.total").value(3))
+                .andExpect(jsonPath("$.data.atualizados[0]").value(pedidoSalvo.getId()))
+                .andExpect(jsonPath("$.data.rejeitados.length()").value(2));
+
+        assertEquals(StatusPedido.CANCELADO, pedidoRepository.findById(pedidoSalvo.getId()).orElseThrow().getStatus());
+        assertEquals(StatusPedido.ENTREGUE, pedidoRepository.findById(entregue.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    @DisplayName("Deve paginar pedidos por cursor nos dois sentidos, sem total de elementos")
+    @WithMockUser(roles = "ADMIN")
+    void deveListarPedidosPorCursor() throws Exception {
+        LocalDateTime base = LocalDateTime.of(2025, 1, 10, 12, 0);
+        List<Long> esperados = new ArrayList<>(List.of(pedidoSalvo.getId()));
+        for (int i = 0; i < 4; i++) {
+            Pedido antigo = new Pedido();
+            antigo.setCliente(cliente);
+            antigo.setRestaurante(restaurante);
+            antigo.setNumeroPedido("PED-C" + i);
+            antigo.setDataPedido(base.minusHours(i / 2)); // pares com a mesma data: desempate pelo id
+            esperados.add(pedidoRepository.save(antigo).getId());
+        }
+        esperados.subList(1, 3).sort(Collections.reverseOrder());
+        esperados.subList(3, 5).sort(Collections.reverseOrder());
+
+        String primeira = mockMvc.perform(get("/api/pedidos").param("after", "").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.page").doesNotExist())
+                .andExpect(jsonPath("$.cursors.prev").doesNotExist())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(esperados.subList(0, 2), idsDe(primeira));
+
+        String segunda = mockMvc.perform(get("/api/pedidos").param("after", (String) JsonPath.read(primeira, "$.cursors.next")).param("size", "2"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(esperados.subList(2, 4), idsDe(segunda));
+
+        String terceira = mockMvc.perform(get("/api/pedidos").param("after", (String) JsonPath.read(segunda, "$.cursors.next")).param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cursors.next").doesNotExist())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(esperados.subList(4, 5), idsDe(terceira));
+
+        String voltando = mockMvc.perform(get("/api/pedidos").param("before", (String) JsonPath.read(segunda, "$.cursors.prev")).param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cursors.prev").doesNotExist())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(esperados.subList(0, 2), idsDe(voltando));
+
+        mockMvc.perform(get("/api/pedidos").param("after", "nao-e-um-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private List<Long> idsDe(String corpo) {
+        List<Number> ids = JsonPath.read(corpo, "$.content[*].id");
+        return ids.stream().map(Number::longValue).toList();
+    }
+
+    @Test
+    @DisplayName("Leituras de pedidos devem executar a mesma quantidade de consultas com 1 ou 10 pedidos")
+    @WithMockUser(roles = "ADMIN")
+    void leiturasDevemTerQuantidadeFixaDeConsultas() throws Exception {
+        criarPedidoComItens(cliente);
+        List<MockHttpServletRequestBuilder> leituras = List.of(
+                get("/api/pedidos/cliente/{clienteId}", cliente.getId()),
+                get("/api/pedidos/restaurante/{restauranteId}", restaurante.getId()),
+                get("/api/pedidos/restaurante/{restauranteId}", restaurante.getId()).param("status", "PENDENTE"),
+                get("/api/pedidos"),
+                get("/api/pedidos").param("after", ""));
+        List<Long> comPoucos = new ArrayList<>();
+        for (MockHttpServletRequestBuilder leitura : leituras) {
+            comPoucos.add(contarConsultas(leitura));
+        }
+
+        for (int i = 0; i < 9; i++) {
+            Cliente outro = new Cliente();
+            outro.setNome("Cliente " + i);
+            criarPedidoComItens(i % 2 == 0 ? cliente : clienteRepository.save(outro));
+        }
+        for (int i = 0; i < leituras.size(); i++) {
+            assertEquals(comPoucos.get(i), contarConsultas(leituras.get(i)), "Consultas variaram com o tamanho do resultado na leitura " + i);
+        }
+
+        Pedido pedido = criarPedidoComItens(cliente);
+        assertEquals(1, contarConsultas(get("/api/pedidos/{id}", pedido.getId())));
+        assertEquals(1, contarConsultas(get("/api/pedidos/numero/{numeroPedido}", pedido.getNumeroPedido())));
+    }
+
+    private Pedido criarPedidoComItens(Cliente dono) {
+        Pedido pedido = new Pedido();
+        pedido.setCliente(dono);
+        pedido.setRestaurante(restaurante);
+        pedido.setNumeroPedido("PED-N" + System.nanoTime());
+        for (int i = 0; i < 2; i++) {
+            Produto produto = new Produto();
+            produto.setRestaurante(restaurante);
+            produto.setPreco(new BigDecimal("10.00"));
+            produto.setDisponivel(true);
+            ItemPedido item = new ItemPedido();
+            item.setProduto(produtoRepository.save(produto));
+            item.setQuantidade(1);
+            item.setPrecoUnitario(produto.getPreco());
+            item.calcularSubtotal();
+            pedido.adicionarItem(item);
+        }
+        return pedidoRepository.save(pedido);
+    }
+
+    // Consultas SQL preparadas durante a requisição, partindo de um contexto de persistência vazio
+    private long contarConsultas(MockHttpServletRequestBuilder requisicao) throws Exception {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estatisticas.clear();
+        mockMvc.perform(requisicao).andExpect(status().isOk());
+        return estatisticas.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,111 @@
+package com.deliverytech.delivery_api.repository;
+
+import com.deliverytech.delivery_api.entity.Restaurante;
+import com.deliverytech.delivery_api.entity.StatusPedido;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Benchmark da fila de pedidos do restaurante: a latência da consulta por restaurante e status
+ * deve se manter estável enquanto o total de pedidos da tabela cresce, já que a consulta é
+ * resolvida pelo índice (restaurante_id, status, data_pedido) e não por varredura.
+ *
+ * O uso do índice é verificado sempre, pelo plano da consulta. A comparação de tempos depende da
+ * máquina e fica fora da suíte padrão: mvn test -Dtest=PedidoRepositoryBenchmarkTest -Dbenchmark=true
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class PedidoRepositoryBenchmarkTest {
+
+    private static final int PEDIDOS_DO_RESTAURANTE = 600;
+    private static final int EXECUCOES = 200;
+
+    @Autowired private PedidoRepository pedidoRepository;
+    @Autowired private RestauranteRepository restauranteRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private Restaurante alvo;
+    private Restaurante outro;
+    private long proximoId = 10_000_000L;
+
+    @BeforeEach
+    void setup() {
+        pedidoRepository.deleteAll();
+        alvo = restauranteRepository.save(new Restaurante());
+        outro = restauranteRepository.save(new Restaurante());
+        inserirPedidos(alvo.getId(), PEDIDOS_DO_RESTAURANTE);
+    }
+
+    @Test
+    @DisplayName("Consulta da fila do restaurante deve usar o índice composto")
+    void deveUsarIndiceComposto() {
+        String plano = jdbcTemplate.queryForObject(
+                "EXPLAIN SELECT * FROM pedido WHERE restaurante_id = ? AND status = ? ORDER BY data_pedido DESC LIMIT 50",
+                String.class, alvo.getId(), StatusPedido.PENDENTE.name());
+        assertTrue(plano.toUpperCase().contains("IDX_PEDIDO_RESTAURANTE_STATUS_DATA"), plano);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    @DisplayName("Latência da fila do restaurante deve ficar estável com 10x mais pedidos na tabela")
+    void latenciaDeveFicarEstavelComCrescimentoDaTabela() {
+        inserirPedidos(outro.getId(), 2_000);
+        long comPoucos = medianaNanos();
+
+        inserirPedidos(outro.getId(), 18_000);
+        long comMuitos = medianaNanos();
+
+        // Folga generosa para ruído de JIT/GC; uma varredura completa cresceria ~10x
+        assertTrue(comMuitos < comPoucos * 3, "Latência cresceu de " + comPoucos + "ns para " + comMuitos + "ns");
+    }
+
+    private long medianaNanos() {
+        PageRequest pagina = PageRequest.of(0, 50, Sort.by(Sort.Direction.DESC, "dataPedido"));
+        for (int i = 0; i < 50; i++) {
+            pedidoRepository.findByRestauranteIdAndStatus(alvo.getId(), StatusPedido.PENDENTE, pagina);
+        }
+        long[] tempos = new long[EXECUCOES];
+        for (int i = 0; i < EXECUCOES; i++) {
+            long inicio = System.nanoTime();
+            int encontrados = pedidoRepository.findByRestauranteIdAndStatus(alvo.getId(), StatusPedido.PENDENTE, pagina)
+                    .getNumberOfElements();
+            tempos[i] = System.nanoTime() - inicio;
+            assertEquals(50, encontrados);
+        }
+        Arrays.sort(tempos);
+        return tempos[EXECUCOES / 2];
+    }
+
+    // Inserção direta via JDBC em lote: montar dezenas de milhares de entidades não é o que se quer medir
+    private void inserirPedidos(Long restauranteId, int quantidade) {
+        StatusPedido[] status = StatusPedido.values();
+        LocalDateTime agora = LocalDateTime.now();
+        List<Object[]> linhas = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            long id = proximoId++;
+            linhas.add(new Object[]{id, "PED-B" + id, Timestamp.valueOf(agora.minusMinutes(i)),
+                    status[i % status.length].name(), restauranteId});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO pedido (id, versao, numero_pedido, data_pedido, status, restaurante_id, "
+                + "subtotal, taxa_entrega, valor_total) VALUES (?, 0, ?, ?, ?, ?, 0, 0, 0)", linhas);
+    }
+}
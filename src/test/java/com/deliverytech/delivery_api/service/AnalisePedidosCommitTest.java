@@ -0,0 +1,134 @@
+package com.deliverytech.delivery_api.service;
+
+import com.deliverytech.delivery_api.dto.ItemPedidoDTO;
+import com.deliverytech.delivery_api.dto.PedidoDTO;
+import com.deliverytech.delivery_api.entity.*;
+import com.deliverytech.delivery_api.repository.ClienteRepository;
+import com.deliverytech.delivery_api.repository.PedidoArquivadoRepository;
+import com.deliverytech.delivery_api.repository.PedidoRepository;
+import com.deliverytech.delivery_api.repository.ProdutoRepository;
+import com.deliverytech.delivery_api.repository.RestauranteRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Sem @Transactional: o snapshot é montado em transações próprias, que só enxergam pedidos
+ * confirmados.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Sql(scripts = "/limpar-pedidos.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@DisplayName("Testes da análise de pedidos pelo snapshot colunar")
+class AnalisePedidosCommitTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private PedidoRepository pedidoRepository;
+    @Autowired private PedidoArquivadoRepository pedidoArquivadoRepository;
+    @Autowired private ClienteRepository clienteRepository;
+    @Autowired private RestauranteRepository restauranteRepository;
+    @Autowired private ProdutoRepository produtoRepository;
+    @Autowired private AnalisePedidosService analisePedidosService;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private Cliente cliente;
+    private Restaurante restaurante;
+    private Produto produto;
+
+    @BeforeEach
+    void setup() {
+        cliente = clienteRepository.save(new Cliente());
+        restaurante = new Restaurante();
+        restaurante.setAtivo(true);
+        restaurante = restauranteRepository.save(restaurante);
+        produto = new Produto();
+        produto.setRestaurante(restaurante);
+        produto.setPreco(new BigDecimal("10.00"));
+        produto.setDisponivel(true);
+        produto = produtoRepository.save(produto);
+    }
+
+    @Test
+    @DisplayName("Deve analisar pedidos e arquivados pelo snapshot colunar, acrescentando os pedidos novos")
+    @WithMockUser(roles = "ADMIN")
+    void deveAnalisarPedidosPeloSnapshot() throws Exception {
+        // R$ 10 entregue há 100 dias e arquivado; R$ 20 e R$ 30 pendentes
+        pedido("PED-ANL1", 1, StatusPedido.ENTREGUE, LocalDateTime.now().minusDays(100));
+        pedido("PED-ANL2", 2, StatusPedido.PENDENTE, LocalDateTime.now());
+        pedido("PED-ANL3", 3, StatusPedido.PENDENTE, LocalDateTime.now());
+        new ArquivamentoPedidosService(pedidoRepository, pedidoArquivadoRepository, transactionManager,
+                new SimpleMeterRegistry(), false, Duration.ofDays(90), Duration.ofHours(1), 10).arquivar();
+
+        assertEquals(3, analisePedidosService.reconstruir());
+        mockMvc.perform(get("/api/relatorios/analise").param("restauranteId", restaurante.getId().toString())
+                        .param("dimensoes", "STATUS").param("ordenarPor", "DIMENSOES"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.pedidosNoSnapshot").value(3))
+                .andExpect(jsonPath("$.data.pedidos").value(3))
+                .andExpect(jsonPath("$.data.valorTotal").value(60.0))
+                .andExpect(jsonPath("$.data.grupos.length()").value(2))
+                .andExpect(jsonPath("$.data.grupos[0].status").value("PENDENTE"))
+                .andExpect(jsonPath("$.data.grupos[0].quantidade").value(2))
+                .andExpect(jsonPath("$.data.grupos[0].valorTotal").value(50.0))
+                .andExpect(jsonPath("$.data.grupos[0].restauranteId").doesNotExist())
+                .andExpect(jsonPath("$.data.grupos[1].status").value("ENTREGUE"));
+
+        PedidoDTO novo = new PedidoDTO(cliente.getId(), restaurante.getId(), "Endereço", "12345-678", null, "PIX",
+                List.of(new ItemPedidoDTO(produto.getId(), 2, null)));
+        mockMvc.perform(post("/api/pedidos").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(novo)))
+                .andExpect(status().isCreated());
+        assertEquals(1, analisePedidosService.acrescentar());
+        assertEquals(0, analisePedidosService.acrescentar());
+        mockMvc.perform(get("/api/relatorios/analise").param("clienteId", cliente.getId().toString())
+                        .param("status", "PENDENTE").param("dataInicio", LocalDate.now().toString())
+                        .param("dimensoes", "RESTAURANTE", "CLIENTE", "DIA", "HORA"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.pedidos").value(3))
+                .andExpect(jsonPath("$.data.valorTotal").value(70.0))
+                .andExpect(jsonPath("$.data.grupos[0].restauranteId").value(restaurante.getId()))
+                .andExpect(jsonPath("$.data.grupos[0].clienteId").value(cliente.getId()))
+                .andExpect(jsonPath("$.data.grupos[0].dia").exists())
+                .andExpect(jsonPath("$.data.grupos[0].hora").exists())
+                .andExpect(jsonPath("$.data.grupos[0].status").doesNotExist());
+    }
+
+    private void pedido(String numero, int quantidade, StatusPedido status, LocalDateTime data) {
+        Pedido pedido = new Pedido();
+        pedido.setCliente(cliente);
+        pedido.setRestaurante(restaurante);
+        pedido.setNumeroPedido(numero);
+        pedido.setStatus(status);
+        pedido.setDataPedido(data);
+        ItemPedido item = new ItemPedido();
+        item.setProduto(produto);
+        item.setQuantidade(quantidade);
+        item.setPrecoUnitario(produto.getPreco());
+        item.calcularSubtotal();
+        pedido.adicionarItem(item);
+        pedidoRepository.save(pedido);
+    }
+}
@@ -0,0 +1,158 @@
+package com.deliverytech.delivery_api.service;
+
+import com.deliverytech.delivery_api.dto.StatusPedidoDTO;
+import com.deliverytech.delivery_api.entity.*;
+import com.deliverytech.delivery_api.repository.ClienteRepository;
+import com.deliverytech.delivery_api.repository.PedidoArquivadoRepository;
+import com.deliverytech.delivery_api.repository.PedidoRepository;
+import com.deliverytech.delivery_api.repository.ProdutoRepository;
+import com.deliverytech.delivery_api.repository.RestauranteRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Sem @Transactional: o arquivamento move os pedidos em transações próprias, que só enxergam dados
+ * confirmados.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Sql(scripts = "/limpar-pedidos.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@DisplayName("Testes do arquivamento de pedidos finalizados")
+class ArquivamentoPedidosCommitTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private PedidoRepository pedidoRepository;
+    @Autowired private PedidoArquivadoRepository pedidoArquivadoRepository;
+    @Autowired private ClienteRepository clienteRepository;
+    @Autowired private RestauranteRepository restauranteRepository;
+    @Autowired private ProdutoRepository produtoRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private Cliente cliente;
+    private Restaurante restaurante;
+    private Produto produto;
+
+    @BeforeEach
+    void setup() {
+        cliente = clienteRepository.save(new Cliente());
+        restaurante = new Restaurante();
+        restaurante.setAtivo(true);
+        restaurante = restauranteRepository.save(restaurante);
+        produto = new Produto();
+        produto.setRestaurante(restaurante);
+        produto.setPreco(new BigDecimal("10.00"));
+        produto.setDisponivel(true);
+        produto = produtoRepository.save(produto);
+    }
+
+    @Test
+    @DisplayName("Deve arquivar em blocos os pedidos finalizados antigos e continuar servindo-os por id e número")
+    @WithMockUser(roles = "ADMIN")
+    void deveArquivarPedidosFinalizadosAntigos() throws Exception {
+        Long entregueAntigo = pedido("PED-ARQ1", StatusPedido.ENTREGUE, 100, 1);
+        Long canceladoAntigo = pedido("PED-ARQ2", StatusPedido.CANCELADO, 100, 2);
+        Long entregueRecente = pedido("PED-ARQ3", StatusPedido.ENTREGUE, 0, 1);
+        Long pendenteAntigo = pedido("PED-ARQ4", StatusPedido.PENDENTE, 100, 1);
+
+        ArquivamentoPedidosService arquivamento = new ArquivamentoPedidosService(pedidoRepository, pedidoArquivadoRepository,
+                transactionManager, new SimpleMeterRegistry(), false, Duration.ofDays(90), Duration.ofHours(1), 1);
+        assertEquals(2, arquivamento.arquivar());
+        assertEquals(0, arquivamento.arquivarLote(LocalDateTime.now().minusDays(90)));
+
+        assertEquals(List.of(entregueRecente, pendenteAntigo), pedidoRepository.findAll().stream().map(Pedido::getId).sorted().toList());
+        assertEquals(2, pedidoArquivadoRepository.count());
+
+        mockMvc.perform(get("/api/pedidos/{id}", entregueAntigo))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.numeroPedido").value("PED-ARQ1"))
+                .andExpect(jsonPath("$.data.status").value("ENTREGUE"))
+                .andExpect(jsonPath("$.data.clienteId").value(cliente.getId()))
+                .andExpect(jsonPath("$.data.itens[0].produtoId").value(produto.getId()))
+                .andExpect(jsonPath("$.data.itens[0].quantidade").value(1));
+        mockMvc.perform(get("/api/pedidos/numero/{numero}", "PED-ARQ2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.id").value(canceladoAntigo))
+                .andExpect(jsonPath("$.data.status").value("CANCELADO"))
+                .andExpect(jsonPath("$.data.itens[0].quantidade").value(2));
+        mockMvc.perform(get("/api/pedidos/{id}", 999999L)).andExpect(status().isNotFound());
+        // Somente leitura: o pedido cancelado arquivado não pode ser reativado
+        mockMvc.perform(patch("/api/pedidos/{id}/status", canceladoAntigo).contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new StatusPedidoDTO(StatusPedido.PENDENTE))))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Deve incluir os pedidos arquivados no histórico do cliente e nas exportações, mas não na listagem paginada")
+    @WithMockUser(roles = "ADMIN")
+    void deveIncluirArquivadosNoHistoricoENasExportacoes() throws Exception {
+        Long recente = pedido("PED-ARQ5", StatusPedido.PENDENTE, 1, 1);
+        Long arquivado = pedido("PED-ARQ6", StatusPedido.ENTREGUE, 100, 3);
+        new ArquivamentoPedidosService(pedidoRepository, pedidoArquivadoRepository, transactionManager,
+                new SimpleMeterRegistry(), false, Duration.ofDays(90), Duration.ofHours(1), 500).arquivar();
+
+        mockMvc.perform(get("/api/pedidos/cliente/{id}", cliente.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(2))
+                .andExpect(jsonPath("$.data[0].id").value(recente))
+                .andExpect(jsonPath("$.data[1].id").value(arquivado))
+                .andExpect(jsonPath("$.data[1].itens[0].quantidade").value(3));
+
+        MvcResult resultado = mockMvc.perform(get("/api/pedidos/restaurante/{id}", restaurante.getId())
+                        .param("status", "ENTREGUE").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String corpo = mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        List<String> linhas = corpo.lines().toList();
+        assertEquals(1, linhas.size());
+        assertEquals(arquivado.longValue(), objectMapper.readTree(linhas.get(0)).get("id").asLong());
+
+        mockMvc.perform(get("/api/pedidos"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].id").value(recente));
+    }
+
+    private Long pedido(String numero, StatusPedido status, int diasAtras, int quantidade) {
+        Pedido pedido = new Pedido();
+        pedido.setCliente(cliente);
+        pedido.setRestaurante(restaurante);
+        pedido.setNumeroPedido(numero);
+        pedido.setStatus(status);
+        pedido.setDataPedido(LocalDateTime.now().minusDays(diasAtras));
+        ItemPedido item = new ItemPedido();
+        item.setProduto(produto);
+        item.setQuantidade(quantidade);
+        item.setPrecoUnitario(produto.getPreco());
+        item.calcularSubtotal();
+        pedido.adicionarItem(item);
+        return pedidoRepository.save(pedido).getId();
+    }
+}
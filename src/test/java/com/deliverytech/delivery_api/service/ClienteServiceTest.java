@@ -29,6 +29,9 @@ class ClienteServiceTest {
     @Mock // Cria um mock (simulação) do repositório
     private ClienteRepository clienteRepository;
 
+    @Mock
+    private RankingClientesService rankingClientesService;
+
     @InjectMocks // Injeta os mocks (clienteRepository) na classe que está sendo testada
     private ClienteService clienteService;
 
@@ -0,0 +1,152 @@
+package com.deliverytech.delivery_api.service;
+
+import com.deliverytech.delivery_api.dto.StatusPedidoDTO;
+import com.deliverytech.delivery_api.dto.StatusPedidoLoteDTO;
+import com.deliverytech.delivery_api.entity.*;
+import com.deliverytech.delivery_api.repository.ClienteRepository;
+import com.deliverytech.delivery_api.repository.PedidoRepository;
+import com.deliverytech.delivery_api.repository.RestauranteRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Sem @Transactional: os eventos de status são publicados após o commit de cada alteração.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Sql(scripts = "/limpar-pedidos.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@DisplayName("Testes do acompanhamento de status por SSE")
+class EventosPedidoCommitTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private PedidoRepository pedidoRepository;
+    @Autowired private ClienteRepository clienteRepository;
+    @Autowired private RestauranteRepository restauranteRepository;
+
+    private Long id;
+    private Cliente cliente;
+    private Restaurante restaurante;
+
+    @BeforeEach
+    void setup() {
+        restaurante = new Restaurante();
+        restaurante.setAtivo(true);
+        restaurante = restauranteRepository.save(restaurante);
+        cliente = clienteRepository.save(new Cliente());
+        Pedido pedido = new Pedido();
+        pedido.setCliente(cliente);
+        pedido.setRestaurante(restaurante);
+        pedido.setNumeroPedido("PED-SSE1");
+        id = pedidoRepository.save(pedido).getId();
+    }
+
+    @Test
+    @DisplayName("Deve enviar o status atual e cada transição pelo stream SSE, encerrando na entrega")
+    @WithMockUser(roles = "ADMIN")
+    void deveAcompanharStatusPorSse() throws Exception {
+        MvcResult resultado = mockMvc.perform(get("/api/pedidos/{id}/eventos", id).accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        aguardarEventos(resultado, 1);
+
+        for (StatusPedido destino : List.of(StatusPedido.CONFIRMADO, StatusPedido.PREPARANDO)) {
+            mockMvc.perform(patch("/api/pedidos/{id}/status", id).contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new StatusPedidoDTO(destino))))
+                    .andExpect(status().isOk());
+        }
+        mockMvc.perform(patch("/api/pedidos/status").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new StatusPedidoLoteDTO(List.of(id), StatusPedido.SAIU_PARA_ENTREGA))))
+                .andExpect(status().isOk());
+        mockMvc.perform(patch("/api/pedidos/{id}/status", id).contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new StatusPedidoDTO(StatusPedido.ENTREGUE))))
+                .andExpect(status().isOk());
+
+        List<JsonNode> eventos = aguardarEventos(resultado, 5);
+        assertEquals(List.of("PENDENTE", "CONFIRMADO", "PREPARANDO", "SAIU_PARA_ENTREGA", "ENTREGUE"),
+                eventos.stream().map(e -> e.get("status").asText()).toList());
+        assertTrue(eventos.get(0).get("statusAnterior").isNull());
+        assertEquals("PREPARANDO", eventos.get(3).get("statusAnterior").asText());
+        mockMvc.perform(asyncDispatch(resultado)).andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("Deve responder 404 ao acompanhar um pedido inexistente")
+    @WithMockUser(roles = "ADMIN")
+    void deveResponder404AoAcompanharPedidoInexistente() throws Exception {
+        mockMvc.perform(get("/api/pedidos/{id}/eventos", 999999L))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Deve permitir o acompanhamento apenas ao cliente do pedido e ao dono do restaurante")
+    void deveRestringirAcompanhamentoAoClienteEAoRestaurante() throws Exception {
+        Pedido pedido = pedidoRepository.findById(id).orElseThrow();
+        pedido.setStatus(StatusPedido.ENTREGUE);
+        pedidoRepository.save(pedido);
+
+        for (Usuario usuario : List.of(usuario(Role.CLIENTE, cliente.getId(), null), usuario(Role.RESTAURANTE, 999999L, restaurante.getId()))) {
+            MvcResult resultado = mockMvc.perform(get("/api/pedidos/{id}/eventos", id).with(user(usuario)))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            // Pedido entregue: a conexão é encerrada após o evento inicial
+            assertEquals("ENTREGUE", aguardarEventos(resultado, 1).get(0).get("status").asText());
+        }
+        for (Usuario usuario : List.of(usuario(Role.CLIENTE, cliente.getId() + 1, null), usuario(Role.RESTAURANTE, cliente.getId(), restaurante.getId() + 1))) {
+            mockMvc.perform(get("/api/pedidos/{id}/eventos", id).with(user(usuario)))
+                    .andExpect(status().isForbidden());
+        }
+        mockMvc.perform(get("/api/pedidos/{id}/eventos", 999999L).with(user(usuario(Role.CLIENTE, cliente.getId(), null))))
+                .andExpect(status().isForbidden());
+    }
+
+    private Usuario usuario(Role role, Long id, Long restauranteId) {
+        Usuario usuario = new Usuario("sse@teste.com", "senha", "SSE", role);
+        usuario.setId(id);
+        usuario.setRestauranteld(restauranteId);
+        return usuario;
+    }
+
+    // Lê o corpo SSE acumulado até haver a quantidade esperada de eventos de status
+    private List<JsonNode> aguardarEventos(MvcResult resultado, int quantidade) throws Exception {
+        List<JsonNode> eventos = new ArrayList<>();
+        long limite = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < limite) {
+            eventos.clear();
+            for (String linha : resultado.getResponse().getContentAsString().split("\n")) {
+                if (linha.startsWith("data:")) {
+                    eventos.add(objectMapper.readTree(linha.substring("data:".length())));
+                }
+            }
+            if (eventos.size() >= quantidade) {
+                return eventos;
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("Esperados " + quantidade + " eventos, recebidos " + eventos.size());
+    }
+}
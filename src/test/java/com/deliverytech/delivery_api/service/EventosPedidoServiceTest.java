@@ -0,0 +1,92 @@
+package com.deliverytech.delivery_api.service;
+
+import com.deliverytech.delivery_api.entity.StatusPedido;
+import com.deliverytech.delivery_api.exception.EntityNotFoundException;
+import com.deliverytech.delivery_api.exception.FilaCheiaException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Testes Unitários do EventosPedidoService")
+public class EventosPedidoServiceTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private EventosPedidoService eventos;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        eventos = new EventosPedidoService(meterRegistry, 2, Duration.ofMinutes(1), Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void parar() {
+        eventos.parar();
+    }
+
+    @Test
+    @DisplayName("Deve recusar conexões acima do limite")
+    void deveRecusarConexoesAcimaDoLimite() {
+        eventos.assinar(1L, () -> StatusPedido.PENDENTE);
+        eventos.assinar(1L, () -> StatusPedido.PENDENTE);
+
+        FilaCheiaException ex = assertThrows(FilaCheiaException.class, () -> eventos.assinar(2L, () -> StatusPedido.PENDENTE));
+        assertEquals("QUEUE_FULL", ex.getErrorCode());
+        assertEquals(2, eventos.conexoesAbertas());
+        assertEquals(1.0, meterRegistry.counter("delivery.pedidos.eventos.recusadas").count());
+    }
+
+    @Test
+    @DisplayName("Deve liberar a conexão quando o pedido não existe")
+    void deveLiberarConexaoDePedidoInexistente() {
+        assertThrows(EntityNotFoundException.class, () -> eventos.assinar(1L, () -> {
+            throw new EntityNotFoundException("Pedido", 1L);
+        }));
+        assertEquals(0, eventos.conexoesAbertas());
+    }
+
+    @Test
+    @DisplayName("Deve encerrar a conexão após o status final")
+    void deveEncerrarConexaoAposStatusFinal() throws InterruptedException {
+        eventos.assinar(1L, () -> StatusPedido.SAIU_PARA_ENTREGA);
+        eventos.assinar(2L, () -> StatusPedido.ENTREGUE);
+        eventos.publicar(1L, StatusPedido.SAIU_PARA_ENTREGA, StatusPedido.ENTREGUE);
+
+        long limite = System.currentTimeMillis() + 5000;
+        while (eventos.conexoesAbertas() > 0 && System.currentTimeMillis() < limite) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, eventos.conexoesAbertas());
+        assertEquals(3.0, meterRegistry.counter("delivery.pedidos.eventos.enviados").count());
+    }
+
+    @Test
+    @DisplayName("Deve contar como enviados só os eventos entregues à conexão")
+    void deveContarApenasEventosEntregues() throws InterruptedException {
+        SseEmitter emitter = eventos.assinar(1L, () -> StatusPedido.PENDENTE);
+        aguardar(() -> meterRegistry.counter("delivery.pedidos.eventos.enviados").count() == 1.0);
+
+        // Conexão já encerrada: o envio falha e o evento não conta
+        emitter.complete();
+        eventos.publicar(1L, StatusPedido.PENDENTE, StatusPedido.CONFIRMADO);
+        aguardar(() -> eventos.conexoesAbertas() == 0);
+
+        assertEquals(0, eventos.conexoesAbertas());
+        assertEquals(1.0, meterRegistry.counter("delivery.pedidos.eventos.enviados").count());
+    }
+
+    private void aguardar(BooleanSupplier condicao) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 5000;
+        while (!condicao.getAsBoolean() && System.currentTimeMillis() < limite) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.deliverytech.delivery_api.service;
+
+import com.deliverytech.delivery_api.dto.ItemPedidoDTO;
+import com.deliverytech.delivery_api.dto.PedidoDTO;
+import com.deliverytech.delivery_api.dto.StatusPedidoDTO;
+import com.deliverytech.delivery_api.dto.StatusPedidoLoteDTO;
+import com.deliverytech.delivery_api.entity.*;
+import com.deliverytech.delivery_api.repository.ClienteRepository;
+import com.deliverytech.delivery_api.repository.ProdutoRepository;
+import com.deliverytech.delivery_api.repository.RestauranteRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Sem @Transactional: a fila da cozinha é atualizada após o commit de cada alteração de pedido.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Sql(scripts = "/limpar-pedidos.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@DisplayName("Testes da fila da cozinha")
+class FilaCozinhaCommitTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private ClienteRepository clienteRepository;
+    @Autowired private RestauranteRepository restauranteRepository;
+    @Autowired private ProdutoRepository produtoRepository;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private Cliente cliente;
+    private Restaurante restaurante;
+    private Produto lanche;
+
+    @BeforeEach
+    void setup() {
+        cliente = clienteRepository.save(new Cliente());
+        restaurante = new Restaurante();
+        restaurante.setAtivo(true);
+        restaurante = restauranteRepository.save(restaurante);
+        lanche = new Produto();
+        lanche.setRestaurante(restaurante);
+        lanche.setPreco(new BigDecimal("18.90"));
+        lanche.setDisponivel(true);
+        lanche = produtoRepository.save(lanche);
+    }
+
+    @Test
+    @DisplayName("Deve manter a fila da cozinha a cada alteração e servi-la sem consultar o banco")
+    @WithMockUser(roles = "ADMIN")
+    void deveManterFilaDaCozinha() throws Exception {
+        Long primeiro = criarPedido();
+        Long segundo = criarPedido();
+        assertEquals(List.of(primeiro, segundo), idsNaFila(null));
+
+        Statistics estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estatisticas.clear();
+        idsNaFila(null);
+        assertEquals(0, estatisticas.getPrepareStatementCount());
+
+        mockMvc.perform(put("/api/pedidos/{id}/confirmar", primeiro)).andExpect(status().isOk());
+        assertEquals(List.of(primeiro), idsNaFila(StatusPedido.CONFIRMADO));
+        assertEquals(List.of(segundo), idsNaFila(StatusPedido.PENDENTE));
+
+        mockMvc.perform(delete("/api/pedidos/{id}", segundo)).andExpect(status().isNoContent());
+        assertEquals(List.of(primeiro), idsNaFila(null));
+
+        // Reativação em lote: o pedido volta para a fila na posição original
+        mockMvc.perform(patch("/api/pedidos/status").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new StatusPedidoLoteDTO(List.of(segundo), StatusPedido.PENDENTE))))
+                .andExpect(status().isOk());
+        mockMvc.perform(patch("/api/pedidos/status").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new StatusPedidoLoteDTO(List.of(primeiro), StatusPedido.PREPARANDO))))
+                .andExpect(status().isOk());
+        assertEquals(List.of(primeiro, segundo), idsNaFila(null));
+        assertEquals(List.of(primeiro), idsNaFila(StatusPedido.PREPARANDO));
+
+        mockMvc.perform(patch("/api/pedidos/{id}/status", primeiro).contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new StatusPedidoDTO(StatusPedido.SAIU_PARA_ENTREGA))))
+                .andExpect(status().isOk());
+        assertEquals(List.of(segundo), idsNaFila(null));
+    }
+
+    private Long criarPedido() throws Exception {
+        PedidoDTO dto = new PedidoDTO(cliente.getId(), restaurante.getId(), "Rua da Cozinha, 1", "12345-678", null, "PIX",
+                List.of(new ItemPedidoDTO(lanche.getId(), 1, null)));
+        String corpo = mockMvc.perform(post("/api/pedidos").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(corpo).get("data").get("id").asLong();
+    }
+
+    private List<Long> idsNaFila(StatusPedido status) throws Exception {
+        var requisicao = get("/api/restaurantes/{id}/fila", restaurante.getId());
+        if (status != null) {
+            requisicao.param("status", status.name());
+        }
+        String corpo = mockMvc.perform(requisicao)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        List<Long> ids = new ArrayList<>();
+        objectMapper.readTree(corpo).get("data").forEach(pedido -> ids.add(pedido.get("pedidoId").asLong()));
+        return ids;
+    }
+}
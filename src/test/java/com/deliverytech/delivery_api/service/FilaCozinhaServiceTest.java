@@ -0,0 +1,164 @@
+package com.deliverytech.delivery_api.service;
+
+import com.deliverytech.delivery_api.dto.PedidoFilaDTO;
+import com.deliverytech.delivery_api.entity.Pedido;
+import com.deliverytech.delivery_api.entity.Restaurante;
+import com.deliverytech.delivery_api.entity.StatusPedido;
+import com.deliverytech.delivery_api.repository.PedidoRepository;
+import com.deliverytech.delivery_api.repository.PedidoRepository.VersaoPedido;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes Unitários do FilaCozinhaService")
+public class FilaCozinhaServiceTest {
+
+    private static final LocalDateTime INICIO = LocalDateTime.of(2025, 8, 1, 12, 0);
+
+    @Mock
+    private PedidoRepository pedidoRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private FilaCozinhaService fila;
+    private Restaurante restaurante;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        fila = new FilaCozinhaService(pedidoRepository, meterRegistry, false, Duration.ofSeconds(5));
+        restaurante = new Restaurante();
+        restaurante.setId(1L);
+    }
+
+    private Pedido pedido(long id, int minutos, StatusPedido status) {
+        Pedido pedido = new Pedido();
+        pedido.setId(id);
+        pedido.setNumeroPedido("PED-" + id);
+        pedido.setDataPedido(INICIO.plusMinutes(minutos));
+        pedido.setStatus(status);
+        pedido.setRestaurante(restaurante);
+        return pedido;
+    }
+
+    private List<Long> ids(StatusPedido status) {
+        return fila.listar(1L, status, 100).stream().map(PedidoFilaDTO::getPedidoId).collect(Collectors.toList());
+    }
+
+    @Test
+    @DisplayName("Deve ordenar os pedidos ativos do mais antigo para o mais recente, com filtro por status e limite")
+    void deveOrdenarPorDataDoPedido() {
+        fila.registrar(pedido(3L, 2, StatusPedido.PENDENTE), 0);
+        fila.registrar(pedido(1L, 0, StatusPedido.CONFIRMADO), 0);
+        fila.registrar(pedido(2L, 1, StatusPedido.PENDENTE), 0);
+
+        assertEquals(List.of(1L, 2L, 3L), ids(null));
+        assertEquals(List.of(2L, 3L), ids(StatusPedido.PENDENTE));
+        assertEquals(List.of(1L, 2L), fila.listar(1L, null, 2).stream().map(PedidoFilaDTO::getPedidoId).toList());
+        assertTrue(fila.listar(2L, null, 100).isEmpty());
+        assertTrue(fila.listar(1L, StatusPedido.ENTREGUE, 100).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Deve mover o pedido entre status e retirá-lo ao deixar de estar ativo")
+    void deveMoverERetirarPorStatus() {
+        fila.registrar(pedido(1L, 0, StatusPedido.PENDENTE), 0);
+        fila.registrar(pedido(2L, 1, StatusPedido.PENDENTE), 0);
+
+        fila.alterarStatus(1L, StatusPedido.PREPARANDO, 1);
+        assertEquals(List.of(1L, 2L), ids(null));
+        assertEquals(List.of(1L), ids(StatusPedido.PREPARANDO));
+        assertEquals(StatusPedido.PREPARANDO, fila.listar(1L, null, 1).get(0).getStatus());
+
+        fila.alterarStatus(1L, StatusPedido.SAIU_PARA_ENTREGA, 2);
+        assertEquals(List.of(2L), ids(null));
+        assertTrue(ids(StatusPedido.PREPARANDO).isEmpty());
+        assertEquals(1.0, meterRegistry.get("delivery.pedidos.cozinha.ativos").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Deve ignorar alterações com versão já superada")
+    void deveIgnorarAlteracoesAtrasadas() {
+        fila.registrar(pedido(1L, 0, StatusPedido.PENDENTE), 0);
+        fila.alterarStatus(1L, StatusPedido.CANCELADO, 2);
+
+        // Commit anterior concluído depois: não deve trazer o pedido de volta
+        fila.alterarStatus(1L, StatusPedido.CONFIRMADO, 1);
+        fila.registrar(pedido(1L, 0, StatusPedido.PENDENTE), 1);
+        assertTrue(ids(null).isEmpty());
+
+        // Reativação (CANCELADO -> PENDENTE) com versão nova recoloca o pedido
+        Pedido reativado = pedido(1L, 0, StatusPedido.PENDENTE);
+        fila.alterarStatus(reativado, StatusPedido.CANCELADO, 3);
+        assertEquals(List.of(1L), ids(StatusPedido.PENDENTE));
+    }
+
+    @Test
+    @DisplayName("Deve reconstruir a fila a partir do banco")
+    void deveReconstruirDoBanco() {
+        Pedido antigo = pedido(1L, 0, StatusPedido.PREPARANDO);
+        antigo.setVersao(4L);
+        when(pedidoRepository.findByStatusIn(any())).thenReturn(List.of(pedido(2L, 1, StatusPedido.PENDENTE), antigo));
+
+        fila.reconstruir();
+
+        assertEquals(List.of(1L, 2L), ids(null));
+        fila.alterarStatus(1L, StatusPedido.SAIU_PARA_ENTREGA, 4);
+        assertEquals(List.of(1L, 2L), ids(null));
+        fila.alterarStatus(1L, StatusPedido.SAIU_PARA_ENTREGA, 5);
+        assertEquals(List.of(2L), ids(null));
+    }
+
+    @Test
+    @DisplayName("Deve incluir na reconstrução o pedido alterado para um status ativo antes dela")
+    void deveReconstruirPedidoAlteradoAntesDaReconstrucao() {
+        // Commit concluído entre a subida da aplicação e a reconstrução da fila
+        fila.alterarStatus(1L, StatusPedido.PREPARANDO, 2);
+        fila.alterarStatus(2L, StatusPedido.CANCELADO, 3);
+        Pedido preparando = pedido(1L, 0, StatusPedido.PREPARANDO);
+        preparando.setVersao(2L);
+        Pedido cancelado = pedido(2L, 1, StatusPedido.PENDENTE);
+        cancelado.setVersao(2L); // leitura anterior ao cancelamento
+        when(pedidoRepository.findByStatusIn(any())).thenReturn(List.of(preparando, cancelado));
+
+        fila.reconstruir();
+
+        assertEquals(List.of(1L), ids(null));
+        assertEquals(List.of(1L), ids(StatusPedido.PREPARANDO));
+    }
+
+    @Test
+    @DisplayName("Deve retirar na sincronização os pedidos alterados ou arquivados por outra instância")
+    void deveSincronizarAlteracoesDeOutraInstancia() {
+        fila.registrar(pedido(1L, 0, StatusPedido.PENDENTE), 0);
+        fila.registrar(pedido(2L, 1, StatusPedido.PENDENTE), 0);
+        fila.registrar(pedido(3L, 2, StatusPedido.PENDENTE), 0);
+        Pedido confirmado = pedido(4L, 3, StatusPedido.CONFIRMADO);
+        confirmado.setVersao(1L);
+        // 1 cancelado em outra instância, 2 criado aqui depois da leitura dos ativos, 3 já arquivado
+        when(pedidoRepository.findByStatusIn(any())).thenReturn(List.of(confirmado));
+        when(pedidoRepository.findVersoes(any())).thenReturn(List.of(
+                new VersaoPedido(1L, StatusPedido.CANCELADO, 1L), new VersaoPedido(2L, StatusPedido.PENDENTE, 0L)));
+
+        fila.reconstruir();
+
+        assertEquals(List.of(2L, 4L), ids(null));
+        assertEquals(List.of(4L), ids(StatusPedido.CONFIRMADO));
+        // Alteração atrasada do pedido cancelado não o traz de volta
+        fila.alterarStatus(1L, StatusPedido.CONFIRMADO, 1);
+        assertEquals(List.of(2L, 4L), ids(null));
+    }
+}
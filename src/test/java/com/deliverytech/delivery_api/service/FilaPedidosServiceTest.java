@@ -0,0 +1,150 @@
+package com.deliverytech.delivery_api.service;
+
+import com.deliverytech.delivery_api.dto.AceitePedidoDTO;
+import com.deliverytech.delivery_api.dto.PedidoDTO;
+import com.deliverytech.delivery_api.dto.ResultadoLoteDTO;
+import com.deliverytech.delivery_api.exception.FilaCheiaException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes Unitários da FilaPedidosService")
+public class FilaPedidosServiceTest {
+
+    @Mock
+    private PedidoService pedidoService;
+    @Mock
+    private MetricsService metricsService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private FilaPedidosService filaPedidosService;
+    private final AtomicInteger sequencia = new AtomicInteger();
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        NumeroPedidoGenerator generator = () -> "PED-" + sequencia.incrementAndGet();
+        filaPedidosService = new FilaPedidosService(pedidoService, generator, metricsService, meterRegistry, true, 5, 1, 50);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        filaPedidosService.parar();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Deve recusar pedidos quando a fila estiver cheia")
+    void deveRecusarQuandoFilaCheia() {
+        for (int i = 0; i < 5; i++) {
+            filaPedidosService.aceitar(new PedidoDTO());
+        }
+
+        assertThrows(FilaCheiaException.class, () -> filaPedidosService.aceitar(new PedidoDTO()));
+        assertEquals(5, filaPedidosService.tamanhoFila());
+        assertEquals(5.0, meterRegistry.get("delivery.pedidos.fila.tamanho").gauge().value());
+        assertEquals(1.0, meterRegistry.get("delivery.pedidos.fila.rejeitados").counter().count());
+    }
+
+    @Test
+    @DisplayName("Deve drenar a fila gravando os pedidos em um único lote")
+    void deveGravarPedidosEmLote() throws Exception {
+        when(pedidoService.criarPedidosEmLote(anyList(), anyList())).thenAnswer(inv -> {
+            List<String> numeros = inv.getArgument(1);
+            List<ResultadoLoteDTO.ResultadoPedido> resultados = new ArrayList<>();
+            for (int i = 0; i < numeros.size(); i++) {
+                resultados.add(i == 0
+                        ? ResultadoLoteDTO.ResultadoPedido.falha(i, "ENTITY_NOT_FOUND", "Cliente não encontrado", null)
+                        : ResultadoLoteDTO.ResultadoPedido.sucesso(i, (long) i, numeros.get(i)));
+            }
+            return new ResultadoLoteDTO(numeros.size(), numeros.size() - 1, 1, resultados);
+        });
+
+        List<String> numeros = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            numeros.add(filaPedidosService.aceitar(new PedidoDTO()));
+        }
+        filaPedidosService.iniciar();
+
+        long limite = System.currentTimeMillis() + 5000;
+        while (filaPedidosService.buscarAceite(numeros.get(3)).orElseThrow().getSituacao() == AceitePedidoDTO.Situacao.NA_FILA
+                && System.currentTimeMillis() < limite) {
+            Thread.sleep(20);
+        }
+
+        verify(pedidoService, times(1)).criarPedidosEmLote(anyList(), eq(numeros));
+        assertEquals(AceitePedidoDTO.Situacao.REJEITADO, filaPedidosService.buscarAceite(numeros.get(0)).orElseThrow().getSituacao());
+        assertEquals(AceitePedidoDTO.Situacao.PERSISTIDO, filaPedidosService.buscarAceite(numeros.get(3)).orElseThrow().getSituacao());
+        // As métricas são registradas depois de atualizar as situações, ainda na thread da fila
+        verify(metricsService, timeout(1000)).incrementarPedidosComSucesso(3);
+        verify(metricsService, timeout(1000)).incrementarPedidosComErro(1);
+        assertEquals(4, meterRegistry.get("delivery.pedidos.fila.persistencia.tempo").timer().count());
+    }
+
+    @Test
+    @DisplayName("Deve marcar o lote como rejeitado quando a gravação falhar")
+    void deveRejeitarLoteQuandoGravacaoFalhar() {
+        when(pedidoService.criarPedidosEmLote(anyList(), anyList())).thenThrow(new RuntimeException("banco indisponível"));
+        String numero = filaPedidosService.aceitar(new PedidoDTO());
+
+        filaPedidosService.persistir(List.of(new FilaPedidosService.PedidoEnfileirado(new PedidoDTO(), numero, System.nanoTime())));
+
+        AceitePedidoDTO aceite = filaPedidosService.buscarAceite(numero).orElseThrow();
+        assertEquals(AceitePedidoDTO.Situacao.REJEITADO, aceite.getSituacao());
+        assertEquals("PERSISTENCE_ERROR", aceite.getErroCodigo());
+        verify(metricsService).incrementarPedidosComErro(1);
+    }
+
+    @Test
+    @DisplayName("Deve gravar os pedidos um a um e rejeitar só os que falharem quando o lote falhar")
+    void deveRegravarPedidosUmAUmQuandoLoteFalhar() {
+        List<String> numeros = List.of(filaPedidosService.aceitar(new PedidoDTO()), filaPedidosService.aceitar(new PedidoDTO()),
+                filaPedidosService.aceitar(new PedidoDTO()));
+        when(pedidoService.criarPedidosEmLote(anyList(), anyList())).thenAnswer(inv -> {
+            List<String> gravados = inv.getArgument(1);
+            if (gravados.size() > 1 || gravados.get(0).equals(numeros.get(1))) {
+                throw new RuntimeException("violação de constraint");
+            }
+            return new ResultadoLoteDTO(1, 1, 0, List.of(ResultadoLoteDTO.ResultadoPedido.sucesso(0, 10L, gravados.get(0))));
+        });
+
+        filaPedidosService.persistir(numeros.stream()
+                .map(numero -> new FilaPedidosService.PedidoEnfileirado(new PedidoDTO(), numero, System.nanoTime()))
+                .toList());
+
+        assertEquals(AceitePedidoDTO.Situacao.PERSISTIDO, filaPedidosService.buscarAceite(numeros.get(0)).orElseThrow().getSituacao());
+        assertEquals("PERSISTENCE_ERROR", filaPedidosService.buscarAceite(numeros.get(1)).orElseThrow().getErroCodigo());
+        assertEquals(AceitePedidoDTO.Situacao.PERSISTIDO, filaPedidosService.buscarAceite(numeros.get(2)).orElseThrow().getSituacao());
+        verify(pedidoService, times(4)).criarPedidosEmLote(anyList(), anyList());
+        verify(metricsService, times(2)).incrementarPedidosComSucesso(1);
+        verify(metricsService).incrementarPedidosComErro(1);
+    }
+
+    @Test
+    @DisplayName("Deve reconhecer apenas o autor do aceite")
+    void deveReconhecerAutorDoAceite() {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("ana@email.com", null));
+        String numero = filaPedidosService.aceitar(new PedidoDTO());
+        assertTrue(filaPedidosService.isAutor(numero));
+        assertFalse(filaPedidosService.isAutor("PED-DESCONHECIDO"));
+
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("bia@email.com", null));
+        assertFalse(filaPedidosService.isAutor(numero));
+    }
+}
@@ -0,0 +1,150 @@
+package com.deliverytech.delivery_api.service;
+
+import com.deliverytech.delivery_api.exception.BusinessException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Testes Unitários do IdempotencyService")
+public class IdempotencyServiceTest {
+
+    private MutableClock clock;
+    private IdempotencyService idempotencyService;
+    private AtomicInteger execucoes;
+
+    @BeforeEach
+    void setup() {
+        clock = new MutableClock();
+        idempotencyService = new IdempotencyService(new SimpleMeterRegistry(), 3, Duration.ofMinutes(10), Duration.ofSeconds(5), clock);
+        execucoes = new AtomicInteger();
+    }
+
+    private ResponseEntity<Integer> executar() {
+        return ResponseEntity.status(201).body(execucoes.incrementAndGet());
+    }
+
+    @Test
+    @DisplayName("Deve reproduzir a resposta armazenada sem executar de novo")
+    void deveReproduzirResposta() {
+        ResponseEntity<Integer> primeira = idempotencyService.executar("op", "k1", "req", this::executar);
+        ResponseEntity<Integer> segunda = idempotencyService.executar("op", "k1", "req", this::executar);
+
+        assertEquals(1, execucoes.get());
+        assertEquals(primeira.getBody(), segunda.getBody());
+        assertEquals(201, segunda.getStatusCode().value());
+        assertEquals("true", segunda.getHeaders().getFirst(IdempotencyService.HEADER_REPETIDA));
+    }
+
+    @Test
+    @DisplayName("Deve executar sempre quando não houver chave")
+    void deveExecutarSemChave() {
+        idempotencyService.executar("op", null, "req", this::executar);
+        idempotencyService.executar("op", null, "req", this::executar);
+        assertEquals(2, execucoes.get());
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar a mesma chave com outro conteúdo")
+    void deveRejeitarChaveComOutroConteudo() {
+        idempotencyService.executar("op", "k1", "req", this::executar);
+        BusinessException ex = assertThrows(BusinessException.class,
+                () -> idempotencyService.executar("op", "k1", "outra", this::executar));
+        assertEquals("IDEMPOTENCY_KEY_MISMATCH", ex.getErrorCode());
+    }
+
+    @Test
+    @DisplayName("Deve executar de novo após a expiração da chave")
+    void deveExpirarChave() {
+        idempotencyService.executar("op", "k1", "req", this::executar);
+        clock.avancar(Duration.ofMinutes(11));
+        idempotencyService.executar("op", "k1", "req", this::executar);
+        assertEquals(2, execucoes.get());
+    }
+
+    @Test
+    @DisplayName("Deve manter no máximo o número configurado de chaves")
+    void deveLimitarEntradas() {
+        for (int i = 0; i < 10; i++) {
+            idempotencyService.executar("op", "k" + i, "req", this::executar);
+        }
+        assertEquals(3, idempotencyService.tamanho());
+    }
+
+    @Test
+    @DisplayName("Não deve armazenar falhas")
+    void naoDeveArmazenarFalhas() {
+        assertThrows(BusinessException.class, () -> idempotencyService.executar("op", "k1", "req",
+                () -> { throw new BusinessException("falhou"); }));
+        idempotencyService.executar("op", "k1", "req", this::executar);
+        assertEquals(1, execucoes.get());
+    }
+
+    @Test
+    @DisplayName("Repetições concorrentes devem aguardar a primeira execução")
+    void repeticoesConcorrentesDevemAguardar() throws Exception {
+        CountDownLatch iniciou = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<ResponseEntity<Integer>> primeira = executor.submit(() -> idempotencyService.executar("op", "k1", "req", () -> {
+                iniciou.countDown();
+                try {
+                    liberar.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return executar();
+            }));
+            iniciou.await(5, TimeUnit.SECONDS);
+            Future<ResponseEntity<Integer>> segunda = executor.submit(() -> idempotencyService.executar("op", "k1", "req", this::executar));
+            Future<ResponseEntity<Integer>> terceira = executor.submit(() -> idempotencyService.executar("op", "k1", "req", this::executar));
+            liberar.countDown();
+
+            assertEquals(1, primeira.get().getBody());
+            assertEquals(1, segunda.get().getBody());
+            assertEquals(1, terceira.get().getBody());
+            assertEquals(1, execucoes.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant agora = Instant.parse("2025-08-01T10:00:00Z");
+
+        void avancar(Duration duracao) {
+            agora = agora.plus(duracao);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return agora;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.deliverytech.delivery_api.service;
+
+import com.deliverytech.delivery_api.dto.ItemPedidoDTO;
+import com.deliverytech.delivery_api.dto.PedidoDTO;
+import com.deliverytech.delivery_api.dto.StatusPedidoDTO;
+import com.deliverytech.delivery_api.dto.StatusPedidoLoteDTO;
+import com.deliverytech.delivery_api.entity.*;
+import com.deliverytech.delivery_api.repository.ClienteRepository;
+import com.deliverytech.delivery_api.repository.MetricasPedidosDiaRepository;
+import com.deliverytech.delivery_api.repository.PedidoRepository;
+import com.deliverytech.delivery_api.repository.ProdutoRepository;
+import com.deliverytech.delivery_api.repository.RestauranteRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Sem @Transactional: os resumos diários são atualizados na transação de cada confirmação ou
+ * cancelamento, e o preenchimento lê os pedidos confirmados.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Sql(scripts = "/limpar-pedidos.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@DisplayName("Testes das métricas diárias de pedidos")
+class MetricasPedidosCommitTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private PedidoRepository pedidoRepository;
+    @Autowired private ClienteRepository clienteRepository;
+    @Autowired private RestauranteRepository restauranteRepository;
+    @Autowired private ProdutoRepository produtoRepository;
+    @Autowired private MetricasPedidosDiaRepository metricasPedidosDiaRepository;
+    @Autowired private MetricasPedidosService metricasPedidosService;
+
+    private Cliente ana;
+    private Restaurante restaurante;
+    private Produto produto;
+
+    @BeforeEach
+    void setup() {
+        ana = clienteRepository.save(new Cliente());
+        restaurante = new Restaurante();
+        restaurante.setAtivo(true);
+        restaurante = restauranteRepository.save(restaurante);
+        produto = new Produto();
+        produto.setRestaurante(restaurante);
+        produto.setPreco(new BigDecimal("10.00"));
+        produto.setDisponivel(true);
+        produto = produtoRepository.save(produto);
+    }
+
+    @Test
+    @DisplayName("Deve estimar clientes únicos e percentis do ticket pelos resumos diários, descontando cancelamentos")
+    @WithMockUser(roles = "ADMIN")
+    void deveManterMetricasDiariasDeConfirmacoes() throws Exception {
+        Long dezReais = pedidoDaAna(1);
+        Long vinteReais = pedidoDaAna(2);
+        Cliente bia = clienteRepository.save(new Cliente());
+        Long pedidoBia = criarPedido(bia, 4);
+
+        // R$ 10 confirmado um a um; R$ 20 e o da Bia (R$ 40) em lote
+        mockMvc.perform(put("/api/pedidos/{id}/confirmar", dezReais)).andExpect(status().isOk());
+        mockMvc.perform(patch("/api/pedidos/status").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new StatusPedidoLoteDTO(List.of(vinteReais, pedidoBia), StatusPedido.CONFIRMADO))))
+                .andExpect(status().isOk());
+        // Cancelar depois da confirmação desconta o pedido; os clientes distintos continuam contando
+        mockMvc.perform(delete("/api/pedidos/{id}", dezReais)).andExpect(status().isNoContent());
+
+        String dataInicio = LocalDate.now().minusDays(1).toString();
+        String dataFim = LocalDate.now().toString();
+        mockMvc.perform(get("/api/relatorios/restaurantes/{id}/clientes-unicos", restaurante.getId())
+                        .param("dataInicio", dataInicio).param("dataFim", dataFim))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.pedidos").value(2))
+                .andExpect(jsonPath("$.data.clientesUnicos").value(2))
+                .andExpect(jsonPath("$.data.dias[-1:].dia").value(dataFim));
+
+        JsonNode ticket = ticket(dataInicio, dataFim);
+        assertEquals(2, ticket.get("pedidos").asLong());
+        assertEquals(0, new BigDecimal("60.00").compareTo(ticket.get("valorTotal").decimalValue()));
+        assertEquals(0, new BigDecimal("30.00").compareTo(ticket.get("ticketMedio").decimalValue()));
+        assertEquals(20.0, ticket.get("mediana").asDouble(), 20.0 * 0.01);
+        assertEquals(20.0, ticket.get("p90").asDouble(), 20.0 * 0.01);
+
+        // Reaberto e confirmado de novo, o de R$ 10 volta a contar uma vez; o da Bia é cancelado em lote
+        mockMvc.perform(patch("/api/pedidos/{id}/status", dezReais).contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new StatusPedidoDTO(StatusPedido.PENDENTE))))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/api/pedidos/{id}/confirmar", dezReais)).andExpect(status().isOk());
+        mockMvc.perform(patch("/api/pedidos/status").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new StatusPedidoLoteDTO(List.of(pedidoBia), StatusPedido.CANCELADO))))
+                .andExpect(status().isOk());
+        ticket = ticket(dataInicio, dataFim);
+        assertEquals(2, ticket.get("pedidos").asLong());
+        assertEquals(0, new BigDecimal("30.00").compareTo(ticket.get("valorTotal").decimalValue()));
+        assertEquals(0, new BigDecimal("15.00").compareTo(ticket.get("ticketMedio").decimalValue()));
+
+        // O preenchimento recria os dias ausentes a partir dos pedidos, já sem a cliente só de cancelados
+        metricasPedidosDiaRepository.deleteAll();
+        assertEquals(1, metricasPedidosService.preencher(LocalDate.now().minusDays(1), LocalDate.now().plusDays(1)));
+        assertEquals(0, metricasPedidosService.preencher(LocalDate.now().minusDays(1), LocalDate.now().plusDays(1)));
+        ticket = ticket(dataInicio, dataFim);
+        assertEquals(2, ticket.get("pedidos").asLong());
+        assertEquals(0, new BigDecimal("30.00").compareTo(ticket.get("valorTotal").decimalValue()));
+        assertEquals(10.0, ticket.get("mediana").asDouble(), 10.0 * 0.01);
+        mockMvc.perform(get("/api/relatorios/restaurantes/{id}/clientes-unicos", restaurante.getId())
+                        .param("dataInicio", dataInicio).param("dataFim", dataFim))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.pedidos").value(2))
+                .andExpect(jsonPath("$.data.clientesUnicos").value(1));
+
+        mockMvc.perform(get("/api/relatorios/restaurantes/{id}/ticket", restaurante.getId() + 1)
+                        .param("dataInicio", dataInicio).param("dataFim", dataFim))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.pedidos").value(0))
+                .andExpect(jsonPath("$.data.mediana").isEmpty());
+        mockMvc.perform(get("/api/relatorios/restaurantes/{id}/clientes-unicos", restaurante.getId())
+                        .param("dataInicio", dataFim).param("dataFim", dataInicio))
+                .andExpect(status().isBadRequest());
+    }
+
+    // Gravado direto no repositório, pendente: só entra nas métricas ao ser confirmado
+    private Long pedidoDaAna(int quantidade) {
+        Pedido pedido = new Pedido();
+        pedido.setCliente(ana);
+        pedido.setRestaurante(restaurante);
+        pedido.setNumeroPedido("PED-MET" + quantidade);
+        ItemPedido item = new ItemPedido();
+        item.setProduto(produto);
+        item.setQuantidade(quantidade);
+        item.setPrecoUnitario(produto.getPreco());
+        item.calcularSubtotal();
+        pedido.adicionarItem(item);
+        return pedidoRepository.save(pedido).getId();
+    }
+
+    private Long criarPedido(Cliente cliente, int quantidade) throws Exception {
+        PedidoDTO dto = new PedidoDTO(cliente.getId(), restaurante.getId(), "Endereço", "12345-678", null, "PIX",
+                List.of(new ItemPedidoDTO(produto.getId(), quantidade, null)));
+        String corpo = mockMvc.perform(post("/api/pedidos").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(corpo).get("data").get("id").asLong();
+    }
+
+    private JsonNode ticket(String dataInicio, String dataFim) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(get("/api/relatorios/restaurantes/{id}/ticket", restaurante.getId())
+                        .param("dataInicio", dataInicio).param("dataFim", dataFim))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString()).get("data");
+    }
+}
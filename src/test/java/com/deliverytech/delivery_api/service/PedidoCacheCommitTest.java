@@ -0,0 +1,91 @@
+package com.deliverytech.delivery_api.service;
+
+import com.deliverytech.delivery_api.dto.StatusPedidoDTO;
+import com.deliverytech.delivery_api.dto.StatusPedidoLoteDTO;
+import com.deliverytech.delivery_api.entity.*;
+import com.deliverytech.delivery_api.repository.ClienteRepository;
+import com.deliverytech.delivery_api.repository.PedidoRepository;
+import com.deliverytech.delivery_api.repository.RestauranteRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Sem @Transactional: o cache de leitura só armazena pedidos lidos fora de uma transação e é
+ * invalidado após o commit das alterações.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Sql(scripts = "/limpar-pedidos.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@DisplayName("Testes do cache de leitura de pedidos")
+class PedidoCacheCommitTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private PedidoRepository pedidoRepository;
+    @Autowired private ClienteRepository clienteRepository;
+    @Autowired private RestauranteRepository restauranteRepository;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private Long id;
+
+    @BeforeEach
+    void setup() {
+        Restaurante restaurante = new Restaurante();
+        restaurante.setAtivo(true);
+        Pedido pedido = new Pedido();
+        pedido.setCliente(clienteRepository.save(new Cliente()));
+        pedido.setRestaurante(restauranteRepository.save(restaurante));
+        pedido.setNumeroPedido("PED-CACHE1");
+        id = pedidoRepository.save(pedido).getId();
+    }
+
+    @Test
+    @DisplayName("Deve servir a busca por id e por número do cache e refletir a alteração de status")
+    @WithMockUser(roles = "ADMIN")
+    void deveServirBuscaDoCacheEInvalidarNaAlteracao() throws Exception {
+        Statistics estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        mockMvc.perform(get("/api/pedidos/{id}", id)).andExpect(status().isOk());
+
+        estatisticas.clear();
+        mockMvc.perform(get("/api/pedidos/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.status").value("PENDENTE"));
+        mockMvc.perform(get("/api/pedidos/numero/{numero}", "PED-CACHE1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.id").value(id));
+        assertEquals(0, estatisticas.getPrepareStatementCount());
+
+        mockMvc.perform(patch("/api/pedidos/{id}/status", id).contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new StatusPedidoDTO(StatusPedido.CONFIRMADO))))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/pedidos/numero/{numero}", "PED-CACHE1"))
+                .andExpect(jsonPath("$.data.status").value("CONFIRMADO"));
+
+        mockMvc.perform(patch("/api/pedidos/status").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new StatusPedidoLoteDTO(List.of(id), StatusPedido.CANCELADO))))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/pedidos/{id}", id))
+                .andExpect(jsonPath("$.data.status").value("CANCELADO"));
+    }
+}
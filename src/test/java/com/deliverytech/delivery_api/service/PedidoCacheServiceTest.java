@@ -0,0 +1,171 @@
+package com.deliverytech.delivery_api.service;
+
+import com.deliverytech.delivery_api.dto.PedidoResponseDTO;
+import com.deliverytech.delivery_api.entity.StatusPedido;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Testes Unitários do PedidoCacheService")
+public class PedidoCacheServiceTest {
+
+    private MutableClock clock;
+    private SimpleMeterRegistry meterRegistry;
+    private PedidoCacheService cache;
+    private AtomicInteger carregamentos;
+
+    @BeforeEach
+    void setup() {
+        clock = new MutableClock();
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new PedidoCacheService(meterRegistry, 3, Duration.ofSeconds(30), clock);
+        carregamentos = new AtomicInteger();
+    }
+
+    private PedidoResponseDTO carregar(long id) {
+        carregamentos.incrementAndGet();
+        PedidoResponseDTO pedido = new PedidoResponseDTO();
+        pedido.setId(id);
+        pedido.setNumeroPedido("PED-" + id);
+        pedido.setStatus(StatusPedido.PENDENTE);
+        return pedido;
+    }
+
+    @Test
+    @DisplayName("Deve servir do cache por id e por número após o primeiro carregamento")
+    void deveServirPorIdEPorNumero() {
+        cache.obterPorId(1L, () -> carregar(1L));
+        PedidoResponseDTO porId = cache.obterPorId(1L, () -> carregar(1L));
+        PedidoResponseDTO porNumero = cache.obterPorNumero("PED-1", () -> carregar(1L));
+
+        assertEquals(1, carregamentos.get());
+        assertEquals(porId, porNumero);
+        assertNotSame(porId, porNumero);
+        assertEquals(2.0, meterRegistry.counter("delivery.pedidos.cache.consultas", "resultado", "acerto").count());
+        assertEquals(1.0, meterRegistry.counter("delivery.pedidos.cache.consultas", "resultado", "falta").count());
+    }
+
+    @Test
+    @DisplayName("Deve carregar de novo após a expiração")
+    void deveExpirarEntradas() {
+        cache.obterPorId(1L, () -> carregar(1L));
+        clock.avancar(Duration.ofSeconds(31));
+        cache.obterPorId(1L, () -> carregar(1L));
+
+        assertEquals(2, carregamentos.get());
+        assertEquals(1.0, meterRegistry.counter("delivery.pedidos.cache.remocoes", "motivo", "expiracao").count());
+    }
+
+    @Test
+    @DisplayName("Deve descartar o pedido menos usado ao atingir a capacidade")
+    void deveLimitarEntradas() {
+        for (long id = 1; id <= 3; id++) {
+            long atual = id;
+            cache.obterPorId(id, () -> carregar(atual));
+        }
+        cache.obterPorId(1L, () -> carregar(1L)); // 2 passa a ser o menos usado
+        cache.obterPorId(4L, () -> carregar(4L));
+
+        assertEquals(3, cache.tamanho());
+        cache.obterPorNumero("PED-1", () -> carregar(1L));
+        assertEquals(4, carregamentos.get());
+        cache.obterPorNumero("PED-2", () -> carregar(2L));
+        assertEquals(5, carregamentos.get());
+        assertTrue(meterRegistry.counter("delivery.pedidos.cache.remocoes", "motivo", "capacidade").count() >= 1.0);
+    }
+
+    @Test
+    @DisplayName("Deve remover o pedido invalidado dos dois índices")
+    void deveInvalidarPorIdENumero() {
+        cache.obterPorId(1L, () -> carregar(1L));
+        cache.obterPorId(2L, () -> carregar(2L));
+        cache.invalidar(List.of(1L));
+
+        cache.obterPorNumero("PED-1", () -> carregar(1L));
+        cache.obterPorId(2L, () -> carregar(2L));
+
+        assertEquals(3, carregamentos.get());
+        assertEquals(1.0, meterRegistry.counter("delivery.pedidos.cache.remocoes", "motivo", "invalidacao").count());
+    }
+
+    @Test
+    @DisplayName("Não deve armazenar um pedido carregado antes de uma invalidação concorrente")
+    void naoDeveArmazenarCarregamentoAnteriorAInvalidacao() {
+        cache.obterPorId(1L, () -> {
+            PedidoResponseDTO antigo = carregar(1L);
+            cache.invalidar(1L); // alteração confirmada enquanto a leitura ainda montava o DTO
+            return antigo;
+        });
+        cache.obterPorId(1L, () -> carregar(1L));
+
+        assertEquals(2, carregamentos.get());
+    }
+
+    @Test
+    @DisplayName("Deve armazenar o pedido carregado enquanto outro pedido é invalidado")
+    void deveArmazenarCarregamentoConcorrenteComInvalidacaoDeOutroPedido() {
+        cache.obterPorId(1L, () -> {
+            PedidoResponseDTO pedido = carregar(1L);
+            cache.invalidar(2L);
+            return pedido;
+        });
+        cache.obterPorId(1L, () -> carregar(1L));
+
+        assertEquals(1, carregamentos.get());
+    }
+
+    @Test
+    @DisplayName("Não deve expor o pedido armazenado a alterações de quem o recebeu")
+    void naoDeveCompartilharOPedidoArmazenado() {
+        PedidoResponseDTO carregado = cache.obterPorId(1L, () -> carregar(1L));
+        carregado.setStatus(StatusPedido.CANCELADO);
+        PedidoResponseDTO primeiro = cache.obterPorId(1L, () -> carregar(1L));
+        primeiro.setStatus(StatusPedido.ENTREGUE);
+
+        assertEquals(StatusPedido.PENDENTE, cache.obterPorNumero("PED-1", () -> carregar(1L)).getStatus());
+        assertEquals(1, carregamentos.get());
+    }
+
+    @Test
+    @DisplayName("Não deve armazenar falhas de carregamento")
+    void naoDeveArmazenarFalhas() {
+        assertThrows(IllegalStateException.class, () -> cache.obterPorId(1L, () -> {
+            throw new IllegalStateException("falhou");
+        }));
+        assertEquals(0, cache.tamanho());
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant agora = Instant.parse("2025-08-01T10:00:00Z");
+
+        void avancar(Duration duracao) {
+            agora = agora.plus(duracao);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return agora;
+        }
+    }
+}
@@ -1,11 +1,18 @@
 package com.deliverytech.delivery_api.service;
 
+import com.deliverytech.delivery_api.dto.ItemPedidoDTO;
+import com.deliverytech.delivery_api.dto.PedidoDTO;
 import com.deliverytech.delivery_api.dto.StatusPedidoDTO;
 import com.deliverytech.delivery_api.entity.*;
 import com.deliverytech.delivery_api.exception.BusinessException;
+import com.deliverytech.delivery_api.exception.ItensPedidoInvalidosException;
+import com.deliverytech.delivery_api.repository.ClienteRepository;
+import com.deliverytech.delivery_api.repository.PedidoArquivadoRepository;
 import com.deliverytech.delivery_api.repository.PedidoRepository;
 import com.deliverytech.delivery_api.repository.ProdutoRepository;
+import com.deliverytech.delivery_api.repository.RestauranteRepository;
 import com.deliverytech.delivery_api.security.SecurityUtils;
+import com.deliverytech.delivery_api.service.outbox.OutboxService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -24,7 +31,9 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -37,7 +46,33 @@ public class PedidoServiceTest {
     @Mock
     private PedidoRepository pedidoRepository;
     @Mock
+    private PedidoArquivadoRepository pedidoArquivadoRepository;
+    @Mock
     private ProdutoRepository produtoRepository;
+    @Mock
+    private ClienteRepository clienteRepository;
+    @Mock
+    private RestauranteRepository restauranteRepository;
+    @Mock
+    private NumeroPedidoGenerator numeroPedidoGenerator;
+    @Mock
+    private PedidoCacheService pedidoCacheService;
+    @Mock
+    private EventosPedidoService eventosPedidoService;
+    @Mock
+    private FilaCozinhaService filaCozinhaService;
+    @Mock
+    private OutboxService outboxService;
+    @Mock
+    private VendasRestauranteService vendasRestauranteService;
+    @Mock
+    private RollupPedidosService rollupPedidosService;
+    @Mock
+    private ProdutosMaisVendidosService produtosMaisVendidosService;
+    @Mock
+    private RankingClientesService rankingClientesService;
+    @Mock
+    private MetricasPedidosService metricasPedidosService;
     @InjectMocks
     private PedidoService pedidoService;
 
@@ -61,9 +96,71 @@ public class PedidoServiceTest {
         pedido.setId(100L);
         pedido.setStatus(StatusPedido.PENDENTE);
         pedido.setRestaurante(restaurante);
+        pedido.setCliente(new Cliente());
         pedido.setItens(new ArrayList<>());
     }
 
+    // --- Testes Abrangentes para Criar Pedido ---
+
+    @Test
+    @DisplayName("Deve resolver todos os produtos do pedido em uma única consulta")
+    void deveResolverProdutosEmUmaUnicaConsulta() {
+        restaurante.setAtivo(true);
+        Produto outro = new Produto();
+        outro.setId(11L);
+        outro.setDisponivel(true);
+        outro.setRestaurante(restaurante);
+        outro.setPreco(new BigDecimal("7.50"));
+
+        when(clienteRepository.findById(1L)).thenReturn(Optional.of(new Cliente()));
+        when(restauranteRepository.findById(1L)).thenReturn(Optional.of(restaurante));
+        when(produtoRepository.findAllByIdComRestaurante(any())).thenReturn(List.of(produto, outro));
+        when(pedidoRepository.save(any(Pedido.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(numeroPedidoGenerator.gerar()).thenReturn("PED-0000000000001");
+
+        PedidoDTO dto = new PedidoDTO(1L, 1L, "Rua A", "12345-678", null, "PIX",
+                List.of(new ItemPedidoDTO(10L, 2, null), new ItemPedidoDTO(11L, 1, null), new ItemPedidoDTO(10L, 1, null)));
+        var resultado = pedidoService.criarPedido(dto);
+
+        assertEquals(new BigDecimal("67.50"), resultado.getSubtotal());
+        assertEquals("PED-0000000000001", resultado.getNumeroPedido());
+        verify(produtoRepository, times(1)).findAllByIdComRestaurante(any());
+        verify(produtoRepository, never()).findById(any());
+    }
+
+    @Test
+    @DisplayName("Deve reportar todos os itens inválidos do pedido de uma só vez")
+    void deveReportarTodosItensInvalidos() {
+        restaurante.setAtivo(true);
+        Restaurante outroRestaurante = new Restaurante();
+        outroRestaurante.setId(2L);
+        Produto indisponivel = new Produto();
+        indisponivel.setId(11L);
+        indisponivel.setNome("Indisponível");
+        indisponivel.setDisponivel(false);
+        indisponivel.setRestaurante(restaurante);
+        Produto deOutroRestaurante = new Produto();
+        deOutroRestaurante.setId(12L);
+        deOutroRestaurante.setNome("Alheio");
+        deOutroRestaurante.setDisponivel(true);
+        deOutroRestaurante.setRestaurante(outroRestaurante);
+
+        when(clienteRepository.findById(1L)).thenReturn(Optional.of(new Cliente()));
+        when(restauranteRepository.findById(1L)).thenReturn(Optional.of(restaurante));
+        when(produtoRepository.findAllByIdComRestaurante(any())).thenReturn(List.of(produto, indisponivel, deOutroRestaurante));
+
+        PedidoDTO dto = new PedidoDTO(1L, 1L, "Rua A", "12345-678", null, "PIX", List.of(
+                new ItemPedidoDTO(10L, 1, null), new ItemPedidoDTO(11L, 1, null),
+                new ItemPedidoDTO(12L, 1, null), new ItemPedidoDTO(99L, 1, null)));
+
+        ItensPedidoInvalidosException ex = assertThrows(ItensPedidoInvalidosException.class, () -> pedidoService.criarPedido(dto));
+        assertEquals(3, ex.getItensInvalidos().size());
+        assertTrue(ex.getItensInvalidos().containsKey("itens[1].produtoId"));
+        assertTrue(ex.getItensInvalidos().containsKey("itens[2].produtoId"));
+        assertTrue(ex.getItensInvalidos().containsKey("itens[3].produtoId"));
+        verify(pedidoRepository, never()).save(any());
+    }
+
     // --- Testes Abrangentes para Adicionar Item ---
 
     @Test
@@ -112,7 +209,8 @@ public class PedidoServiceTest {
         pedido.setStatus(StatusPedido.CONFIRMADO);
         pedido.getItens().add(new ItemPedido()); // Adiciona item para passar da primeira validação
         when(pedidoRepository.findById(100L)).thenReturn(Optional.of(pedido));
-        assertThrows(BusinessException.class, () -> pedidoService.confirmarPedido(100L));
+        BusinessException erro = assertThrows(BusinessException.class, () -> pedidoService.confirmarPedido(100L));
+        assertEquals("ORDER_STATUS_INVALID", erro.getErrorCode());
     }
     
     // --- Testes Abrangentes para Atualizar Status ---
@@ -135,6 +233,29 @@ public class PedidoServiceTest {
         assertThrows(BusinessException.class, () -> pedidoService.atualizarStatusPedido(100L, new StatusPedidoDTO(StatusPedido.CANCELADO)));
     }
     
+    @Test
+    @DisplayName("Deve atualizar status em lote com um único UPDATE apenas para transições válidas")
+    void deveAtualizarStatusEmLoteApenasTransicoesValidas() {
+        when(pedidoRepository.bloquearSituacoes(any())).thenReturn(List.of(
+                new PedidoRepository.SituacaoPedido(1L, StatusPedido.CONFIRMADO, 1L, 1L, 0L,
+                        new BigDecimal("50.00"), new BigDecimal("45.00"), LocalDateTime.now()),
+                new PedidoRepository.SituacaoPedido(2L, StatusPedido.CONFIRMADO, 1L, 1L, 0L,
+                        new BigDecimal("50.00"), new BigDecimal("45.00"), LocalDateTime.now()),
+                new PedidoRepository.SituacaoPedido(3L, StatusPedido.ENTREGUE, 1L, 1L, 0L,
+                        new BigDecimal("50.00"), new BigDecimal("45.00"), LocalDateTime.now()),
+                new PedidoRepository.SituacaoPedido(4L, StatusPedido.CONFIRMADO, 2L, 1L, 0L,
+                        new BigDecimal("50.00"), new BigDecimal("45.00"), LocalDateTime.now())));
+        when(pedidoRepository.atualizarStatus(List.of(1L, 2L), Set.of(StatusPedido.CONFIRMADO), StatusPedido.PREPARANDO)).thenReturn(2);
+
+        var resultado = pedidoService.atualizarStatusEmLote(List.of(1L, 2L, 3L, 4L, 5L, 1L), StatusPedido.PREPARANDO, 1L, null);
+
+        assertEquals(5, resultado.getTotal());
+        assertEquals(List.of(1L, 2L), resultado.getAtualizados());
+        assertEquals(Set.of(3L, 4L, 5L), resultado.getRejeitados().keySet());
+        verify(pedidoRepository, times(1)).atualizarStatus(any(), any(), any());
+        verify(pedidoRepository, never()).findById(any());
+    }
+
     // --- Testes Abrangentes para Cancelar Pedido ---
 
     @Test
@@ -143,7 +264,18 @@ public class PedidoServiceTest {
         pedido.setStatus(StatusPedido.CANCELADO);
         when(pedidoRepository.findById(100L)).thenReturn(Optional.of(pedido));
 
-        assertThrows(BusinessException.class, () -> pedidoService.cancelarPedido(100L, "Tentar de novo"));
+        BusinessException erro = assertThrows(BusinessException.class, () -> pedidoService.cancelarPedido(100L, "Tentar de novo"));
+        assertEquals("ORDER_ALREADY_CANCELLED", erro.getErrorCode());
+    }
+
+    @Test
+    @DisplayName("Deve lançar exceção ao tentar cancelar um pedido já entregue")
+    void deveLancarExcecaoAoCancelarPedidoEntregue() {
+        pedido.setStatus(StatusPedido.ENTREGUE);
+        when(pedidoRepository.findById(100L)).thenReturn(Optional.of(pedido));
+
+        BusinessException erro = assertThrows(BusinessException.class, () -> pedidoService.cancelarPedido(100L, "Tarde demais"));
+        assertEquals("ORDER_ALREADY_DELIVERED", erro.getErrorCode());
     }
 
     // --- Testes Abrangentes para Listar e Buscar ---
@@ -0,0 +1,142 @@
+package com.deliverytech.delivery_api.service;
+
+import com.deliverytech.delivery_api.dto.ItemPedidoDTO;
+import com.deliverytech.delivery_api.dto.PedidoDTO;
+import com.deliverytech.delivery_api.dto.ProdutoMaisVendidoDTO;
+import com.deliverytech.delivery_api.dto.StatusPedidoLoteDTO;
+import com.deliverytech.delivery_api.entity.*;
+import com.deliverytech.delivery_api.repository.ClienteRepository;
+import com.deliverytech.delivery_api.repository.ProdutoRepository;
+import com.deliverytech.delivery_api.repository.RestauranteRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Sem @Transactional: o ranking em memória é atualizado após o commit das confirmações e dos
+ * cancelamentos, e a carga a partir do banco só enxerga pedidos confirmados.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Sql(scripts = "/limpar-pedidos.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@DisplayName("Testes dos produtos mais vendidos")
+class ProdutosMaisVendidosCommitTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private ClienteRepository clienteRepository;
+    @Autowired private RestauranteRepository restauranteRepository;
+    @Autowired private ProdutoRepository produtoRepository;
+    @Autowired private ProdutosMaisVendidosService produtosMaisVendidosService;
+
+    private Cliente cliente;
+    private Restaurante restaurante;
+    private Produto pizza;
+    private Produto suco;
+
+    @BeforeEach
+    void setup() {
+        cliente = clienteRepository.save(new Cliente());
+        restaurante = new Restaurante();
+        restaurante.setAtivo(true);
+        restaurante = restauranteRepository.save(restaurante);
+        // Categorias únicas por teste: o ranking em memória é compartilhado pelo contexto
+        pizza = produto("Pizza", "Pizzas " + restaurante.getId(), "10.00");
+        suco = produto("Suco", "Bebidas " + restaurante.getId(), "5.00");
+    }
+
+    @Test
+    @DisplayName("Deve manter os produtos mais vendidos nas confirmações e cancelamentos, iguais às quantidades exatas do banco")
+    @WithMockUser(roles = "ADMIN")
+    void deveManterProdutosMaisVendidos() throws Exception {
+        Long umaPizza = criarPedido(pizza, 1);
+        Long duasPizzas = criarPedido(pizza, 2);
+        Long tresPizzas = criarPedido(pizza, 3);
+        Long seteSucos = criarPedido(suco, 7);
+
+        // Confirmações uma a uma e em lote: pizzas 2 + 1 + 3, sucos 7
+        mockMvc.perform(put("/api/pedidos/{id}/confirmar", duasPizzas)).andExpect(status().isOk());
+        mockMvc.perform(patch("/api/pedidos/status").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new StatusPedidoLoteDTO(List.of(umaPizza, tresPizzas), StatusPedido.CONFIRMADO))))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/api/pedidos/{id}/confirmar", seteSucos)).andExpect(status().isOk());
+        // Cancelamentos um a um e em lote: pizzas - 3 - 1
+        mockMvc.perform(delete("/api/pedidos/{id}", tresPizzas)).andExpect(status().isNoContent());
+        mockMvc.perform(patch("/api/pedidos/status").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new StatusPedidoLoteDTO(List.of(umaPizza), StatusPedido.CANCELADO))))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/relatorios/produtos-mais-vendidos").param("restauranteId", restaurante.getId().toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(2))
+                .andExpect(jsonPath("$.data[0].nome").value("Suco"))
+                .andExpect(jsonPath("$.data[0].quantidadeVendida").value(7))
+                .andExpect(jsonPath("$.data[1].nome").value("Pizza"))
+                .andExpect(jsonPath("$.data[1].quantidadeVendida").value(2))
+                .andExpect(jsonPath("$.data[1].erroMaximo").value(0));
+        mockMvc.perform(get("/api/relatorios/produtos-mais-vendidos").param("categoria", pizza.getCategoria().toUpperCase()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(1))
+                .andExpect(jsonPath("$.data[0].produtoId").value(pizza.getId()));
+
+        // O ranking acompanha as quantidades exatas, e uma carga nova a partir do banco chega ao mesmo resultado
+        Map<Long, Long> exatas = produtoRepository.somarQuantidadesVendidas(EnumSet.of(StatusPedido.CONFIRMADO,
+                        StatusPedido.PREPARANDO, StatusPedido.SAIU_PARA_ENTREGA, StatusPedido.ENTREGUE)).stream()
+                .filter(quantidade -> quantidade.restauranteId().equals(restaurante.getId()))
+                .collect(Collectors.toMap(ProdutoRepository.QuantidadeVendida::produtoId, ProdutoRepository.QuantidadeVendida::quantidade));
+        assertEquals(Map.of(suco.getId(), 7L, pizza.getId(), 2L), exatas);
+        assertEquals(exatas, quantidades(produtosMaisVendidosService.maisVendidos(restaurante.getId(), null, 10)));
+        ProdutosMaisVendidosService carregado = new ProdutosMaisVendidosService(produtoRepository, 1000, 100, false, Duration.ofMinutes(5));
+        carregado.carregar();
+        assertEquals(exatas, quantidades(carregado.maisVendidos(restaurante.getId(), null, 10)));
+    }
+
+    private Produto produto(String nome, String categoria, String preco) {
+        Produto produto = new Produto();
+        produto.setNome(nome);
+        produto.setCategoria(categoria);
+        produto.setRestaurante(restaurante);
+        produto.setPreco(new BigDecimal(preco));
+        produto.setDisponivel(true);
+        return produtoRepository.save(produto);
+    }
+
+    private Long criarPedido(Produto produto, int quantidade) throws Exception {
+        PedidoDTO dto = new PedidoDTO(cliente.getId(), restaurante.getId(), "Endereço", "12345-678", null, "PIX",
+                List.of(new ItemPedidoDTO(produto.getId(), quantidade, null)));
+        String corpo = mockMvc.perform(post("/api/pedidos").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(corpo).get("data").get("id").asLong();
+    }
+
+    private static Map<Long, Long> quantidades(List<ProdutoMaisVendidoDTO> ranking) {
+        return ranking.stream().collect(Collectors.toMap(ProdutoMaisVendidoDTO::getProdutoId, ProdutoMaisVendidoDTO::getQuantidadeVendida));
+    }
+}
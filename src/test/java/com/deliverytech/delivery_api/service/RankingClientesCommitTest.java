@@ -0,0 +1,151 @@
+package com.deliverytech.delivery_api.service;
+
+import com.deliverytech.delivery_api.dto.ClienteRankingDTO;
+import com.deliverytech.delivery_api.dto.ItemPedidoDTO;
+import com.deliverytech.delivery_api.dto.PedidoDTO;
+import com.deliverytech.delivery_api.dto.StatusPedidoLoteDTO;
+import com.deliverytech.delivery_api.entity.*;
+import com.deliverytech.delivery_api.repository.ClienteRepository;
+import com.deliverytech.delivery_api.repository.PedidoRepository;
+import com.deliverytech.delivery_api.repository.ProdutoRepository;
+import com.deliverytech.delivery_api.repository.RestauranteRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Sem @Transactional: o ranking em memória é atualizado após o commit de cada pedido, e a carga a
+ * partir do banco só enxerga pedidos confirmados.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Sql(scripts = "/limpar-pedidos.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@DisplayName("Testes do ranking de clientes ativos")
+class RankingClientesCommitTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private PedidoRepository pedidoRepository;
+    @Autowired private ClienteRepository clienteRepository;
+    @Autowired private RestauranteRepository restauranteRepository;
+    @Autowired private ProdutoRepository produtoRepository;
+    @Autowired private RankingClientesService rankingClientesService;
+
+    private Cliente ana;
+    private Cliente bia;
+    private Restaurante restaurante;
+    private Produto produto;
+
+    @BeforeEach
+    void setup() {
+        ana = cliente("Ana");
+        bia = cliente("Bia");
+        restaurante = new Restaurante();
+        restaurante.setAtivo(true);
+        restaurante = restauranteRepository.save(restaurante);
+        produto = new Produto();
+        produto.setRestaurante(restaurante);
+        produto.setPreco(new BigDecimal("10.00"));
+        produto.setDisponivel(true);
+        produto = produtoRepository.save(produto);
+
+        // Histórico da Ana gravado direto no repositório (10 + 20 + 30): só a carga a partir do banco o conta
+        for (int quantidade = 1; quantidade <= 3; quantidade++) {
+            Pedido pedido = new Pedido();
+            pedido.setCliente(ana);
+            pedido.setRestaurante(restaurante);
+            pedido.setNumeroPedido("PED-RNK" + quantidade);
+            ItemPedido item = new ItemPedido();
+            item.setProduto(produto);
+            item.setQuantidade(quantidade);
+            item.setPrecoUnitario(produto.getPreco());
+            item.calcularSubtotal();
+            pedido.adicionarItem(item);
+            pedidoRepository.save(pedido);
+        }
+    }
+
+    @Test
+    @DisplayName("Deve manter o ranking de clientes na criação, cancelamento e reativação de pedidos, igual aos totais do banco")
+    @WithMockUser(roles = "ADMIN")
+    void deveManterRankingDeClientes() throws Exception {
+        criarPedido(ana);
+        List<Long> pedidosBia = List.of(criarPedido(bia), criarPedido(bia));
+        assertTrue(posicao(bia) < posicao(ana));
+
+        // Cancelada: empate em pedidos e valor, desfeito pelo ID
+        mockMvc.perform(delete("/api/pedidos/{id}", pedidosBia.get(0))).andExpect(status().isNoContent());
+        assertEquals(posicao(ana) + 1, posicao(bia));
+        // Reativada em lote
+        mockMvc.perform(patch("/api/pedidos/status").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new StatusPedidoLoteDTO(List.of(pedidosBia.get(0)), StatusPedido.PENDENTE))))
+                .andExpect(status().isOk());
+        assertTrue(posicao(bia) < posicao(ana));
+
+        mockMvc.perform(get("/api/relatorios/clientes-ativos/{id}", bia.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.nome").value("Bia"))
+                .andExpect(jsonPath("$.data.quantidadePedidos").value(2))
+                .andExpect(jsonPath("$.data.valorTotal").value(40.0));
+        mockMvc.perform(get("/api/relatorios/clientes-ativos/{id}", 999_999L)).andExpect(status().isNotFound());
+
+        // Uma carga nova a partir do banco inclui o histórico da Ana e chega aos totais exatos
+        Map<Long, ClienteRepository.TotalPedidosCliente> exatos = clienteRepository.somarPedidosPorCliente().stream()
+                .collect(Collectors.toMap(ClienteRepository.TotalPedidosCliente::clienteId, total -> total));
+        RankingClientesService carregado = new RankingClientesService(clienteRepository, false, Duration.ofMinutes(5));
+        carregado.carregar();
+        for (Cliente c : List.of(ana, bia)) {
+            ClienteRankingDTO posicao = carregado.posicao(c.getId()).orElseThrow();
+            assertEquals(exatos.get(c.getId()).quantidadePedidos(), posicao.getQuantidadePedidos());
+            assertEquals(0, exatos.get(c.getId()).valorTotal().compareTo(posicao.getValorTotal()));
+        }
+        assertEquals(List.of(ana.getId(), bia.getId()), carregado.primeiros(2).stream().map(ClienteRankingDTO::getClienteId).toList());
+        ClienteRankingDTO emMemoria = rankingClientesService.posicao(bia.getId()).orElseThrow();
+        assertEquals(2, emMemoria.getQuantidadePedidos());
+        assertEquals(exatos.get(bia.getId()).quantidadePedidos(), emMemoria.getQuantidadePedidos());
+    }
+
+    private Cliente cliente(String nome) {
+        Cliente cliente = new Cliente();
+        cliente.setNome(nome);
+        return clienteRepository.save(cliente);
+    }
+
+    private Long criarPedido(Cliente cliente) throws Exception {
+        PedidoDTO dto = new PedidoDTO(cliente.getId(), restaurante.getId(), "Endereço", "12345-678", null, "PIX",
+                List.of(new ItemPedidoDTO(produto.getId(), 2, null)));
+        String corpo = mockMvc.perform(post("/api/pedidos").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(corpo).get("data").get("id").asLong();
+    }
+
+    private int posicao(Cliente cliente) {
+        return rankingClientesService.posicao(cliente.getId()).orElseThrow().getPosicao();
+    }
+}
@@ -0,0 +1,139 @@
+package com.deliverytech.delivery_api.service;
+
+import com.deliverytech.delivery_api.dto.ItemPedidoDTO;
+import com.deliverytech.delivery_api.dto.PedidoDTO;
+import com.deliverytech.delivery_api.entity.Cliente;
+import com.deliverytech.delivery_api.entity.Produto;
+import com.deliverytech.delivery_api.entity.Restaurante;
+import com.deliverytech.delivery_api.repository.ClienteRepository;
+import com.deliverytech.delivery_api.repository.ProdutoRepository;
+import com.deliverytech.delivery_api.repository.RestauranteRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Sem @Transactional: os jobs rodam em outra thread, que só enxerga pedidos confirmados.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Sql(scripts = "/limpar-pedidos.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@DisplayName("Testes dos relatórios assíncronos")
+class RelatorioJobCommitTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private ClienteRepository clienteRepository;
+    @Autowired private RestauranteRepository restauranteRepository;
+    @Autowired private ProdutoRepository produtoRepository;
+
+    private PedidoDTO pedido;
+    private Restaurante restaurante;
+
+    @BeforeEach
+    void setup() {
+        restaurante = new Restaurante();
+        restaurante.setNome("Restaurante Relatórios");
+        restaurante.setAtivo(true);
+        restaurante = restauranteRepository.save(restaurante);
+        Produto produto = new Produto();
+        produto.setRestaurante(restaurante);
+        produto.setPreco(new BigDecimal("25.00"));
+        produto.setDisponivel(true);
+        produto = produtoRepository.save(produto);
+        Cliente cliente = clienteRepository.save(new Cliente());
+        pedido = new PedidoDTO(cliente.getId(), restaurante.getId(), "Endereço", "12345-678", null, "PIX",
+                List.of(new ItemPedidoDTO(produto.getId(), 1, null)));
+    }
+
+    @Test
+    @DisplayName("Deve gerar o relatório assíncrono em CSV e reaproveitá-lo até a próxima alteração de pedido")
+    @WithMockUser(roles = "ADMIN")
+    void deveGerarRelatorioAssincrono() throws Exception {
+        criarPedido();
+        Map<String, Object> solicitacao = Map.of("tipo", "PEDIDOS_POR_PERIODO", "formato", "CSV",
+                "dataInicio", LocalDate.now().toString(), "dataFim", LocalDate.now().toString());
+
+        String id = solicitarRelatorio(solicitacao);
+        aguardarRelatorio(id);
+        String csv = mockMvc.perform(get("/api/relatorios/jobs/{id}/resultado", id))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "text/csv;charset=UTF-8"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"pedidos_por_periodo-" + id + ".csv\""))
+                .andReturn().getResponse().getContentAsString();
+        assertTrue(csv.startsWith("restauranteId,status,quantidade,valorBruto,valorLiquido\r\n"), csv);
+        assertTrue(csv.contains(restaurante.getId() + ",PENDENTE,"), csv);
+
+        assertEquals(id, solicitarRelatorio(solicitacao));
+        criarPedido();
+        assertNotEquals(id, solicitarRelatorio(solicitacao));
+
+        // Vendas por restaurante: lidas de um cursor do banco, dentro da transação do job
+        String vendas = solicitarRelatorio(Map.of("tipo", "VENDAS_POR_RESTAURANTE", "formato", "JSON"));
+        aguardarRelatorio(vendas);
+        mockMvc.perform(get("/api/relatorios/jobs/{id}/resultado", vendas))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isArray())
+                .andExpect(jsonPath("$[?(@.nomeRestaurante == 'Restaurante Relatórios')].quantidePedidos").value(2));
+
+        mockMvc.perform(get("/api/relatorios/jobs/{id}", "inexistente")).andExpect(status().isNotFound());
+        mockMvc.perform(post("/api/relatorios/jobs").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("tipo", "PEDIDOS_POR_PERIODO"))))
+                .andExpect(status().isBadRequest());
+    }
+
+    private void criarPedido() throws Exception {
+        mockMvc.perform(post("/api/pedidos").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(pedido)))
+                .andExpect(status().isCreated());
+    }
+
+    private String solicitarRelatorio(Map<String, Object> solicitacao) throws Exception {
+        MvcResult resultado = mockMvc.perform(post("/api/relatorios/jobs").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(solicitacao)))
+                .andExpect(status().isAccepted())
+                .andReturn();
+        String id = objectMapper.readTree(resultado.getResponse().getContentAsString()).get("data").get("id").asText();
+        assertEquals("/api/relatorios/jobs/" + id, resultado.getResponse().getHeader("Location"));
+        return id;
+    }
+
+    private void aguardarRelatorio(String id) throws Exception {
+        long limite = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < limite) {
+            String corpo = mockMvc.perform(get("/api/relatorios/jobs/{id}", id))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            String situacao = objectMapper.readTree(corpo).get("data").get("situacao").asText();
+            if (situacao.equals("CONCLUIDO")) {
+                return;
+            }
+            assertNotEquals("FALHOU", situacao, corpo);
+            Thread.sleep(20);
+        }
+        throw new AssertionError("Relatório " + id + " não concluído");
+    }
+}
@@ -0,0 +1,252 @@
+package com.deliverytech.delivery_api.service;
+
+import com.deliverytech.delivery_api.dto.ClienteRankingDTO;
+import com.deliverytech.delivery_api.dto.PedidosPorPeriodoDTO;
+import com.deliverytech.delivery_api.dto.RelatorioJobDTO;
+import com.deliverytech.delivery_api.dto.RelatorioJobDTO.Formato;
+import com.deliverytech.delivery_api.dto.RelatorioJobDTO.Tipo;
+import com.deliverytech.delivery_api.dto.RelatorioJobResponseDTO;
+import com.deliverytech.delivery_api.dto.RelatorioJobResponseDTO.Situacao;
+import com.deliverytech.delivery_api.entity.StatusPedido;
+import com.deliverytech.delivery_api.exception.BusinessException;
+import com.deliverytech.delivery_api.exception.ConflictException;
+import com.deliverytech.delivery_api.exception.EntityNotFoundException;
+import com.deliverytech.delivery_api.exception.FilaCheiaException;
+import com.deliverytech.delivery_api.repository.projections.RelatorioVendas;
+import com.deliverytech.delivery_api.service.outbox.OutboxService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes Unitários da RelatorioJobService")
+public class RelatorioJobServiceTest {
+
+    @Mock
+    private RelatorioService relatorioService;
+    @Mock
+    private OutboxService outboxService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RelatorioJobService relatorioJobService;
+
+    private RelatorioJobService criar(int threads, int capacidade) throws Exception {
+        relatorioJobService = new RelatorioJobService(relatorioService, outboxService, objectMapper, meterRegistry,
+                threads, capacidade, Duration.ofMinutes(10));
+        relatorioJobService.iniciar();
+        return relatorioJobService;
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (relatorioJobService != null) {
+            relatorioJobService.parar();
+        }
+    }
+
+    @Test
+    @DisplayName("Deve gerar o relatório em CSV, com cabeçalho e campos escapados")
+    void deveGerarCsv() throws Exception {
+        criar(1, 5);
+        when(relatorioService.getClientesMaisAtivos(3)).thenReturn(List.of(
+                new ClienteRankingDTO(1, 7L, "Silva, \"Zé\"", 4L, new BigDecimal("120.50")),
+                new ClienteRankingDTO(2, 9L, "Ana", 2L, new BigDecimal("1E+2"))));
+
+        RelatorioJobResponseDTO job = relatorioJobService.solicitar(dto(Tipo.CLIENTES_ATIVOS, Formato.CSV, 3));
+        aguardarConclusao(job.getId());
+
+        String csv = Files.readString(relatorioJobService.resultado(job.getId()).arquivo(), StandardCharsets.UTF_8);
+        assertEquals("posicao,clienteId,nome,quantidadePedidos,valorTotal\r\n"
+                + "1,7,\"Silva, \"\"Zé\"\"\",4,120.50\r\n"
+                + "2,9,Ana,2,100\r\n", csv);
+        assertEquals("/api/relatorios/jobs/" + job.getId() + "/resultado", relatorioJobService.consultar(job.getId()).getResultado());
+    }
+
+    @Test
+    @DisplayName("Deve gerar o relatório de vendas com as linhas entregues pelo cursor, uma por vez")
+    void deveGerarVendasDoCursor() throws Exception {
+        criar(1, 5);
+        doAnswer(invocacao -> {
+            Consumer<RelatorioVendas> destino = invocacao.getArgument(0);
+            destino.accept(vendas("Pizzaria", new BigDecimal("150.00"), 3L));
+            destino.accept(vendas("Sushi", BigDecimal.ZERO, 0L));
+            return null;
+        }).when(relatorioService).exportarVendasPorRestaurante(any());
+
+        RelatorioJobResponseDTO job = relatorioJobService.solicitar(dto(Tipo.VENDAS_POR_RESTAURANTE, Formato.CSV, null));
+        aguardarConclusao(job.getId());
+
+        String csv = Files.readString(relatorioJobService.resultado(job.getId()).arquivo(), StandardCharsets.UTF_8);
+        assertEquals("nomeRestaurante,totalVendas,quantidePedidos\r\nPizzaria,150.00,3\r\nSushi,0,0\r\n", csv);
+        verify(relatorioService, never()).getVendasPorRestaurante();
+    }
+
+    @Test
+    @DisplayName("Deve gerar o relatório por período em JSON")
+    void deveGerarJson() throws Exception {
+        criar(1, 5);
+        when(relatorioService.getPedidosPorPeriodo(any(), any())).thenReturn(List.of(
+                new PedidosPorPeriodoDTO(1L, StatusPedido.ENTREGUE, 3L, new BigDecimal("90.00"), new BigDecimal("75.00"))));
+        RelatorioJobDTO dto = dto(Tipo.PEDIDOS_POR_PERIODO, Formato.JSON, null);
+        dto.setDataInicio(LocalDate.of(2025, 3, 1));
+        dto.setDataFim(LocalDate.of(2025, 3, 31));
+
+        RelatorioJobResponseDTO job = relatorioJobService.solicitar(dto);
+        aguardarConclusao(job.getId());
+
+        String json = Files.readString(relatorioJobService.resultado(job.getId()).arquivo(), StandardCharsets.UTF_8);
+        JsonNode linhas = objectMapper.readTree(json);
+        assertEquals(1, linhas.size());
+        assertEquals("ENTREGUE", linhas.get(0).get("status").asText());
+        assertTrue(json.contains("\"valorLiquido\":75.00"));
+        verify(relatorioService).getPedidosPorPeriodo(LocalDate.of(2025, 3, 1).atStartOfDay(),
+                LocalDate.of(2025, 3, 31).atTime(23, 59, 59, 999999999));
+    }
+
+    @Test
+    @DisplayName("Deve reaproveitar o resultado até que a versão dos dados mude")
+    void deveReaproveitarResultadoDaMesmaVersao() throws Exception {
+        criar(1, 5);
+        when(relatorioService.getClientesMaisAtivos(anyInt())).thenReturn(List.of());
+        when(outboxService.alteracoesConfirmadas()).thenReturn(3L);
+
+        RelatorioJobResponseDTO primeiro = relatorioJobService.solicitar(dto(Tipo.CLIENTES_ATIVOS, Formato.JSON, 10));
+        aguardarConclusao(primeiro.getId());
+        RelatorioJobResponseDTO repetido = relatorioJobService.solicitar(dto(Tipo.CLIENTES_ATIVOS, null, null));
+        RelatorioJobResponseDTO outroFormato = relatorioJobService.solicitar(dto(Tipo.CLIENTES_ATIVOS, Formato.CSV, 10));
+        aguardarConclusao(outroFormato.getId());
+
+        assertEquals(primeiro.getId(), repetido.getId());
+        assertEquals(Situacao.CONCLUIDO, repetido.getSituacao());
+        assertNotEquals(primeiro.getId(), outroFormato.getId());
+        assertEquals(1.0, meterRegistry.get("delivery.relatorios.jobs.cache").tag("resultado", "acerto").counter().count());
+
+        when(outboxService.alteracoesConfirmadas()).thenReturn(4L);
+        RelatorioJobResponseDTO novaVersao = relatorioJobService.solicitar(dto(Tipo.CLIENTES_ATIVOS, Formato.JSON, 10));
+        aguardarConclusao(novaVersao.getId());
+
+        assertNotEquals(primeiro.getId(), novaVersao.getId());
+        verify(relatorioService, times(3)).getClientesMaisAtivos(10);
+        assertEquals(Situacao.CONCLUIDO, relatorioJobService.consultar(primeiro.getId()).getSituacao());
+    }
+
+    @Test
+    @DisplayName("Deve recusar solicitações com a fila cheia e não entregar resultado antes da conclusão")
+    void deveRecusarQuandoFilaCheia() throws Exception {
+        criar(1, 1);
+        CountDownLatch iniciado = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        when(relatorioService.getClientesMaisAtivos(anyInt())).thenAnswer(inv -> {
+            iniciado.countDown();
+            liberar.await(5, TimeUnit.SECONDS);
+            return List.of();
+        });
+
+        RelatorioJobResponseDTO executando = relatorioJobService.solicitar(dto(Tipo.CLIENTES_ATIVOS, Formato.JSON, 1));
+        assertTrue(iniciado.await(5, TimeUnit.SECONDS));
+        relatorioJobService.solicitar(dto(Tipo.CLIENTES_ATIVOS, Formato.JSON, 2));
+
+        assertThrows(FilaCheiaException.class,
+                () -> relatorioJobService.solicitar(dto(Tipo.CLIENTES_ATIVOS, Formato.JSON, 3)));
+        assertThrows(ConflictException.class, () -> relatorioJobService.resultado(executando.getId()));
+        assertEquals(1.0, meterRegistry.get("delivery.relatorios.jobs.rejeitados").counter().count());
+
+        liberar.countDown();
+        aguardarConclusao(executando.getId());
+    }
+
+    @Test
+    @DisplayName("Deve marcar a falha e gerar de novo na próxima solicitação")
+    void deveRegistrarFalha() throws Exception {
+        criar(1, 5);
+        doThrow(new IllegalStateException("banco indisponível"))
+                .doNothing()
+                .when(relatorioService).exportarVendasPorRestaurante(any());
+
+        RelatorioJobResponseDTO falhou = relatorioJobService.solicitar(dto(Tipo.VENDAS_POR_RESTAURANTE, Formato.CSV, null));
+        RelatorioJobResponseDTO situacao = aguardarTermino(falhou.getId());
+        RelatorioJobResponseDTO novo = relatorioJobService.solicitar(dto(Tipo.VENDAS_POR_RESTAURANTE, Formato.CSV, null));
+
+        assertEquals(Situacao.FALHOU, situacao.getSituacao());
+        assertEquals("banco indisponível", situacao.getErroMensagem());
+        assertThrows(ConflictException.class, () -> relatorioJobService.resultado(falhou.getId()));
+        assertNotEquals(falhou.getId(), novo.getId());
+        aguardarConclusao(novo.getId());
+    }
+
+    @Test
+    @DisplayName("Deve validar o período e recusar jobs desconhecidos")
+    void deveValidarParametros() throws Exception {
+        criar(1, 5);
+        RelatorioJobDTO semPeriodo = dto(Tipo.PEDIDOS_POR_PERIODO, Formato.CSV, null);
+        semPeriodo.setDataInicio(LocalDate.of(2025, 3, 1));
+
+        assertThrows(BusinessException.class, () -> relatorioJobService.solicitar(semPeriodo));
+        assertThrows(EntityNotFoundException.class, () -> relatorioJobService.consultar("inexistente"));
+        verifyNoInteractions(relatorioService);
+    }
+
+    private static RelatorioVendas vendas(String nome, BigDecimal total, Long quantidade) {
+        return new RelatorioVendas() {
+            @Override
+            public String getNomeRestaurante() {
+                return nome;
+            }
+
+            @Override
+            public BigDecimal getTotalVendas() {
+                return total;
+            }
+
+            @Override
+            public Long getQuantidePedidos() {
+                return quantidade;
+            }
+        };
+    }
+
+    private static RelatorioJobDTO dto(Tipo tipo, Formato formato, Integer limite) {
+        RelatorioJobDTO dto = new RelatorioJobDTO();
+        dto.setTipo(tipo);
+        dto.setFormato(formato);
+        dto.setLimite(limite);
+        return dto;
+    }
+
+    private void aguardarConclusao(String id) throws InterruptedException {
+        assertEquals(Situacao.CONCLUIDO, aguardarTermino(id).getSituacao());
+    }
+
+    private RelatorioJobResponseDTO aguardarTermino(String id) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        RelatorioJobResponseDTO job = relatorioJobService.consultar(id);
+        while ((job.getSituacao() == Situacao.NA_FILA || job.getSituacao() == Situacao.EXECUTANDO)
+                && System.nanoTime() < limite) {
+            Thread.sleep(10);
+            job = relatorioJobService.consultar(id);
+        }
+        return job;
+    }
+}
@@ -1,8 +1,6 @@
 package com.deliverytech.delivery_api.service;
 
-import com.deliverytech.delivery_api.repository.ClienteRepository;
-import com.deliverytech.delivery_api.repository.PedidoRepository;
-import com.deliverytech.delivery_api.repository.ProdutoRepository;
+import com.deliverytech.delivery_api.exception.EntityNotFoundException;
 import com.deliverytech.delivery_api.repository.RestauranteRepository;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -13,7 +11,9 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.Optional;
 
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -24,11 +24,15 @@ public class RelatorioServiceTest {
     @Mock
     private RestauranteRepository restauranteRepository;
     @Mock
-    private ProdutoRepository produtoRepository;
+    private ProdutosMaisVendidosService produtosMaisVendidosService;
     @Mock
-    private ClienteRepository clienteRepository;
+    private RankingClientesService rankingClientesService;
     @Mock
-    private PedidoRepository pedidoRepository;
+    private RollupPedidosService rollupPedidosService;
+    @Mock
+    private AnalisePedidosService analisePedidosService;
+    @Mock
+    private MetricasPedidosService metricasPedidosService;
 
     @InjectMocks
     private RelatorioService relatorioService;
@@ -47,43 +51,53 @@ public class RelatorioServiceTest {
     }
 
     @Test
-    @DisplayName("Deve chamar o repositório para obter produtos mais vendidos")
+    @DisplayName("Deve obter produtos mais vendidos dos rankings em memória")
     void deveObterProdutosMaisVendidos() {
         // Given
-        when(produtoRepository.findProdutosMaisVendidos()).thenReturn(Collections.emptyList());
+        when(produtosMaisVendidosService.maisVendidos(1L, "Pizza", 5)).thenReturn(Collections.emptyList());
 
         // When
-        relatorioService.getProdutosMaisVendidos();
+        relatorioService.getProdutosMaisVendidos(1L, "Pizza", 5);
 
         // Then
-        verify(produtoRepository).findProdutosMaisVendidos();
+        verify(produtosMaisVendidosService).maisVendidos(1L, "Pizza", 5);
     }
 
     @Test
-    @DisplayName("Deve chamar o repositório para obter clientes mais ativos")
+    @DisplayName("Deve obter clientes mais ativos do ranking em memória")
     void deveObterClientesMaisAtivos() {
         // Given
-        when(clienteRepository.rankingClientesPorPedidos()).thenReturn(Collections.emptyList());
+        when(rankingClientesService.primeiros(10)).thenReturn(Collections.emptyList());
 
         // When
-        relatorioService.getClientesMaisAtivos();
+        relatorioService.getClientesMaisAtivos(10);
 
         // Then
-        verify(clienteRepository).rankingClientesPorPedidos();
+        verify(rankingClientesService).primeiros(10);
+    }
+
+    @Test
+    @DisplayName("Deve lançar exceção para cliente fora do ranking")
+    void deveLancarExcecaoParaClienteForaDoRanking() {
+        // Given
+        when(rankingClientesService.posicao(99L)).thenReturn(Optional.empty());
+
+        // When / Then
+        assertThrows(EntityNotFoundException.class, () -> relatorioService.getPosicaoCliente(99L));
     }
 
     @Test
-    @DisplayName("Deve chamar o repositório para obter pedidos por período")
+    @DisplayName("Deve consultar os baldes de pedidos no período informado")
     void deveObterPedidosPorPeriodo() {
         // Given
-        when(pedidoRepository.countPedidosByStatus()).thenReturn(Collections.emptyList());
         LocalDateTime inicio = LocalDateTime.now().minusDays(1);
         LocalDateTime fim = LocalDateTime.now();
+        when(rollupPedidosService.consultar(inicio, fim)).thenReturn(Collections.emptyList());
 
         // When
         relatorioService.getPedidosPorPeriodo(inicio, fim);
 
         // Then
-        verify(pedidoRepository).countPedidosByStatus();
+        verify(rollupPedidosService).consultar(inicio, fim);
     }
 }
\ No newline at end of file
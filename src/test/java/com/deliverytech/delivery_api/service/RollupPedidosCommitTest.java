@@ -0,0 +1,143 @@
+package com.deliverytech.delivery_api.service;
+
+import com.deliverytech.delivery_api.dto.ItemPedidoDTO;
+import com.deliverytech.delivery_api.dto.PedidoDTO;
+import com.deliverytech.delivery_api.dto.PedidosPorPeriodoDTO;
+import com.deliverytech.delivery_api.entity.*;
+import com.deliverytech.delivery_api.repository.ClienteRepository;
+import com.deliverytech.delivery_api.repository.PedidoRepository;
+import com.deliverytech.delivery_api.repository.ProdutoRepository;
+import com.deliverytech.delivery_api.repository.RestauranteRepository;
+import com.deliverytech.delivery_api.repository.RollupPedidosRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Sem @Transactional: os baldes são movidos na transação de cada alteração de pedido e a
+ * reconciliação compara com os pedidos confirmados.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Sql(scripts = "/limpar-pedidos.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@DisplayName("Testes dos rollups de pedidos por hora e por dia")
+class RollupPedidosCommitTest {
+
+    private static final LocalDate DIA = LocalDate.of(2025, 3, 10);
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private PedidoRepository pedidoRepository;
+    @Autowired private ClienteRepository clienteRepository;
+    @Autowired private RestauranteRepository restauranteRepository;
+    @Autowired private ProdutoRepository produtoRepository;
+    @Autowired private RollupPedidosRepository rollupPedidosRepository;
+    @Autowired private RollupPedidosService rollupPedidosService;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private Cliente cliente;
+    private Restaurante restaurante;
+    private Produto produto;
+
+    @BeforeEach
+    void setup() {
+        cliente = clienteRepository.save(new Cliente());
+        restaurante = new Restaurante();
+        restaurante.setAtivo(true);
+        restaurante = restauranteRepository.save(restaurante);
+        produto = new Produto();
+        produto.setRestaurante(restaurante);
+        produto.setPreco(new BigDecimal("10.00"));
+        produto.setDisponivel(true);
+        produto = produtoRepository.save(produto);
+    }
+
+    @Test
+    @DisplayName("Deve responder o relatório por período somando baldes diários e horários e lendo as bordas dos pedidos")
+    @WithMockUser(roles = "ADMIN")
+    void deveResponderPedidosPorPeriodoPelosBaldes() throws Exception {
+        // Gravados direto no repositório: os baldes vêm da reconciliação
+        pedido(1, DIA.atTime(9, 15), StatusPedido.ENTREGUE);
+        pedido(2, DIA.atTime(10, 30), StatusPedido.CANCELADO);
+        Long pendente = pedido(3, DIA.plusDays(1).atTime(8, 45), StatusPedido.PENDENTE);
+        RollupPedidosService rollup = new RollupPedidosService(rollupPedidosRepository, transactionManager,
+                new SimpleMeterRegistry(), false, Duration.ofHours(1), Period.ofDays(2));
+        assertEquals(6, rollup.reconciliar(DIA, DIA.plusDays(2))); // 3 baldes por hora e 3 por dia
+        assertEquals(0, rollup.reconciliar(DIA, DIA.plusDays(2)));
+
+        // 09:20 a 08:50 do dia seguinte: bordas lidas dos pedidos (sem o entregue, das 09:15), horas pelos baldes
+        List<PedidosPorPeriodoDTO> periodo = rollup.consultar(DIA.atTime(9, 20), DIA.plusDays(1).atTime(8, 50));
+        assertEquals(List.of(StatusPedido.PENDENTE, StatusPedido.CANCELADO), periodo.stream().map(PedidosPorPeriodoDTO::getStatus).toList());
+        assertEquals(0, new BigDecimal("30.00").compareTo(periodo.get(0).getValorBruto()));
+        assertEquals(0, new BigDecimal("20.00").compareTo(periodo.get(1).getValorBruto()));
+
+        mockMvc.perform(put("/api/pedidos/{id}/confirmar", pendente)).andExpect(status().isOk());
+        mockMvc.perform(get("/api/relatorios/pedidos-por-periodo")
+                        .param("dataInicio", DIA.toString()).param("dataFim", DIA.plusDays(1).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(3))
+                .andExpect(jsonPath("$.data[?(@.status == 'ENTREGUE')].quantidade").value(1))
+                .andExpect(jsonPath("$.data[?(@.status == 'CANCELADO')].valorBruto").value(20.0))
+                .andExpect(jsonPath("$.data[?(@.status == 'CONFIRMADO')].valorBruto").value(30.0));
+
+        // Pedido novo, com taxa de entrega: bruto inclui a taxa, líquido não
+        restaurante.setTaxaEntrega(new BigDecimal("5.00"));
+        restauranteRepository.save(restaurante);
+        PedidoDTO dto = new PedidoDTO(cliente.getId(), restaurante.getId(), "Endereço", "12345-678", null, "PIX",
+                List.of(new ItemPedidoDTO(produto.getId(), 2, null)));
+        String corpo = mockMvc.perform(post("/api/pedidos").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        Long id = objectMapper.readTree(corpo).get("data").get("id").asLong();
+        mockMvc.perform(post("/api/pedidos/{id}/itens", id).param("produtoId", produto.getId().toString()).param("quantidade", "1"))
+                .andExpect(status().isOk());
+        LocalDateTime agora = LocalDateTime.now();
+        List<PedidosPorPeriodoDTO> hoje = rollupPedidosService.consultar(agora.toLocalDate().atStartOfDay(), agora.plusMinutes(1));
+        assertEquals(1, hoje.size());
+        assertEquals(0, new BigDecimal("35.00").compareTo(hoje.get(0).getValorBruto()));
+        assertEquals(0, new BigDecimal("30.00").compareTo(hoje.get(0).getValorLiquido()));
+        assertEquals(0, rollup.reconciliar(agora.toLocalDate(), agora.toLocalDate().plusDays(1)));
+    }
+
+    private Long pedido(int quantidade, LocalDateTime data, StatusPedido status) {
+        Pedido pedido = new Pedido();
+        pedido.setCliente(cliente);
+        pedido.setRestaurante(restaurante);
+        pedido.setNumeroPedido("PED-RLP" + quantidade);
+        pedido.setDataPedido(data);
+        pedido.setStatus(status);
+        ItemPedido item = new ItemPedido();
+        item.setProduto(produto);
+        item.setQuantidade(quantidade);
+        item.setPrecoUnitario(produto.getPreco());
+        item.calcularSubtotal();
+        pedido.adicionarItem(item);
+        return pedidoRepository.save(pedido).getId();
+    }
+}
@@ -0,0 +1,122 @@
+package com.deliverytech.delivery_api.service;
+
+import com.deliverytech.delivery_api.dto.PedidosPorPeriodoDTO;
+import com.deliverytech.delivery_api.entity.GranularidadeRollup;
+import com.deliverytech.delivery_api.entity.StatusPedido;
+import com.deliverytech.delivery_api.repository.RollupPedidosRepository;
+import com.deliverytech.delivery_api.repository.RollupPedidosRepository.Total;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes Unitários do RollupPedidosService")
+public class RollupPedidosServiceTest {
+
+    private static final LocalDate DIA = LocalDate.of(2025, 3, 10);
+
+    @Mock
+    private RollupPedidosRepository rollupPedidosRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private RollupPedidosService rollup;
+
+    @BeforeEach
+    void setup() {
+        rollup = new RollupPedidosService(rollupPedidosRepository, transactionManager, new SimpleMeterRegistry(),
+                false, Duration.ofHours(1), Period.ofDays(2));
+    }
+
+    @Test
+    @DisplayName("Deve ler dos pedidos um período que não fecha uma hora")
+    void deveLerPedidosDentroDeUmaHora() {
+        rollup.consultar(DIA.atTime(10, 10), DIA.atTime(10, 40));
+
+        LocalDateTime fim = DIA.atTime(10, 40).plusNanos(1);
+        verify(rollupPedidosRepository).somarPedidos(DIA.atTime(10, 10), fim);
+        verify(rollupPedidosRepository).somarPedidosArquivados(DIA.atTime(10, 10), fim);
+        verify(rollupPedidosRepository, never()).somarBaldes(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Deve somar as horas inteiras pelos baldes horários e as bordas pelos pedidos no mesmo dia")
+    void deveDividirHorasNoMesmoDia() {
+        rollup.consultar(DIA.atTime(9, 20), DIA.atTime(12, 30));
+
+        verify(rollupPedidosRepository).somarPedidos(DIA.atTime(9, 20), DIA.atTime(10, 0));
+        verify(rollupPedidosRepository).somarPedidosArquivados(DIA.atTime(9, 20), DIA.atTime(10, 0));
+        verify(rollupPedidosRepository).somarBaldes(GranularidadeRollup.HORA, DIA.atTime(10, 0), DIA.atTime(12, 0));
+        verify(rollupPedidosRepository).somarPedidos(DIA.atTime(12, 0), DIA.atTime(12, 30).plusNanos(1));
+        verify(rollupPedidosRepository).somarPedidosArquivados(DIA.atTime(12, 0), DIA.atTime(12, 30).plusNanos(1));
+        verifyNoMoreInteractions(rollupPedidosRepository);
+    }
+
+    @Test
+    @DisplayName("Deve somar os dias inteiros pelos baldes diários e as horas das pontas pelos horários")
+    void deveDividirDiasHorasEBordas() {
+        LocalDate seguinte = DIA.plusDays(1);
+        LocalDate ultimo = DIA.plusDays(2);
+        rollup.consultar(DIA.atTime(9, 20), ultimo.atTime(8, 50));
+
+        verify(rollupPedidosRepository).somarPedidos(DIA.atTime(9, 20), DIA.atTime(10, 0));
+        verify(rollupPedidosRepository).somarBaldes(GranularidadeRollup.HORA, DIA.atTime(10, 0), seguinte.atStartOfDay());
+        verify(rollupPedidosRepository).somarBaldes(GranularidadeRollup.DIA, seguinte.atStartOfDay(), ultimo.atStartOfDay());
+        verify(rollupPedidosRepository).somarBaldes(GranularidadeRollup.HORA, ultimo.atStartOfDay(), ultimo.atTime(8, 0));
+        verify(rollupPedidosRepository).somarPedidos(ultimo.atTime(8, 0), ultimo.atTime(8, 50).plusNanos(1));
+    }
+
+    @Test
+    @DisplayName("Deve responder dias completos só pelos baldes diários, sem ler os pedidos")
+    void deveUsarSoBaldesDiariosEmDiasCompletos() {
+        rollup.consultar(DIA.atStartOfDay(), DIA.plusDays(2).atStartOfDay().minusNanos(1));
+
+        verify(rollupPedidosRepository).somarBaldes(GranularidadeRollup.DIA, DIA.atStartOfDay(), DIA.plusDays(2).atStartOfDay());
+        verifyNoMoreInteractions(rollupPedidosRepository);
+    }
+
+    @Test
+    @DisplayName("Deve somar as partes por restaurante e status e omitir os totais zerados")
+    void deveSomarPartesPorRestauranteEStatus() {
+        when(rollupPedidosRepository.somarPedidos(any(), any())).thenReturn(List.of(
+                total(2L, StatusPedido.PENDENTE, 1, "10.00")));
+        when(rollupPedidosRepository.somarBaldes(any(), any(), any())).thenReturn(List.of(
+                total(2L, StatusPedido.PENDENTE, 2, "25.00"),
+                total(1L, StatusPedido.CANCELADO, 0, "0.00"),
+                total(1L, StatusPedido.ENTREGUE, 1, "30.00")));
+
+        List<PedidosPorPeriodoDTO> periodo = rollup.consultar(DIA.atTime(9, 20), DIA.atTime(12, 30));
+
+        assertEquals(2, periodo.size());
+        assertEquals(1L, periodo.get(0).getRestauranteId());
+        assertEquals(StatusPedido.ENTREGUE, periodo.get(0).getStatus());
+        assertEquals(2L, periodo.get(1).getRestauranteId());
+        // Borda inicial, horas inteiras e borda final: 1 + 2 + 1 pedidos
+        assertEquals(4L, periodo.get(1).getQuantidade());
+        assertEquals(0, new BigDecimal("45.00").compareTo(periodo.get(1).getValorBruto()));
+    }
+
+    private static Total total(Long restauranteId, StatusPedido status, long quantidade, String valor) {
+        return new Total(restauranteId, status, quantidade, new BigDecimal(valor), new BigDecimal(valor));
+    }
+}
@@ -0,0 +1,92 @@
+package com.deliverytech.delivery_api.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Testes Unitários do SnowflakeNumeroPedidoGenerator")
+public class SnowflakeNumeroPedidoGeneratorTest {
+
+    @Test
+    @DisplayName("Deve gerar números únicos sob concorrência")
+    void deveGerarNumerosUnicosSobConcorrencia() throws Exception {
+        SnowflakeNumeroPedidoGenerator generator = new SnowflakeNumeroPedidoGenerator(7);
+        Set<String> numeros = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> tarefas = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            tarefas.add(executor.submit(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    numeros.add(generator.gerar());
+                }
+            }));
+        }
+        for (Future<?> tarefa : tarefas) {
+            tarefa.get();
+        }
+        executor.shutdown();
+
+        assertEquals(160_000, numeros.size());
+    }
+
+    @Test
+    @DisplayName("Deve manter ordem lexicográfica igual à ordem de criação, mesmo com relógio parado ou atrasado")
+    void deveSerMonotonico() {
+        AtomicLong relogio = new AtomicLong(Instant.parse("2025-08-01T10:00:00Z").toEpochMilli());
+        SnowflakeNumeroPedidoGenerator generator = new SnowflakeNumeroPedidoGenerator(1, relogio::get);
+
+        String anterior = generator.gerar();
+        for (int i = 0; i < 10_000; i++) {
+            if (i == 5_000) {
+                relogio.addAndGet(-2_000); // relógio volta 2 segundos
+            }
+            String atual = generator.gerar();
+            assertTrue(atual.compareTo(anterior) > 0, atual + " deveria ser maior que " + anterior);
+            anterior = atual;
+        }
+    }
+
+    @Test
+    @DisplayName("Deve embutir o instante de criação no número")
+    void deveEmbutirInstante() {
+        Instant agora = Instant.parse("2025-08-01T10:30:00.123Z");
+        SnowflakeNumeroPedidoGenerator generator = new SnowflakeNumeroPedidoGenerator(1023, agora::toEpochMilli);
+
+        String numero = generator.gerar();
+
+        assertTrue(numero.matches("PED-[0-9A-Z]{13}"));
+        assertEquals(agora, SnowflakeNumeroPedidoGenerator.instanteDe(numero));
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar identificador de nó fora do intervalo")
+    void deveRejeitarNoInvalido() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeNumeroPedidoGenerator(1024, System::currentTimeMillis));
+    }
+
+    @Test
+    @DisplayName("Deve exigir o identificador de nó fora dos perfis de desenvolvimento e teste")
+    void deveExigirNoForaDeDesenvolvimento() {
+        MockEnvironment producao = new MockEnvironment();
+        producao.setActiveProfiles("prod");
+        MockEnvironment teste = new MockEnvironment();
+        teste.setActiveProfiles("test");
+
+        assertThrows(IllegalStateException.class, () -> SnowflakeNumeroPedidoGenerator.resolverNo(-1, producao));
+        assertThrows(IllegalStateException.class, () -> SnowflakeNumeroPedidoGenerator.resolverNo(-1, new MockEnvironment()));
+        assertEquals(12, SnowflakeNumeroPedidoGenerator.resolverNo(12, producao));
+        assertEquals(0, SnowflakeNumeroPedidoGenerator.resolverNo(-1, teste));
+    }
+}
@@ -0,0 +1,146 @@
+package com.deliverytech.delivery_api.service;
+
+import com.deliverytech.delivery_api.dto.ItemPedidoDTO;
+import com.deliverytech.delivery_api.dto.PedidoDTO;
+import com.deliverytech.delivery_api.dto.StatusPedidoLoteDTO;
+import com.deliverytech.delivery_api.entity.*;
+import com.deliverytech.delivery_api.repository.ClienteRepository;
+import com.deliverytech.delivery_api.repository.PedidoRepository;
+import com.deliverytech.delivery_api.repository.ProdutoRepository;
+import com.deliverytech.delivery_api.repository.RestauranteRepository;
+import com.deliverytech.delivery_api.repository.VendasRestauranteRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Sem @Transactional: o agregado é atualizado na transação de cada alteração de pedido e a
+ * reconciliação compara com os pedidos confirmados.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Sql(scripts = "/limpar-pedidos.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@DisplayName("Testes do agregado de vendas por restaurante")
+class VendasRestauranteCommitTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private PedidoRepository pedidoRepository;
+    @Autowired private ClienteRepository clienteRepository;
+    @Autowired private RestauranteRepository restauranteRepository;
+    @Autowired private ProdutoRepository produtoRepository;
+    @Autowired private VendasRestauranteRepository vendasRestauranteRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private Cliente cliente;
+    private Restaurante restaurante;
+    private Produto produto;
+    private final List<Long> gravados = new ArrayList<>();
+
+    @BeforeEach
+    void setup() {
+        cliente = clienteRepository.save(new Cliente());
+        restaurante = new Restaurante();
+        restaurante.setNome("Restaurante Vendas");
+        restaurante.setAtivo(true);
+        restaurante = restauranteRepository.save(restaurante);
+        produto = new Produto();
+        produto.setRestaurante(restaurante);
+        produto.setPreco(new BigDecimal("10.00"));
+        produto.setDisponivel(true);
+        produto = produtoRepository.save(produto);
+
+        // Gravados direto no repositório (10 + 20 + 30): só a reconciliação os conta
+        for (int quantidade = 1; quantidade <= 3; quantidade++) {
+            Pedido pedido = new Pedido();
+            pedido.setCliente(cliente);
+            pedido.setRestaurante(restaurante);
+            pedido.setNumeroPedido("PED-VND" + quantidade);
+            ItemPedido item = new ItemPedido();
+            item.setProduto(produto);
+            item.setQuantidade(quantidade);
+            item.setPrecoUnitario(produto.getPreco());
+            item.calcularSubtotal();
+            pedido.adicionarItem(item);
+            gravados.add(pedidoRepository.save(pedido).getId());
+        }
+    }
+
+    @Test
+    @DisplayName("Deve manter as vendas do restaurante a cada alteração de pedido e corrigir divergências na reconciliação")
+    @WithMockUser(roles = "ADMIN")
+    void deveManterVendasPorRestaurante() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        VendasRestauranteService vendas = new VendasRestauranteService(vendasRestauranteRepository, transactionManager,
+                meterRegistry, false, Duration.ofHours(1));
+
+        assertEquals(1, vendas.reconciliar());
+        assertVendas("60.00", 3);
+
+        Long id = criarPedido(2);
+        assertVendas("80.00", 4);
+        mockMvc.perform(post("/api/pedidos/{id}/itens", id).param("produtoId", produto.getId().toString()).param("quantidade", "1"))
+                .andExpect(status().isOk());
+        assertVendas("90.00", 4);
+        mockMvc.perform(delete("/api/pedidos/{id}", id)).andExpect(status().isNoContent());
+        assertVendas("60.00", 3);
+        mockMvc.perform(patch("/api/pedidos/status").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new StatusPedidoLoteDTO(List.of(id), StatusPedido.PENDENTE))))
+                .andExpect(status().isOk());
+        assertVendas("90.00", 4);
+        assertEquals(0, vendas.reconciliar());
+
+        // Cancelamento fora do PedidoService: o agregado diverge até a reconciliação
+        Pedido pedido = pedidoRepository.findById(gravados.get(0)).orElseThrow();
+        pedido.setStatus(StatusPedido.CANCELADO);
+        pedidoRepository.save(pedido);
+        assertEquals(1, vendas.reconciliar());
+        assertVendas("80.00", 3);
+        assertEquals(2, meterRegistry.get("delivery.vendas.agregado.divergencias").counter().count());
+
+        mockMvc.perform(get("/api/relatorios/vendas-por-restaurante"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[?(@.nomeRestaurante == 'Restaurante Vendas')].quantidePedidos").value(3))
+                .andExpect(jsonPath("$.data[?(@.nomeRestaurante == 'Restaurante Vendas')].totalVendas").value(80.0));
+    }
+
+    private void assertVendas(String total, long quantidade) {
+        VendasRestaurante linha = vendasRestauranteRepository.findById(restaurante.getId()).orElseThrow();
+        assertEquals(0, new BigDecimal(total).compareTo(linha.getTotalVendas()), "total " + linha.getTotalVendas());
+        assertEquals(quantidade, linha.getQuantidadePedidos());
+    }
+
+    private Long criarPedido(int quantidade) throws Exception {
+        PedidoDTO dto = new PedidoDTO(cliente.getId(), restaurante.getId(), "Endereço", "12345-678", null, "PIX",
+                List.of(new ItemPedidoDTO(produto.getId(), quantidade, null)));
+        String corpo = mockMvc.perform(post("/api/pedidos").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(corpo).get("data").get("id").asLong();
+    }
+}
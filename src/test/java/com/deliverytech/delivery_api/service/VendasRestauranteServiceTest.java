@@ -0,0 +1,58 @@
+package com.deliverytech.delivery_api.service;
+
+import com.deliverytech.delivery_api.entity.StatusPedido;
+import com.deliverytech.delivery_api.service.VendasRestauranteService.Variacao;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Testes Unitários das variações do VendasRestauranteService")
+public class VendasRestauranteServiceTest {
+
+    private static final BigDecimal VALOR = new BigDecimal("42.50");
+
+    @Test
+    @DisplayName("Deve contar o pedido criado e só a diferença de valor quando os itens mudam")
+    void deveVariarNaCriacaoENaAlteracaoDeValor() {
+        assertEquals(new Variacao(VALOR, 1), Variacao.pedidoCriado(VALOR));
+
+        Variacao alterado = Variacao.valorAlterado(VALOR, new BigDecimal("50.00"));
+        assertEquals(0, new BigDecimal("7.50").compareTo(alterado.valor()));
+        assertEquals(0, alterado.quantidade());
+        assertTrue(Variacao.valorAlterado(VALOR, new BigDecimal("42.500")).isNula());
+    }
+
+    @Test
+    @DisplayName("Deve variar só quando o pedido entra ou sai do cancelamento")
+    void deveVariarSoNaEntradaOuSaidaDoCancelamento() {
+        assertEquals(new Variacao(VALOR.negate(), -1), Variacao.statusAlterado(VALOR, StatusPedido.PREPARANDO, StatusPedido.CANCELADO));
+        assertEquals(new Variacao(VALOR, 1), Variacao.statusAlterado(VALOR, StatusPedido.CANCELADO, StatusPedido.PENDENTE));
+
+        for (StatusPedido anterior : StatusPedido.values()) {
+            for (StatusPedido atual : StatusPedido.values()) {
+                if ((anterior == StatusPedido.CANCELADO) == (atual == StatusPedido.CANCELADO)) {
+                    assertSame(Variacao.NENHUMA, Variacao.statusAlterado(VALOR, anterior, atual), anterior + " -> " + atual);
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Deve somar as variações de um lote e anular entrada e saída do mesmo pedido")
+    void deveSomarVariacoes() {
+        Variacao lote = Variacao.pedidoCriado(VALOR)
+                .somar(Variacao.pedidoCriado(new BigDecimal("10.00")))
+                .somar(Variacao.statusAlterado(new BigDecimal("10.00"), StatusPedido.CONFIRMADO, StatusPedido.CANCELADO));
+        assertEquals(0, VALOR.compareTo(lote.valor()));
+        assertEquals(1, lote.quantidade());
+
+        Variacao idaEVolta = Variacao.statusAlterado(VALOR, StatusPedido.PENDENTE, StatusPedido.CANCELADO)
+                .somar(Variacao.statusAlterado(VALOR, StatusPedido.CANCELADO, StatusPedido.PENDENTE));
+        assertTrue(idaEVolta.isNula());
+        assertTrue(Variacao.NENHUMA.isNula());
+        assertFalse(Variacao.pedidoCriado(BigDecimal.ZERO).isNula());
+    }
+}
@@ -0,0 +1,168 @@
+package com.deliverytech.delivery_api.service.analise;
+
+import com.deliverytech.delivery_api.entity.StatusPedido;
+import com.deliverytech.delivery_api.service.analise.AgregacaoPedidos.Dimensao;
+import com.deliverytech.delivery_api.service.analise.AgregacaoPedidos.Filtro;
+import com.deliverytech.delivery_api.service.analise.AgregacaoPedidos.Grupo;
+import com.deliverytech.delivery_api.service.analise.AgregacaoPedidos.Ordem;
+import com.deliverytech.delivery_api.service.analise.AgregacaoPedidos.Resultado;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("Testes da agregação colunar de pedidos")
+class AgregacaoPedidosTest {
+
+    private static final LocalDateTime INICIO = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    static void criarPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void fecharPool() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Deve agrupar e filtrar como a contagem exata, em vários blocos e após acrescentar pedidos")
+    void deveAgruparComoContagemExata() {
+        Random random = new Random(11);
+        List<Linha> linhas = new ArrayList<>();
+        ColunasPedidos.Construtor construtor = ColunasPedidos.construtor();
+        for (int i = 0; i < ColunasPedidos.TAMANHO_BLOCO * 2 + 500; i++) {
+            adicionar(construtor, linhas, aleatoria(random));
+        }
+        ColunasPedidos colunas = construtor.construir();
+        ColunasPedidos.Construtor extensao = colunas.estender();
+        for (int i = 0; i < 1_000; i++) {
+            adicionar(extensao, linhas, aleatoria(random));
+        }
+        ColunasPedidos estendidas = extensao.construir();
+
+        assertEquals(ColunasPedidos.TAMANHO_BLOCO * 2 + 500, colunas.tamanho());
+        assertEquals(linhas.size(), estendidas.tamanho());
+
+        Filtro todos = new Filtro(null, null, null, null, null);
+        Filtro filtrado = new Filtro(3L, null, EnumSet.of(StatusPedido.ENTREGUE, StatusPedido.CANCELADO),
+                INICIO.plusDays(10), INICIO.plusDays(40));
+        for (Set<Dimensao> dimensoes : List.of(EnumSet.noneOf(Dimensao.class),
+                EnumSet.of(Dimensao.RESTAURANTE, Dimensao.HORA, Dimensao.STATUS),
+                EnumSet.of(Dimensao.CLIENTE, Dimensao.DIA),
+                EnumSet.of(Dimensao.DIA_DA_SEMANA))) {
+            for (Filtro filtro : List.of(todos, filtrado)) {
+                Resultado resultado = AgregacaoPedidos.agregar(estendidas, dimensoes, filtro, Ordem.DIMENSOES, Integer.MAX_VALUE, pool);
+                Map<Map<Dimensao, Long>, long[]> esperado = agruparExato(linhas, dimensoes, filtro);
+
+                assertEquals(esperado.size(), resultado.totalGrupos(), dimensoes + " " + filtro);
+                assertEquals(esperado.values().stream().mapToLong(v -> v[0]).sum(), resultado.pedidos());
+                assertEquals(esperado.values().stream().mapToLong(v -> v[1]).sum(), resultado.centavos());
+                for (Grupo grupo : resultado.grupos()) {
+                    long[] exato = esperado.get(grupo.dimensoes());
+                    assertEquals(exato[0], grupo.quantidade(), grupo.dimensoes().toString());
+                    assertEquals(exato[1], grupo.centavos(), grupo.dimensoes().toString());
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Deve devolver os primeiros grupos na ordem pedida")
+    void deveOrdenarELimitar() {
+        ColunasPedidos.Construtor construtor = ColunasPedidos.construtor();
+        List<Linha> linhas = new ArrayList<>();
+        adicionar(construtor, linhas, new Linha(1, 1, INICIO.withHour(12), StatusPedido.ENTREGUE, "10.00"));
+        adicionar(construtor, linhas, new Linha(1, 2, INICIO.withHour(12), StatusPedido.ENTREGUE, "10.00"));
+        adicionar(construtor, linhas, new Linha(2, 3, INICIO.withHour(20), StatusPedido.ENTREGUE, "99.90"));
+        adicionar(construtor, linhas, new Linha(3, 4, INICIO.withHour(8), StatusPedido.PENDENTE, "5.50"));
+        ColunasPedidos colunas = construtor.construir();
+        Filtro todos = new Filtro(null, null, null, null, null);
+        Set<Dimensao> porRestaurante = EnumSet.of(Dimensao.RESTAURANTE);
+
+        Resultado porQuantidade = AgregacaoPedidos.agregar(colunas, porRestaurante, todos, Ordem.QUANTIDADE, 2, pool);
+        Resultado porValor = AgregacaoPedidos.agregar(colunas, porRestaurante, todos, Ordem.VALOR, 1, pool);
+        Resultado porHora = AgregacaoPedidos.agregar(colunas, EnumSet.of(Dimensao.HORA, Dimensao.DIA_DA_SEMANA), todos, Ordem.DIMENSOES, 10, pool);
+
+        assertEquals(3, porQuantidade.totalGrupos());
+        assertEquals(List.of(1L, 2L), porQuantidade.grupos().stream().map(g -> g.dimensoes().get(Dimensao.RESTAURANTE)).toList());
+        assertEquals(2, porQuantidade.grupos().get(0).quantidade());
+        assertEquals(2L, porValor.grupos().get(0).dimensoes().get(Dimensao.RESTAURANTE));
+        assertEquals(9990, porValor.grupos().get(0).centavos());
+        assertEquals(12540, porValor.centavos());
+        assertEquals(List.of(8L, 12L, 20L), porHora.grupos().stream().map(g -> g.dimensoes().get(Dimensao.HORA)).toList());
+        assertEquals(3L, porHora.grupos().get(0).dimensoes().get(Dimensao.DIA_DA_SEMANA)); // 01/01/2025, quarta-feira
+    }
+
+    @Test
+    @DisplayName("Deve recusar dimensões que não cabem na chave de agrupamento")
+    void deveRecusarChaveGrandeDemais() {
+        ColunasPedidos.Construtor construtor = ColunasPedidos.construtor();
+        construtor.adicionar(Integer.MAX_VALUE, Integer.MAX_VALUE, INICIO, StatusPedido.PENDENTE, BigDecimal.ONE);
+        ColunasPedidos colunas = construtor.construir();
+
+        assertThrows(IllegalArgumentException.class, () -> AgregacaoPedidos.agregar(colunas,
+                EnumSet.of(Dimensao.RESTAURANTE, Dimensao.CLIENTE, Dimensao.STATUS),
+                new Filtro(null, null, null, null, null), Ordem.QUANTIDADE, 10, pool));
+    }
+
+    private static Linha aleatoria(Random random) {
+        return new Linha(1 + random.nextInt(20), 1 + random.nextInt(5_000),
+                INICIO.plusMinutes(random.nextInt(60 * 24 * 60)),
+                StatusPedido.values()[random.nextInt(StatusPedido.values().length)],
+                BigDecimal.valueOf(random.nextInt(20_000), 2).toPlainString());
+    }
+
+    private static void adicionar(ColunasPedidos.Construtor construtor, List<Linha> linhas, Linha linha) {
+        construtor.adicionar(linha.restauranteId(), linha.clienteId(), linha.dataPedido(), linha.status(), new BigDecimal(linha.valor()));
+        linhas.add(linha);
+    }
+
+    private static Map<Map<Dimensao, Long>, long[]> agruparExato(List<Linha> linhas, Set<Dimensao> dimensoes, Filtro filtro) {
+        Map<Map<Dimensao, Long>, long[]> grupos = new HashMap<>();
+        for (Linha linha : linhas) {
+            if ((filtro.restauranteId() != null && linha.restauranteId() != filtro.restauranteId())
+                    || (filtro.status() != null && !filtro.status().contains(linha.status()))
+                    || (filtro.inicio() != null && linha.dataPedido().isBefore(filtro.inicio()))
+                    || (filtro.fim() != null && !linha.dataPedido().isBefore(filtro.fim()))) {
+                continue;
+            }
+            Map<Dimensao, Long> chave = new EnumMap<>(Dimensao.class);
+            for (Dimensao dimensao : dimensoes) {
+                chave.put(dimensao, switch (dimensao) {
+                    case RESTAURANTE -> linha.restauranteId();
+                    case CLIENTE -> linha.clienteId();
+                    case STATUS -> (long) linha.status().ordinal();
+                    case DIA -> linha.dataPedido().toLocalDate().toEpochDay();
+                    case HORA -> (long) linha.dataPedido().getHour();
+                    case DIA_DA_SEMANA -> (long) linha.dataPedido().getDayOfWeek().getValue();
+                });
+            }
+            long[] total = grupos.computeIfAbsent(chave, c -> new long[2]);
+            total[0]++;
+            total[1] += new BigDecimal(linha.valor()).movePointRight(2).longValueExact();
+        }
+        return grupos;
+    }
+
+    private record Linha(long restauranteId, long clienteId, LocalDateTime dataPedido, StatusPedido status, String valor) {
+    }
+}
@@ -0,0 +1,77 @@
+package com.deliverytech.delivery_api.service.outbox;
+
+import com.deliverytech.delivery_api.dto.EventoOutboxDTO;
+import com.deliverytech.delivery_api.entity.TipoEventoPedido;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("Testes do destino HTTP do outbox")
+class HttpOutboxSinkTest {
+
+    private HttpServer servidor;
+    private final AtomicReference<String> corpoRecebido = new AtomicReference<>();
+    private final AtomicInteger statusResposta = new AtomicInteger(204);
+    private HttpOutboxSink sink;
+
+    @BeforeEach
+    void setup() throws IOException {
+        servidor = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        servidor.createContext("/eventos", troca -> {
+            try (InputStream corpo = troca.getRequestBody()) {
+                corpoRecebido.set(new String(corpo.readAllBytes(), StandardCharsets.UTF_8));
+            }
+            troca.sendResponseHeaders(statusResposta.get(), -1);
+            troca.close();
+        });
+        servidor.start();
+        sink = new HttpOutboxSink(RestClient.builder(),
+                "http://localhost:" + servidor.getAddress().getPort() + "/eventos", Duration.ofSeconds(2));
+    }
+
+    @AfterEach
+    void parar() {
+        servidor.stop(0);
+    }
+
+    @Test
+    @DisplayName("Deve enviar o lote como um array JSON, com o payload de cada evento sem reescapar")
+    void deveEnviarLoteComoArrayJson() throws Exception {
+        sink.enviar(List.of(
+                new EventoOutboxDTO(1L, TipoEventoPedido.PEDIDO_CRIADO, 10L, 0L, LocalDateTime.now(), "{\"id\":10}"),
+                new EventoOutboxDTO(2L, TipoEventoPedido.STATUS_ALTERADO, 10L, 1L, LocalDateTime.now(), "{\"status\":\"CONFIRMADO\"}")));
+
+        JsonNode lote = new ObjectMapper().readTree(corpoRecebido.get());
+        assertEquals(2, lote.size());
+        assertEquals("PEDIDO_CRIADO", lote.get(0).get("tipo").asText());
+        assertEquals(10, lote.get(0).get("payload").get("id").asInt());
+        assertEquals("CONFIRMADO", lote.get(1).get("payload").get("status").asText());
+    }
+
+    @Test
+    @DisplayName("Deve falhar quando o destino não responde 2xx, para que o lote seja tentado de novo")
+    void deveFalharComRespostaDeErro() {
+        statusResposta.set(503);
+        assertThrows(RestClientException.class, () -> sink.enviar(List.of(
+                new EventoOutboxDTO(1L, TipoEventoPedido.PEDIDO_CRIADO, 10L, 0L, LocalDateTime.now(), "{}"))));
+    }
+}
@@ -0,0 +1,151 @@
+package com.deliverytech.delivery_api.service.outbox;
+
+import com.deliverytech.delivery_api.dto.EventoOutboxDTO;
+import com.deliverytech.delivery_api.dto.ItemPedidoDTO;
+import com.deliverytech.delivery_api.dto.PedidoDTO;
+import com.deliverytech.delivery_api.dto.StatusPedidoLoteDTO;
+import com.deliverytech.delivery_api.entity.*;
+import com.deliverytech.delivery_api.repository.ClienteRepository;
+import com.deliverytech.delivery_api.repository.EventoOutboxRepository;
+import com.deliverytech.delivery_api.repository.ProdutoRepository;
+import com.deliverytech.delivery_api.repository.RestauranteRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Sem @Transactional: o relay só enxerga os eventos gravados por transações confirmadas.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Sql(scripts = "/limpar-pedidos.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@DisplayName("Testes do outbox de eventos de pedido")
+class OutboxCommitTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private ClienteRepository clienteRepository;
+    @Autowired private RestauranteRepository restauranteRepository;
+    @Autowired private ProdutoRepository produtoRepository;
+    @Autowired private EventoOutboxRepository eventoOutboxRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private PedidoDTO pedido;
+
+    @BeforeEach
+    void setup() {
+        Restaurante restaurante = new Restaurante();
+        restaurante.setAtivo(true);
+        restaurante = restauranteRepository.save(restaurante);
+        Produto produto = new Produto();
+        produto.setRestaurante(restaurante);
+        produto.setPreco(new BigDecimal("12.00"));
+        produto.setDisponivel(true);
+        produto = produtoRepository.save(produto);
+        pedido = new PedidoDTO(clienteRepository.save(new Cliente()).getId(), restaurante.getId(), "Endereço", "12345-678",
+                null, "PIX", List.of(new ItemPedidoDTO(produto.getId(), 2, null)));
+    }
+
+    @Test
+    @DisplayName("Deve gravar os eventos do pedido no outbox e entregá-los em lote, mantendo-os se o destino falhar")
+    @WithMockUser(roles = "ADMIN")
+    void deveEntregarEventosDoOutboxEmLote() throws Exception {
+        String corpo = mockMvc.perform(post("/api/pedidos").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(pedido)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        Long id = objectMapper.readTree(corpo).get("data").get("id").asLong();
+        mockMvc.perform(put("/api/pedidos/{id}/confirmar", id)).andExpect(status().isOk());
+        mockMvc.perform(patch("/api/pedidos/status").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new StatusPedidoLoteDTO(List.of(id), StatusPedido.PREPARANDO))))
+                .andExpect(status().isOk());
+
+        OutboxRelayService indisponivel = relay(eventos -> {
+            throw new IOException("destino indisponível");
+        });
+        assertThrows(IllegalStateException.class, indisponivel::processarLote);
+        List<EventoOutbox> pendentes = eventoOutboxRepository.findAll();
+        assertEquals(3, pendentes.size());
+        assertEquals(List.of(1, 0, 0), pendentes.stream().map(EventoOutbox::getTentativas).sorted(Comparator.reverseOrder()).toList());
+        assertTrue(pendentes.stream().allMatch(evento -> evento.getReservadoAte() == null));
+
+        List<EventoOutboxDTO> entregues = new ArrayList<>();
+        assertEquals(3, relay(entregues::addAll).processarLote());
+        assertEquals(List.of(TipoEventoPedido.PEDIDO_CRIADO, TipoEventoPedido.STATUS_ALTERADO, TipoEventoPedido.STATUS_ALTERADO),
+                entregues.stream().map(EventoOutboxDTO::getTipo).toList());
+        assertEquals(List.of(0L, 1L, 2L), entregues.stream().map(EventoOutboxDTO::getVersaoPedido).toList());
+        assertEquals(id, objectMapper.readTree(entregues.get(0).getPayload()).get("id").asLong());
+        JsonNode ultimo = objectMapper.readTree(entregues.get(2).getPayload());
+        assertEquals("CONFIRMADO", ultimo.get("statusAnterior").asText());
+        assertEquals("PREPARANDO", ultimo.get("status").asText());
+        assertEquals(0, eventoOutboxRepository.count());
+    }
+
+    @Test
+    @DisplayName("Deve estacionar o evento recusado até o limite de tentativas e entregar os seguintes")
+    @WithMockUser(roles = "ADMIN")
+    void deveEstacionarEventoRecusadoEEntregarOsSeguintes() throws Exception {
+        String corpo = mockMvc.perform(post("/api/pedidos").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(pedido)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        Long id = objectMapper.readTree(corpo).get("data").get("id").asLong();
+        mockMvc.perform(put("/api/pedidos/{id}/confirmar", id)).andExpect(status().isOk());
+
+        List<EventoOutboxDTO> entregues = new ArrayList<>();
+        OutboxRelayService relay = relay(eventos -> {
+            if (eventos.get(0).getTipo() == TipoEventoPedido.PEDIDO_CRIADO) {
+                throw new IOException("payload recusado");
+            }
+            entregues.addAll(eventos);
+        }, 2);
+        assertThrows(IllegalStateException.class, relay::processarLote);
+        assertEquals(0, relay.processarLote());
+        assertEquals(1, relay.processarLote());
+
+        assertEquals(List.of(TipoEventoPedido.STATUS_ALTERADO), entregues.stream().map(EventoOutboxDTO::getTipo).toList());
+        EventoOutbox estacionado = eventoOutboxRepository.findAll().get(0);
+        assertEquals(1, eventoOutboxRepository.count());
+        assertEquals(TipoEventoPedido.PEDIDO_CRIADO, estacionado.getTipo());
+        assertTrue(estacionado.isEstacionado());
+        assertEquals(2, estacionado.getTentativas());
+        assertEquals(0, relay.processarLote());
+    }
+
+    private OutboxRelayService relay(OutboxSink sink) {
+        return relay(sink, 10);
+    }
+
+    private OutboxRelayService relay(OutboxSink sink, int maxTentativas) {
+        return new OutboxRelayService(eventoOutboxRepository, sink, transactionManager, new SimpleMeterRegistry(),
+                false, Duration.ofSeconds(1), 100, Duration.ofMinutes(5), maxTentativas, Duration.ofMinutes(1));
+    }
+}
@@ -0,0 +1,60 @@
+package com.deliverytech.delivery_api.service.ranking;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Testes da árvore ordenada com posição")
+class ArvoreOrdenadaTest {
+
+    @Test
+    @DisplayName("Deve responder posições e primeiros elementos iguais aos de um TreeSet após inclusões e remoções aleatórias")
+    void deveAcompanharTreeSet() {
+        ArvoreOrdenada<Integer> arvore = new ArvoreOrdenada<>(Comparator.reverseOrder());
+        TreeSet<Integer> referencia = new TreeSet<>(Comparator.reverseOrder());
+        Random random = new Random(7);
+        for (int i = 0; i < 20_000; i++) {
+            int valor = random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(referencia.remove(valor), arvore.remover(valor));
+            } else {
+                assertEquals(referencia.add(valor), arvore.incluir(valor));
+            }
+        }
+
+        assertEquals(referencia.size(), arvore.tamanho());
+        List<Integer> ordenados = new ArrayList<>(referencia);
+        assertEquals(ordenados, arvore.primeiros(Integer.MAX_VALUE));
+        assertEquals(ordenados.subList(0, 10), arvore.primeiros(10));
+        for (int posicao = 0; posicao < ordenados.size(); posicao++) {
+            assertEquals(posicao, arvore.posicao(ordenados.get(posicao)));
+        }
+        for (int valor = 0; valor < 2_000; valor++) {
+            if (!referencia.contains(valor)) {
+                assertEquals(-1, arvore.posicao(valor));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Deve ignorar elementos repetidos e remoções de elementos ausentes")
+    void deveIgnorarRepetidosEAusentes() {
+        ArvoreOrdenada<String> arvore = new ArvoreOrdenada<>(Comparator.naturalOrder());
+        assertTrue(arvore.incluir("b"));
+        assertTrue(arvore.incluir("a"));
+        assertFalse(arvore.incluir("b"));
+        assertFalse(arvore.remover("c"));
+
+        assertEquals(List.of("a", "b"), arvore.primeiros(5));
+        assertEquals(1, arvore.posicao("b"));
+    }
+}
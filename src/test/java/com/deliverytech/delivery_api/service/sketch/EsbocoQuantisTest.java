@@ -0,0 +1,107 @@
+package com.deliverytech.delivery_api.service.sketch;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Testes do resumo de quantis")
+class EsbocoQuantisTest {
+
+    private static final double[] QUANTIS = {0, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99, 1};
+
+    @Test
+    @DisplayName("Deve estimar os quantis com erro relativo de até 1% sobre uma distribuição assimétrica")
+    void deveEstimarQuantisComErroRelativo() {
+        Random random = new Random(7);
+        double[] valores = new double[100_000];
+        EsbocoQuantis resumo = new EsbocoQuantis();
+        for (int i = 0; i < valores.length; i++) {
+            // Valores em centavos com cauda longa, como o ticket dos pedidos
+            valores[i] = Math.round(Math.exp(3.7 + 0.6 * random.nextGaussian()) * 100) / 100.0;
+            resumo.adicionar(valores[i]);
+        }
+        Arrays.sort(valores);
+
+        assertEquals(valores.length, resumo.quantidade());
+        for (double q : QUANTIS) {
+            double exato = valores[(int) Math.floor(q * (valores.length - 1))];
+            double estimado = resumo.quantil(q);
+            assertTrue(Math.abs(estimado - exato) <= exato * EsbocoQuantis.ERRO_RELATIVO,
+                    "q=" + q + ": exato " + exato + ", estimado " + estimado);
+        }
+    }
+
+    @Test
+    @DisplayName("Deve juntar os resumos diários no mesmo resumo do período e serializar sem perda")
+    void deveJuntarESerializar() {
+        Random random = new Random(3);
+        EsbocoQuantis periodo = new EsbocoQuantis();
+        EsbocoQuantis juntos = new EsbocoQuantis();
+        for (int dia = 0; dia < 30; dia++) {
+            EsbocoQuantis doDia = new EsbocoQuantis();
+            for (int i = 0; i < 200; i++) {
+                double valor = i == 0 ? 0 : random.nextInt(50_000) / 100.0;
+                doDia.adicionar(valor);
+                periodo.adicionar(valor);
+            }
+            juntos.juntar(EsbocoQuantis.desserializar(doDia.serializar()));
+        }
+
+        assertArrayEquals(periodo.serializar(), juntos.serializar());
+        assertEquals(6_000, juntos.quantidade());
+        assertEquals(0, juntos.quantil(0));
+        for (double q : QUANTIS) {
+            assertEquals(periodo.quantil(q), juntos.quantil(q));
+        }
+        assertTrue(juntos.serializar().length < 2_000, "serializado com " + juntos.serializar().length + " bytes");
+        assertEquals(0, EsbocoQuantis.desserializar(new byte[0]).quantidade());
+    }
+
+    @Test
+    @DisplayName("Deve remover valores incluídos e chegar ao resumo de quem nunca os incluiu")
+    void deveRemoverValoresIncluidos() {
+        Random random = new Random(11);
+        EsbocoQuantis comCancelados = new EsbocoQuantis();
+        EsbocoQuantis semCancelados = new EsbocoQuantis();
+        for (int i = 0; i < 5_000; i++) {
+            double valor = i % 100 == 0 ? 0 : random.nextInt(30_000) / 100.0;
+            comCancelados.adicionar(valor);
+            if (i % 3 == 0) {
+                assertTrue(comCancelados.remover(valor));
+            } else {
+                semCancelados.adicionar(valor);
+            }
+        }
+
+        assertArrayEquals(semCancelados.serializar(), comCancelados.serializar());
+        assertEquals(semCancelados.quantidade(), comCancelados.quantidade());
+
+        // Balde vazio: nada a remover, e o resumo fica como estava
+        EsbocoQuantis resumo = new EsbocoQuantis();
+        resumo.adicionar(50);
+        assertTrue(resumo.remover(50));
+        assertFalse(resumo.remover(50));
+        assertFalse(resumo.remover(0));
+        assertEquals(0, resumo.quantidade());
+        assertArrayEquals(new EsbocoQuantis().serializar(), resumo.serializar());
+    }
+
+    @Test
+    @DisplayName("Deve recusar valores negativos e consultas a um resumo vazio")
+    void deveRecusarEntradasInvalidas() {
+        EsbocoQuantis resumo = new EsbocoQuantis();
+
+        assertThrows(IllegalArgumentException.class, () -> resumo.adicionar(-1));
+        assertThrows(IllegalArgumentException.class, () -> resumo.adicionar(Double.NaN));
+        assertThrows(IllegalStateException.class, () -> resumo.quantil(0.5));
+        assertThrows(IllegalArgumentException.class, () -> EsbocoQuantis.desserializar(new byte[]{1, (byte) 0x80}));
+    }
+}
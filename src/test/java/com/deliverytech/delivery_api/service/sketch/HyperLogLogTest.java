@@ -0,0 +1,78 @@
+package com.deliverytech.delivery_api.service.sketch;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Testes do resumo HyperLogLog")
+class HyperLogLogTest {
+
+    @Test
+    @DisplayName("Deve estimar a quantidade de distintos dentro do erro esperado, de poucos a milhões de elementos")
+    void deveEstimarDistintos() {
+        for (int distintos : new int[]{1, 10, 300, 5_000, 50_000, 1_000_000}) {
+            HyperLogLog resumo = new HyperLogLog();
+            Random random = new Random(distintos);
+            for (long id = 1; id <= distintos; id++) {
+                resumo.adicionar(id);
+                if (random.nextInt(4) == 0) {
+                    resumo.adicionar(id); // repetidos não contam
+                }
+            }
+            double erro = Math.abs(resumo.estimar() - distintos) / (double) distintos;
+            // Pela contagem linear, poucos elementos saem exatos
+            double tolerancia = distintos <= 10 ? 0 : 4 * HyperLogLog.ERRO_PADRAO;
+            assertTrue(erro <= tolerancia, distintos + " distintos: estimativa " + resumo.estimar());
+        }
+        assertEquals(0, new HyperLogLog().estimar());
+    }
+
+    @Test
+    @DisplayName("Deve juntar resumos como se todos os elementos fossem incluídos em um só")
+    void deveJuntarComoUniao() {
+        HyperLogLog segunda = new HyperLogLog();
+        HyperLogLog terca = new HyperLogLog();
+        HyperLogLog semana = new HyperLogLog();
+        for (long id = 1; id <= 20_000; id++) {
+            (id % 3 == 0 ? terca : segunda).adicionar(id);
+            if (id > 15_000) {
+                terca.adicionar(id); // clientes dos dois dias
+            }
+            semana.adicionar(id);
+        }
+
+        HyperLogLog juntos = HyperLogLog.desserializar(segunda.serializar());
+        juntos.juntar(terca);
+
+        assertArrayEquals(semana.serializar(), juntos.serializar());
+        assertEquals(semana.estimar(), juntos.estimar());
+    }
+
+    @Test
+    @DisplayName("Deve serializar de forma esparsa com poucos elementos e densa com muitos, sem perder registradores")
+    void deveSerializarCompacto() {
+        HyperLogLog poucos = new HyperLogLog();
+        for (long id = 1; id <= 100; id++) {
+            poucos.adicionar(id);
+        }
+        HyperLogLog muitos = new HyperLogLog();
+        for (long id = 1; id <= 100_000; id++) {
+            muitos.adicionar(id);
+        }
+
+        byte[] esparso = poucos.serializar();
+        byte[] denso = muitos.serializar();
+        assertTrue(esparso.length <= 1 + 100 * 3, "esparso com " + esparso.length + " bytes");
+        assertEquals(HyperLogLog.REGISTRADORES + 1, denso.length);
+        assertEquals(poucos.estimar(), HyperLogLog.desserializar(esparso).estimar());
+        assertArrayEquals(denso, HyperLogLog.desserializar(denso).serializar());
+        assertEquals(0, HyperLogLog.desserializar(new byte[0]).estimar());
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.desserializar(new byte[]{9, 1, 2}));
+    }
+}
@@ -0,0 +1,103 @@
+package com.deliverytech.delivery_api.service.sketch;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Testes do resumo Space-Saving")
+class SpaceSavingTest {
+
+    @Test
+    @DisplayName("Deve manter as garantias de erro e acertar os mais frequentes de um fluxo assimétrico")
+    void deveAproximarContagensExatas() {
+        int capacidade = 200;
+        SpaceSaving<Long> resumo = new SpaceSaving<>(capacidade);
+        Map<Long, Long> exatas = new HashMap<>();
+        double[] acumulada = zipf(5000, 1.2);
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            long item = sortear(acumulada, random);
+            long peso = 1 + random.nextInt(3); // itens com quantidade 1 a 3
+            resumo.adicionar(item, peso);
+            exatas.merge(item, peso, Long::sum);
+        }
+
+        long total = exatas.values().stream().mapToLong(Long::longValue).sum();
+        assertEquals(total, resumo.total());
+        List<SpaceSaving.Estimativa<Long>> monitorados = resumo.maisFrequentes(capacidade);
+        assertEquals(capacidade, monitorados.size());
+        for (SpaceSaving.Estimativa<Long> estimativa : monitorados) {
+            long exata = exatas.get(estimativa.item());
+            assertTrue(estimativa.contagem() - estimativa.erro() <= exata && exata <= estimativa.contagem(),
+                    "item " + estimativa.item() + ": exata " + exata + ", estimativa " + estimativa);
+        }
+        // Todo item com contagem real acima de total / capacidade está monitorado
+        Map<Long, SpaceSaving.Estimativa<Long>> porItem = monitorados.stream()
+                .collect(Collectors.toMap(SpaceSaving.Estimativa::item, Function.identity()));
+        exatas.forEach((item, exata) -> assertTrue(exata <= total / capacidade || porItem.containsKey(item),
+                "item frequente fora do resumo: " + item));
+
+        List<Long> dezMaisExatos = exatas.entrySet().stream()
+                .sorted(Map.Entry.<Long, Long>comparingByValue(Comparator.reverseOrder()))
+                .limit(10).map(Map.Entry::getKey).toList();
+        assertEquals(dezMaisExatos, resumo.maisFrequentes(10).stream().map(SpaceSaving.Estimativa::item).toList());
+    }
+
+    @Test
+    @DisplayName("Deve contar exatamente, com remoções, enquanto couber todos os itens")
+    void deveSerExatoAbaixoDaCapacidade() {
+        SpaceSaving<Long> resumo = new SpaceSaving<>(3);
+        resumo.adicionar(1L, 5);
+        resumo.adicionar(2L, 7);
+        resumo.adicionar(3L, 2);
+        resumo.adicionar(1L, 4);
+        resumo.remover(2L, 7);
+        resumo.remover(9L, 1); // não monitorado: só o total muda
+
+        assertEquals(List.of(new SpaceSaving.Estimativa<>(1L, 9, 0), new SpaceSaving.Estimativa<>(3L, 2, 0)),
+                resumo.maisFrequentes(5));
+        assertEquals(10, resumo.total());
+    }
+
+    @Test
+    @DisplayName("Deve substituir o item de menor contagem e herdar a contagem dele como erro")
+    void deveSubstituirMenorContagem() {
+        SpaceSaving<Long> resumo = new SpaceSaving<>(2);
+        resumo.adicionar(1L, 10);
+        resumo.adicionar(2L, 3);
+        resumo.adicionar(3L, 1);
+
+        assertEquals(List.of(new SpaceSaving.Estimativa<>(1L, 10, 0), new SpaceSaving.Estimativa<>(3L, 4, 3)),
+                resumo.maisFrequentes(2));
+    }
+
+    // Distribuição acumulada de Zipf com expoente s sobre os itens 1..n
+    private static double[] zipf(int n, double s) {
+        double[] acumulada = new double[n];
+        double soma = 0;
+        for (int i = 0; i < n; i++) {
+            soma += 1 / Math.pow(i + 1, s);
+            acumulada[i] = soma;
+        }
+        for (int i = 0; i < n; i++) {
+            acumulada[i] /= soma;
+        }
+        return acumulada;
+    }
+
+    private static long sortear(double[] acumulada, Random random) {
+        int posicao = Arrays.binarySearch(acumulada, random.nextDouble());
+        return (posicao >= 0 ? posicao : -posicao - 1) + 1;
+    }
+}
@@ -0,0 +1,12 @@
+-- Limpeza dos testes que gravam pedidos com commit (sem @Transactional), na ordem das chaves estrangeiras
+DELETE FROM evento_outbox;
+DELETE FROM vendas_restaurante;
+DELETE FROM rollup_pedidos;
+DELETE FROM metricas_pedidos_dia;
+DELETE FROM item_pedido_arquivado;
+DELETE FROM pedido_arquivado;
+DELETE FROM item_pedido;
+DELETE FROM pedido;
+DELETE FROM produto;
+DELETE FROM cliente;
+DELETE FROM restaurante;